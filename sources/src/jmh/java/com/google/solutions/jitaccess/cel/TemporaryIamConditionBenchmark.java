@@ -0,0 +1,69 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.cel;
+
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.util.Timestamps;
+import dev.cel.common.CelException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TemporaryIamConditionBenchmark {
+  private String expression;
+  private Timestamp time;
+
+  @Setup
+  public void setup() {
+    this.expression = new TemporaryIamCondition(
+        Instant.now().minus(Duration.ofMinutes(5)),
+        Duration.ofMinutes(10))
+        .toString();
+    this.time = Timestamps.now();
+  }
+
+  /**
+   * Parse and evaluate a condition, as done for each binding.
+   */
+  @Benchmark
+  public Boolean parseAndEvaluate() throws CelException {
+    return new TemporaryIamCondition(this.expression).evaluate(this.time);
+  }
+
+  /**
+   * Evaluate the same condition using the generic CEL evaluator.
+   */
+  @Benchmark
+  public Boolean evaluateUsingCel() throws CelException {
+    return new IamCondition(this.expression).evaluate(this.time);
+  }
+
+  @Benchmark
+  public TimeSpan parseAndGetValidity() {
+    return new TemporaryIamCondition(this.expression).getValidity();
+  }
+}
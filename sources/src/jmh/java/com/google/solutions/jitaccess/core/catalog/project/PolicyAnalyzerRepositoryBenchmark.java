@@ -0,0 +1,103 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.cloudasset.v1.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PolicyAnalyzerRepositoryBenchmark {
+  /**
+   * Number of ACLs in the synthetic analysis result.
+   */
+  @Param({"1000", "10000", "100000"})
+  public int aclCount;
+
+  /**
+   * Number of ACLs per analysis result (i.e., per binding).
+   */
+  private static final int ACLS_PER_RESULT = 10;
+
+  private static final String[] CONDITIONS = {
+      "has({}.jitAccessConstraint)",
+      "has({}.multiPartyApprovalConstraint)",
+      "(request.time >= timestamp(\"2020-01-01T00:00:00Z\") && request.time < timestamp(\"2020-01-01T00:05:00Z\"))"
+  };
+
+  private IamPolicyAnalysis analysis;
+
+  @Setup
+  public void setup() {
+    var results = new ArrayList<IamPolicyAnalysisResult>();
+    for (int i = 0; i < this.aclCount / ACLS_PER_RESULT; i++) {
+      var condition = (i % 4 == 0)
+          ? null
+          : new Expr()
+            .setTitle(i % 4 == 3 ? PrivilegeFactory.ACTIVATION_CONDITION_TITLE : "Eligible")
+            .setExpression(CONDITIONS[i % 4 - 1]);
+
+      var acls = new ArrayList<GoogleCloudAssetV1AccessControlList>();
+      for (int j = 0; j < ACLS_PER_RESULT; j++) {
+        acls.add(new GoogleCloudAssetV1AccessControlList()
+            .setResources(List.of(new GoogleCloudAssetV1Resource()
+                .setFullResourceName(String.format(
+                    "//cloudresourcemanager.googleapis.com/projects/project-%d", i * ACLS_PER_RESULT + j))))
+            .setConditionEvaluation(new ConditionEvaluation()
+                .setEvaluationValue(j % 2 == 0 ? "TRUE" : "CONDITIONAL")));
+      }
+
+      results.add(new IamPolicyAnalysisResult()
+          .setAttachedResourceFullName("//cloudresourcemanager.googleapis.com/folders/1")
+          .setIamBinding(new Binding()
+              .setRole(String.format("roles/role-%d", i % 50))
+              .setMembers(List.of("user:user@example.com"))
+              .setCondition(condition))
+          .setAccessControlLists(acls));
+    }
+
+    this.analysis = new IamPolicyAnalysis().setAnalysisResults(results);
+  }
+
+  @Benchmark
+  public List<?> findEligibleRoleBindings() {
+    return PolicyAnalyzerRepository.findRoleBindings(
+        this.analysis,
+        condition -> condition == null || PrivilegeFactory.classify(condition).isRequesterPrivilege(),
+        evalResult -> evalResult == null ||
+            "TRUE".equalsIgnoreCase(evalResult) ||
+            "CONDITIONAL".equalsIgnoreCase(evalResult));
+  }
+
+  @Benchmark
+  public List<?> findActivatedRoleBindings() {
+    return PolicyAnalyzerRepository.findRoleBindings(
+        this.analysis,
+        condition -> PrivilegeFactory.isActivated(condition),
+        evalResult -> "TRUE".equalsIgnoreCase(evalResult));
+  }
+}
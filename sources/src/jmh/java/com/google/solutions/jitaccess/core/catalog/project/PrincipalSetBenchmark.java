@@ -0,0 +1,82 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.cloudasset.v1.model.Binding;
+import com.google.solutions.jitaccess.core.GroupEmail;
+import com.google.solutions.jitaccess.core.UserEmail;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PrincipalSetBenchmark {
+  /**
+   * Number of groups the user is a member of.
+   */
+  @Param({"0", "10", "100"})
+  public int groupCount;
+
+  /**
+   * Number of members of the binding.
+   */
+  @Param({"1", "10", "100"})
+  public int memberCount;
+
+  private AssetInventoryRepository.PrincipalSet principalSet;
+  private Binding matchingBinding;
+  private Binding nonMatchingBinding;
+
+  @Setup
+  public void setup() {
+    this.principalSet = new AssetInventoryRepository.PrincipalSet(
+        new UserEmail("user@example.com"),
+        IntStream.range(0, this.groupCount)
+            .mapToObj(i -> new GroupEmail(String.format("group-%d@example.com", i)))
+            .collect(Collectors.toList()));
+
+    var members = new ArrayList<String>();
+    for (int i = 0; i < this.memberCount; i++) {
+      members.add(String.format("user:other-%d@example.com", i));
+    }
+
+    this.nonMatchingBinding = new Binding().setMembers(new ArrayList<>(members));
+
+    members.set(members.size() - 1, "user:user@example.com");
+    this.matchingBinding = new Binding().setMembers(members);
+  }
+
+  @Benchmark
+  public boolean isMemberOfMatchingBinding() {
+    return this.principalSet.isMember(this.matchingBinding);
+  }
+
+  @Benchmark
+  public boolean isMemberOfNonMatchingBinding() {
+    return this.principalSet.isMember(this.nonMatchingBinding);
+  }
+}
@@ -0,0 +1,64 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.cloudasset.v1.model.Expr;
+import com.google.solutions.jitaccess.core.ProjectId;
+import com.google.solutions.jitaccess.core.RoleBinding;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PrivilegeFactoryBenchmark {
+  private static final ProjectRoleBinding ROLE_BINDING =
+      new ProjectRoleBinding(new RoleBinding(new ProjectId("project-1"), "roles/browser"));
+
+  @Param({
+      "has({}.jitAccessConstraint)",
+      "has({}.multiPartyApprovalConstraint.topic)",
+      "has({}.externalApprovalConstraint.topic)",
+      "has({}.reviewerPrivilege.topic)",
+      "(request.time >= timestamp(\"2020-01-01T00:00:00Z\") && request.time < timestamp(\"2020-01-01T00:05:00Z\"))"
+  })
+  public String expression;
+
+  private Expr condition;
+
+  @Setup
+  public void setup() {
+    this.condition = new Expr().setExpression(this.expression);
+  }
+
+  @Benchmark
+  public void createRequesterPrivilege(Blackhole blackhole) {
+    blackhole.consume(PrivilegeFactory.createRequesterPrivilege(ROLE_BINDING, this.condition));
+  }
+
+  @Benchmark
+  public void createReviewerPrivilege(Blackhole blackhole) {
+    blackhole.consume(PrivilegeFactory.createReviewerPrivilege(ROLE_BINDING, this.condition));
+  }
+}
@@ -0,0 +1,83 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.client.json.webtoken.JsonWebToken;
+import com.google.solutions.jitaccess.core.ProjectId;
+import com.google.solutions.jitaccess.core.RoleBinding;
+import com.google.solutions.jitaccess.core.UserEmail;
+import com.google.solutions.jitaccess.core.catalog.ActivationRequest;
+import com.google.solutions.jitaccess.core.catalog.JsonWebTokenConverter;
+import com.google.solutions.jitaccess.core.catalog.JustificationPolicy;
+import com.google.solutions.jitaccess.core.catalog.PeerApproval;
+import com.google.solutions.jitaccess.core.catalog.RequesterPrivilege;
+import com.google.solutions.jitaccess.core.catalog.RequesterPrivilegeCatalog;
+import com.google.solutions.jitaccess.core.clients.ResourceManagerClient;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenConverterBenchmark {
+  private JsonWebTokenConverter<ActivationRequest<ProjectRoleBinding>> converter;
+  private ActivationRequest<ProjectRoleBinding> request;
+  private JsonWebToken.Payload payload;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setup() throws Exception {
+    var activator = new ProjectRoleActivator(
+        Mockito.mock(RequesterPrivilegeCatalog.class),
+        Mockito.mock(ResourceManagerClient.class),
+        Mockito.mock(JustificationPolicy.class));
+
+    this.converter = activator.createTokenConverter();
+    this.request = activator.createActivationRequest(
+        new UserEmail("user@example.com"),
+        Set.of(new UserEmail("reviewer-1@example.com"), new UserEmail("reviewer-2@example.com")),
+        new RequesterPrivilege<>(
+            new ProjectRoleBinding(new RoleBinding(new ProjectId("project-1"), "roles/compute.admin")),
+            "roles/compute.admin",
+            new PeerApproval("topic"),
+            RequesterPrivilege.Status.INACTIVE),
+        "Investigating incident #1234",
+        Instant.now(),
+        Duration.ofHours(1));
+    this.payload = this.converter.convert(this.request);
+  }
+
+  @Benchmark
+  public JsonWebToken.Payload convertToPayload() {
+    return this.converter.convert(this.request);
+  }
+
+  @Benchmark
+  public ActivationRequest<ProjectRoleBinding> convertFromPayload() {
+    return this.converter.convert(this.payload);
+  }
+}
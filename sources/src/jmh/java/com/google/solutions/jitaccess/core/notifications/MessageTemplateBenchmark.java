@@ -0,0 +1,78 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.notifications;
+
+import com.google.common.html.HtmlEscapers;
+import com.google.solutions.jitaccess.core.UserEmail;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageTemplateBenchmark {
+  private MailNotificationService.MessageTemplate template;
+  private NotificationService.Notification notification;
+
+  private static class SampleNotification extends NotificationService.Notification {
+    SampleNotification() {
+      super(
+          List.of(new UserEmail("reviewer@example.com")),
+          List.of(new UserEmail("user@example.com")),
+          "Sample notification");
+
+      var now = Instant.now();
+      this.properties.put("BENEFICIARY", new UserEmail("user@example.com"));
+      this.properties.put("PROJECT_ID", "project-1");
+      this.properties.put("ROLE", "roles/compute.admin");
+      this.properties.put("START_TIME", now);
+      this.properties.put("END_TIME", now.plusSeconds(3600));
+      this.properties.put("REQUEST_EXPIRY_TIME", now.plusSeconds(600));
+      this.properties.put("JUSTIFICATION", "Investigating <b>incident</b> #1234 & more");
+      this.properties.put("BASE_URL", "https://example.com/");
+      this.properties.put("ACTION_URL", "https://example.com/?activation=abc");
+    }
+
+    @Override
+    public String getType() {
+      return "RequestActivation";
+    }
+  }
+
+  @Setup
+  public void setup() throws Exception {
+    this.template = new MailNotificationService.MessageTemplate(
+        MailNotificationService.loadResource("notifications/RequestActivation.html"),
+        ZoneId.of("Europe/Berlin"),
+        HtmlEscapers.htmlEscaper());
+    this.notification = new SampleNotification();
+  }
+
+  @Benchmark
+  public String format() {
+    return this.template.format(this.notification);
+  }
+}
@@ -23,6 +23,9 @@ package com.google.solutions.jitaccess.cel;
 
 import com.google.api.client.json.GenericJson;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.protobuf.Timestamp;
 import com.google.protobuf.util.Timestamps;
 import dev.cel.common.CelException;
@@ -51,6 +54,22 @@ public class IamCondition implements CelExpression<Boolean> {
       .standardCelRuntimeBuilder()
       .build();
 
+  /**
+   * Maximum number of compiled programs to keep.
+   */
+  static final int PROGRAM_CACHE_SIZE = 1000;
+
+  /**
+   * Compiled programs, keyed by expression. Compiling an expression
+   * is expensive, but programs are immutable and thread-safe, so we
+   * can reuse them across conditions that use the same expression.
+   */
+  private static final Cache<String, CelRuntime.Program> PROGRAMS =
+    CacheBuilder.newBuilder()
+      .maximumSize(PROGRAM_CACHE_SIZE)
+      .recordStats()
+      .build();
+
   protected final @NotNull String condition;
 
   public IamCondition(@NotNull String condition) {
@@ -58,6 +77,31 @@ public class IamCondition implements CelExpression<Boolean> {
     this.condition = condition;
   }
 
+  /**
+   * Get statistics for the cache of compiled programs.
+   */
+  public static @NotNull CacheStats getProgramCacheStats() {
+    return PROGRAMS.stats();
+  }
+
+  /**
+   * Get compiled program for an expression, compiling it if necessary.
+   */
+  static @NotNull CelRuntime.Program compile(@NotNull String expression) throws CelException {
+    var program = PROGRAMS.getIfPresent(expression);
+    if (program == null) {
+      //
+      // Compile the expression. If multiple threads compile the same
+      // expression concurrently, the last one wins, which is benign.
+      //
+      var ast = COMPILER.compile(expression).getAst();
+      program = CEL_RUNTIME.createProgram(ast);
+      PROGRAMS.put(expression, program);
+    }
+
+    return program;
+  }
+
   //---------------------------------------------------------------------------
   // Overrides.
   //---------------------------------------------------------------------------
@@ -90,9 +134,7 @@ public class IamCondition implements CelExpression<Boolean> {
     var request = new GenericJson()
       .set("time", time);
 
-    var ast = COMPILER.compile(this.condition).getAst();
-    return (Boolean)CEL_RUNTIME
-      .createProgram(ast)
+    return (Boolean)compile(this.condition)
       .eval(Map.of("request", request));
   }
 }
@@ -21,6 +21,7 @@
 
 package com.google.solutions.jitaccess.cel;
 
+import com.google.protobuf.Timestamp;
 import dev.cel.common.CelException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -44,6 +45,18 @@ public class TemporaryIamCondition extends IamCondition {
 
   private static final Pattern CONDITION = Pattern.compile(CONDITION_PATTERN);
 
+  /**
+   * Indicates whether the condition follows the template.
+   */
+  private final boolean isTemporaryAccessCondition;
+
+  /**
+   * Validity parsed from the condition, or null if the condition
+   * doesn't follow the template or contains timestamps that we
+   * can't parse ourselves.
+   */
+  private final @Nullable TimeSpan validity;
+
   // ---------------------------------------------------------------------------
   // Constructors.
   // ---------------------------------------------------------------------------
@@ -53,6 +66,9 @@ public class TemporaryIamCondition extends IamCondition {
         CONDITION_TEMPLATE,
         startTime.atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE_TIME),
         endTime.atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE_TIME)));
+
+    this.isTemporaryAccessCondition = true;
+    this.validity = parseValidity(this.condition);
   }
 
   public TemporaryIamCondition(@NotNull Instant startTime, @NotNull Duration duration) {
@@ -61,6 +77,34 @@ public class TemporaryIamCondition extends IamCondition {
 
   public TemporaryIamCondition(@NotNull String condition) {
     super(condition);
+
+    this.isTemporaryAccessCondition = isTemporaryAccessCondition(condition);
+    this.validity = this.isTemporaryAccessCondition
+        ? parseValidity(condition)
+        : null;
+  }
+
+  /**
+   * Parse the start and end time from a condition that follows
+   * the template.
+   *
+   * @return validity, or null if the timestamps can't be parsed.
+   */
+  private static @Nullable TimeSpan parseValidity(@NotNull String condition) {
+    var matcher = CONDITION.matcher(condition);
+    if (matcher.find()) {
+      try {
+        var start = Instant.parse(matcher.group(1));
+        var end = Instant.parse(matcher.group(2));
+
+        if (!start.isAfter(end)) {
+          return new TimeSpan(start, end);
+        }
+      } catch (DateTimeParseException ignored) {
+      }
+    }
+
+    return null;
   }
 
   // ---------------------------------------------------------------------------
@@ -68,17 +112,11 @@ public class TemporaryIamCondition extends IamCondition {
   // ---------------------------------------------------------------------------
 
   public @NotNull TimeSpan getValidity() {
-    var matcher = CONDITION.matcher(this.condition);
-    if (matcher.find()) {
-      try {
-        return new TimeSpan(
-            Instant.parse(matcher.group(1)),
-            Instant.parse(matcher.group(2)));
-      } catch (DateTimeParseException ignored) {
-      }
+    if (this.validity == null) {
+      throw new IllegalArgumentException("Condition is not a temporary IAM condition");
     }
 
-    throw new IllegalArgumentException("Condition is not a temporary IAM condition");
+    return this.validity;
   }
 
   /**
@@ -94,6 +132,31 @@ public class TemporaryIamCondition extends IamCondition {
 
   @Override
   public Boolean evaluate() throws CelException {
-    return isTemporaryAccessCondition(this.condition) && super.evaluate();
+    if (!this.isTemporaryAccessCondition) {
+      return false;
+    } else if (this.validity != null) {
+      return isValid(Instant.now());
+    } else {
+      return super.evaluate();
+    }
+  }
+
+  @Override
+  Boolean evaluate(Timestamp time) throws CelException {
+    if (this.validity != null) {
+      //
+      // The condition follows the template and we know its validity,
+      // so we can evaluate it without involving the CEL runtime.
+      //
+      return isValid(Instant.ofEpochSecond(time.getSeconds(), time.getNanos()));
+    } else {
+      return super.evaluate(time);
+    }
+  }
+
+  private boolean isValid(@NotNull Instant time) {
+    assert this.validity != null;
+
+    return !time.isBefore(this.validity.start()) && time.isBefore(this.validity.end());
   }
 }
@@ -0,0 +1,88 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Keeps track of the state of activation requests.
+ *
+ * Activation requests are self-contained tokens, so the store isn't
+ * the source of truth for requests. But it lets us determine the
+ * status of a request without consulting the resource's IAM policy,
+ * and lets us detect requests that have been approved already.
+ */
+public interface ActivationStateStore {
+  /**
+   * Get the state of an activation request.
+   *
+   * @return state, or empty if the request is unknown or has expired.
+   */
+  @NotNull Optional<State> getState(@NotNull ActivationId id);
+
+  /**
+   * Advance the state of an activation request. The operation only
+   * succeeds if the request is unknown or in an earlier state.
+   *
+   * @param expiry time after which the state can be discarded.
+   * @return true if the state was changed, false otherwise.
+   */
+  boolean advanceState(
+      @NotNull ActivationId id,
+      @NotNull State state,
+      @NotNull Instant expiry) throws IOException;
+
+  /**
+   * Set the state of an activation request, regardless of its
+   * current state.
+   *
+   * @param expiry time after which the state can be discarded.
+   */
+  void setState(
+      @NotNull ActivationId id,
+      @NotNull State state,
+      @NotNull Instant expiry) throws IOException;
+
+  /**
+   * State of an activation request, in chronological order.
+   */
+  enum State {
+    /**
+     * Request has been created, but hasn't been approved yet.
+     */
+    PENDING,
+
+    /**
+     * Request has been approved and access is being provisioned.
+     */
+    APPROVED,
+
+    /**
+     * Request has been approved and access has been provisioned.
+     */
+    PROVISIONED
+  }
+}
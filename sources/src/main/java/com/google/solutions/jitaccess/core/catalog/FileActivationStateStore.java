@@ -0,0 +1,206 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Activation state store that keeps all state in memory, but persists
+ * all changes to an append-only file so that they survive restarts.
+ *
+ * Each line of the file records one state change. When the store is
+ * opened, and periodically afterwards, the file is compacted by
+ * discarding expired and superseded entries.
+ */
+public class FileActivationStateStore extends InMemoryActivationStateStore implements Closeable {
+  private static final String SEPARATOR = "\t";
+
+  private final @NotNull Path file;
+
+  /**
+   * Entries as persisted in the file, guarded by lock. These can differ
+   * from the entries of the base class while an update is in progress.
+   */
+  private final @NotNull Map<ActivationId, Entry> persistedEntries = new HashMap<>();
+  private final @NotNull Object lock = new Object();
+  private @NotNull BufferedWriter writer;
+  private int appendsSinceCompaction = 0;
+  private boolean closed = false;
+
+  public FileActivationStateStore(@NotNull Path file) throws IOException {
+    Preconditions.checkNotNull(file, "file");
+
+    this.file = file;
+
+    //
+    // Replay existing changes. Later lines supersede earlier ones.
+    //
+    if (Files.exists(file)) {
+      for (var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+        var parts = line.split(SEPARATOR);
+        if (parts.length != 3) {
+          //
+          // Ignore malformed lines, these might be caused by a crash
+          // while we were writing to the file.
+          //
+          continue;
+        }
+
+        try {
+          var id = new ActivationId(parts[0]);
+          var entry = new Entry(State.valueOf(parts[1]), Instant.ofEpochSecond(Long.parseLong(parts[2])));
+
+          loadEntry(id, entry);
+          this.persistedEntries.put(id, entry);
+        } catch (IllegalArgumentException ignored) {
+        }
+      }
+    }
+
+    var now = Instant.now();
+    super.purgeExpiredEntries(now);
+
+    synchronized (this.lock) {
+      this.writer = compact(now);
+    }
+  }
+
+  private static void writeEntry(
+      @NotNull BufferedWriter writer,
+      @NotNull ActivationId id,
+      @NotNull Entry entry) throws IOException {
+    writer.write(id.id());
+    writer.write(SEPARATOR);
+    writer.write(entry.state().name());
+    writer.write(SEPARATOR);
+    writer.write(Long.toString(entry.expiry().getEpochSecond()));
+    writer.newLine();
+  }
+
+  /**
+   * Rewrite the file so that it only contains current entries.
+   * Must be called while holding the lock.
+   *
+   * @return writer for appending to the compacted file.
+   */
+  private @NotNull BufferedWriter compact(@NotNull Instant now) throws IOException {
+    assert Thread.holdsLock(this.lock);
+
+    this.persistedEntries.values().removeIf(e -> e.isExpired(now));
+
+    //
+    // Write current entries to a temporary file and move it into place.
+    // The writer stays open and, after the move, appends to the new file.
+    //
+    var compactedFile = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+    var compactedWriter = Files.newBufferedWriter(compactedFile, StandardCharsets.UTF_8);
+    try {
+      for (var entry : this.persistedEntries.entrySet()) {
+        writeEntry(compactedWriter, entry.getKey(), entry.getValue());
+      }
+      compactedWriter.flush();
+
+      Files.move(
+          compactedFile,
+          this.file,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      compactedWriter.close();
+      throw e;
+    }
+
+    this.appendsSinceCompaction = 0;
+    return compactedWriter;
+  }
+
+  /**
+   * Get the path of the backing file.
+   */
+  public @NotNull Path getFile() {
+    return this.file;
+  }
+
+  // -------------------------------------------------------------------------
+  // Overrides.
+  // -------------------------------------------------------------------------
+
+  @Override
+  protected void onEntryChanged(
+      @NotNull ActivationId id,
+      @NotNull Entry entry) throws IOException {
+    synchronized (this.lock) {
+      writeEntry(this.writer, id, entry);
+      this.writer.flush();
+
+      this.persistedEntries.put(id, entry);
+      this.appendsSinceCompaction++;
+    }
+  }
+
+  @Override
+  protected void purgeExpiredEntries(@NotNull Instant now) {
+    super.purgeExpiredEntries(now);
+
+    synchronized (this.lock) {
+      if (this.closed || this.appendsSinceCompaction < this.persistedEntries.size()) {
+        //
+        // Most lines are still current, compacting wouldn't
+        // shrink the file by much.
+        //
+        return;
+      }
+
+      try {
+        var compactedWriter = compact(now);
+        this.writer.close();
+        this.writer = compactedWriter;
+      } catch (IOException ignored) {
+        //
+        // The file is still consistent, it's just larger than
+        // necessary. We'll try again on the next purge.
+        //
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (this.lock) {
+      this.closed = true;
+      this.writer.close();
+    }
+  }
+}
@@ -0,0 +1,182 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Activation state store that keeps all state in memory.
+ */
+public class InMemoryActivationStateStore implements ActivationStateStore {
+  /**
+   * Number of updates after which we purge expired entries.
+   */
+  private static final int PURGE_INTERVAL = 1000;
+
+  private final @NotNull Map<ActivationId, Entry> entries = new ConcurrentHashMap<>();
+  private final @NotNull AtomicInteger updatesSincePurge = new AtomicInteger();
+
+  /**
+   * Update an entry.
+   *
+   * @param onlyAdvance only update the entry if the new state
+   *                    comes after the current state.
+   * @return true if the entry was changed.
+   */
+  private boolean update(
+      @NotNull ActivationId id,
+      @NotNull State state,
+      @NotNull Instant expiry,
+      boolean onlyAdvance) throws IOException {
+    Preconditions.checkNotNull(id, "id");
+    Preconditions.checkNotNull(state, "state");
+    Preconditions.checkNotNull(expiry, "expiry");
+
+    var now = Instant.now();
+    var changed = new boolean[] { false };
+
+    try {
+      this.entries.compute(id, (key, current) -> {
+        if (onlyAdvance &&
+            current != null &&
+            !current.isExpired(now) &&
+            current.state.compareTo(state) >= 0) {
+          //
+          // Already in the same or a later state, leave as is.
+          //
+          return current;
+        }
+
+        var entry = new Entry(state, expiry);
+        try {
+          onEntryChanged(id, entry);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+
+        changed[0] = true;
+        return entry;
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    if (this.updatesSincePurge.incrementAndGet() >= PURGE_INTERVAL) {
+      this.updatesSincePurge.set(0);
+      purgeExpiredEntries(now);
+    }
+
+    return changed[0];
+  }
+
+  /**
+   * Remove all entries that have expired.
+   */
+  protected void purgeExpiredEntries(@NotNull Instant now) {
+    this.entries.values().removeIf(e -> e.isExpired(now));
+  }
+
+  /**
+   * Load an entry without notifying subclasses.
+   */
+  protected void loadEntry(@NotNull ActivationId id, @NotNull Entry entry) {
+    this.entries.put(id, entry);
+  }
+
+  /**
+   * Get all entries.
+   */
+  protected @NotNull Map<ActivationId, Entry> entries() {
+    return this.entries;
+  }
+
+  /**
+   * Invoked whenever an entry has been changed, allows subclasses
+   * to persist the change.
+   */
+  protected void onEntryChanged(
+      @NotNull ActivationId id,
+      @NotNull Entry entry) throws IOException {
+  }
+
+  // -------------------------------------------------------------------------
+  // ActivationStateStore.
+  // -------------------------------------------------------------------------
+
+  @Override
+  public @NotNull Optional<State> getState(@NotNull ActivationId id) {
+    Preconditions.checkNotNull(id, "id");
+
+    var entry = this.entries.get(id);
+    if (entry == null || entry.isExpired(Instant.now())) {
+      return Optional.empty();
+    }
+
+    return Optional.of(entry.state);
+  }
+
+  @Override
+  public boolean advanceState(
+      @NotNull ActivationId id,
+      @NotNull State state,
+      @NotNull Instant expiry) throws IOException {
+    return update(id, state, expiry, true);
+  }
+
+  @Override
+  public void setState(
+      @NotNull ActivationId id,
+      @NotNull State state,
+      @NotNull Instant expiry) throws IOException {
+    update(id, state, expiry, false);
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  /**
+   * @param state state of the request
+   * @param expiry time after which the entry can be discarded
+   */
+  protected record Entry(
+      @NotNull State state,
+      @NotNull Instant expiry) {
+    public Entry {
+      Preconditions.checkNotNull(state, "state");
+      Preconditions.checkNotNull(expiry, "expiry");
+    }
+
+    boolean isExpired(@NotNull Instant now) {
+      return !this.expiry.isAfter(now);
+    }
+  }
+}
@@ -33,6 +33,10 @@ import org.jetbrains.annotations.NotNull;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -41,15 +45,25 @@ import java.util.Set;
 public abstract class RequesterPrivilegeActivator<TPrivilegeId extends PrivilegeId> {
   private final @NotNull JustificationPolicy policy;
   private final @NotNull RequesterPrivilegeCatalog<TPrivilegeId> catalog;
+  private final @NotNull ActivationStateStore stateStore;
 
   protected RequesterPrivilegeActivator(
       @NotNull RequesterPrivilegeCatalog<TPrivilegeId> catalog,
-      @NotNull JustificationPolicy policy) {
+      @NotNull JustificationPolicy policy,
+      @NotNull ActivationStateStore stateStore) {
     Preconditions.checkNotNull(catalog, "catalog");
     Preconditions.checkNotNull(policy, "policy");
+    Preconditions.checkNotNull(stateStore, "stateStore");
 
     this.catalog = catalog;
     this.policy = policy;
+    this.stateStore = stateStore;
+  }
+
+  protected RequesterPrivilegeActivator(
+      @NotNull RequesterPrivilegeCatalog<TPrivilegeId> catalog,
+      @NotNull JustificationPolicy policy) {
+    this(catalog, policy, new InMemoryActivationStateStore());
   }
 
   /**
@@ -77,9 +91,62 @@ public abstract class RequesterPrivilegeActivator<TPrivilegeId extends Privilege
         duration);
 
     this.catalog.verifyUserCanRequest(request);
+    this.stateStore.advanceState(request.id(), ActivationStateStore.State.PENDING, request.endTime());
+
     return request;
   }
 
+  /**
+   * Create new requests to activate multiple privileges at once. All
+   * requests share the same reviewers, justification, and time frame.
+   */
+  public final @NotNull List<ActivationRequest<TPrivilegeId>> createActivationRequests(
+      UserEmail requestingUser,
+      Set<UserEmail> reviewers,
+      @NotNull Collection<RequesterPrivilege<TPrivilegeId>> requesterPrivileges,
+      String justification,
+      @NotNull Instant startTime,
+      Duration duration) throws AccessException, IOException {
+    Preconditions.checkNotNull(requesterPrivileges, "requesterPrivileges");
+    Preconditions.checkArgument(!requesterPrivileges.isEmpty(), "requesterPrivileges");
+    Preconditions.checkArgument(
+        startTime.isAfter(Instant.now().minus(Duration.ofMinutes(1))),
+        "Start time must not be in the past");
+
+    var requests = new ArrayList<ActivationRequest<TPrivilegeId>>();
+    for (var requesterPrivilege : requesterPrivileges) {
+      requests.add(new ActivationRequest<TPrivilegeId>(
+          ActivationId.newId(requesterPrivilege.activationType()),
+          requestingUser,
+          reviewers,
+          requesterPrivilege.id(),
+          requesterPrivilege.activationType(),
+          justification,
+          startTime,
+          duration));
+    }
+
+    this.catalog.verifyUserCanRequestAll(requests);
+
+    for (var request : requests) {
+      this.stateStore.advanceState(request.id(), ActivationStateStore.State.PENDING, request.endTime());
+    }
+
+    return requests;
+  }
+
+  /**
+   * Get the state of an activation request.
+   *
+   * @return state, or empty if the request is unknown or has expired.
+   */
+  public final @NotNull Optional<ActivationStateStore.State> getActivationState(
+      @NotNull ActivationRequest<TPrivilegeId> request) {
+    Preconditions.checkNotNull(request, "request");
+
+    return this.stateStore.getState(request.id());
+  }
+
   /**
    * Approve another user's request.
    */
@@ -111,13 +178,140 @@ public abstract class RequesterPrivilegeActivator<TPrivilegeId extends Privilege
     this.catalog.verifyUserCanApprove(approvingUser, request);
 
     //
-    // Request is legit, apply it.
+    // Check that the request hasn't been approved already, possibly by
+    // another reviewer. This also prevents concurrent approvals from
+    // provisioning access more than once.
+    //
+    // NB. We only do this after the checks so that a reviewer whose
+    // approval fails can't hold up other reviewers.
     //
-    provisionAccess(approvingUser, request);
+    if (!this.stateStore.advanceState(request.id(), ActivationStateStore.State.APPROVED, request.endTime())) {
+      throw new AlreadyExistsException("The request has already been approved");
+    }
+
+    try {
+      //
+      // Request is legit, apply it.
+      //
+      provisionAccess(approvingUser, request);
+    } catch (AccessException | AlreadyExistsException | IOException | RuntimeException e) {
+      //
+      // Revert the state so that the request can be approved again.
+      //
+      this.stateStore.setState(request.id(), ActivationStateStore.State.PENDING, request.endTime());
+      throw e;
+    }
+
+    this.stateStore.setState(request.id(), ActivationStateStore.State.PROVISIONED, request.endTime());
+    this.catalog.onAccessProvisioned(request);
 
     return new Activation<>(request);
   }
 
+  /**
+   * Create new requests to activate multiple self-approval privileges
+   * and approve them right away. Either all requests are approved, or none.
+   */
+  public final @NotNull List<Activation<TPrivilegeId>> createAndApproveAll(
+      UserEmail requestingUser,
+      @NotNull Collection<RequesterPrivilege<TPrivilegeId>> requesterPrivileges,
+      String justification,
+      @NotNull Instant startTime,
+      Duration duration) throws AccessException, AlreadyExistsException, IOException {
+    var requests = createActivationRequests(
+        requestingUser,
+        Set.of(),
+        requesterPrivileges,
+        justification,
+        startTime,
+        duration);
+
+    //
+    // We've just verified that the user is allowed to request these
+    // privileges, so there's no need to check again.
+    //
+    return approveAll(requestingUser, requests, false);
+  }
+
+  /**
+   * Approve multiple requests at once. Either all requests are
+   * approved, or none.
+   */
+  public final @NotNull List<Activation<TPrivilegeId>> approveAll(
+      @NotNull UserEmail approvingUser,
+      @NotNull Collection<ActivationRequest<TPrivilegeId>> requests)
+      throws AccessException, AlreadyExistsException, IOException {
+    return approveAll(approvingUser, requests, true);
+  }
+
+  private @NotNull List<Activation<TPrivilegeId>> approveAll(
+      @NotNull UserEmail approvingUser,
+      @NotNull Collection<ActivationRequest<TPrivilegeId>> requests,
+      boolean verifyRequests)
+      throws AccessException, AlreadyExistsException, IOException {
+    Preconditions.checkNotNull(requests, "requests");
+    Preconditions.checkArgument(!requests.isEmpty(), "requests");
+
+    for (var request : requests) {
+      if (!(request.reviewers().contains(approvingUser)
+          || request.activationType() instanceof SelfApproval)) {
+        throw new AccessDeniedException(
+            String.format("The request does not permit approval by %s", approvingUser));
+      }
+
+      policy.checkJustification(request.requestingUser(), request.justification());
+    }
+
+    //
+    // Check that the user is (still) allowed to request these privileges. The
+    // catalog can do that using a single lookup.
+    //
+    if (verifyRequests) {
+      this.catalog.verifyUserCanRequestAll(requests);
+    }
+
+    for (var request : requests) {
+      this.catalog.verifyUserCanApprove(approvingUser, request);
+    }
+
+    //
+    // Check that none of the requests has been approved already.
+    //
+    var approvedRequests = new ArrayList<ActivationRequest<TPrivilegeId>>();
+    try {
+      for (var request : requests) {
+        if (!this.stateStore.advanceState(request.id(), ActivationStateStore.State.APPROVED, request.endTime())) {
+          throw new AlreadyExistsException("The request has already been approved");
+        }
+
+        approvedRequests.add(request);
+      }
+
+      //
+      // Requests are legit, apply them.
+      //
+      provisionAccess(approvingUser, requests);
+    } catch (AccessException | AlreadyExistsException | IOException | RuntimeException e) {
+      //
+      // Revert the state so that the requests can be approved again.
+      //
+      for (var request : approvedRequests) {
+        this.stateStore.setState(request.id(), ActivationStateStore.State.PENDING, request.endTime());
+      }
+      throw e;
+    }
+
+    var activations = new ArrayList<Activation<TPrivilegeId>>();
+    for (var request : requests) {
+      this.stateStore.setState(request.id(), ActivationStateStore.State.PROVISIONED, request.endTime());
+      this.catalog.onAccessProvisioned(request);
+
+      activations.add(new Activation<>(request));
+    }
+
+    return activations;
+  }
+
   /**
    * Apply a request.
    */
@@ -125,6 +319,19 @@ public abstract class RequesterPrivilegeActivator<TPrivilegeId extends Privilege
       UserEmail approvingUser,
       ActivationRequest<TPrivilegeId> request) throws AccessException, AlreadyExistsException, IOException;
 
+  /**
+   * Apply multiple requests. Implementations should override this method
+   * if they can apply multiple requests more efficiently than one by one.
+   */
+  protected void provisionAccess(
+      UserEmail approvingUser,
+      @NotNull Collection<ActivationRequest<TPrivilegeId>> requests)
+      throws AccessException, AlreadyExistsException, IOException {
+    for (var request : requests) {
+      provisionAccess(approvingUser, request);
+    }
+  }
+
   /**
    * Create a converter for turning MPA requests into JWTs, and
    * vice versa.
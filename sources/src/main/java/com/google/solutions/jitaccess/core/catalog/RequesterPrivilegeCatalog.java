@@ -25,6 +25,7 @@ import com.google.solutions.jitaccess.core.AccessException;
 import com.google.solutions.jitaccess.core.UserEmail;
 
 import java.io.IOException;
+import java.util.Collection;
 
 /**
  * A catalog of requester privileges that can be browsed by the user.
@@ -36,10 +37,31 @@ public interface RequesterPrivilegeCatalog<TPrivilegeId extends PrivilegeId> {
   void verifyUserCanRequest(
       ActivationRequest<TPrivilegeId> request) throws AccessException, IOException;
 
+  /**
+   * Verify if a user is allowed to make all of the given requests.
+   *
+   * Catalogs should override this method if they can verify multiple
+   * requests more efficiently than one by one.
+   */
+  default void verifyUserCanRequestAll(
+      Collection<ActivationRequest<TPrivilegeId>> requests) throws AccessException, IOException {
+    for (var request : requests) {
+      verifyUserCanRequest(request);
+    }
+  }
+
   /**
    * Verify if a user is allowed to approve a given request.
    */
   void verifyUserCanApprove(
       UserEmail approvingUser,
       ActivationRequest<TPrivilegeId> request) throws AccessException, IOException;
+
+  /**
+   * Notify the catalog that access has been provisioned for a request,
+   * giving it a chance to discard cached information.
+   */
+  default void onAccessProvisioned(
+      ActivationRequest<TPrivilegeId> request) {
+  }
 }
@@ -0,0 +1,186 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Set of RSA keys for signing tokens. The keys are only held in memory
+ * and are rotated periodically.
+ *
+ * Besides the current key, the set retains the previous key so that
+ * tokens that were signed before the last rotation can still be verified.
+ */
+public class SigningKeySet {
+  public static final String ALGORITHM = "RS256";
+  private static final int KEY_SIZE = 2048;
+
+  private final @NotNull Duration rotationInterval;
+  private @NotNull SigningKey currentKey;
+  private @Nullable SigningKey previousKey;
+
+  public SigningKeySet(@NotNull Duration rotationInterval) {
+    Preconditions.checkNotNull(rotationInterval, "rotationInterval");
+    Preconditions.checkArgument(
+        !rotationInterval.isNegative() && !rotationInterval.isZero(),
+        "rotationInterval must be positive");
+
+    this.rotationInterval = rotationInterval;
+    this.currentKey = generateKey();
+  }
+
+  private static @NotNull SigningKey generateKey() {
+    try {
+      var generator = KeyPairGenerator.getInstance("RSA");
+      generator.initialize(KEY_SIZE);
+
+      return new SigningKey(
+          UUID.randomUUID().toString(),
+          generator.generateKeyPair(),
+          Instant.now());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("The runtime does not support RSA keys", e);
+    }
+  }
+
+  /**
+   * Replace the current key by a new key, and retire the current key.
+   */
+  synchronized void rotate() {
+    this.previousKey = this.currentKey;
+    this.currentKey = generateKey();
+  }
+
+  /**
+   * Interval in which keys are rotated.
+   */
+  public @NotNull Duration rotationInterval() {
+    return this.rotationInterval;
+  }
+
+  /**
+   * Get the key to use for signing, rotating keys if the current
+   * key is due for rotation.
+   */
+  public synchronized @NotNull SigningKey getCurrentKey() {
+    if (!this.currentKey.createTime().plus(this.rotationInterval).isAfter(Instant.now())) {
+      rotate();
+    }
+
+    return this.currentKey;
+  }
+
+  /**
+   * Look up a key that can be used for verification.
+   *
+   * @return key, or null if the key doesn't exist or has been retired.
+   */
+  public synchronized @Nullable SigningKey getKey(@Nullable String keyId) {
+    return Stream.of(this.currentKey, this.previousKey)
+        .filter(k -> k != null && k.keyId().equals(keyId))
+        .findFirst()
+        .orElse(null);
+  }
+
+  /**
+   * Get the public keys that can be used for verification,
+   * in JWK format.
+   */
+  public synchronized @NotNull List<JsonWebKey> getPublicKeys() {
+    return Stream.of(this.currentKey, this.previousKey)
+        .filter(k -> k != null)
+        .map(SigningKey::toJsonWebKey)
+        .toList();
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  public record SigningKey(
+      @NotNull String keyId,
+      @NotNull KeyPair keyPair,
+      @NotNull Instant createTime
+  ) {
+    public @NotNull RSAPrivateKey privateKey() {
+      return (RSAPrivateKey) this.keyPair.getPrivate();
+    }
+
+    public @NotNull RSAPublicKey publicKey() {
+      return (RSAPublicKey) this.keyPair.getPublic();
+    }
+
+    /**
+     * Encode an integer as unsigned, big-endian Base64url value.
+     */
+    private static @NotNull String encode(@NotNull BigInteger value) {
+      var bytes = value.toByteArray();
+      if (bytes.length > 1 && bytes[0] == 0) {
+        //
+        // Strip the sign byte.
+        //
+        bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+      }
+
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public @NotNull JsonWebKey toJsonWebKey() {
+      return new JsonWebKey(
+          "RSA",
+          "sig",
+          ALGORITHM,
+          this.keyId,
+          encode(publicKey().getModulus()),
+          encode(publicKey().getPublicExponent()));
+    }
+  }
+
+  /**
+   * Public key in JWK format, see RFC 7517.
+   */
+  public record JsonWebKey(
+      @NotNull String kty,
+      @NotNull String use,
+      @NotNull String alg,
+      @NotNull String kid,
+      @NotNull String n,
+      @NotNull String e
+  ) {
+  }
+}
@@ -21,32 +21,46 @@
 
 package com.google.solutions.jitaccess.core.catalog;
 
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import com.google.api.client.json.webtoken.JsonWebToken;
 import com.google.auth.oauth2.TokenVerifier;
 import com.google.common.base.Preconditions;
 import com.google.solutions.jitaccess.core.AccessException;
 import com.google.solutions.jitaccess.core.UserEmail;
 import com.google.solutions.jitaccess.core.clients.IamCredentialsClient;
-import jakarta.inject.Singleton;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 /**
- * Signs JWTs using a service account's Google-managed service account key.
+ * Signs JWTs, either using a service account's Google-managed service
+ * account key, or using a rotating key that's held in memory.
  */
-@Singleton
 public class TokenSigner {
-  private final IamCredentialsClient iamCredentialsClient;
-  private final Options options;
-  private final TokenVerifier tokenVerifier;
+  private final @Nullable IamCredentialsClient iamCredentialsClient;
+  private final @Nullable SigningKeySet signingKeys;
+  private final @NotNull Options options;
+  private final @Nullable TokenVerifier tokenVerifier;
 
+  /**
+   * Create a signer that signs tokens remotely, using the IAM Credentials API.
+   */
   public TokenSigner(
-      IamCredentialsClient iamCredentialsClient,
+      @NotNull IamCredentialsClient iamCredentialsClient,
       @NotNull Options options) {
+    Preconditions.checkNotNull(iamCredentialsClient, "iamCredentialsClient");
+    Preconditions.checkNotNull(options, "options");
+
     this.options = options;
     this.iamCredentialsClient = iamCredentialsClient;
+    this.signingKeys = null;
 
     //
     // Create verifier to check signature and obligatory claims.
@@ -59,6 +73,117 @@ public class TokenSigner {
         .build();
   }
 
+  /**
+   * Create a signer that signs tokens locally, using in-memory keys.
+   *
+   * Tokens can only be verified by the same instance of the application,
+   * and only until the signing key has been rotated twice.
+   */
+  public TokenSigner(
+      @NotNull SigningKeySet signingKeys,
+      @NotNull Options options) {
+    Preconditions.checkNotNull(signingKeys, "signingKeys");
+    Preconditions.checkNotNull(options, "options");
+    Preconditions.checkArgument(
+        options.tokenValidity.compareTo(signingKeys.rotationInterval()) <= 0,
+        "The token validity must not exceed the key rotation interval");
+
+    this.options = options;
+    this.iamCredentialsClient = null;
+    this.signingKeys = signingKeys;
+    this.tokenVerifier = null;
+  }
+
+  /**
+   * Get the public keys that can be used to verify tokens.
+   *
+   * @return keys, or empty if tokens are signed using a
+   * Google-managed service account key.
+   */
+  public @NotNull Optional<List<SigningKeySet.JsonWebKey>> getPublicKeys() {
+    return Optional
+        .ofNullable(this.signingKeys)
+        .map(SigningKeySet::getPublicKeys);
+  }
+
+  /**
+   * Get the JWKS location for the Google-managed service account key.
+   */
+  public @NotNull String getServiceAccountJwksUrl() {
+    return IamCredentialsClient.getJwksUrl(this.options.serviceAccount);
+  }
+
+  private @NotNull String signLocally(
+      JsonWebToken.@NotNull Payload payload) throws IOException {
+    assert this.signingKeys != null;
+
+    var key = this.signingKeys.getCurrentKey();
+    var header = new JsonWebSignature.Header()
+        .setAlgorithm(SigningKeySet.ALGORITHM)
+        .setType("JWT")
+        .setKeyId(key.keyId());
+
+    try {
+      return JsonWebSignature.signUsingRsaSha256(
+          key.privateKey(),
+          GsonFactory.getDefaultInstance(),
+          header,
+          payload);
+    } catch (GeneralSecurityException e) {
+      throw new IOException("Signing the token failed", e);
+    }
+  }
+
+  private JsonWebToken.@NotNull Payload verifyLocally(
+      @NotNull String token) throws TokenVerifier.VerificationException {
+    assert this.signingKeys != null;
+
+    JsonWebSignature decodedToken;
+    try {
+      decodedToken = JsonWebSignature.parse(GsonFactory.getDefaultInstance(), token);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new TokenVerifier.VerificationException("The token is malformed", e);
+    }
+
+    if (!SigningKeySet.ALGORITHM.equals(decodedToken.getHeader().getAlgorithm())) {
+      throw new TokenVerifier.VerificationException("The token uses the wrong algorithm");
+    }
+
+    var key = this.signingKeys.getKey(decodedToken.getHeader().getKeyId());
+    if (key == null) {
+      throw new TokenVerifier.VerificationException(
+          "The token was signed by an unknown or expired key");
+    }
+
+    try {
+      if (!decodedToken.verifySignature(key.publicKey())) {
+        throw new TokenVerifier.VerificationException("The token signature is invalid");
+      }
+    } catch (GeneralSecurityException e) {
+      throw new TokenVerifier.VerificationException("Verifying the token signature failed", e);
+    }
+
+    //
+    // Check obligatory claims.
+    //
+    var payload = decodedToken.getPayload();
+    if (!this.options.serviceAccount.email.equals(payload.getIssuer())) {
+      throw new TokenVerifier.VerificationException("The token has an invalid issuer");
+    }
+
+    if (payload.getAudienceAsList() == null ||
+        !payload.getAudienceAsList().contains(this.options.serviceAccount.email)) {
+      throw new TokenVerifier.VerificationException("The token has an invalid audience");
+    }
+
+    if (payload.getExpirationTimeSeconds() == null ||
+        payload.getExpirationTimeSeconds() <= Instant.now().getEpochSecond()) {
+      throw new TokenVerifier.VerificationException("The token has expired");
+    }
+
+    return payload;
+  }
+
   /**
    * Create a signed JWT for a given payload.
    */
@@ -80,8 +205,12 @@ public class TokenSigner {
         .setIssuedAtTimeSeconds(issueTime.getEpochSecond())
         .setExpirationTimeSeconds(expiryTime.getEpochSecond());
 
+    var token = this.signingKeys != null
+        ? signLocally(jwtPayload)
+        : this.iamCredentialsClient.signJwt(this.options.serviceAccount, jwtPayload);
+
     return new TokenWithExpiry(
-        this.iamCredentialsClient.signJwt(this.options.serviceAccount, jwtPayload),
+        token,
         issueTime,
         expiryTime);
   }
@@ -96,11 +225,16 @@ public class TokenSigner {
     Preconditions.checkNotNull(converter, "converter");
     Preconditions.checkNotNull(token, "token");
 
+    if (this.signingKeys != null) {
+      return converter.convert(verifyLocally(token));
+    }
+
     //
     // Verify the token against the service account's JWKs. If that succeeds, we
     // know
     // that the token has been issued by us.
     //
+    assert this.tokenVerifier != null;
     var decodedToken = this.tokenVerifier.verify(token);
     if (!decodedToken.getHeader().getAlgorithm().equals("RS256")) {
       //
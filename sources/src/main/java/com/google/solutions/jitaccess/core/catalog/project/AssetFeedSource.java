@@ -0,0 +1,60 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.common.base.Preconditions;
+import com.google.solutions.jitaccess.core.AccessException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Source of Cloud Asset Inventory feed messages.
+ *
+ * Each message contains a JSON-formatted TemporalAsset that
+ * describes a change to a resource's IAM policy.
+ */
+public interface AssetFeedSource {
+  /**
+   * Receive the next batch of messages.
+   *
+   * @return messages, or an empty list if no messages are available.
+   */
+  @NotNull List<Message> receive() throws AccessException, IOException;
+
+  /**
+   * Acknowledge messages so that they're not delivered again.
+   */
+  void acknowledge(@NotNull List<Message> messages) throws AccessException, IOException;
+
+  /**
+   * @param id   ID of the message, used for acknowledging it
+   * @param data JSON-formatted TemporalAsset
+   */
+  record Message(@NotNull String id, @NotNull String data) {
+    public Message {
+      Preconditions.checkNotNull(id, "id");
+      Preconditions.checkNotNull(data, "data");
+    }
+  }
+}
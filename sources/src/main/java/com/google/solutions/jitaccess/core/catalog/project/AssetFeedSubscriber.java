@@ -0,0 +1,232 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.cloudasset.v1.model.TemporalAsset;
+import com.google.common.base.Preconditions;
+import com.google.solutions.jitaccess.core.AccessException;
+import com.google.solutions.jitaccess.core.clients.AssetInventoryClient;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Keeps an index of eligible projects current by applying IAM
+ * policy changes reported by a Cloud Asset Inventory feed.
+ *
+ * The feed must use the IAM_POLICY content type and should be
+ * limited to projects, folders, and organizations. Messages about
+ * other resources are acknowledged, but ignored.
+ */
+public class AssetFeedSubscriber implements Closeable {
+  private static final Set<String> ASSET_TYPES = Set.of(
+      AssetInventoryClient.PROJECT_ASSET_TYPE,
+      AssetInventoryClient.FOLDER_ASSET_TYPE,
+      AssetInventoryClient.ORGANIZATION_ASSET_TYPE);
+
+  /**
+   * Minimum and maximum time to back off after failures.
+   */
+  static final Duration MIN_RETRY_DELAY = Duration.ofSeconds(1);
+  static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(5);
+
+  private final @NotNull AssetFeedSource source;
+  private final @NotNull EligibleProjectIndex index;
+  private final @NotNull Duration pollInterval;
+  private final @NotNull Consumer<Exception> failed;
+  private volatile boolean closed = false;
+
+  /**
+   * @param failed callback for failed attempts to process messages.
+   */
+  AssetFeedSubscriber(
+      @NotNull AssetFeedSource source,
+      @NotNull EligibleProjectIndex index,
+      @NotNull Duration pollInterval,
+      @NotNull Consumer<Exception> failed) {
+    Preconditions.checkNotNull(source, "source");
+    Preconditions.checkNotNull(index, "index");
+    Preconditions.checkNotNull(pollInterval, "pollInterval");
+    Preconditions.checkNotNull(failed, "failed");
+
+    this.source = source;
+    this.index = index;
+    this.pollInterval = pollInterval;
+    this.failed = failed;
+  }
+
+  AssetFeedSubscriber(
+      @NotNull AssetFeedSource source,
+      @NotNull EligibleProjectIndex index,
+      @NotNull Duration pollInterval) {
+    this(source, index, pollInterval, e -> {});
+  }
+
+  /**
+   * Calculate how long to wait before polling again. After a failure,
+   * the delay doubles with each consecutive failure, up to MAX_RETRY_DELAY.
+   */
+  static @NotNull Duration retryDelay(
+      @NotNull Duration pollInterval,
+      int consecutiveFailures) {
+    if (consecutiveFailures <= 0) {
+      return pollInterval;
+    }
+
+    var initialDelay = pollInterval.compareTo(MIN_RETRY_DELAY) < 0
+        ? MIN_RETRY_DELAY
+        : pollInterval;
+    var delay = initialDelay.multipliedBy(1L << Math.min(consecutiveFailures - 1, 16));
+
+    return delay.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : delay;
+  }
+
+  /**
+   * Apply a single feed message to the index.
+   *
+   * @return true if the message affected the index.
+   */
+  boolean apply(@NotNull String data) {
+    TemporalAsset change;
+    try {
+      change = GsonFactory.getDefaultInstance().fromString(data, TemporalAsset.class);
+    } catch (IOException | RuntimeException e) {
+      //
+      // Malformed message, ignore.
+      //
+      return false;
+    }
+
+    var asset = change.getAsset();
+    if (asset == null ||
+        asset.getName() == null ||
+        !asset.getName().startsWith(AssetInventoryRepository.RESOURCE_MANAGER_PREFIX) ||
+        !ASSET_TYPES.contains(asset.getAssetType())) {
+      return false;
+    }
+
+    var deleted = Boolean.TRUE.equals(change.getDeleted());
+    if (!deleted && asset.getIamPolicy() == null) {
+      //
+      // The message doesn't tell us anything about the IAM policy,
+      // so the feed probably uses a different content type.
+      //
+      return false;
+    }
+
+    Instant changeTime;
+    try {
+      changeTime = change.getWindow() != null && change.getWindow().getStartTime() != null
+          ? Instant.parse(change.getWindow().getStartTime())
+          : Instant.now();
+    } catch (DateTimeParseException e) {
+      changeTime = Instant.now();
+    }
+
+    return this.index.applyPolicyChange(
+        asset.getName().substring(AssetInventoryRepository.RESOURCE_MANAGER_PREFIX.length()),
+        deleted ? null : asset.getIamPolicy().getBindings(),
+        changeTime);
+  }
+
+  /**
+   * Receive, apply, and acknowledge the next batch of messages.
+   *
+   * @return number of messages received.
+   */
+  public int processNextBatch() throws AccessException, IOException {
+    var messages = this.source.receive();
+    for (var message : messages) {
+      apply(message.data());
+    }
+
+    //
+    // Acknowledge all messages, including the ones we couldn't
+    // apply. Redelivering them wouldn't change the outcome.
+    //
+    this.source.acknowledge(messages);
+
+    return messages.size();
+  }
+
+  /**
+   * Continuously process messages on a background thread until
+   * the subscriber is closed.
+   */
+  public void start(@NotNull Executor executor) {
+    Preconditions.checkNotNull(executor, "executor");
+
+    executor.execute(() -> {
+      int consecutiveFailures = 0;
+      while (!this.closed) {
+        int received;
+        try {
+          received = processNextBatch();
+          consecutiveFailures = 0;
+        } catch (AccessException | IOException | RuntimeException e) {
+          //
+          // Back off and try again. Until then, the index might
+          // become stale, but the periodic scans still refresh it.
+          //
+          this.failed.accept(e);
+
+          received = 0;
+          consecutiveFailures++;
+        }
+
+        if (received == 0) {
+          try {
+            synchronized (this) {
+              if (!this.closed) {
+                this.wait(Math.max(1, retryDelay(this.pollInterval, consecutiveFailures).toMillis()));
+              }
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    });
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      this.closed = true;
+
+      //
+      // Wake up the background thread so that it stops
+      // right away instead of after the current delay.
+      //
+      this.notifyAll();
+    }
+  }
+}
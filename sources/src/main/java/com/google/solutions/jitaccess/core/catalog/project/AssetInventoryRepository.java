@@ -22,8 +22,7 @@
 package com.google.solutions.jitaccess.core.catalog.project;
 
 import com.google.api.services.cloudasset.v1.model.Binding;
-import com.google.api.services.directory.model.Group;
-import com.google.api.services.directory.model.Member;
+import com.google.api.services.cloudasset.v1.model.PolicyInfo;
 import com.google.common.base.Preconditions;
 import com.google.solutions.jitaccess.cel.TemporaryIamCondition;
 import com.google.solutions.jitaccess.core.*;
@@ -36,10 +35,14 @@ import dev.cel.common.CelException;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -53,26 +56,68 @@ import java.util.stream.Collectors;
 public class AssetInventoryRepository extends ProjectRoleRepository {
   public static final String GROUP_PREFIX = "group:";
   public static final String USER_PREFIX = "user:";
+  static final String RESOURCE_MANAGER_PREFIX = "//cloudresourcemanager.googleapis.com/";
+  static final Duration FEED_POLL_INTERVAL = Duration.ofSeconds(1);
 
   private final @NotNull Options options;
   private final @NotNull Executor executor;
   private final @NotNull DirectoryGroupsClient groupsClient;
   private final @NotNull AssetInventoryClient assetInventoryClient;
+  private final @NotNull EffectivePolicyCache policyCache;
+  private final @NotNull GroupMemberResolver groupMemberResolver;
+  private final @NotNull GroupMembershipResolver groupMembershipResolver;
+  private final @NotNull EligibleProjectIndex projectIndex;
+  private final @NotNull AtomicBoolean projectIndexRefreshPending;
+  private final @NotNull Consumer<Exception> projectIndexRefreshFailed;
 
+  /**
+   * @param projectIndexRefreshFailed callback for failed background
+   * refreshes of the project index.
+   */
   public AssetInventoryRepository(
       @NotNull Executor executor,
       @NotNull DirectoryGroupsClient groupsClient,
       @NotNull AssetInventoryClient assetInventoryClient,
-      @NotNull Options options) {
+      @NotNull Options options,
+      @NotNull Consumer<Exception> projectIndexRefreshFailed) {
     Preconditions.checkNotNull(executor, "executor");
     Preconditions.checkNotNull(groupsClient, "groupsClient");
     Preconditions.checkNotNull(assetInventoryClient, "assetInventoryClient");
     Preconditions.checkNotNull(options, "options");
+    Preconditions.checkNotNull(projectIndexRefreshFailed, "projectIndexRefreshFailed");
 
     this.executor = executor;
     this.groupsClient = groupsClient;
     this.assetInventoryClient = assetInventoryClient;
     this.options = options;
+    this.projectIndexRefreshFailed = projectIndexRefreshFailed;
+    this.policyCache = new EffectivePolicyCache(
+        assetInventoryClient,
+        options.scope,
+        options.policyCacheDuration,
+        options.policyCacheSize);
+    this.groupMemberResolver = new GroupMemberResolver(
+        groupsClient,
+        executor,
+        options.groupMembersCacheDuration,
+        options.groupMembersCacheSize,
+        options.maxConcurrentGroupLookups);
+    this.groupMembershipResolver = new GroupMembershipResolver(
+        groupsClient,
+        executor,
+        options.groupMembershipCacheDuration,
+        options.groupMembershipCacheSize,
+        options.maxGroupNestingDepth);
+    this.projectIndex = new EligibleProjectIndex();
+    this.projectIndexRefreshPending = new AtomicBoolean(false);
+  }
+
+  public AssetInventoryRepository(
+      @NotNull Executor executor,
+      @NotNull DirectoryGroupsClient groupsClient,
+      @NotNull AssetInventoryClient assetInventoryClient,
+      @NotNull Options options) {
+    this(executor, groupsClient, assetInventoryClient, options, e -> {});
   }
 
   static <T> T awaitAndRethrow(@NotNull CompletableFuture<T> future) throws AccessException, IOException {
@@ -95,59 +140,89 @@ public class AssetInventoryRepository extends ProjectRoleRepository {
   List<Binding> findProjectBindings(
       @NotNull UserEmail user,
       ProjectId projectId) throws AccessException, IOException {
+    return findProjectBindings(user, projectId, true);
+  }
+
+  /**
+   * @param useCachedPolicies use cached IAM policies, which might be outdated.
+   */
+  @NotNull
+  List<Binding> findProjectBindings(
+      @NotNull UserEmail user,
+      ProjectId projectId,
+      boolean useCachedPolicies) throws AccessException, IOException {
     //
     // Lookup in parallel:
     // - the effective set of IAM policies applying to this project. This
     // includes the IAM policy of the project itself, plus any policies
     // applied to its ancestry (folders, organization).
-    // - groups that the user is a member of.
+    // - groups that the user is a member of, either directly or through
+    // nested groups.
     //
     var listMembershipsFuture = ThrowingCompletableFuture.submit(
-        () -> this.groupsClient.listDirectGroupMemberships(user),
+        () -> this.groupMembershipResolver.listTransitiveGroupMemberships(user),
         this.executor);
 
     var effectivePoliciesFuture = ThrowingCompletableFuture.submit(
-        () -> this.assetInventoryClient.getEffectiveIamPolicies(
-            this.options.scope(),
-            projectId),
+        () -> useCachedPolicies
+            ? this.policyCache.getEffectiveIamPolicies(projectId)
+            : this.assetInventoryClient.getEffectiveIamPolicies(this.options.scope, projectId),
         this.executor);
 
     var principalSetForUser = new PrincipalSet(user, awaitAndRethrow(listMembershipsFuture));
-    var allBindings = awaitAndRethrow(effectivePoliciesFuture)
+    return filterBindings(awaitAndRethrow(effectivePoliciesFuture), principalSetForUser);
+  }
+
+  @NotNull
+  Map<ProjectId, List<Binding>> findProjectBindings(
+      @NotNull UserEmail user,
+      @NotNull Collection<ProjectId> projectIds) throws AccessException, IOException {
+    //
+    // Same as above, but look up the effective policies of all
+    // projects in a single batch.
+    //
+    var listMembershipsFuture = ThrowingCompletableFuture.submit(
+        () -> this.groupMembershipResolver.listTransitiveGroupMemberships(user),
+        this.executor);
+
+    var effectivePoliciesFuture = ThrowingCompletableFuture.submit(
+        () -> this.policyCache.getEffectiveIamPolicies(projectIds),
+        this.executor);
+
+    var principalSetForUser = new PrincipalSet(user, awaitAndRethrow(listMembershipsFuture));
+    var effectivePolicies = awaitAndRethrow(effectivePoliciesFuture);
+
+    var bindings = new HashMap<ProjectId, List<Binding>>();
+    for (var projectId : projectIds) {
+      bindings.put(
+          projectId,
+          filterBindings(
+              effectivePolicies.getOrDefault(projectId, List.of()),
+              principalSetForUser));
+    }
+
+    return bindings;
+  }
+
+  private static @NotNull List<Binding> filterBindings(
+      @NotNull List<PolicyInfo> effectivePolicies,
+      @NotNull PrincipalSet principalSet) {
+    return effectivePolicies
         .stream()
 
         // All bindings, across all resources in the ancestry.
         .flatMap(policy -> policy.getPolicy().getBindings().stream())
 
         // Only bindings that apply to the user.
-        .filter(binding -> principalSetForUser.isMember(binding))
+        .filter(binding -> principalSet.isMember(binding))
         .collect(Collectors.toList());
-    return allBindings;
-  }
-
-  // ---------------------------------------------------------------------------
-  // ProjectRoleRepository.
-  // ---------------------------------------------------------------------------
-
-  @Override
-  public SortedSet<ProjectId> findProjectsWithRequesterPrivileges(
-      UserEmail user) {
-    //
-    // Not supported.
-    //
-    throw new IllegalStateException(
-        "Feature is not supported. Use search to determine available projects");
   }
 
-  @Override
-  public @NotNull RequesterPrivilegeSet<ProjectRoleBinding> findRequesterPrivileges(
-      @NotNull UserEmail user,
+  private static @NotNull RequesterPrivilegeSet<ProjectRoleBinding> createRequesterPrivilegeSet(
       @NotNull ProjectId projectId,
+      @NotNull List<Binding> allBindings,
       @NotNull Set<ActivationType> typesToInclude,
-      @NotNull EnumSet<RequesterPrivilege.Status> statusesToInclude) throws AccessException, IOException {
-
-    List<Binding> allBindings = findProjectBindings(user, projectId);
-
+      @NotNull EnumSet<RequesterPrivilege.Status> statusesToInclude) {
     var allAvailable = new TreeSet<RequesterPrivilege<ProjectRoleBinding>>();
     if (statusesToInclude.contains(RequesterPrivilege.Status.INACTIVE)) {
       allAvailable.addAll(
@@ -198,14 +273,199 @@ public class AssetInventoryRepository extends ProjectRoleRepository {
     return buildRequesterPrivilegeSet(allAvailable, allActive, allExpired, Set.of());
   }
 
+  /**
+   * Rebuild the index of eligible projects by scanning the IAM policies
+   * of all projects, folders, and organizations in the scope.
+   */
+  void refreshProjectIndex() throws AccessException, IOException {
+    var scanStarted = Instant.now();
+    var projectsFuture = ThrowingCompletableFuture.submit(
+        () -> this.assetInventoryClient.searchProjects(this.options.scope),
+        this.executor);
+    var policiesFuture = ThrowingCompletableFuture.submit(
+        () -> this.assetInventoryClient.searchResourceManagerIamPolicies(this.options.scope),
+        this.executor);
+
+    var projects = new ArrayList<EligibleProjectIndex.Project>();
+    for (var result : awaitAndRethrow(projectsFuture)) {
+      var projectId = result.getAdditionalAttributes() != null
+          ? result.getAdditionalAttributes().get("projectId")
+          : null;
+      if (!(projectId instanceof String) || result.getProject() == null) {
+        continue;
+      }
+
+      var ancestors = new ArrayList<String>();
+      if (result.getFolders() != null) {
+        ancestors.addAll(result.getFolders());
+      }
+      if (result.getOrganization() != null && !result.getOrganization().isEmpty()) {
+        ancestors.add(result.getOrganization());
+      }
+
+      projects.add(new EligibleProjectIndex.Project(
+          new ProjectId((String)projectId),
+          result.getProject(),
+          ancestors));
+    }
+
+    var policies = new ArrayList<EligibleProjectIndex.ResourcePolicy>();
+    for (var result : awaitAndRethrow(policiesFuture)) {
+      if (result.getResource() == null ||
+          !result.getResource().startsWith(RESOURCE_MANAGER_PREFIX) ||
+          result.getPolicy() == null ||
+          result.getPolicy().getBindings() == null) {
+        continue;
+      }
+
+      policies.add(new EligibleProjectIndex.ResourcePolicy(
+          result.getResource().substring(RESOURCE_MANAGER_PREFIX.length()),
+          result.getPolicy().getBindings()));
+    }
+
+    this.projectIndex.rebuild(projects, policies, scanStarted);
+  }
+
+  /**
+   * Create a subscriber that keeps the index of eligible projects
+   * current by applying changes from an asset feed. Changes then
+   * become visible without waiting for the next scan.
+   *
+   * @param failed callback for failed attempts to process messages.
+   */
+  public @NotNull AssetFeedSubscriber createFeedSubscriber(
+      @NotNull AssetFeedSource source,
+      @NotNull Consumer<Exception> failed) {
+    Preconditions.checkNotNull(source, "source");
+    Preconditions.checkNotNull(failed, "failed");
+    return new AssetFeedSubscriber(source, this.projectIndex, FEED_POLL_INTERVAL, failed);
+  }
+
+  /**
+   * Rebuild the index of eligible projects in the background, unless
+   * a rebuild is already in progress. Failures are reported to the
+   * callback passed to the constructor.
+   */
+  public void refreshProjectIndexInBackground() {
+    if (!this.projectIndexRefreshPending.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      this.executor.execute(() -> {
+        try {
+          refreshProjectIndex();
+        } catch (AccessException | IOException | RuntimeException e) {
+          //
+          // Keep using the existing index, we'll try again on
+          // the next lookup.
+          //
+          this.projectIndexRefreshFailed.accept(e);
+        } finally {
+          this.projectIndexRefreshPending.set(false);
+        }
+      });
+    } catch (RuntimeException e) {
+      this.projectIndexRefreshPending.set(false);
+      this.projectIndexRefreshFailed.accept(e);
+    }
+  }
+
+  private void ensureProjectIndexIsFresh() throws IOException {
+    var lastRebuilt = this.projectIndex.lastRebuilt();
+    if (lastRebuilt == null ||
+        lastRebuilt.plus(this.options.projectIndexRefreshInterval).isBefore(Instant.now())) {
+      //
+      // The index is missing or stale. Refresh it in the background, and
+      // keep serving the stale index until the refresh is complete.
+      //
+      refreshProjectIndexInBackground();
+    }
+
+    if (this.projectIndex.lastRebuilt() == null) {
+      //
+      // The index hasn't been built yet. A full scan can take a while,
+      // so don't hold up the request until it's done.
+      //
+      throw new IOException(
+          "The index of eligible projects is still being built, try again later");
+    }
+  }
+
+  // ---------------------------------------------------------------------------
+  // ProjectRoleRepository.
+  // ---------------------------------------------------------------------------
+
+  @Override
+  public @NotNull SortedSet<ProjectId> findProjectsWithRequesterPrivileges(
+      @NotNull UserEmail user) throws AccessException, IOException {
+    ensureProjectIndexIsFresh();
+
+    var principalSetForUser = new PrincipalSet(
+        user,
+        this.groupMembershipResolver.listTransitiveGroupMemberships(user));
+    return this.projectIndex.findProjects(principalSetForUser.identifiers());
+  }
+
+  @Override
+  public @NotNull RequesterPrivilegeSet<ProjectRoleBinding> findRequesterPrivileges(
+      @NotNull UserEmail user,
+      @NotNull ProjectId projectId,
+      @NotNull Set<ActivationType> typesToInclude,
+      @NotNull EnumSet<RequesterPrivilege.Status> statusesToInclude) throws AccessException, IOException {
+
+    return createRequesterPrivilegeSet(
+        projectId,
+        findProjectBindings(user, projectId),
+        typesToInclude,
+        statusesToInclude);
+  }
+
+  @Override
+  public @NotNull RequesterPrivilegeSet<ProjectRoleBinding> findRequesterPrivilegesForAccessCheck(
+      @NotNull UserEmail user,
+      @NotNull ProjectId projectId,
+      @NotNull Set<ActivationType> typesToInclude,
+      @NotNull EnumSet<RequesterPrivilege.Status> statusesToInclude) throws AccessException, IOException {
+
+    //
+    // Bypass the policy cache so that revoked eligible bindings
+    // take effect immediately.
+    //
+    return createRequesterPrivilegeSet(
+        projectId,
+        findProjectBindings(user, projectId, false),
+        typesToInclude,
+        statusesToInclude);
+  }
+
+  @Override
+  public @NotNull Map<ProjectId, RequesterPrivilegeSet<ProjectRoleBinding>> findRequesterPrivilegesInProjects(
+      @NotNull UserEmail user,
+      @NotNull Collection<ProjectId> projectIds,
+      @NotNull Set<ActivationType> typesToInclude,
+      @NotNull EnumSet<RequesterPrivilege.Status> statusesToInclude) throws AccessException, IOException {
+
+    var privileges = new HashMap<ProjectId, RequesterPrivilegeSet<ProjectRoleBinding>>();
+    for (var entry : findProjectBindings(user, projectIds).entrySet()) {
+      privileges.put(
+          entry.getKey(),
+          createRequesterPrivilegeSet(
+              entry.getKey(),
+              entry.getValue(),
+              typesToInclude,
+              statusesToInclude));
+    }
+
+    return privileges;
+  }
+
   @Override
   public @NotNull Set<UserEmail> findReviewerPrivelegeHolders(
       @NotNull ProjectRoleBinding roleBinding,
       @NotNull ActivationType activationType) throws AccessException, IOException {
 
-    var policies = this.assetInventoryClient.getEffectiveIamPolicies(
-        this.options.scope,
-        roleBinding.projectId());
+    var policies = this.policyCache.getEffectiveIamPolicies(roleBinding.projectId());
 
     var principals = policies
         .stream()
@@ -217,13 +477,9 @@ public class AssetInventoryRepository extends ProjectRoleRepository {
         .filter(binding -> binding.getRole().equals(roleBinding.roleBinding().role()))
 
         // Only consider eligible bindings.
-        .filter(binding -> PrivilegeFactory.createReviewerPrivilege(
-            new ProjectRoleBinding(new RoleBinding(roleBinding.projectId(), binding.getRole())),
-            binding.getCondition()).isPresent())
-        .filter(binding -> PrivilegeFactory.createReviewerPrivilege(
-            new ProjectRoleBinding(new RoleBinding(roleBinding.projectId(), binding.getRole())),
-            binding.getCondition()).get().reviewableTypes().stream()
-            .anyMatch(type -> type.isParentTypeOf(activationType)))
+        .filter(binding -> PrivilegeFactory
+            .classify(binding.getCondition())
+            .isReviewerPrivilegeFor(activationType))
 
         .flatMap(binding -> binding.getMembers().stream())
         .collect(Collectors.toSet());
@@ -236,40 +492,30 @@ public class AssetInventoryRepository extends ProjectRoleRepository {
         .collect(Collectors.toSet());
 
     //
-    // Resolve groups.
+    // Resolve groups. Lookups run in parallel, and might be served
+    // from cache or shared with concurrent requests.
     //
-    List<CompletableFuture<Collection<Member>>> listMembersFutures = principals.stream()
+    var listMembersFutures = principals.stream()
         .filter(p -> p.startsWith(GROUP_PREFIX))
         .map(p -> p.substring(GROUP_PREFIX.length()))
         .distinct()
-        .map(groupEmail -> ThrowingCompletableFuture.submit(
-            () -> {
-              try {
-                return this.groupsClient.listDirectGroupMembers(groupEmail);
-              } catch (AccessDeniedException e) {
-                //
-                // Access might be denied if this is an external group,
-                // but this is okay.
-                //
-                return List.<Member>of();
-              }
-            },
-            this.executor))
+        .map(groupEmail -> this.groupMemberResolver.getMembers(groupEmail))
         .toList();
 
     var allMembers = new HashSet<>(allUserMembers);
 
     for (var listMembersFuture : listMembersFutures) {
-      var members = awaitAndRethrow(listMembersFuture)
-          .stream()
-          .map(m -> new UserEmail(m.getEmail()))
-          .collect(Collectors.toList());
-      allMembers.addAll(members);
+      allMembers.addAll(awaitAndRethrow(listMembersFuture));
     }
 
     return allMembers;
   }
 
+  @Override
+  void invalidateCachedPolicies(@NotNull ProjectId projectId) {
+    this.policyCache.invalidate(projectId);
+  }
+
   // -------------------------------------------------------------------------
   // Inner classes.
   // -------------------------------------------------------------------------
@@ -279,14 +525,18 @@ public class AssetInventoryRepository extends ProjectRoleRepository {
 
     public PrincipalSet(
         @NotNull UserEmail user,
-        @NotNull Collection<Group> groups) {
+        @NotNull Collection<GroupEmail> groups) {
       this.principalIdentifiers = groups
           .stream()
-          .map(g -> String.format("group:%s", g.getEmail()))
+          .map(g -> String.format("group:%s", g.email))
           .collect(Collectors.toSet());
       this.principalIdentifiers.add(String.format("user:%s", user.email));
     }
 
+    public @NotNull Set<String> identifiers() {
+      return Collections.unmodifiableSet(this.principalIdentifiers);
+    }
+
     public boolean isMember(@NotNull Binding binding) {
       return binding.getMembers()
           .stream()
@@ -295,13 +545,97 @@ public class AssetInventoryRepository extends ProjectRoleRepository {
   }
 
   /**
-   * @param scope Scope to use for queries.
+   * @param scope                      Scope to use for queries.
+   * @param policyCacheDuration        time to cache effective IAM policies
+   * @param policyCacheSize            maximum number of projects to cache
+   *                                   effective IAM policies for
+   * @param groupMembersCacheDuration  time to cache members of groups
+   * @param groupMembersCacheSize      maximum number of groups to cache
+   *                                   members for
+   * @param maxConcurrentGroupLookups  maximum number of groups to look up
+   *                                   members for in parallel
+   * @param maxGroupNestingDepth       maximum depth of nested groups to
+   *                                   consider, 1 to only consider groups
+   *                                   that a user is a direct member of
+   * @param projectIndexRefreshInterval time after which to rescan the scope
+   *                                   to refresh the index of projects
+   *                                   with eligible bindings
    */
   public record Options(
-      String scope) {
+      String scope,
+      Duration policyCacheDuration,
+      int policyCacheSize,
+      Duration groupMembersCacheDuration,
+      int groupMembersCacheSize,
+      Duration groupMembershipCacheDuration,
+      int groupMembershipCacheSize,
+      int maxConcurrentGroupLookups,
+      int maxGroupNestingDepth,
+      Duration projectIndexRefreshInterval) {
+    public static final Duration DEFAULT_POLICY_CACHE_DURATION = Duration.ofSeconds(30);
+    public static final int DEFAULT_POLICY_CACHE_SIZE = 1000;
+    public static final Duration DEFAULT_GROUP_MEMBERS_CACHE_DURATION = Duration.ofMinutes(1);
+    public static final int DEFAULT_GROUP_MEMBERS_CACHE_SIZE = 1000;
+    public static final Duration DEFAULT_GROUP_MEMBERSHIP_CACHE_DURATION = Duration.ofMinutes(1);
+    public static final int DEFAULT_GROUP_MEMBERSHIP_CACHE_SIZE = 1000;
+    public static final int DEFAULT_MAX_CONCURRENT_GROUP_LOOKUPS = 8;
+    public static final int DEFAULT_MAX_GROUP_NESTING_DEPTH = 5;
+    public static final Duration DEFAULT_PROJECT_INDEX_REFRESH_INTERVAL = Duration.ofMinutes(5);
 
     public Options {
       Preconditions.checkNotNull(scope, "scope");
+      Preconditions.checkNotNull(policyCacheDuration, "policyCacheDuration");
+      Preconditions.checkArgument(
+          !policyCacheDuration.isNegative(),
+          "The cache duration must not be negative");
+      Preconditions.checkArgument(
+          policyCacheSize >= 0,
+          "The cache size must not be negative");
+      Preconditions.checkNotNull(groupMembersCacheDuration, "groupMembersCacheDuration");
+      Preconditions.checkArgument(
+          !groupMembersCacheDuration.isNegative(),
+          "The cache duration must not be negative");
+      Preconditions.checkArgument(
+          groupMembersCacheSize >= 0,
+          "The cache size must not be negative");
+      Preconditions.checkNotNull(groupMembershipCacheDuration, "groupMembershipCacheDuration");
+      Preconditions.checkArgument(
+          !groupMembershipCacheDuration.isNegative(),
+          "The cache duration must not be negative");
+      Preconditions.checkArgument(
+          groupMembershipCacheSize >= 0,
+          "The cache size must not be negative");
+      Preconditions.checkArgument(
+          maxConcurrentGroupLookups > 0,
+          "The number of concurrent lookups must be positive");
+      Preconditions.checkArgument(
+          maxGroupNestingDepth > 0,
+          "The nesting depth must be positive");
+      Preconditions.checkNotNull(projectIndexRefreshInterval, "projectIndexRefreshInterval");
+      Preconditions.checkArgument(
+          !projectIndexRefreshInterval.isNegative(),
+          "The refresh interval must not be negative");
+    }
+
+    public Options(
+        String scope,
+        Duration policyCacheDuration,
+        int policyCacheSize) {
+      this(
+          scope,
+          policyCacheDuration,
+          policyCacheSize,
+          DEFAULT_GROUP_MEMBERS_CACHE_DURATION,
+          DEFAULT_GROUP_MEMBERS_CACHE_SIZE,
+          DEFAULT_GROUP_MEMBERSHIP_CACHE_DURATION,
+          DEFAULT_GROUP_MEMBERSHIP_CACHE_SIZE,
+          DEFAULT_MAX_CONCURRENT_GROUP_LOOKUPS,
+          DEFAULT_MAX_GROUP_NESTING_DEPTH,
+          DEFAULT_PROJECT_INDEX_REFRESH_INTERVAL);
+    }
+
+    public Options(String scope) {
+      this(scope, DEFAULT_POLICY_CACHE_DURATION, DEFAULT_POLICY_CACHE_SIZE);
     }
   }
 }
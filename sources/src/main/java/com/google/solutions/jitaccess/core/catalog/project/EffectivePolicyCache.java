@@ -0,0 +1,211 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.cloudasset.v1.model.PolicyInfo;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.solutions.jitaccess.core.AccessException;
+import com.google.solutions.jitaccess.core.ProjectId;
+import com.google.solutions.jitaccess.core.clients.AssetInventoryClient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Cache for effective IAM policies.
+ *
+ * The effective policies of a project comprise the project's own
+ * policy, plus the policies of all its ancestors. Projects that share
+ * an ancestor (such as sibling projects in the same folder) share
+ * the cached policy of that ancestor, so whenever one project's
+ * policies are refreshed, the ancestor's policy is refreshed for all
+ * its descendants.
+ */
+class EffectivePolicyCache {
+  private final @NotNull AssetInventoryClient assetInventoryClient;
+  private final @NotNull String scope;
+
+  /**
+   * Attached resources (starting with the project itself) of each
+   * project's effective policies.
+   */
+  private final @NotNull Cache<ProjectId, List<String>> ancestries;
+
+  /**
+   * Policies, keyed by the resource they're attached to.
+   */
+  private final @NotNull Cache<String, PolicyInfo> policies;
+
+  public EffectivePolicyCache(
+      @NotNull AssetInventoryClient assetInventoryClient,
+      @NotNull String scope,
+      @NotNull Duration cacheDuration,
+      int cacheSize) {
+    Preconditions.checkNotNull(assetInventoryClient, "assetInventoryClient");
+    Preconditions.checkNotNull(scope, "scope");
+    Preconditions.checkNotNull(cacheDuration, "cacheDuration");
+
+    this.assetInventoryClient = assetInventoryClient;
+    this.scope = scope;
+    this.ancestries = CacheBuilder.newBuilder()
+        .expireAfterWrite(cacheDuration)
+        .maximumSize(cacheSize)
+        .recordStats()
+        .build();
+    this.policies = CacheBuilder.newBuilder()
+        .expireAfterWrite(cacheDuration)
+        .maximumSize(cacheSize)
+        .build();
+  }
+
+  /**
+   * Get effective set of IAM policies for a project, ordered from
+   * the project to its topmost ancestor.
+   */
+  public @NotNull List<PolicyInfo> getEffectiveIamPolicies(
+      @NotNull ProjectId projectId) throws AccessException, IOException {
+    Preconditions.checkNotNull(projectId, "projectId");
+
+    var cachedPolicies = getCachedPolicies(projectId);
+    if (cachedPolicies != null) {
+      return cachedPolicies;
+    }
+
+    var effectivePolicies = this.assetInventoryClient.getEffectiveIamPolicies(
+        this.scope,
+        projectId);
+
+    cachePolicies(projectId, effectivePolicies);
+    return effectivePolicies;
+  }
+
+  /**
+   * Get effective set of IAM policies for multiple projects. Policies
+   * that aren't cached yet are looked up in a single batch.
+   *
+   * @return policies keyed by project, ordered from the project to
+   * its topmost ancestor.
+   */
+  public @NotNull Map<ProjectId, List<PolicyInfo>> getEffectiveIamPolicies(
+      @NotNull Collection<ProjectId> projectIds) throws AccessException, IOException {
+    Preconditions.checkNotNull(projectIds, "projectIds");
+
+    var result = new HashMap<ProjectId, List<PolicyInfo>>();
+    var uncachedProjectIds = new LinkedHashSet<ProjectId>();
+
+    for (var projectId : projectIds) {
+      var cachedPolicies = getCachedPolicies(projectId);
+      if (cachedPolicies != null) {
+        result.put(projectId, cachedPolicies);
+      } else {
+        uncachedProjectIds.add(projectId);
+      }
+    }
+
+    if (!uncachedProjectIds.isEmpty()) {
+      var fetchedPolicies = this.assetInventoryClient.batchGetEffectiveIamPolicies(
+          this.scope,
+          uncachedProjectIds);
+
+      for (var projectId : uncachedProjectIds) {
+        var effectivePolicies = fetchedPolicies.getOrDefault(projectId, List.of());
+
+        cachePolicies(projectId, effectivePolicies);
+        result.put(projectId, effectivePolicies);
+      }
+    }
+
+    return result;
+  }
+
+  private @Nullable List<PolicyInfo> getCachedPolicies(@NotNull ProjectId projectId) {
+    var ancestry = this.ancestries.getIfPresent(projectId);
+    if (ancestry == null) {
+      return null;
+    }
+
+    var cachedPolicies = new ArrayList<PolicyInfo>(ancestry.size());
+    for (var resource : ancestry) {
+      var policy = this.policies.getIfPresent(resource);
+      if (policy == null) {
+        //
+        // One of the policies has been evicted, so we have
+        // to look up all of them again.
+        //
+        return null;
+      }
+
+      cachedPolicies.add(policy);
+    }
+
+    return Collections.unmodifiableList(cachedPolicies);
+  }
+
+  private void cachePolicies(
+      @NotNull ProjectId projectId,
+      @NotNull List<PolicyInfo> effectivePolicies) {
+    if (effectivePolicies.stream().allMatch(p -> p.getAttachedResource() != null)) {
+      for (var policy : effectivePolicies) {
+        this.policies.put(policy.getAttachedResource(), policy);
+      }
+
+      this.ancestries.put(
+          projectId,
+          effectivePolicies.stream()
+              .map(PolicyInfo::getAttachedResource)
+              .filter(Objects::nonNull)
+              .toList());
+    }
+  }
+
+  /**
+   * Discard cached policies for a project, for example because
+   * we modified its IAM policy.
+   */
+  public void invalidate(@NotNull ProjectId projectId) {
+    Preconditions.checkNotNull(projectId, "projectId");
+
+    var ancestry = this.ancestries.getIfPresent(projectId);
+    this.ancestries.invalidate(projectId);
+
+    if (ancestry != null && !ancestry.isEmpty()) {
+      //
+      // The first policy is the project's own policy. Discard
+      // it too so that other readers don't see the stale version.
+      //
+      this.policies.invalidate(ancestry.get(0));
+    }
+  }
+
+  /**
+   * Get statistics for cache lookups.
+   */
+  public @NotNull CacheStats stats() {
+    return this.ancestries.stats();
+  }
+}
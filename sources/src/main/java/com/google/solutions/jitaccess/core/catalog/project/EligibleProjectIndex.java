@@ -0,0 +1,441 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.cloudasset.v1.model.Binding;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Sets;
+import com.google.solutions.jitaccess.core.ProjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index that maps principals (users and groups) to the
+ * projects in which they hold a requester privilege, i.e. an
+ * eligible role binding.
+ *
+ * The index is built from a scan of all project, folder, and
+ * organization IAM policies in a scope. Eligible bindings on a
+ * folder or organization apply to all projects underneath. Between
+ * scans, the index can be kept current by applying individual
+ * policy changes.
+ *
+ * To keep the index compact, principals and resource names are
+ * interned, and each principal's projects are stored as a sorted
+ * array of project ordinals. Lookups don't take any locks.
+ */
+class EligibleProjectIndex {
+  private static final Interner<String> INTERNER = Interners.newWeakInterner();
+
+  private volatile @NotNull State state = new State(
+      new ProjectId[0],
+      Map.of(),
+      new HashMap<>(),
+      null);
+
+  /**
+   * Policy changes that have been applied since the last scan started,
+   * keyed by resource name. We replay these after a rebuild, because the
+   * scan might not reflect them yet.
+   */
+  private final @NotNull Map<String, PolicyChange> recentChanges = new HashMap<>();
+
+  static @NotNull String intern(@NotNull String s) {
+    return INTERNER.intern(s);
+  }
+
+  /**
+   * Determine the principals that hold a requester privilege
+   * in a set of bindings.
+   */
+  static @NotNull Set<String> findEligiblePrincipals(@Nullable Collection<Binding> bindings) {
+    if (bindings == null) {
+      return Set.of();
+    }
+
+    var principals = new HashSet<String>();
+    for (var binding : bindings) {
+      if (binding.getMembers() == null ||
+          !PrivilegeFactory.classify(binding.getCondition()).isRequesterPrivilege()) {
+        continue;
+      }
+
+      for (var member : binding.getMembers()) {
+        if (member.startsWith(AssetInventoryRepository.USER_PREFIX) ||
+            member.startsWith(AssetInventoryRepository.GROUP_PREFIX)) {
+          principals.add(intern(member));
+        }
+      }
+    }
+
+    return principals;
+  }
+
+  /**
+   * Replace the contents of the index.
+   *
+   * @param projects    all projects in the scope, including their ancestry
+   * @param policies    IAM policies of projects, folders, and organizations
+   * @param scanStarted time at which the scan that produced the projects
+   *                    and policies started
+   */
+  public synchronized void rebuild(
+      @NotNull Collection<Project> projects,
+      @NotNull Collection<ResourcePolicy> policies,
+      @NotNull Instant scanStarted) {
+    Preconditions.checkNotNull(projects, "projects");
+    Preconditions.checkNotNull(policies, "policies");
+    Preconditions.checkNotNull(scanStarted, "scanStarted");
+
+    //
+    // Assign an ordinal to each project, and determine which
+    // projects lie underneath each resource.
+    //
+    var projectTable = new ProjectId[projects.size()];
+    var projectsByResource = new HashMap<String, BitSet>();
+
+    var ordinal = 0;
+    for (var project : projects) {
+      projectTable[ordinal] = project.id();
+
+      projectsByResource
+          .computeIfAbsent(intern(project.resource()), r -> new BitSet())
+          .set(ordinal);
+      for (var ancestor : project.ancestors()) {
+        projectsByResource
+            .computeIfAbsent(intern(ancestor), r -> new BitSet())
+            .set(ordinal);
+      }
+
+      ordinal++;
+    }
+
+    //
+    // Find eligible principals for each resource, skipping resources
+    // that don't contain any projects.
+    //
+    var principalsByResource = new HashMap<String, Set<String>>();
+    for (var policy : policies) {
+      var resource = intern(policy.resource());
+      if (!projectsByResource.containsKey(resource)) {
+        continue;
+      }
+
+      var principals = findEligiblePrincipals(policy.bindings());
+      if (!principals.isEmpty()) {
+        principalsByResource
+            .computeIfAbsent(resource, r -> new HashSet<>())
+            .addAll(principals);
+      }
+    }
+
+    var newState = new State(
+        projectTable,
+        compact(projectsByResource),
+        principalsByResource,
+        scanStarted);
+
+    //
+    // Replay changes that the scan might have missed, and forget
+    // about the ones that it has already seen.
+    //
+    this.recentChanges.values().removeIf(c -> !c.time().isAfter(scanStarted));
+    for (var change : this.recentChanges.entrySet()) {
+      newState.updateEligiblePrincipals(change.getKey(), change.getValue().principals());
+    }
+
+    this.state = newState;
+  }
+
+  /**
+   * Apply a change to the IAM policy of a project, folder, or
+   * organization.
+   *
+   * Changes must be applied in order for each resource. Changes
+   * that are older than the last change or scan are ignored.
+   *
+   * Changes to resources that weren't included in the last
+   * scan (such as newly created projects) take effect after the
+   * next rebuild.
+   *
+   * @param resource   resource name, in the form projects/NUMBER,
+   *                   folders/NUMBER, or organizations/NUMBER
+   * @param bindings   bindings of the resource's new IAM policy, or
+   *                   null if the resource has been deleted.
+   * @param changeTime time at which the policy was changed
+   * @return true if the change affected the index.
+   */
+  public synchronized boolean applyPolicyChange(
+      @NotNull String resource,
+      @Nullable Collection<Binding> bindings,
+      @NotNull Instant changeTime) {
+    Preconditions.checkNotNull(resource, "resource");
+    Preconditions.checkNotNull(changeTime, "changeTime");
+
+    resource = intern(resource);
+
+    var lastRebuilt = this.state.lastRebuilt;
+    if (lastRebuilt != null && !changeTime.isAfter(lastRebuilt)) {
+      //
+      // The last scan already reflects this change.
+      //
+      return false;
+    }
+
+    var previousChange = this.recentChanges.get(resource);
+    if (previousChange != null && !changeTime.isAfter(previousChange.time())) {
+      //
+      // Out-of-order or duplicate delivery.
+      //
+      return false;
+    }
+
+    var principals = findEligiblePrincipals(bindings);
+    this.recentChanges.put(resource, new PolicyChange(changeTime, principals));
+
+    return this.state.updateEligiblePrincipals(resource, principals);
+  }
+
+  private static @NotNull Map<String, int[]> compact(@NotNull Map<String, BitSet> sets) {
+    var compacted = new HashMap<String, int[]>(sets.size());
+    for (var entry : sets.entrySet()) {
+      compacted.put(entry.getKey(), entry.getValue().stream().toArray());
+    }
+
+    return compacted;
+  }
+
+  /**
+   * Find projects in which any of the given principals holds a
+   * requester privilege.
+   *
+   * @param principals principal identifiers such as "user:alice@example.com"
+   *                   or "group:admins@example.com".
+   */
+  public @NotNull SortedSet<ProjectId> findProjects(
+      @NotNull Collection<String> principals) {
+    Preconditions.checkNotNull(principals, "principals");
+
+    var state = this.state;
+    var projects = new TreeSet<ProjectId>();
+
+    for (var principal : principals) {
+      var ordinals = state.projectsByPrincipal.get(principal);
+      if (ordinals != null) {
+        for (var ordinal : ordinals) {
+          projects.add(state.projects[ordinal]);
+        }
+      }
+    }
+
+    return projects;
+  }
+
+  /**
+   * Start time of the scan that the index was last built from,
+   * or null if the index hasn't been built yet.
+   */
+  public @Nullable Instant lastRebuilt() {
+    return this.state.lastRebuilt;
+  }
+
+  /**
+   * Number of principals that hold a requester privilege in
+   * at least one project.
+   */
+  public int principalCount() {
+    return this.state.projectsByPrincipal.size();
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  private static class State {
+    /**
+     * Table of projects, indexed by ordinal.
+     */
+    final @NotNull ProjectId[] projects;
+
+    /**
+     * Ordinals of the projects underneath each resource (including
+     * the project itself), keyed by resource name.
+     */
+    final @NotNull Map<String, int[]> projectsByResource;
+
+    /**
+     * Eligible principals, keyed by the resource whose policy
+     * grants them eligibility. Guarded by the index's lock.
+     */
+    final @NotNull Map<String, Set<String>> principalsByResource;
+
+    /**
+     * Inverse of principalsByResource. Guarded by the index's lock.
+     */
+    final @NotNull Map<String, Set<String>> resourcesByPrincipal;
+
+    /**
+     * Sorted ordinals of the projects that each principal holds
+     * a requester privilege in.
+     */
+    final @NotNull Map<String, int[]> projectsByPrincipal;
+
+    final @Nullable Instant lastRebuilt;
+
+    State(
+        @NotNull ProjectId[] projects,
+        @NotNull Map<String, int[]> projectsByResource,
+        @NotNull Map<String, Set<String>> principalsByResource,
+        @Nullable Instant lastRebuilt) {
+      this.projects = projects;
+      this.projectsByResource = projectsByResource;
+      this.principalsByResource = principalsByResource;
+      this.resourcesByPrincipal = new HashMap<>();
+      this.projectsByPrincipal = new ConcurrentHashMap<>();
+      this.lastRebuilt = lastRebuilt;
+
+      for (var entry : principalsByResource.entrySet()) {
+        for (var principal : entry.getValue()) {
+          this.resourcesByPrincipal
+              .computeIfAbsent(principal, p -> new HashSet<>())
+              .add(entry.getKey());
+        }
+      }
+
+      for (var principal : this.resourcesByPrincipal.keySet()) {
+        updateProjects(principal);
+      }
+    }
+
+    /**
+     * Recalculate the projects of a principal.
+     */
+    private void updateProjects(@NotNull String principal) {
+      var resources = this.resourcesByPrincipal.get(principal);
+      if (resources == null) {
+        this.projectsByPrincipal.remove(principal);
+        return;
+      }
+
+      var ordinals = new BitSet();
+      for (var resource : resources) {
+        for (var ordinal : this.projectsByResource.get(resource)) {
+          ordinals.set(ordinal);
+        }
+      }
+
+      this.projectsByPrincipal.put(principal, ordinals.stream().toArray());
+    }
+
+    /**
+     * Replace the eligible principals of a resource, and update
+     * the projects of all affected principals.
+     */
+    boolean updateEligiblePrincipals(
+        @NotNull String resource,
+        @NotNull Set<String> principals) {
+      if (!this.projectsByResource.containsKey(resource)) {
+        return false;
+      }
+
+      var previousPrincipals = this.principalsByResource.getOrDefault(resource, Set.of());
+      if (previousPrincipals.equals(principals)) {
+        return false;
+      }
+
+      if (principals.isEmpty()) {
+        this.principalsByResource.remove(resource);
+      } else {
+        this.principalsByResource.put(resource, new HashSet<>(principals));
+      }
+
+      var removedPrincipals = Sets.difference(previousPrincipals, principals).immutableCopy();
+      var addedPrincipals = Sets.difference(principals, previousPrincipals).immutableCopy();
+
+      for (var principal : removedPrincipals) {
+        var resources = this.resourcesByPrincipal.get(principal);
+        resources.remove(resource);
+        if (resources.isEmpty()) {
+          this.resourcesByPrincipal.remove(principal);
+        }
+
+        updateProjects(principal);
+      }
+
+      for (var principal : addedPrincipals) {
+        this.resourcesByPrincipal
+            .computeIfAbsent(principal, p -> new HashSet<>())
+            .add(resource);
+
+        updateProjects(principal);
+      }
+
+      return true;
+    }
+  }
+
+  private record PolicyChange(
+      @NotNull Instant time,
+      @NotNull Set<String> principals) {
+  }
+
+  /**
+   * A project and its ancestry.
+   *
+   * @param id        project ID
+   * @param resource  resource name, in the form projects/NUMBER
+   * @param ancestors resource names of ancestors, in the form folders/NUMBER
+   *                  or organizations/NUMBER
+   */
+  record Project(
+      @NotNull ProjectId id,
+      @NotNull String resource,
+      @NotNull List<String> ancestors) {
+    public Project {
+      Preconditions.checkNotNull(id, "id");
+      Preconditions.checkNotNull(resource, "resource");
+      Preconditions.checkNotNull(ancestors, "ancestors");
+    }
+  }
+
+  /**
+   * IAM policy of a project, folder, or organization.
+   *
+   * @param resource resource name, in the form projects/NUMBER,
+   *                 folders/NUMBER, or organizations/NUMBER
+   * @param bindings bindings of the resource's IAM policy
+   */
+  record ResourcePolicy(
+      @NotNull String resource,
+      @NotNull List<Binding> bindings) {
+    public ResourcePolicy {
+      Preconditions.checkNotNull(resource, "resource");
+      Preconditions.checkNotNull(bindings, "bindings");
+    }
+  }
+}
@@ -0,0 +1,97 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads asset feed messages from a local file that contains one
+ * message per line, for example for local development.
+ *
+ * The source remembers how far it has read, so that lines appended
+ * to the file later are received by subsequent calls. Incomplete
+ * lines are left for the next call.
+ */
+public class FileAssetFeedSource implements AssetFeedSource {
+  private final @NotNull Path file;
+  private long offset = 0;
+  private long lineNumber = 0;
+
+  public FileAssetFeedSource(@NotNull Path file) {
+    Preconditions.checkNotNull(file, "file");
+    this.file = file;
+  }
+
+  @Override
+  public synchronized @NotNull List<Message> receive() throws IOException {
+    if (!Files.exists(this.file)) {
+      return List.of();
+    }
+
+    byte[] buffer;
+    try (var reader = new RandomAccessFile(this.file.toFile(), "r")) {
+      var available = reader.length() - this.offset;
+      if (available <= 0) {
+        return List.of();
+      }
+
+      buffer = new byte[(int)Math.min(available, Integer.MAX_VALUE)];
+      reader.seek(this.offset);
+      reader.readFully(buffer);
+    }
+
+    var messages = new ArrayList<Message>();
+    var lineStart = 0;
+    for (var i = 0; i < buffer.length; i++) {
+      if (buffer[i] != '\n') {
+        continue;
+      }
+
+      var line = new String(buffer, lineStart, i - lineStart, StandardCharsets.UTF_8).trim();
+      this.lineNumber++;
+      if (!line.isEmpty()) {
+        messages.add(new Message(String.valueOf(this.lineNumber), line));
+      }
+
+      lineStart = i + 1;
+    }
+
+    this.offset += lineStart;
+    return messages;
+  }
+
+  @Override
+  public void acknowledge(@NotNull List<Message> messages) {
+    //
+    // Messages aren't redelivered, so there's nothing to do.
+    //
+  }
+}
@@ -0,0 +1,210 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.directory.model.Member;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.solutions.jitaccess.core.AccessDeniedException;
+import com.google.solutions.jitaccess.core.AccessException;
+import com.google.solutions.jitaccess.core.UserEmail;
+import com.google.solutions.jitaccess.core.clients.DirectoryGroupsClient;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the members of groups.
+ *
+ * Results are cached for a limited time. Concurrent lookups for the
+ * same group share a single request, and the number of concurrent
+ * requests is limited so that expanding many groups at once doesn't
+ * exhaust the executor or the Directory API quota.
+ */
+class GroupMemberResolver {
+  private final @NotNull DirectoryGroupsClient groupsClient;
+  private final @NotNull Executor executor;
+  private final int maxConcurrentLookups;
+
+  private final @NotNull Cache<String, Set<UserEmail>> members;
+  private final @NotNull Map<String, CompletableFuture<Set<UserEmail>>> pendingLookups = new ConcurrentHashMap<>();
+  private final @NotNull Queue<QueuedLookup> queuedLookups = new ConcurrentLinkedQueue<>();
+  private final @NotNull AtomicInteger runningLookups = new AtomicInteger();
+
+  public GroupMemberResolver(
+      @NotNull DirectoryGroupsClient groupsClient,
+      @NotNull Executor executor,
+      @NotNull Duration cacheDuration,
+      int cacheSize,
+      int maxConcurrentLookups) {
+    Preconditions.checkNotNull(groupsClient, "groupsClient");
+    Preconditions.checkNotNull(executor, "executor");
+    Preconditions.checkNotNull(cacheDuration, "cacheDuration");
+    Preconditions.checkArgument(maxConcurrentLookups > 0, "maxConcurrentLookups");
+
+    this.groupsClient = groupsClient;
+    this.executor = executor;
+    this.maxConcurrentLookups = maxConcurrentLookups;
+    this.members = CacheBuilder.newBuilder()
+        .expireAfterWrite(cacheDuration)
+        .maximumSize(cacheSize)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Start queued lookups, as long as we're below the concurrency limit.
+   */
+  private void startQueuedLookups() {
+    while (!this.queuedLookups.isEmpty()) {
+      var running = this.runningLookups.get();
+      if (running >= this.maxConcurrentLookups) {
+        //
+        // Once a running lookup completes, it'll start the next one.
+        //
+        return;
+      }
+
+      if (!this.runningLookups.compareAndSet(running, running + 1)) {
+        continue;
+      }
+
+      var lookup = this.queuedLookups.poll();
+      if (lookup == null) {
+        //
+        // Someone else got there first.
+        //
+        this.runningLookups.decrementAndGet();
+        continue;
+      }
+
+      try {
+        this.executor.execute(() -> {
+          try {
+            runLookup(lookup);
+          } finally {
+            this.runningLookups.decrementAndGet();
+            startQueuedLookups();
+          }
+        });
+      } catch (RuntimeException e) {
+        //
+        // The executor rejected the lookup. Fail it so that
+        // waiters don't hang.
+        //
+        this.runningLookups.decrementAndGet();
+        this.pendingLookups.remove(lookup.groupEmail, lookup.result);
+        lookup.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Perform a lookup and cache its result.
+   */
+  private void runLookup(@NotNull QueuedLookup lookup) {
+    try {
+      var members = fetchMembers(lookup.groupEmail);
+      this.members.put(lookup.groupEmail, members);
+      lookup.result.complete(members);
+    } catch (Exception e) {
+      lookup.result.completeExceptionally(e);
+    } finally {
+      this.pendingLookups.remove(lookup.groupEmail, lookup.result);
+    }
+  }
+
+  /**
+   * Look up the members of a group, bypassing the cache.
+   */
+  private @NotNull Set<UserEmail> fetchMembers(
+      @NotNull String groupEmail) throws AccessException, IOException {
+    try {
+      return this.groupsClient.listDirectGroupMembers(groupEmail)
+          .stream()
+          .map(Member::getEmail)
+          .map(UserEmail::new)
+          .collect(Collectors.toUnmodifiableSet());
+    } catch (AccessDeniedException e) {
+      //
+      // Access might be denied if this is an external group,
+      // but this is okay.
+      //
+      return Set.of();
+    }
+  }
+
+  /**
+   * Get the users that are a direct member of a group.
+   */
+  public @NotNull CompletableFuture<Set<UserEmail>> getMembers(@NotNull String groupEmail) {
+    Preconditions.checkNotNull(groupEmail, "groupEmail");
+
+    var cachedMembers = this.members.getIfPresent(groupEmail);
+    if (cachedMembers != null) {
+      return CompletableFuture.completedFuture(cachedMembers);
+    }
+
+    var lookup = new CompletableFuture<Set<UserEmail>>();
+    var pendingLookup = this.pendingLookups.putIfAbsent(groupEmail, lookup);
+    if (pendingLookup != null) {
+      //
+      // Someone else is already looking up this group, share the result.
+      //
+      return pendingLookup;
+    }
+
+    this.queuedLookups.add(new QueuedLookup(groupEmail, lookup));
+
+    startQueuedLookups();
+    return lookup;
+  }
+
+  /**
+   * Get statistics for cache lookups.
+   */
+  public @NotNull CacheStats stats() {
+    return this.members.stats();
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  private record QueuedLookup(
+      @NotNull String groupEmail,
+      @NotNull CompletableFuture<Set<UserEmail>> result
+  ) {
+  }
+}
@@ -0,0 +1,178 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.directory.model.Group;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.solutions.jitaccess.core.*;
+import com.google.solutions.jitaccess.core.clients.DirectoryGroupsClient;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Resolves the groups a user is a member of, including groups that
+ * the user is only an indirect member of because of nesting.
+ *
+ * The resolver memoizes the edges between a group and its parent groups,
+ * so users that share groups also share the lookups for these groups.
+ * Transitive closures are computed using a breadth-first search, which
+ * is bounded by a maximum nesting depth, and cached per user.
+ */
+class GroupMembershipResolver {
+  private final @NotNull DirectoryGroupsClient groupsClient;
+  private final @NotNull Executor executor;
+  private final int maxDepth;
+
+  /**
+   * Parent groups of each group.
+   */
+  private final @NotNull Cache<GroupEmail, Set<GroupEmail>> parents;
+
+  /**
+   * Transitive group memberships of each user.
+   */
+  private final @NotNull Cache<UserEmail, Set<GroupEmail>> memberships;
+
+  public GroupMembershipResolver(
+      @NotNull DirectoryGroupsClient groupsClient,
+      @NotNull Executor executor,
+      @NotNull Duration cacheDuration,
+      int cacheSize,
+      int maxDepth) {
+    Preconditions.checkNotNull(groupsClient, "groupsClient");
+    Preconditions.checkNotNull(executor, "executor");
+    Preconditions.checkNotNull(cacheDuration, "cacheDuration");
+    Preconditions.checkArgument(maxDepth > 0, "maxDepth");
+
+    this.groupsClient = groupsClient;
+    this.executor = executor;
+    this.maxDepth = maxDepth;
+    this.parents = CacheBuilder.newBuilder()
+        .expireAfterWrite(cacheDuration)
+        .maximumSize(cacheSize)
+        .build();
+    this.memberships = CacheBuilder.newBuilder()
+        .expireAfterWrite(cacheDuration)
+        .maximumSize(cacheSize)
+        .recordStats()
+        .build();
+  }
+
+  private static @NotNull Set<GroupEmail> toGroupEmails(@NotNull Iterable<Group> groups) {
+    var emails = new HashSet<GroupEmail>();
+    for (var group : groups) {
+      emails.add(new GroupEmail(group.getEmail()));
+    }
+    return emails;
+  }
+
+  /**
+   * Get the groups that a group is a direct member of.
+   */
+  private @NotNull Set<GroupEmail> getParentGroups(
+      @NotNull GroupEmail group) throws AccessException, IOException {
+    var cachedParents = this.parents.getIfPresent(group);
+    if (cachedParents != null) {
+      return cachedParents;
+    }
+
+    Set<GroupEmail> parents;
+    try {
+      parents = Collections.unmodifiableSet(
+          toGroupEmails(this.groupsClient.listDirectParentGroups(group)));
+    } catch (AccessDeniedException | ResourceNotFoundException e) {
+      //
+      // This might be an external group, which can't be nested
+      // in any of our groups.
+      //
+      parents = Set.of();
+    }
+
+    this.parents.put(group, parents);
+    return parents;
+  }
+
+  /**
+   * Get all groups that a user is a member of, either directly or
+   * through nested groups.
+   */
+  public @NotNull Set<GroupEmail> listTransitiveGroupMemberships(
+      @NotNull UserEmail user) throws AccessException, IOException {
+    Preconditions.checkNotNull(user, "user");
+
+    var cachedMemberships = this.memberships.getIfPresent(user);
+    if (cachedMemberships != null) {
+      return cachedMemberships;
+    }
+
+    var allGroups = toGroupEmails(this.groupsClient.listDirectGroupMemberships(user));
+
+    //
+    // Walk up the hierarchy, one level at a time. Groups of
+    // the same level are looked up in parallel.
+    //
+    var frontier = Set.copyOf(allGroups);
+    for (int depth = 1; depth < this.maxDepth && !frontier.isEmpty(); depth++) {
+      var futures = frontier
+          .stream()
+          .map(group -> ThrowingCompletableFuture.submit(
+              () -> getParentGroups(group),
+              this.executor))
+          .toList();
+
+      var nextFrontier = new HashSet<GroupEmail>();
+      for (var future : futures) {
+        for (var parent : AssetInventoryRepository.awaitAndRethrow(future)) {
+          //
+          // Only visit each group once, this also protects us
+          // against cycles.
+          //
+          if (allGroups.add(parent)) {
+            nextFrontier.add(parent);
+          }
+        }
+      }
+
+      frontier = nextFrontier;
+    }
+
+    var memberships = Collections.unmodifiableSet(allGroups);
+    this.memberships.put(user, memberships);
+    return memberships;
+  }
+
+  /**
+   * Get statistics for the per-user cache.
+   */
+  public @NotNull CacheStats stats() {
+    return this.memberships.stats();
+  }
+}
@@ -103,7 +103,7 @@ public class MpaProjectRoleCatalog extends ProjectRoleCatalog {
     //
 
     var userPrivileges = this.repository
-        .findRequesterPrivileges(
+        .findRequesterPrivilegesForAccessCheck(
             user,
             projectId,
             Set.of(activationType),
@@ -198,6 +198,20 @@ public class MpaProjectRoleCatalog extends ProjectRoleCatalog {
         EnumSet.of(RequesterPrivilege.Status.INACTIVE, RequesterPrivilege.Status.ACTIVE));
   }
 
+  /**
+   * List available requester privileges across multiple projects.
+   */
+  public Map<ProjectId, RequesterPrivilegeSet<ProjectRoleBinding>> listRequesterPrivilegesInProjects(
+      UserEmail user,
+      Collection<ProjectId> projectIds) throws AccessException, IOException {
+    return this.repository.findRequesterPrivilegesInProjects(
+        user,
+        projectIds,
+        Set.of(new SelfApproval(), new PeerApproval(""),
+            new ExternalApproval("")),
+        EnumSet.of(RequesterPrivilege.Status.INACTIVE, RequesterPrivilege.Status.ACTIVE));
+  }
+
   @Override
   public @NotNull SortedSet<UserEmail> listReviewers(
       UserEmail requestingUser,
@@ -238,6 +252,43 @@ public class MpaProjectRoleCatalog extends ProjectRoleCatalog {
         Set.of(request.requesterPrivilege()));
   }
 
+  @Override
+  public void verifyUserCanRequestAll(
+      @NotNull Collection<ActivationRequest<ProjectRoleBinding>> requests) throws AccessException, IOException {
+
+    for (var request : requests) {
+      validateRequest(request);
+    }
+
+    //
+    // Group requests so that we only need to look up privileges once
+    // per user, project, and activation type.
+    //
+    // NB. Activation types don't implement equals, so we group by name.
+    //
+    record RequestGroup(UserEmail user, ProjectId projectId, String activationType) {}
+
+    var groups = requests
+        .stream()
+        .collect(Collectors.groupingBy(
+            request -> new RequestGroup(
+                request.requestingUser(),
+                ProjectActivationRequest.projectId(request),
+                request.activationType().name()),
+            LinkedHashMap::new,
+            Collectors.toList()));
+
+    for (var group : groups.values()) {
+      verifyUserCanActivateRequesterPrivileges(
+          group.get(0).requestingUser(),
+          ProjectActivationRequest.projectId(group.get(0)),
+          group.get(0).activationType(),
+          group.stream()
+              .map(ActivationRequest::requesterPrivilege)
+              .collect(Collectors.toSet()));
+    }
+  }
+
   @Override
   public void verifyUserCanApprove(
       UserEmail approvingUser,
@@ -275,6 +326,14 @@ public class MpaProjectRoleCatalog extends ProjectRoleCatalog {
 
   }
 
+  @Override
+  public void onAccessProvisioned(@NotNull ActivationRequest<ProjectRoleBinding> request) {
+    //
+    // Make sure that subsequent lookups see the new binding.
+    //
+    this.repository.invalidateCachedPolicies(ProjectActivationRequest.projectId(request));
+  }
+
   // -------------------------------------------------------------------------
   // Inner classes.
   // -------------------------------------------------------------------------
@@ -0,0 +1,163 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.cloudasset.v1.model.IamPolicyAnalysis;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.solutions.jitaccess.core.AccessException;
+import com.google.solutions.jitaccess.core.QuotaExceededException;
+import com.google.solutions.jitaccess.core.UserEmail;
+import com.google.solutions.jitaccess.core.clients.PolicyAnalyzerClient;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Cache for Policy Analyzer results.
+ *
+ * Results are served from cache for a short time. After that, they're
+ * kept around for a while longer so that we can fall back to them
+ * if we run out of Policy Analyzer quota.
+ */
+class PolicyAnalysisCache {
+  private final @NotNull PolicyAnalyzerClient policyAnalyzerClient;
+  private final @NotNull Duration cacheDuration;
+  private final @NotNull Cache<Key, Entry> analyses;
+
+  public PolicyAnalysisCache(
+      @NotNull PolicyAnalyzerClient policyAnalyzerClient,
+      @NotNull Duration cacheDuration,
+      @NotNull Duration staleCacheDuration,
+      int cacheSize) {
+    Preconditions.checkNotNull(policyAnalyzerClient, "policyAnalyzerClient");
+    Preconditions.checkNotNull(cacheDuration, "cacheDuration");
+    Preconditions.checkNotNull(staleCacheDuration, "staleCacheDuration");
+
+    this.policyAnalyzerClient = policyAnalyzerClient;
+    this.cacheDuration = cacheDuration;
+    this.analyses = CacheBuilder.newBuilder()
+        .expireAfterWrite(cacheDuration.compareTo(staleCacheDuration) > 0
+            ? cacheDuration
+            : staleCacheDuration)
+        .maximumSize(cacheSize)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Find resources that a user can access, see
+   * PolicyAnalyzerClient.findAccessibleResourcesByUser.
+   *
+   * If we exceeded the Policy Analyzer quota, the result might be
+   * stale.
+   */
+  public @NotNull Result findAccessibleResourcesByUser(
+      @NotNull String scope,
+      @NotNull UserEmail user,
+      @NotNull Optional<String> permission,
+      @NotNull Optional<String> fullResourceName,
+      boolean expandResources) throws AccessException, IOException {
+    var key = new Key(scope, user, permission, fullResourceName, expandResources);
+
+    var cached = this.analyses.getIfPresent(key);
+    if (cached != null && cached.retrieved.plus(this.cacheDuration).isAfter(Instant.now())) {
+      return new Result(cached.analysis, cached.retrieved, false);
+    }
+
+    try {
+      var analysis = this.policyAnalyzerClient.findAccessibleResourcesByUser(
+          scope,
+          user,
+          permission,
+          fullResourceName,
+          expandResources);
+
+      this.analyses.put(key, new Entry(analysis, Instant.now()));
+      return new Result(analysis, Instant.now(), false);
+    } catch (QuotaExceededException e) {
+      if (cached != null) {
+        //
+        // Serving a stale result is better than failing.
+        //
+        return new Result(cached.analysis, cached.retrieved, true);
+      }
+
+      throw (QuotaExceededException) e.fillInStackTrace();
+    }
+  }
+
+  /**
+   * Discard cached results for a resource, for example because
+   * we modified its IAM policy.
+   */
+  public void invalidate(@NotNull String fullResourceName) {
+    Preconditions.checkNotNull(fullResourceName, "fullResourceName");
+
+    this.analyses
+        .asMap()
+        .keySet()
+        .removeIf(key -> key.fullResourceName.isPresent() &&
+            key.fullResourceName.get().equals(fullResourceName));
+  }
+
+  /**
+   * Get statistics for cache lookups.
+   */
+  public @NotNull CacheStats stats() {
+    return this.analyses.stats();
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  private record Key(
+      @NotNull String scope,
+      @NotNull UserEmail user,
+      @NotNull Optional<String> permission,
+      @NotNull Optional<String> fullResourceName,
+      boolean expandResources) {
+  }
+
+  private record Entry(
+      @NotNull IamPolicyAnalysis analysis,
+      @NotNull Instant retrieved) {
+  }
+
+  /**
+   * @param analysis  analysis result
+   * @param retrieved time the result was retrieved from the API
+   * @param stale     indicates whether the result is outdated because
+   *                  we exceeded the Policy Analyzer quota
+   */
+  record Result(
+      @NotNull IamPolicyAnalysis analysis,
+      @NotNull Instant retrieved,
+      boolean stale) {
+  }
+}
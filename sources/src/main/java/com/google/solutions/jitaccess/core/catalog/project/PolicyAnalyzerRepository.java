@@ -26,18 +26,24 @@ import com.google.api.services.cloudasset.v1.model.IamPolicyAnalysis;
 import com.google.api.services.cloudasset.v1.model.IamPolicyAnalysisResult;
 import com.google.common.base.Preconditions;
 import com.google.solutions.jitaccess.cel.TemporaryIamCondition;
-import com.google.solutions.jitaccess.core.AccessException;
-import com.google.solutions.jitaccess.core.ProjectId;
-import com.google.solutions.jitaccess.core.RoleBinding;
-import com.google.solutions.jitaccess.core.UserEmail;
+import com.google.solutions.jitaccess.core.*;
 import com.google.solutions.jitaccess.core.catalog.ActivationType;
 import com.google.solutions.jitaccess.core.catalog.RequesterPrivilege;
 import com.google.solutions.jitaccess.core.catalog.RequesterPrivilegeSet;
 import com.google.solutions.jitaccess.core.clients.PolicyAnalyzerClient;
+import com.google.solutions.jitaccess.core.clients.ResourceManagerClient;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -51,17 +57,47 @@ import java.util.stream.Stream;
  * "eligible").
  */
 public class PolicyAnalyzerRepository extends ProjectRoleRepository {
+  private static final String RESOURCE_MANAGER_PREFIX = "//cloudresourcemanager.googleapis.com/";
+
+  /**
+   * Permission to filter project analyses by. The permission only applies
+   * to projects and represents the lowest level of access to a project.
+   */
+  private static final String PROJECT_GET_PERMISSION = "resourcemanager.projects.get";
+
   private final @NotNull Options options;
+  private final @NotNull Executor executor;
+  private final @Nullable ResourceManagerClient resourceManagerClient;
   private final @NotNull PolicyAnalyzerClient policyAnalyzerClient;
+  private final @NotNull PolicyAnalysisCache analysisCache;
 
   public PolicyAnalyzerRepository(
+      @NotNull Executor executor,
+      @Nullable ResourceManagerClient resourceManagerClient,
       @NotNull PolicyAnalyzerClient policyAnalyzerClient,
       @NotNull Options options) {
+    Preconditions.checkNotNull(executor, "executor");
     Preconditions.checkNotNull(policyAnalyzerClient, "assetInventoryClient");
     Preconditions.checkNotNull(options, "options");
+    Preconditions.checkArgument(
+        options.maxConcurrentFolderAnalyses == 0 || resourceManagerClient != null,
+        "Splitting analyses by folder requires a Resource Manager client");
 
+    this.executor = executor;
+    this.resourceManagerClient = resourceManagerClient;
     this.policyAnalyzerClient = policyAnalyzerClient;
     this.options = options;
+    this.analysisCache = new PolicyAnalysisCache(
+        policyAnalyzerClient,
+        options.analysisCacheDuration,
+        options.staleAnalysisCacheDuration,
+        options.analysisCacheSize);
+  }
+
+  public PolicyAnalyzerRepository(
+      @NotNull PolicyAnalyzerClient policyAnalyzerClient,
+      @NotNull Options options) {
+    this(Runnable::run, null, policyAnalyzerClient, options);
   }
 
   private record ConditionalRoleBinding(RoleBinding binding, Expr condition) {
@@ -106,6 +142,104 @@ public class PolicyAnalyzerRepository extends ProjectRoleRepository {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Find projects in which the analysis result indicates that the
+   * user holds a permanent or eligible binding.
+   */
+  private static @NotNull Stream<ProjectId> findProjectIds(
+      @NotNull IamPolicyAnalysis analysisResult) {
+    //
+    // Consider permanent and eligible bindings.
+    //
+    var roleBindings = findRoleBindings(
+        analysisResult,
+        condition -> condition == null ||
+            PrivilegeFactory.classify(condition).isRequesterPrivilege(),
+        evalResult -> evalResult == null ||
+            "TRUE".equalsIgnoreCase(evalResult) ||
+            "CONDITIONAL".equalsIgnoreCase(evalResult));
+
+    return roleBindings
+        .stream()
+        .map(b -> ProjectId.fromFullResourceName(b.binding.fullResourceName()));
+  }
+
+  /**
+   * Get the organization or folder that the scope refers to, if any.
+   */
+  static @NotNull Optional<ResourceId> parseContainerScope(@NotNull String scope) {
+    if (scope.startsWith("organizations/")) {
+      return Optional.of(new OrganizationId(scope.substring("organizations/".length())));
+    } else if (scope.startsWith("folders/")) {
+      return Optional.of(new FolderId(scope.substring("folders/".length())));
+    } else {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Find projects by running one analysis per top-level folder (and one
+   * per project that isn't in any folder), with bounded parallelism.
+   */
+  private @NotNull SortedSet<ProjectId> findProjectsWithRequesterPrivilegesByFolder(
+      @NotNull UserEmail user,
+      @NotNull ResourceId container) throws AccessException, IOException {
+    assert this.resourceManagerClient != null;
+
+    //
+    // Divide the scope into top-level folders, which we analyze including
+    // their descendants, and projects that are direct descendants of the
+    // scope, which we analyze individually.
+    //
+    // NB. We keep the scope as-is (instead of using the folder as scope)
+    // so that the analysis considers bindings inherited from the organization
+    // or any folders between the scope and the analyzed resource.
+    //
+    var pendingAnalyses = new ConcurrentLinkedQueue<FolderAnalysis>();
+    for (var folder : this.resourceManagerClient.listFolders(container)) {
+      pendingAnalyses.add(new FolderAnalysis(RESOURCE_MANAGER_PREFIX + folder.path(), true));
+    }
+
+    for (var project : this.resourceManagerClient.searchProjectIds("parent:" + container.path())) {
+      pendingAnalyses.add(new FolderAnalysis(project.getFullResourceName(), false));
+    }
+
+    //
+    // Let a bounded number of workers drain the queue so that we don't
+    // exceed the Policy Analyzer's concurrency limits.
+    //
+    var projects = new ConcurrentSkipListSet<ProjectId>();
+    var workers = new ArrayList<CompletableFuture<Void>>();
+    var workerCount = Math.min(pendingAnalyses.size(), this.options.maxConcurrentFolderAnalyses);
+
+    for (int i = 0; i < workerCount; i++) {
+      workers.add(ThrowingCompletableFuture.submit(
+          () -> {
+            FolderAnalysis analysis;
+            while ((analysis = pendingAnalyses.poll()) != null) {
+              findProjectIds(this.analysisCache
+                  .findAccessibleResourcesByUser(
+                      this.options.scope,
+                      user,
+                      Optional.of(PROJECT_GET_PERMISSION),
+                      Optional.of(analysis.fullResourceName),
+                      analysis.expandResources)
+                  .analysis())
+                  .forEach(projects::add);
+            }
+
+            return null;
+          },
+          this.executor));
+    }
+
+    for (var worker : workers) {
+      AssetInventoryRepository.awaitAndRethrow(worker);
+    }
+
+    return new TreeSet<>(projects);
+  }
+
   // ---------------------------------------------------------------------------
   // ProjectRoleRepository.
   // ---------------------------------------------------------------------------
@@ -129,31 +263,23 @@ public class PolicyAnalyzerRepository extends ProjectRoleRepository {
     // - only applies to projects, and has no meaning on descendant resources
     // - represents the lowest level of access to a project.
     //
-    var analysisResult = this.policyAnalyzerClient.findAccessibleResourcesByUser(
+    // For large scopes, we can further reduce the risk (and the latency)
+    // by splitting the analysis by folder.
+    //
+    var container = parseContainerScope(this.options.scope);
+    if (this.options.maxConcurrentFolderAnalyses > 0 && container.isPresent()) {
+      return findProjectsWithRequesterPrivilegesByFolder(user, container.get());
+    }
+
+    var analysisResult = this.analysisCache.findAccessibleResourcesByUser(
         this.options.scope,
         user,
-        Optional.of("resourcemanager.projects.get"),
+        Optional.of(PROJECT_GET_PERMISSION),
         Optional.empty(),
-        true);
+        true)
+        .analysis();
 
-    //
-    // Consider permanent and eligible bindings.
-    //
-    var roleBindings = findRoleBindings(
-        analysisResult,
-        condition -> condition == null ||
-            PrivilegeFactory
-                .createRequesterPrivilege(
-                    new ProjectRoleBinding(new RoleBinding(new ProjectId("project"), "role")),
-                    condition)
-                .isPresent(),
-        evalResult -> evalResult == null ||
-            "TRUE".equalsIgnoreCase(evalResult) ||
-            "CONDITIONAL".equalsIgnoreCase(evalResult));
-
-    return roleBindings
-        .stream()
-        .map(b -> ProjectId.fromFullResourceName(b.binding.fullResourceName()))
+    return findProjectIds(analysisResult)
         .collect(Collectors.toCollection(TreeSet::new));
   }
 
@@ -180,13 +306,55 @@ public class PolicyAnalyzerRepository extends ProjectRoleRepository {
     // admin role.
     //
 
-    var analysisResult = this.policyAnalyzerClient.findAccessibleResourcesByUser(
+    var cachedAnalysis = this.analysisCache.findAccessibleResourcesByUser(
+        this.options.scope,
+        user,
+        Optional.empty(),
+        Optional.of(projectId.getFullResourceName()),
+        false);
+
+    return createRequesterPrivilegeSet(
+        projectId,
+        cachedAnalysis,
+        typesToInclude,
+        statusesToInclude);
+  }
+
+  @Override
+  public @NotNull RequesterPrivilegeSet<ProjectRoleBinding> findRequesterPrivilegesForAccessCheck(
+      UserEmail user,
+      @NotNull ProjectId projectId,
+      @NotNull Set<ActivationType> typesToInclude,
+      @NotNull EnumSet<RequesterPrivilege.Status> statusesToInclude) throws AccessException, IOException {
+
+    Preconditions.checkNotNull(user, "user");
+    Preconditions.checkNotNull(projectId, "projectId");
+
+    //
+    // Bypass the cache. If we've exceeded the Policy Analyzer quota,
+    // fail instead of falling back to a stale result.
+    //
+    var analysis = this.policyAnalyzerClient.findAccessibleResourcesByUser(
         this.options.scope,
         user,
         Optional.empty(),
         Optional.of(projectId.getFullResourceName()),
         false);
 
+    return createRequesterPrivilegeSet(
+        projectId,
+        new PolicyAnalysisCache.Result(analysis, Instant.now(), false),
+        typesToInclude,
+        statusesToInclude);
+  }
+
+  private static @NotNull RequesterPrivilegeSet<ProjectRoleBinding> createRequesterPrivilegeSet(
+      @NotNull ProjectId projectId,
+      PolicyAnalysisCache.@NotNull Result cachedAnalysis,
+      @NotNull Set<ActivationType> typesToInclude,
+      @NotNull EnumSet<RequesterPrivilege.Status> statusesToInclude) {
+    var analysisResult = cachedAnalysis.analysis();
+
     var allAvailable = new TreeSet<RequesterPrivilege<ProjectRoleBinding>>();
     if (statusesToInclude.contains(RequesterPrivilege.Status.INACTIVE)) {
 
@@ -247,7 +415,14 @@ public class PolicyAnalyzerRepository extends ProjectRoleRepository {
     var warnings = Stream.ofNullable(analysisResult.getNonCriticalErrors())
         .flatMap(Collection::stream)
         .map(e -> e.getCause())
-        .collect(Collectors.toSet());
+        .collect(Collectors.toCollection(HashSet::new));
+
+    if (cachedAnalysis.stale()) {
+      warnings.add(String.format(
+          "The Policy Analyzer quota has been exceeded, the list of roles might be outdated " +
+              "(last updated %s)",
+          DateTimeFormatter.ISO_INSTANT.format(cachedAnalysis.retrieved())));
+    }
 
     return buildRequesterPrivilegeSet(allAvailable, allActive, allExpired, warnings);
   }
@@ -271,11 +446,9 @@ public class PolicyAnalyzerRepository extends ProjectRoleRepository {
         // Narrow down to IAM bindings with a privilege that allows reviewing the
         // activation type.
         .filter(result -> result.getIamBinding() != null &&
-            PrivilegeFactory.createReviewerPrivilege(roleBinding, result.getIamBinding().getCondition())
-                .isPresent())
-        .filter(result -> result.getIamBinding() != null &&
-            PrivilegeFactory.createReviewerPrivilege(roleBinding, result.getIamBinding().getCondition())
-                .get().reviewableTypes().stream().anyMatch(type -> type.isParentTypeOf(activationType)))
+            PrivilegeFactory
+                .classify(result.getIamBinding().getCondition())
+                .isReviewerPrivilegeFor(activationType))
 
         // Collect identities (users and group members)
         .filter(result -> result.getIdentityList() != null)
@@ -286,18 +459,72 @@ public class PolicyAnalyzerRepository extends ProjectRoleRepository {
         .collect(Collectors.toCollection(TreeSet::new));
   }
 
+  @Override
+  void invalidateCachedPolicies(@NotNull ProjectId projectId) {
+    this.analysisCache.invalidate(projectId.getFullResourceName());
+  }
+
   // -------------------------------------------------------------------------
   // Inner classes.
   // -------------------------------------------------------------------------
 
   /**
-   * @param scope Scope to use for queries.
+   * Resource to analyze when splitting analyses by folder.
+   */
+  private record FolderAnalysis(
+      @NotNull String fullResourceName,
+      boolean expandResources) {
+  }
+
+  /**
+   * @param scope                       Scope to use for queries.
+   * @param analysisCacheDuration       time to cache Policy Analyzer results
+   * @param staleAnalysisCacheDuration  time to retain Policy Analyzer results
+   *                                    to fall back to when the quota has
+   *                                    been exceeded
+   * @param analysisCacheSize           maximum number of Policy Analyzer
+   *                                    results to cache
+   * @param maxConcurrentFolderAnalyses maximum number of per-folder analyses
+   *                                    to run in parallel when listing projects
+   *                                    of an organization or folder scope, or
+   *                                    0 to analyze the scope as a whole
    */
   public record Options(
-      String scope) {
+      String scope,
+      Duration analysisCacheDuration,
+      Duration staleAnalysisCacheDuration,
+      int analysisCacheSize,
+      int maxConcurrentFolderAnalyses) {
+    public static final Duration DEFAULT_ANALYSIS_CACHE_DURATION = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_STALE_ANALYSIS_CACHE_DURATION = Duration.ofMinutes(10);
+    public static final int DEFAULT_ANALYSIS_CACHE_SIZE = 1000;
+    public static final int DEFAULT_MAX_CONCURRENT_FOLDER_ANALYSES = 0;
 
     public Options {
       Preconditions.checkNotNull(scope, "scope");
+      Preconditions.checkNotNull(analysisCacheDuration, "analysisCacheDuration");
+      Preconditions.checkArgument(
+          !analysisCacheDuration.isNegative(),
+          "The cache duration must not be negative");
+      Preconditions.checkNotNull(staleAnalysisCacheDuration, "staleAnalysisCacheDuration");
+      Preconditions.checkArgument(
+          !staleAnalysisCacheDuration.isNegative(),
+          "The cache duration must not be negative");
+      Preconditions.checkArgument(
+          analysisCacheSize >= 0,
+          "The cache size must not be negative");
+      Preconditions.checkArgument(
+          maxConcurrentFolderAnalyses >= 0,
+          "The number of concurrent analyses must not be negative");
+    }
+
+    public Options(String scope) {
+      this(
+          scope,
+          DEFAULT_ANALYSIS_CACHE_DURATION,
+          DEFAULT_STALE_ANALYSIS_CACHE_DURATION,
+          DEFAULT_ANALYSIS_CACHE_SIZE,
+          DEFAULT_MAX_CONCURRENT_FOLDER_ANALYSES);
     }
   }
 }
@@ -22,16 +22,22 @@
 package com.google.solutions.jitaccess.core.catalog.project;
 
 import com.google.api.services.cloudasset.v1.model.Expr;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.solutions.jitaccess.cel.TemporaryIamCondition;
+import com.google.solutions.jitaccess.core.catalog.ActivationType;
 import com.google.solutions.jitaccess.core.catalog.ExternalApproval;
 import com.google.solutions.jitaccess.core.catalog.PeerApproval;
 import com.google.solutions.jitaccess.core.catalog.RequesterPrivilege;
 import com.google.solutions.jitaccess.core.catalog.ReviewerPrivilege;
 import com.google.solutions.jitaccess.core.catalog.SelfApproval;
 import com.google.solutions.jitaccess.core.catalog.RequesterPrivilege.Status;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -61,36 +67,85 @@ class PrivilegeFactory {
   private static final Pattern REVIEWER_CONDITION_PATTERN = Pattern
       .compile("\\s*has\\(\\s*\\{\\s*\\}.reviewerprivilege" + VALID_TOPIC_PATTERN + "\\s*\\)\\s*$");
 
-  private static boolean isMatchingCondition(Expr iamCondition, Pattern pattern) {
-    if (iamCondition == null) {
-      return false;
+  /**
+   * Maximum number of classifications to keep.
+   */
+  static final int CLASSIFICATION_CACHE_SIZE = 1000;
+
+  /**
+   * Classifications, keyed by expression. Large policies tend to use
+   * the same handful of conditions over and over again, so it's cheaper
+   * to classify each expression once than to match it against all
+   * patterns for every binding.
+   */
+  private static final Cache<String, Classification> CLASSIFICATIONS = CacheBuilder.newBuilder()
+      .maximumSize(CLASSIFICATION_CACHE_SIZE)
+      .build();
+
+  private static String getTopic(Matcher matcher) {
+    if (matcher.groupCount() == 4) {
+      return matcher.group(2) == null ? "" : matcher.group(2);
     }
 
-    if (iamCondition.getExpression() == null) {
-      return false;
+    return "";
+  }
+
+  private static @NotNull Classification classifyExpression(@NotNull String expression) {
+    var lowerCaseExpression = expression.toLowerCase();
+
+    var matcher = SELF_APPROVER_CONDITION_PATTERN.matcher(lowerCaseExpression);
+    if (matcher.matches()) {
+      return new Classification(new SelfApproval(), null);
     }
 
-    // Strip all whitespace to simplify expression matching.
-    var expression = iamCondition
-        .getExpression()
-        .toLowerCase();
+    matcher = PEER_CONDITION_PATTERN.matcher(lowerCaseExpression);
+    if (matcher.matches()) {
+      //
+      // Peer approval conditions grant both, the privilege to request
+      // and to review.
+      //
+      var type = new PeerApproval(getTopic(matcher));
+      return new Classification(type, type);
+    }
 
-    return pattern.matcher(expression).matches();
+    matcher = REQUESTER_CONDITION_PATTERN.matcher(lowerCaseExpression);
+    if (matcher.matches()) {
+      return new Classification(new ExternalApproval(getTopic(matcher)), null);
+    }
+
+    matcher = REVIEWER_CONDITION_PATTERN.matcher(lowerCaseExpression);
+    if (matcher.matches()) {
+      return new Classification(null, new ExternalApproval(getTopic(matcher)));
+    }
+
+    return Classification.NONE;
   }
 
-  private static String getTopic(Expr iamCondition, Pattern pattern) {
-    var expression = iamCondition
-        .getExpression()
-        .toLowerCase();
+  /**
+   * Determine which privileges an IAM condition grants.
+   */
+  public static @NotNull Classification classify(@Nullable Expr iamCondition) {
+    if (iamCondition == null || iamCondition.getExpression() == null) {
+      return Classification.NONE;
+    }
+
+    var expression = iamCondition.getExpression();
+    if (expression.indexOf('{') < 0) {
+      //
+      // None of the patterns can match. This is the case for most
+      // conditions, including temporary access conditions, so avoid
+      // cluttering the cache with them.
+      //
+      return Classification.NONE;
+    }
 
-    var matcher = pattern.matcher(expression);
-    if (matcher.find()) {
-      if (matcher.groupCount() == 4) {
-        return matcher.group(2) == null ? "" : matcher.group(2);
-      }
+    var classification = CLASSIFICATIONS.getIfPresent(expression);
+    if (classification == null) {
+      classification = classifyExpression(expression);
+      CLASSIFICATIONS.put(expression, classification);
     }
 
-    return "";
+    return classification;
   }
 
   /** Check if the IAM condition indicates an activated role binding */
@@ -102,47 +157,71 @@ class PrivilegeFactory {
   public static Optional<RequesterPrivilege<ProjectRoleBinding>> createRequesterPrivilege(
       ProjectRoleBinding projectRoleBinding,
       Expr iamCondition) {
-    if (isMatchingCondition(iamCondition, SELF_APPROVER_CONDITION_PATTERN)) {
-      return Optional
-          .of(new RequesterPrivilege<ProjectRoleBinding>(projectRoleBinding,
-              projectRoleBinding.roleBinding().role(),
-              new SelfApproval(),
-              Status.INACTIVE));
-    } else if (isMatchingCondition(iamCondition, PEER_CONDITION_PATTERN)) {
-      String topic = getTopic(iamCondition, PEER_CONDITION_PATTERN);
-      return Optional
-          .of(new RequesterPrivilege<ProjectRoleBinding>(projectRoleBinding,
-              projectRoleBinding.roleBinding().role(), new PeerApproval(topic),
-              Status.INACTIVE));
-    } else if (isMatchingCondition(iamCondition, REQUESTER_CONDITION_PATTERN)) {
-      String topic = getTopic(iamCondition, REQUESTER_CONDITION_PATTERN);
-      return Optional
-          .of(new RequesterPrivilege<ProjectRoleBinding>(projectRoleBinding,
-              projectRoleBinding.roleBinding().role(), new ExternalApproval(topic),
-              Status.INACTIVE));
-    } else {
+    return createRequesterPrivilege(projectRoleBinding, classify(iamCondition));
+  }
+
+  public static Optional<RequesterPrivilege<ProjectRoleBinding>> createRequesterPrivilege(
+      ProjectRoleBinding projectRoleBinding,
+      Classification classification) {
+    if (classification.requesterType() == null) {
       return Optional.empty();
     }
+
+    return Optional
+        .of(new RequesterPrivilege<ProjectRoleBinding>(projectRoleBinding,
+            projectRoleBinding.roleBinding().role(),
+            classification.requesterType(),
+            Status.INACTIVE));
   }
 
   public static Optional<ReviewerPrivilege<ProjectRoleBinding>> createReviewerPrivilege(
       ProjectRoleBinding projectRoleBinding,
       Expr iamCondition) {
-    if (isMatchingCondition(iamCondition, PEER_CONDITION_PATTERN)) {
-      String topic = getTopic(iamCondition, PEER_CONDITION_PATTERN);
-      return Optional
-          .of(new ReviewerPrivilege<ProjectRoleBinding>(projectRoleBinding,
-              projectRoleBinding.roleBinding().role(),
-              Set.of(new PeerApproval(topic))));
-    }
-    if (isMatchingCondition(iamCondition, REVIEWER_CONDITION_PATTERN)) {
-      String topic = getTopic(iamCondition, REVIEWER_CONDITION_PATTERN);
-      return Optional
-          .of(new ReviewerPrivilege<ProjectRoleBinding>(projectRoleBinding,
-              projectRoleBinding.roleBinding().role(),
-              Set.of(new ExternalApproval(topic))));
-    } else {
+    return createReviewerPrivilege(projectRoleBinding, classify(iamCondition));
+  }
+
+  public static Optional<ReviewerPrivilege<ProjectRoleBinding>> createReviewerPrivilege(
+      ProjectRoleBinding projectRoleBinding,
+      Classification classification) {
+    if (classification.reviewerType() == null) {
       return Optional.empty();
     }
+
+    return Optional
+        .of(new ReviewerPrivilege<ProjectRoleBinding>(projectRoleBinding,
+            projectRoleBinding.roleBinding().role(),
+            Set.of(classification.reviewerType())));
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  /**
+   * Privileges granted by an IAM condition.
+   *
+   * @param requesterType activation type that the condition permits requesting, if any
+   * @param reviewerType activation type that the condition permits reviewing, if any
+   */
+  public record Classification(
+      @Nullable ActivationType requesterType,
+      @Nullable ActivationType reviewerType) {
+
+    static final Classification NONE = new Classification(null, null);
+
+    /**
+     * Check if the condition grants a requester privilege.
+     */
+    public boolean isRequesterPrivilege() {
+      return this.requesterType != null;
+    }
+
+    /**
+     * Check if the condition grants a privilege to review
+     * the given activation type.
+     */
+    public boolean isReviewerPrivilegeFor(@NotNull ActivationType activationType) {
+      return this.reviewerType != null && this.reviewerType.isParentTypeOf(activationType);
+    }
   }
 }
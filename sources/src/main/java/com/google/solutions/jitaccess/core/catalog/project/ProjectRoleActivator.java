@@ -29,12 +29,15 @@ import com.google.solutions.jitaccess.core.*;
 import com.google.solutions.jitaccess.core.catalog.*;
 import com.google.solutions.jitaccess.core.clients.ResourceManagerClient;
 import jakarta.enterprise.context.Dependent;
+import jakarta.inject.Inject;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -45,17 +48,50 @@ import java.util.stream.Collectors;
 public class ProjectRoleActivator extends RequesterPrivilegeActivator<ProjectRoleBinding> {
   private final @NotNull ResourceManagerClient resourceManagerClient;
 
+  @Inject
   public ProjectRoleActivator(
       RequesterPrivilegeCatalog<ProjectRoleBinding> catalog,
       @NotNull ResourceManagerClient resourceManagerClient,
-      JustificationPolicy policy) {
-    super(catalog, policy);
+      JustificationPolicy policy,
+      @NotNull ActivationStateStore stateStore) {
+    super(catalog, policy, stateStore);
 
     Preconditions.checkNotNull(resourceManagerClient, "resourceManagerClient");
 
     this.resourceManagerClient = resourceManagerClient;
   }
 
+  public ProjectRoleActivator(
+      RequesterPrivilegeCatalog<ProjectRoleBinding> catalog,
+      @NotNull ResourceManagerClient resourceManagerClient,
+      JustificationPolicy policy) {
+    this(catalog, resourceManagerClient, policy, new InMemoryActivationStateStore());
+  }
+
+  private static @NotNull Binding createTemporaryBinding(
+      String bindingDescription,
+      UserEmail user,
+      @NotNull String role,
+      @NotNull Instant startTime,
+      @NotNull Duration duration) {
+    return new Binding()
+        .setMembers(List.of("user:" + user))
+        .setRole(role)
+        .setCondition(new com.google.api.services.cloudresourcemanager.v3.model.Expr()
+            .setTitle(PrivilegeFactory.ACTIVATION_CONDITION_TITLE)
+            .setDescription(bindingDescription)
+            .setExpression(new TemporaryIamCondition(startTime, duration).toString()));
+  }
+
+  private static @NotNull String createBindingDescription(
+      @NotNull UserEmail approvingUser,
+      @NotNull ActivationRequest<ProjectRoleBinding> request) {
+    return String.format(
+        "Approved by %s, justification: %s",
+        approvingUser.email,
+        request.justification());
+  }
+
   private void provisionTemporaryBinding(
       String bindingDescription,
       ProjectId projectId,
@@ -71,19 +107,9 @@ public class ProjectRoleActivator extends RequesterPrivilegeActivator<ProjectRol
     // accumulating junk, and to prevent hitting the binding limit.
     //
 
-    var binding = new Binding()
-        .setMembers(List.of("user:" + user))
-        .setRole(role)
-        .setCondition(new com.google.api.services.cloudresourcemanager.v3.model.Expr()
-            .setTitle(PrivilegeFactory.ACTIVATION_CONDITION_TITLE)
-            .setDescription(bindingDescription)
-            .setExpression(new TemporaryIamCondition(startTime, duration).toString()));
-
-    // TODO(later): Add bindings in a single request.
-
     this.resourceManagerClient.addProjectIamBinding(
         projectId,
-        binding,
+        createTemporaryBinding(bindingDescription, user, role, startTime, duration),
         EnumSet.of(ResourceManagerClient.IamBindingOptions.PURGE_EXISTING_TEMPORARY_BINDINGS),
         bindingDescription);
   }
@@ -100,10 +126,7 @@ public class ProjectRoleActivator extends RequesterPrivilegeActivator<ProjectRol
 
     Preconditions.checkNotNull(request, "request");
 
-    var bindingDescription = String.format(
-        "Approved by %s, justification: %s",
-        approvingUser.email,
-        request.justification());
+    var bindingDescription = createBindingDescription(approvingUser, request);
 
     //
     // NB. The start/end time for the binding is derived from the approval token. If
@@ -123,6 +146,50 @@ public class ProjectRoleActivator extends RequesterPrivilegeActivator<ProjectRol
         request.duration());
   }
 
+  @Override
+  protected void provisionAccess(
+      UserEmail approvingUser,
+      @NotNull Collection<ActivationRequest<ProjectRoleBinding>> requests)
+      throws AccessException, AlreadyExistsException, IOException {
+
+    Preconditions.checkNotNull(requests, "requests");
+
+    //
+    // Add all bindings for the same project in a single policy update
+    // so that we don't compete with ourselves for the policy's etag.
+    //
+    var requestsByProject = requests
+        .stream()
+        .collect(Collectors.groupingBy(
+            ProjectActivationRequest::projectId,
+            LinkedHashMap::new,
+            Collectors.toList()));
+
+    for (var projectRequests : requestsByProject.entrySet()) {
+      var bindings = projectRequests.getValue()
+          .stream()
+          .map(request -> createTemporaryBinding(
+              createBindingDescription(approvingUser, request),
+              request.requestingUser(),
+              request.requesterPrivilege().roleBinding().role(),
+              request.startTime(),
+              request.duration()))
+          .collect(Collectors.toList());
+
+      var requestReason = projectRequests.getValue()
+          .stream()
+          .map(request -> createBindingDescription(approvingUser, request))
+          .distinct()
+          .collect(Collectors.joining("; "));
+
+      this.resourceManagerClient.addProjectIamBindings(
+          projectRequests.getKey(),
+          bindings,
+          EnumSet.of(ResourceManagerClient.IamBindingOptions.PURGE_EXISTING_TEMPORARY_BINDINGS),
+          requestReason);
+    }
+  }
+
   @Override
   public @NotNull JsonWebTokenConverter<com.google.solutions.jitaccess.core.catalog.ActivationRequest<ProjectRoleBinding>> createTokenConverter() {
     return new JsonWebTokenConverter<>() {
@@ -35,10 +35,7 @@ import com.google.solutions.jitaccess.core.catalog.PrivilegeId;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
-import java.util.EnumSet;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -61,6 +58,39 @@ public abstract class ProjectRoleRepository {
       Set<ActivationType> typesToInclude,
       EnumSet<RequesterPrivilege.Status> statusesToInclude) throws AccessException, IOException;
 
+  /**
+   * List requester privileges for the given user to decide whether the
+   * user is allowed to activate them.
+   *
+   * Unlike findRequesterPrivileges, implementations must not use
+   * cached results that might be outdated.
+   */
+  RequesterPrivilegeSet<ProjectRoleBinding> findRequesterPrivilegesForAccessCheck(
+      UserEmail user,
+      ProjectId projectId,
+      Set<ActivationType> typesToInclude,
+      EnumSet<RequesterPrivilege.Status> statusesToInclude) throws AccessException, IOException {
+    return findRequesterPrivileges(user, projectId, typesToInclude, statusesToInclude);
+  }
+
+  /**
+   * List requester privileges for the given user across multiple projects.
+   */
+  Map<ProjectId, RequesterPrivilegeSet<ProjectRoleBinding>> findRequesterPrivilegesInProjects(
+      UserEmail user,
+      Collection<ProjectId> projectIds,
+      Set<ActivationType> typesToInclude,
+      EnumSet<RequesterPrivilege.Status> statusesToInclude) throws AccessException, IOException {
+    var privileges = new HashMap<ProjectId, RequesterPrivilegeSet<ProjectRoleBinding>>();
+    for (var projectId : projectIds) {
+      privileges.put(
+          projectId,
+          findRequesterPrivileges(user, projectId, typesToInclude, statusesToInclude));
+    }
+
+    return privileges;
+  }
+
   /**
    * List users that hold an eligible reviewer privilege for a role binding.
    */
@@ -68,6 +98,13 @@ public abstract class ProjectRoleRepository {
       ProjectRoleBinding roleBinding,
       ActivationType activationType) throws AccessException, IOException;
 
+  /**
+   * Discard any cached policy information for a project, for example
+   * because its IAM policy has been modified.
+   */
+  void invalidateCachedPolicies(@NotNull ProjectId projectId) {
+  }
+
   static <T extends PrivilegeId> @NotNull RequesterPrivilegeSet<T> buildRequesterPrivilegeSet(
       @NotNull Set<RequesterPrivilege<T>> availableRequesterPrivileges,
       @NotNull Set<ActivatedRequesterPrivilege<T>> validActivations, // TODO(later): rename to active
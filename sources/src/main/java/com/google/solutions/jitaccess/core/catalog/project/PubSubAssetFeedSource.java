@@ -0,0 +1,73 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.common.base.Preconditions;
+import com.google.solutions.jitaccess.core.AccessException;
+import com.google.solutions.jitaccess.core.clients.PubSubClient;
+import com.google.solutions.jitaccess.core.clients.PubSubSubscription;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Receives asset feed messages from a Pub/Sub pull subscription.
+ */
+public class PubSubAssetFeedSource implements AssetFeedSource {
+  static final int MAX_MESSAGES_PER_PULL = 100;
+
+  private final @NotNull PubSubClient pubSubClient;
+  private final @NotNull PubSubSubscription subscription;
+
+  public PubSubAssetFeedSource(
+      @NotNull PubSubClient pubSubClient,
+      @NotNull PubSubSubscription subscription) {
+    Preconditions.checkNotNull(pubSubClient, "pubSubClient");
+    Preconditions.checkNotNull(subscription, "subscription");
+
+    this.pubSubClient = pubSubClient;
+    this.subscription = subscription;
+  }
+
+  @Override
+  public @NotNull List<Message> receive() throws AccessException, IOException {
+    return this.pubSubClient
+        .pull(this.subscription, MAX_MESSAGES_PER_PULL)
+        .stream()
+        .filter(m -> m.getAckId() != null && m.getMessage() != null)
+        .map(m -> new Message(
+            m.getAckId(),
+            m.getMessage().getData() != null
+                ? new String(m.getMessage().decodeData(), StandardCharsets.UTF_8)
+                : ""))
+        .toList();
+  }
+
+  @Override
+  public void acknowledge(@NotNull List<Message> messages) throws AccessException, IOException {
+    this.pubSubClient.acknowledge(
+        this.subscription,
+        messages.stream().map(Message::id).toList());
+  }
+}
@@ -24,23 +24,41 @@ package com.google.solutions.jitaccess.core.clients;
 import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.cloudasset.v1.CloudAsset;
+import com.google.api.services.cloudasset.v1.model.EffectiveIamPolicy;
+import com.google.api.services.cloudasset.v1.model.IamPolicySearchResult;
 import com.google.api.services.cloudasset.v1.model.PolicyInfo;
+import com.google.api.services.cloudasset.v1.model.ResourceSearchResult;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.solutions.jitaccess.core.*;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
-import java.util.List;
+import java.util.*;
 
 /**
  * Adapter for the Asset Inventory API.
  */
 public class AssetInventoryClient {
   public static final String OAUTH_SCOPE = "https://www.googleapis.com/auth/cloud-platform";
+
+  /**
+   * Maximum number of resources that can be passed to a single
+   * BatchGetEffectiveIamPolicies request.
+   */
+  public static final int MAX_BATCH_GET_SIZE = 20;
+
+  public static final String PROJECT_ASSET_TYPE = "cloudresourcemanager.googleapis.com/Project";
+  public static final String FOLDER_ASSET_TYPE = "cloudresourcemanager.googleapis.com/Folder";
+  public static final String ORGANIZATION_ASSET_TYPE = "cloudresourcemanager.googleapis.com/Organization";
+
+  private static final int SEARCH_PAGE_SIZE = 500;
+
   private final @NotNull GoogleCredentials credentials;
   protected final HttpTransport.@NotNull Options httpOptions;
+  private final HttpTransport.@NotNull CachedClient<CloudAsset> client;
+  private final @NotNull RetryPolicy retryPolicy;
 
   public AssetInventoryClient(
       @NotNull GoogleCredentials credentials,
@@ -50,19 +68,27 @@ public class AssetInventoryClient {
 
     this.credentials = credentials;
     this.httpOptions = httpOptions;
+
+    this.retryPolicy = new RetryPolicy("CloudAsset", RetryPolicy.Options.DEFAULT);
+    this.client = new HttpTransport.CachedClient<>(
+        "CloudAsset",
+        transport -> new CloudAsset.Builder(
+            transport,
+            GsonFactory.getDefaultInstance(),
+            HttpTransport.newAuthenticatingRequestInitializer(credentials, httpOptions, this.retryPolicy))
+            .setApplicationName(ApplicationVersion.USER_AGENT)
+            .build());
   }
 
-  protected @NotNull CloudAsset createClient() throws IOException {
-    try {
-      return new CloudAsset.Builder(
-          HttpTransport.newTransport(),
-          new GsonFactory(),
-          HttpTransport.newAuthenticatingRequestInitializer(this.credentials, this.httpOptions))
-          .setApplicationName(ApplicationVersion.USER_AGENT)
-          .build();
-    } catch (GeneralSecurityException e) {
-      throw new IOException("Creating a CloudAsset client failed", e);
-    }
+  protected @NotNull CloudAsset getClient() throws IOException {
+    return this.client.get();
+  }
+
+  /**
+   * Get statistics about retried requests.
+   */
+  public @NotNull RetryPolicy.Stats getRetryStats() {
+    return this.retryPolicy.getStats();
   }
 
   /**
@@ -74,17 +100,94 @@ public class AssetInventoryClient {
     Preconditions.checkNotNull(scope, "scope");
     Preconditions.checkNotNull(projectId, "projectId");
 
+    return batchGetEffectiveIamPolicies(scope, List.of(projectId))
+        .getOrDefault(projectId, List.of());
+  }
+
+  /**
+   * Get effective set of IAM policies for multiple projects.
+   *
+   * Projects are looked up in batches of up to MAX_BATCH_GET_SIZE, so
+   * that listing policies for a handful of projects only takes a single
+   * round trip. If a batch fails because one of its projects doesn't exist,
+   * the projects of that batch are looked up individually so that a single
+   * missing project doesn't affect the others.
+   *
+   * @return effective policies, keyed by project. Projects that the API
+   * didn't return any results for, or that don't exist, are missing from
+   * the map.
+   * @throws ResourceNotFoundException if a single project was requested and
+   * this project doesn't exist.
+   */
+  public @NotNull Map<ProjectId, List<PolicyInfo>> batchGetEffectiveIamPolicies(
+      String scope,
+      @NotNull Collection<ProjectId> projectIds) throws AccessException, IOException {
+    Preconditions.checkNotNull(scope, "scope");
+    Preconditions.checkNotNull(projectIds, "projectIds");
+
+    //
+    // Map full resource names back to project IDs so that we can
+    // correlate results with the requested projects.
+    //
+    var projectsByResourceName = new LinkedHashMap<String, ProjectId>();
+    for (var projectId : projectIds) {
+      projectsByResourceName.put(projectId.getFullResourceName(), projectId);
+    }
+
+    var results = new ArrayList<EffectiveIamPolicy>();
+    for (var batch : Lists.partition(
+        new ArrayList<>(projectsByResourceName.keySet()),
+        MAX_BATCH_GET_SIZE)) {
+      try {
+        results.addAll(executeBatchGet(scope, batch));
+      } catch (ResourceNotFoundException e) {
+        if (projectsByResourceName.size() == 1) {
+          throw new ResourceNotFoundException(
+              String.format("The project '%s' does not exist", projectsByResourceName.get(batch.get(0))),
+              e);
+        }
+
+        //
+        // The API doesn't tell us which of the projects doesn't exist,
+        // so fall back to looking them up one by one.
+        //
+        for (var resourceName : batch) {
+          try {
+            results.addAll(executeBatchGet(scope, List.of(resourceName)));
+          } catch (ResourceNotFoundException ignored) {
+            //
+            // Project doesn't exist, skip it.
+            //
+          }
+        }
+      }
+    }
+
+    var policies = new HashMap<ProjectId, List<PolicyInfo>>();
+    for (var result : results) {
+      var projectId = projectsByResourceName.get(result.getFullResourceName());
+      if (projectId != null) {
+        policies.put(
+            projectId,
+            result.getPolicies() != null ? result.getPolicies() : List.of());
+      }
+    }
+
+    return policies;
+  }
+
+  private @NotNull List<EffectiveIamPolicy> executeBatchGet(
+      @NotNull String scope,
+      @NotNull List<String> resourceNames) throws AccessException, IOException {
     try {
-      var results = createClient()
+      var results = getClient()
           .effectiveIamPolicies()
           .batchGet(scope)
-          .setNames(List.of(projectId.getFullResourceName()))
+          .setNames(resourceNames)
           .execute()
           .getPolicyResults();
 
-      return results.isEmpty()
-          ? List.of()
-          : results.get(0).getPolicies();
+      return results != null ? results : List.of();
     } catch (GoogleJsonResponseException e) {
       switch (e.getStatusCode()) {
         case 401:
@@ -94,7 +197,7 @@ public class AssetInventoryClient {
               String.format("Denied access to scope '%s'", scope), e);
         case 404:
           throw new ResourceNotFoundException(
-              String.format("The project '%s' does not exist", projectId), e);
+              String.format("One or more of the resources %s do not exist", resourceNames), e);
         case 429:
           throw new QuotaExceededException(
               "Exceeded quota for BatchGetEffectiveIamPolicies API requests. Consider increasing the request "
@@ -106,4 +209,104 @@ public class AssetInventoryClient {
       }
     }
   }
+
+  /**
+   * Search for projects in a scope, including their ancestry.
+   */
+  public @NotNull List<ResourceSearchResult> searchProjects(
+      @NotNull String scope) throws AccessException, IOException {
+    Preconditions.checkNotNull(scope, "scope");
+
+    try {
+      var client = getClient();
+      var allResults = new ArrayList<ResourceSearchResult>();
+
+      String pageToken = null;
+      do {
+        var response = client
+            .v1()
+            .searchAllResources(scope)
+            .setAssetTypes(List.of(PROJECT_ASSET_TYPE))
+            .setPageSize(SEARCH_PAGE_SIZE)
+            .setPageToken(pageToken)
+            .execute();
+
+        if (response.getResults() != null) {
+          allResults.addAll(response.getResults());
+        }
+
+        pageToken = response.getNextPageToken();
+      } while (pageToken != null && !pageToken.isEmpty());
+
+      return allResults;
+    } catch (GoogleJsonResponseException e) {
+      switch (e.getStatusCode()) {
+        case 401:
+          throw new NotAuthenticatedException("Not authenticated", e);
+        case 403:
+          throw new AccessDeniedException(
+              String.format("Denied access to scope '%s'", scope), e);
+        case 429:
+          throw new QuotaExceededException(
+              "Exceeded quota for SearchAllResources API requests. Consider increasing the request "
+                  +
+                  "quota in the application project.",
+              e);
+        default:
+          throw (GoogleJsonResponseException) e.fillInStackTrace();
+      }
+    }
+  }
+
+  /**
+   * Search for IAM policies attached to projects, folders, or
+   * organizations in a scope.
+   */
+  public @NotNull List<IamPolicySearchResult> searchResourceManagerIamPolicies(
+      @NotNull String scope) throws AccessException, IOException {
+    Preconditions.checkNotNull(scope, "scope");
+
+    try {
+      var client = getClient();
+      var allResults = new ArrayList<IamPolicySearchResult>();
+
+      String pageToken = null;
+      do {
+        var response = client
+            .v1()
+            .searchAllIamPolicies(scope)
+            .setAssetTypes(List.of(
+                PROJECT_ASSET_TYPE,
+                FOLDER_ASSET_TYPE,
+                ORGANIZATION_ASSET_TYPE))
+            .setPageSize(SEARCH_PAGE_SIZE)
+            .setPageToken(pageToken)
+            .execute();
+
+        if (response.getResults() != null) {
+          allResults.addAll(response.getResults());
+        }
+
+        pageToken = response.getNextPageToken();
+      } while (pageToken != null && !pageToken.isEmpty());
+
+      return allResults;
+    } catch (GoogleJsonResponseException e) {
+      switch (e.getStatusCode()) {
+        case 401:
+          throw new NotAuthenticatedException("Not authenticated", e);
+        case 403:
+          throw new AccessDeniedException(
+              String.format("Denied access to scope '%s'", scope), e);
+        case 429:
+          throw new QuotaExceededException(
+              "Exceeded quota for SearchAllIamPolicies API requests. Consider increasing the request "
+                  +
+                  "quota in the application project.",
+              e);
+        default:
+          throw (GoogleJsonResponseException) e.fillInStackTrace();
+      }
+    }
+  }
 }
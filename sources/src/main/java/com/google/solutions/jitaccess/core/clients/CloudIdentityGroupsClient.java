@@ -33,7 +33,6 @@ import jakarta.ws.rs.NotFoundException;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
@@ -53,6 +52,7 @@ public class CloudIdentityGroupsClient {
   private final @NotNull Options options;
   private final @NotNull GoogleCredentials credentials;
   private final HttpTransport.@NotNull Options httpOptions;
+  private final HttpTransport.@NotNull CachedClient<CloudIdentity> client;
 
   public CloudIdentityGroupsClient(
     @NotNull GoogleCredentials credentials,
@@ -66,20 +66,19 @@ public class CloudIdentityGroupsClient {
     this.credentials = credentials;
     this.options = options;
     this.httpOptions = httpOptions;
-  }
 
-  private @NotNull CloudIdentity createClient() throws IOException {
-    try {
-      return new CloudIdentity.Builder(
-        HttpTransport.newTransport(),
-        new GsonFactory(),
-        HttpTransport.newAuthenticatingRequestInitializer(this.credentials, this.httpOptions))
+    this.client = new HttpTransport.CachedClient<>(
+      "Cloud Identity",
+      transport -> new CloudIdentity.Builder(
+        transport,
+        GsonFactory.getDefaultInstance(),
+        HttpTransport.newAuthenticatingRequestInitializer(credentials, httpOptions))
         .setApplicationName(ApplicationVersion.USER_AGENT)
-        .build();
-    }
-    catch (GeneralSecurityException e) {
-      throw new IOException("Creating a Cloud Identity client failed", e);
-    }
+        .build());
+  }
+
+  private @NotNull CloudIdentity getClient() throws IOException {
+    return this.client.get();
   }
 
   private static boolean isAlreadyExistsError(
@@ -159,7 +158,7 @@ public class CloudIdentityGroupsClient {
   public @NotNull Group getGroup(
     @NotNull GroupId groupId
   ) throws AccessException, IOException {
-    return getGroup(createClient(), groupId);
+    return getGroup(getClient(), groupId);
   }
 
   /**
@@ -168,7 +167,7 @@ public class CloudIdentityGroupsClient {
   public @NotNull Group getGroup(
     @NotNull GroupEmail groupEmail
   ) throws AccessException, IOException {
-    var client = createClient();
+    var client = getClient();
     return getGroup(client, lookupGroup(client, groupEmail));
   }
 
@@ -186,7 +185,7 @@ public class CloudIdentityGroupsClient {
         .setDescription(description)
         .setLabels(Map.of("cloudidentity.googleapis.com/groups.discussion_forum", ""));
 
-      var client = createClient();
+      var client = getClient();
 
       //
       // Try to create the group. This might fail if it already exists.
@@ -260,7 +259,7 @@ public class CloudIdentityGroupsClient {
     @NotNull GroupId groupId
   ) throws AccessException, IOException {
     try {
-      var createOperation = createClient()
+      var createOperation = getClient()
         .groups()
         .delete(groupId.toString())
         .execute();
@@ -330,7 +329,7 @@ public class CloudIdentityGroupsClient {
   public @NotNull Membership getMembership(
     @NotNull MembershipId membershipId
   ) throws AccessException, IOException {
-    return getMembership(createClient(), membershipId);
+    return getMembership(getClient(), membershipId);
   }
 
   /**
@@ -340,7 +339,7 @@ public class CloudIdentityGroupsClient {
     @NotNull GroupId groupId,
     @NotNull UserEmail userEmail
   ) throws AccessException, IOException {
-    var client = createClient();
+    var client = getClient();
     var id = lookupGroupMembership(client, groupId, userEmail);
     return getMembership(client, id);
   }
@@ -352,7 +351,7 @@ public class CloudIdentityGroupsClient {
     @NotNull MembershipId membershipId
   ) throws AccessException, IOException {
     try {
-      createClient()
+      getClient()
         .groups()
         .memberships()
         .delete(membershipId.id)
@@ -406,7 +405,7 @@ public class CloudIdentityGroupsClient {
     @NotNull UserEmail userEmail,
     @NotNull Instant expiry
   ) throws AccessException, IOException {
-    var client = createClient();
+    var client = getClient();
 
     var role = new MembershipRole()
       .setName("MEMBER")
@@ -493,7 +492,7 @@ public class CloudIdentityGroupsClient {
   public @NotNull List<Membership> listMemberships(
     @NotNull GroupEmail groupEmail
   ) throws AccessException, IOException {
-    var client = createClient();
+    var client = getClient();
     return listMemberships(client, lookupGroup(client, groupEmail));
   }
 
@@ -506,7 +505,7 @@ public class CloudIdentityGroupsClient {
     Preconditions.checkArgument(userEmail.email.indexOf('\'') < 0);
 
     try {
-      var client = createClient();
+      var client = getClient();
       var result = new ArrayList<MembershipRelation>();
       String pageToken = null;
       do {
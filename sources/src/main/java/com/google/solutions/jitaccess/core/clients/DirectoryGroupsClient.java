@@ -28,13 +28,18 @@ import com.google.api.services.directory.model.Group;
 import com.google.api.services.directory.model.Member;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.solutions.jitaccess.core.*;
 import jakarta.inject.Singleton;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -44,10 +49,14 @@ import java.util.stream.Collectors;
 @Singleton
 public class DirectoryGroupsClient {
   public static final String OAUTH_SCOPE = "https://www.googleapis.com/auth/admin.directory.group.readonly";
+  private static final int LIST_MEMBERS_PAGE_SIZE = 200;
 
   private final @NotNull Options options;
   private final @NotNull GoogleCredentials credentials;
   private final HttpTransport.@NotNull Options httpOptions;
+  private final HttpTransport.@NotNull CachedClient<Directory> client;
+  private final @NotNull RetryPolicy retryPolicy;
+  private final @NotNull Cache<UserEmail, Collection<Group>> membershipCache;
 
   public DirectoryGroupsClient(
       @NotNull GoogleCredentials credentials,
@@ -60,41 +69,114 @@ public class DirectoryGroupsClient {
     this.credentials = credentials;
     this.options = options;
     this.httpOptions = httpOptions;
+
+    this.membershipCache = CacheBuilder.newBuilder()
+        .expireAfterWrite(options.membershipCacheDuration)
+        .maximumSize(options.membershipCacheSize)
+        .recordStats()
+        .build();
+
+    this.retryPolicy = new RetryPolicy("Directory", RetryPolicy.Options.DEFAULT);
+    this.client = new HttpTransport.CachedClient<>(
+        "Directory",
+        transport -> new Directory.Builder(
+            transport,
+            GsonFactory.getDefaultInstance(),
+            HttpTransport.newAuthenticatingRequestInitializer(credentials, httpOptions, this.retryPolicy))
+            .setApplicationName(ApplicationVersion.USER_AGENT)
+            .build());
   }
 
-  private @NotNull Directory createClient() throws IOException {
-    try {
-      return new Directory.Builder(
-          HttpTransport.newTransport(),
-          new GsonFactory(),
-          HttpTransport.newAuthenticatingRequestInitializer(this.credentials, this.httpOptions))
-          .setApplicationName(ApplicationVersion.USER_AGENT)
-          .build();
-    } catch (GeneralSecurityException e) {
-      throw new IOException("Creating a Directory client failed", e);
-    }
+  private @NotNull Directory getClient() throws IOException {
+    return this.client.get();
+  }
+
+  /**
+   * Get statistics about retried requests.
+   */
+  public @NotNull RetryPolicy.Stats getRetryStats() {
+    return this.retryPolicy.getStats();
   }
 
   /**
    * List all groups a given user is a direct member of.
+   *
+   * Results are cached for a limited time, so changes to a user's
+   * group memberships might not be reflected immediately.
    */
   public @NotNull Collection<Group> listDirectGroupMemberships(
       @NotNull UserEmail user) throws AccessException, IOException {
+    Preconditions.checkNotNull(user, "user");
+
+    var cachedMemberships = this.membershipCache.getIfPresent(user);
+    if (cachedMemberships != null) {
+      return cachedMemberships;
+    }
+
+    //
+    // NB. Concurrent cache misses for the same user might cause
+    // redundant lookups, but that's benign.
+    //
+    var memberships = Collections.unmodifiableCollection(fetchDirectGroupMemberships(user));
+    this.membershipCache.put(user, memberships);
+    return memberships;
+  }
+
+  /**
+   * Get statistics for the group membership cache.
+   */
+  public @NotNull CacheStats getMembershipCacheStats() {
+    return this.membershipCache.stats();
+  }
+
+  /**
+   * List all groups a given user is a direct member of, bypassing the cache.
+   */
+  @NotNull Collection<Group> fetchDirectGroupMemberships(
+      @NotNull UserEmail user) throws AccessException, IOException {
+    return listGroupsByMemberKey(user.email, "user");
+  }
+
+  /**
+   * List all groups a given group is a direct member of. Results
+   * aren't cached.
+   */
+  public @NotNull Collection<Group> listDirectParentGroups(
+      @NotNull GroupEmail group) throws AccessException, IOException {
+    Preconditions.checkNotNull(group, "group");
+
+    return listGroupsByMemberKey(group.email, "group");
+  }
+
+  private @NotNull Collection<Group> listGroupsByMemberKey(
+      @NotNull String memberKey,
+      @NotNull String memberType) throws AccessException, IOException {
     try {
+      var client = getClient();
+      var groups = new ArrayList<Group>();
+
       //
       // NB. Using userKey doesn't work for service account,
       // so we have to use a query.
       //
-      var result = createClient()
-          .groups()
-          .list()
-          .setCustomer(this.options.customerId)
-          .setQuery(String.format("memberKey=%s", user.email))
-          .execute();
-
-      return result.getGroups() != null
-          ? result.getGroups()
-          : List.of();
+      String pageToken = null;
+      do {
+        var result = client
+            .groups()
+            .list()
+            .setCustomer(this.options.customerId)
+            .setQuery(String.format("memberKey=%s", memberKey))
+            .setPageToken(pageToken)
+            .execute();
+
+        if (result.getGroups() != null) {
+          groups.addAll(result.getGroups());
+        }
+
+        pageToken = result.getNextPageToken();
+      } while (pageToken != null && !pageToken.isEmpty());
+
+      return groups;
     } catch (GoogleJsonResponseException e) {
       switch (e.getStatusCode()) {
         case 401:
@@ -105,9 +187,10 @@ public class DirectoryGroupsClient {
         case 404:
           throw new ResourceNotFoundException(
               String.format(
-                  "The customer ID '%s' is invalid, the user '%s' does not exist, or it belongs to an unknown domain",
+                  "The customer ID '%s' is invalid, the %s '%s' does not exist, or it belongs to an unknown domain",
                   this.options.customerId,
-                  user),
+                  memberType,
+                  memberKey),
               e);
         default:
           throw (GoogleJsonResponseException) e.fillInStackTrace();
@@ -121,20 +204,34 @@ public class DirectoryGroupsClient {
   public @NotNull Collection<Member> listDirectGroupMembers(
       String groupEmail) throws AccessException, IOException {
     try {
-      var result = createClient()
-          .members()
-          .list(groupEmail)
-          .execute();
+      var client = getClient();
+      var members = new ArrayList<Member>();
 
-      if (result.getMembers() == null) {
-        return List.of();
-      }
+      //
+      // Page through all members, large groups might span
+      // multiple pages.
+      //
+      String pageToken = null;
+      do {
+        var result = client
+            .members()
+            .list(groupEmail)
+            .setMaxResults(LIST_MEMBERS_PAGE_SIZE)
+            .setPageToken(pageToken)
+            .execute();
+
+        if (result.getMembers() != null) {
+          result.getMembers()
+              .stream()
+              .filter(member -> "USER".equals(member.getType()))
+              .filter(member -> "ACTIVE".equals(member.getStatus()))
+              .forEach(members::add);
+        }
+
+        pageToken = result.getNextPageToken();
+      } while (pageToken != null && !pageToken.isEmpty());
 
-      return result.getMembers()
-          .stream()
-          .filter(member -> "USER".equals(member.getType()))
-          .filter(member -> "ACTIVE".equals(member.getStatus()))
-          .collect(Collectors.toList());
+      return members;
     } catch (GoogleJsonResponseException e) {
       switch (e.getStatusCode()) {
         case 401:
@@ -154,13 +251,35 @@ public class DirectoryGroupsClient {
   // Inner classes.
   // ---------------------------------------------------------------------------
 
+  /**
+   * @param customerId              Cloud Identity/Workspace customer ID
+   * @param membershipCacheDuration time to cache group memberships of a user
+   * @param membershipCacheSize     maximum number of users to cache group
+   *                                memberships for
+   */
   public record Options(
-      String customerId) {
+      String customerId,
+      Duration membershipCacheDuration,
+      int membershipCacheSize) {
+    public static final Duration DEFAULT_MEMBERSHIP_CACHE_DURATION = Duration.ofMinutes(1);
+    public static final int DEFAULT_MEMBERSHIP_CACHE_SIZE = 1000;
+
     public Options {
       Preconditions.checkNotNull(customerId, "customerId");
       Preconditions.checkArgument(
           customerId.startsWith("C"),
           "Customer ID must use format Cxxxxxxxx");
+      Preconditions.checkNotNull(membershipCacheDuration, "membershipCacheDuration");
+      Preconditions.checkArgument(
+          !membershipCacheDuration.isNegative(),
+          "The cache duration must not be negative");
+      Preconditions.checkArgument(
+          membershipCacheSize >= 0,
+          "The cache size must not be negative");
+    }
+
+    public Options(String customerId) {
+      this(customerId, DEFAULT_MEMBERSHIP_CACHE_DURATION, DEFAULT_MEMBERSHIP_CACHE_SIZE);
     }
   }
 }
@@ -27,7 +27,9 @@ import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.auth.Credentials;
 import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.common.base.Preconditions;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -40,9 +42,46 @@ import java.time.Duration;
  * system property.
  */
 public class HttpTransport {
+  private static final Object sharedTransportLock = new Object();
+  private static volatile @Nullable NetHttpTransport sharedTransport;
+
   private HttpTransport() {
   }
 
+  /**
+   * Configure the connection pool that the JDK's HttpURLConnection uses
+   * (and therefore, NetHttpTransport).
+   *
+   * NB. The JDK reads these settings once, when the first connection
+   * is made. This method must therefore be called during startup.
+   */
+  public static void configureConnectionPool(@NotNull Options httpOptions) {
+    Preconditions.checkNotNull(httpOptions, "httpOptions");
+
+    System.setProperty("http.keepAlive", "true");
+    if (httpOptions.maxConnectionsPerHost > 0) {
+      System.setProperty("http.maxConnections", String.valueOf(httpOptions.maxConnectionsPerHost));
+    }
+  }
+
+  /**
+   * Get a transport that's shared across all clients. Creating a transport
+   * requires loading the trust store, so it's best done once.
+   */
+  public static @NotNull NetHttpTransport getSharedTransport() throws GeneralSecurityException, IOException {
+    var transport = sharedTransport;
+    if (transport == null) {
+      synchronized (sharedTransportLock) {
+        transport = sharedTransport;
+        if (transport == null) {
+          sharedTransport = transport = newTransport();
+        }
+      }
+    }
+
+    return transport;
+  }
+
   public static @NotNull NetHttpTransport newTransport() throws GeneralSecurityException, IOException {
     var trustStore = System.getProperty("javax.net.ssl.trustStore");
     var trustStorePassword = System.getProperty("javax.net.ssl.trustStorePassword");
@@ -74,6 +113,17 @@ public class HttpTransport {
   public static @NotNull HttpRequestInitializer newAuthenticatingRequestInitializer(
       @NotNull Credentials credentials,
       @NotNull Options httpOptions) {
+    return newAuthenticatingRequestInitializer(credentials, httpOptions, null);
+  }
+
+  /**
+   * Create an initializer that authenticates requests, applies timeouts,
+   * and, optionally, retries requests that failed with a transient error.
+   */
+  public static @NotNull HttpRequestInitializer newAuthenticatingRequestInitializer(
+      @NotNull Credentials credentials,
+      @NotNull Options httpOptions,
+      @Nullable RetryPolicy retryPolicy) {
     return new HttpCredentialsAdapter(credentials) {
       @Override
       public void initialize(@NotNull HttpRequest request) throws IOException {
@@ -90,14 +140,84 @@ public class HttpTransport {
         if (!httpOptions.connectTimeout.isZero()) {
           request.setConnectTimeout((int) httpOptions.connectTimeout.toMillis());
         }
+
+        if (retryPolicy != null) {
+          //
+          // NB. The policy chains the credential adapter's handler, which
+          // is in charge of refreshing credentials on a 401.
+          //
+          retryPolicy.initialize(request);
+        }
       }
     };
   }
 
+  /**
+   * @param maxConnectionsPerHost maximum number of idle keep-alive connections
+   *                              to retain per host, 0 to use the JDK default.
+   */
   public record Options(
       Duration connectTimeout,
       Duration readTimeout,
-      Duration writeTimeout) {
+      Duration writeTimeout,
+      int maxConnectionsPerHost) {
     public static @NotNull Options DEFAULT = new Options(Duration.ZERO, Duration.ZERO, Duration.ZERO);
+
+    public Options {
+      Preconditions.checkArgument(maxConnectionsPerHost >= 0, "maxConnectionsPerHost");
+    }
+
+    public Options(
+        Duration connectTimeout,
+        Duration readTimeout,
+        Duration writeTimeout) {
+      this(connectTimeout, readTimeout, writeTimeout, 0);
+    }
+  }
+
+  /**
+   * Factory for an API client.
+   */
+  @FunctionalInterface
+  public interface ClientFactory<T> {
+    T create(@NotNull NetHttpTransport transport) throws GeneralSecurityException, IOException;
+  }
+
+  /**
+   * Lazily created API client that uses the shared transport. API clients are
+   * thread-safe, so a single instance can serve all requests.
+   */
+  public static class CachedClient<T> {
+    private final @NotNull String name;
+    private final @NotNull ClientFactory<T> factory;
+    private volatile @Nullable T client;
+
+    public CachedClient(
+        @NotNull String name,
+        @NotNull ClientFactory<T> factory) {
+      Preconditions.checkNotNull(name, "name");
+      Preconditions.checkNotNull(factory, "factory");
+
+      this.name = name;
+      this.factory = factory;
+    }
+
+    public @NotNull T get() throws IOException {
+      var client = this.client;
+      if (client == null) {
+        synchronized (this) {
+          client = this.client;
+          if (client == null) {
+            try {
+              this.client = client = this.factory.create(getSharedTransport());
+            } catch (GeneralSecurityException e) {
+              throw new IOException(String.format("Creating a %s client failed", this.name), e);
+            }
+          }
+        }
+      }
+
+      return client;
+    }
   }
 }
@@ -33,7 +33,6 @@ import jakarta.inject.Singleton;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
 
 /**
  * Adapter for IAM Credentials API
@@ -44,18 +43,18 @@ public class IamCredentialsClient {
 
   private final @NotNull GoogleCredentials credentials;
   private final HttpTransport.@NotNull Options httpOptions;
+  private final HttpTransport.@NotNull CachedClient<IAMCredentials> client;
+  private final @NotNull RetryPolicy retryPolicy;
 
-  private @NotNull IAMCredentials createClient() throws IOException {
-    try {
-      return new IAMCredentials.Builder(
-          HttpTransport.newTransport(),
-          new GsonFactory(),
-          HttpTransport.newAuthenticatingRequestInitializer(this.credentials, this.httpOptions))
-          .setApplicationName(ApplicationVersion.USER_AGENT)
-          .build();
-    } catch (GeneralSecurityException e) {
-      throw new IOException("Creating a IAMCredentials client failed", e);
-    }
+  private @NotNull IAMCredentials getClient() throws IOException {
+    return this.client.get();
+  }
+
+  /**
+   * Get statistics about retried requests.
+   */
+  public @NotNull RetryPolicy.Stats getRetryStats() {
+    return this.retryPolicy.getStats();
   }
 
   public IamCredentialsClient(
@@ -66,6 +65,16 @@ public class IamCredentialsClient {
 
     this.httpOptions = httpOptions;
     this.credentials = credentials;
+
+    this.retryPolicy = new RetryPolicy("IAMCredentials", RetryPolicy.Options.DEFAULT);
+    this.client = new HttpTransport.CachedClient<>(
+        "IAMCredentials",
+        transport -> new IAMCredentials.Builder(
+            transport,
+            GsonFactory.getDefaultInstance(),
+            HttpTransport.newAuthenticatingRequestInitializer(credentials, httpOptions, this.retryPolicy))
+            .setApplicationName(ApplicationVersion.USER_AGENT)
+            .build());
   }
 
   /**
@@ -88,7 +97,7 @@ public class IamCredentialsClient {
       var request = new SignJwtRequest()
           .setPayload(payloadJson);
 
-      return createClient()
+      return getClient()
           .projects()
           .serviceAccounts()
           .signJwt(
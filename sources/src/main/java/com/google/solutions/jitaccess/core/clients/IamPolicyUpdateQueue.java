@@ -0,0 +1,292 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.clients;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.solutions.jitaccess.core.AccessException;
+import com.google.solutions.jitaccess.core.AlreadyExistsException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Queue that coalesces concurrent updates to the IAM policy of the
+ * same resource so that they can be applied in a single
+ * read-modify-write cycle.
+ *
+ * There is no background thread: the first caller that finds the
+ * queue of a resource idle becomes the writer and applies its update
+ * right away. Callers that queue up while a write is in progress are
+ * applied in the next write, which is performed by one of them. That
+ * writer waits for a short window to let more callers join, and then
+ * applies all queued updates at once.
+ *
+ * @param <TResource> resource whose policy is updated, for ex. a project.
+ * @param <TUpdate> update to apply to the policy.
+ */
+public class IamPolicyUpdateQueue<TResource, TUpdate> {
+  private final @NotNull Duration window;
+  private final @NotNull BatchWriter<TResource, TUpdate> writer;
+  private final @NotNull Map<TResource, List<PendingUpdate<TUpdate>>> queues = new ConcurrentHashMap<>();
+
+  public IamPolicyUpdateQueue(
+      @NotNull Duration window,
+      @NotNull BatchWriter<TResource, TUpdate> writer) {
+    Preconditions.checkNotNull(window, "window");
+    Preconditions.checkNotNull(writer, "writer");
+    Preconditions.checkArgument(!window.isNegative(), "window");
+
+    this.window = window;
+    this.writer = writer;
+  }
+
+  /**
+   * Remove all queued updates for a resource. If the queue is empty,
+   * the resource is marked as idle.
+   */
+  private @NotNull List<PendingUpdate<TUpdate>> drain(@NotNull TResource resource) {
+    var batch = new ArrayList<PendingUpdate<TUpdate>>();
+    this.queues.computeIfPresent(resource, (key, queue) -> {
+      batch.addAll(queue);
+      queue.clear();
+
+      //
+      // Keep the (empty) queue as long as we're writing so that
+      // subsequent callers know they need to wait.
+      //
+      return queue;
+    });
+    return batch;
+  }
+
+  /**
+   * Hand over to the next writer, or mark the resource as idle if
+   * there's nothing left to write.
+   */
+  private void handOver(@NotNull TResource resource) {
+    this.queues.computeIfPresent(resource, (key, queue) -> {
+      if (queue.isEmpty()) {
+        return null;
+      }
+
+      queue.get(0).turn.complete(null);
+      return queue;
+    });
+  }
+
+  /**
+   * Apply a batch as a unit. Updates that the writer didn't complete
+   * or fail individually share the outcome of the batch, unless the
+   * batch failed as a whole: then, the remaining updates are written
+   * one by one so that a single invalid update doesn't fail the
+   * updates of other callers.
+   *
+   * NB. Retrying transient errors is up to the writer. Writing updates
+   * one by one keeps the writer (and all other callers) waiting for
+   * the sum of all writes, so it's only done after a batch failed.
+   */
+  private void write(
+      @NotNull TResource resource,
+      @NotNull List<PendingUpdate<TUpdate>> batch) {
+    try {
+      this.writer.write(resource, batch);
+      batch.forEach(PendingUpdate::complete);
+    } catch (AlreadyExistsException e) {
+      //
+      // The writer ran out of retries for concurrent modifications,
+      // writing updates one by one would only make things worse.
+      //
+      batch.forEach(p -> p.fail(e));
+    } catch (AccessException | IOException | RuntimeException e) {
+      var remaining = batch.stream()
+          .filter(p -> !p.isDone())
+          .toList();
+
+      if (remaining.size() > 1) {
+        for (var pending : remaining) {
+          write(resource, List.of(pending));
+        }
+      } else {
+        remaining.forEach(p -> p.fail(e));
+      }
+    } finally {
+      //
+      // Make sure that no caller is left waiting, even if the
+      // writer threw an Error.
+      //
+      batch.stream()
+          .filter(p -> !p.isDone())
+          .forEach(p -> p.fail(new IOException("Updating IAM policy failed unexpectedly")));
+    }
+  }
+
+  /**
+   * Number of updates that are waiting to be written.
+   */
+  int queueLength(@NotNull TResource resource) {
+    var length = new int[] { 0 };
+    this.queues.computeIfPresent(resource, (key, queue) -> {
+      length[0] = queue.size();
+      return queue;
+    });
+    return length[0];
+  }
+
+  /**
+   * Queue an update and wait for it to be applied.
+   */
+  public void submit(
+      @NotNull TResource resource,
+      @NotNull TUpdate update) throws AccessException, AlreadyExistsException, IOException {
+    Preconditions.checkNotNull(resource, "resource");
+    Preconditions.checkNotNull(update, "update");
+
+    var pending = new PendingUpdate<>(update);
+    var idle = new boolean[] { false };
+
+    this.queues.compute(resource, (key, queue) -> {
+      if (queue == null) {
+        //
+        // Nobody's writing, so it's our turn.
+        //
+        queue = new ArrayList<>();
+        idle[0] = true;
+      }
+
+      queue.add(pending);
+      return queue;
+    });
+
+    //
+    // NB. We must not bail out while waiting: once queued, other callers
+    // rely on us to take our turn. Waits are therefore uninterruptible,
+    // and bounded by the time it takes to perform a write.
+    //
+    if (!idle[0]) {
+      //
+      // Wait until our update has been applied by someone else,
+      // or until it's our turn to write.
+      //
+      try {
+        Uninterruptibles.getUninterruptibly(CompletableFuture.anyOf(pending.result, pending.turn));
+      } catch (ExecutionException ignored) {
+        //
+        // Our update failed, we'll rethrow the exception below.
+        //
+      }
+    }
+
+    if (!pending.isDone() && queueLength(resource) > 1) {
+      //
+      // There's contention, give other concurrent callers a chance
+      // to join the batch. Uncontended updates are written right away.
+      //
+      Uninterruptibles.sleepUninterruptibly(this.window);
+    }
+
+    if (!pending.isDone()) {
+      try {
+        write(resource, drain(resource));
+      } finally {
+        handOver(resource);
+      }
+    }
+
+    try {
+      Uninterruptibles.getUninterruptibly(pending.result);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof AccessException) {
+        throw (AccessException) e.getCause();
+      } else if (e.getCause() instanceof AlreadyExistsException) {
+        throw (AlreadyExistsException) e.getCause();
+      } else if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else {
+        throw new IOException("Updating IAM policy failed", e.getCause());
+      }
+    }
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  /**
+   * Applies a batch of updates to the policy of a resource.
+   *
+   * Implementations can complete or fail individual updates, for ex. to
+   * report a conflict. Updates that are still pending when the method
+   * returns are considered successful.
+   */
+  @FunctionalInterface
+  public interface BatchWriter<TResource, TUpdate> {
+    void write(
+        @NotNull TResource resource,
+        @NotNull List<PendingUpdate<TUpdate>> batch
+    ) throws AccessException, AlreadyExistsException, IOException;
+  }
+
+  /**
+   * An update that is waiting to be applied.
+   */
+  public static class PendingUpdate<TUpdate> {
+    private final @NotNull TUpdate update;
+    private final @NotNull CompletableFuture<Void> result = new CompletableFuture<>();
+    private final @NotNull CompletableFuture<Void> turn = new CompletableFuture<>();
+
+    private PendingUpdate(@NotNull TUpdate update) {
+      this.update = update;
+    }
+
+    public @NotNull TUpdate update() {
+      return this.update;
+    }
+
+    public boolean isDone() {
+      return this.result.isDone();
+    }
+
+    /**
+     * Mark update as applied.
+     */
+    public void complete() {
+      this.result.complete(null);
+    }
+
+    /**
+     * Mark update as failed.
+     */
+    public void fail(@NotNull Exception e) {
+      this.result.completeExceptionally(e);
+    }
+  }
+}
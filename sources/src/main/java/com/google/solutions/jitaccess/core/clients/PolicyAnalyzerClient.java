@@ -74,7 +74,7 @@ public class PolicyAnalyzerClient extends AssetInventoryClient {
         || scope.startsWith("projects/"));
 
     try {
-      var request = createClient().v1()
+      var request = getClient().v1()
           .analyzeIamPolicy(scope)
           .setAnalysisQueryIdentitySelectorIdentity("user:" + user.email)
           .setAnalysisQueryOptionsExpandResources(expandResources)
@@ -133,7 +133,7 @@ public class PolicyAnalyzerClient extends AssetInventoryClient {
         || scope.startsWith("projects/"));
 
     try {
-      return createClient().v1()
+      return getClient().v1()
           .analyzeIamPolicy(scope)
           .setAnalysisQueryResourceSelectorFullResourceName(fullResourceName)
           .setAnalysisQueryAccessSelectorRoles(List.of(role))
@@ -24,8 +24,11 @@ package com.google.solutions.jitaccess.core.clients;
 import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.pubsub.Pubsub;
+import com.google.api.services.pubsub.model.AcknowledgeRequest;
 import com.google.api.services.pubsub.model.PublishRequest;
 import com.google.api.services.pubsub.model.PubsubMessage;
+import com.google.api.services.pubsub.model.PullRequest;
+import com.google.api.services.pubsub.model.ReceivedMessage;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.common.base.Preconditions;
 import com.google.solutions.jitaccess.core.AccessDeniedException;
@@ -36,13 +39,13 @@ import jakarta.inject.Singleton;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
-import java.util.Arrays;
+import java.util.List;
 
 @Singleton
 public class PubSubClient {
   private final @NotNull GoogleCredentials credentials;
   private final HttpTransport.@NotNull Options httpOptions;
+  private final HttpTransport.@NotNull CachedClient<Pubsub> client;
 
   public PubSubClient(
       @NotNull GoogleCredentials credentials,
@@ -52,41 +55,64 @@ public class PubSubClient {
 
     this.credentials = credentials;
     this.httpOptions = httpOptions;
+
+    this.client = new HttpTransport.CachedClient<>(
+        "PubSub",
+        transport -> new Pubsub.Builder(
+            transport,
+            GsonFactory.getDefaultInstance(),
+            HttpTransport.newAuthenticatingRequestInitializer(credentials, httpOptions))
+            .setApplicationName(ApplicationVersion.USER_AGENT)
+            .build());
   }
 
-  private @NotNull Pubsub createClient() throws IOException {
-    try {
-      return new Pubsub.Builder(
-          HttpTransport.newTransport(),
-          new GsonFactory(),
-          HttpTransport.newAuthenticatingRequestInitializer(this.credentials, this.httpOptions))
-          .setApplicationName(ApplicationVersion.USER_AGENT)
-          .build();
-    } catch (GeneralSecurityException e) {
-      throw new IOException("Creating a PubSub client failed", e);
-    }
+  private @NotNull Pubsub getClient() throws IOException {
+    return this.client.get();
   }
 
+  /**
+   * Publish a single message.
+   *
+   * @return message ID.
+   */
   public String publish(
       @NotNull PubSubTopic topic,
       PubsubMessage message) throws AccessException, IOException {
-    var client = createClient();
+    return publish(topic, List.of(message)).get(0);
+  }
+
+  /**
+   * Publish a batch of messages in a single request.
+   *
+   * @return message IDs, in the same order as the messages.
+   */
+  public @NotNull List<String> publish(
+      @NotNull PubSubTopic topic,
+      @NotNull List<PubsubMessage> messages) throws AccessException, IOException {
+    Preconditions.checkNotNull(topic, "topic");
+    Preconditions.checkNotNull(messages, "messages");
+    Preconditions.checkArgument(!messages.isEmpty(), "messages must not be empty");
+
+    var client = getClient();
 
     try {
       var request = new PublishRequest();
-      request.setMessages(Arrays.asList(message));
+      request.setMessages(messages);
 
       var result = client
           .projects()
           .topics()
           .publish(topic.getFullResourceName(), request)
           .execute();
-      if (result.getMessageIds().size() < 1) {
+      if (result.getMessageIds() == null || result.getMessageIds().size() != messages.size()) {
         throw new IOException(
-            String.format("Publishing message to topic %s returned empty response", topic));
+            String.format(
+                "Publishing %d messages to topic %s returned an incomplete response",
+                messages.size(),
+                topic));
       }
 
-      return result.getMessageIds().get(0);
+      return result.getMessageIds();
     } catch (GoogleJsonResponseException e) {
       switch (e.getStatusCode()) {
         case 401:
@@ -104,4 +130,89 @@ public class PubSubClient {
       }
     }
   }
+
+  /**
+   * Pull messages from a subscription. The server might hold the
+   * request for a while if no messages are available.
+   *
+   * @return messages, possibly empty.
+   */
+  public @NotNull List<ReceivedMessage> pull(
+      @NotNull PubSubSubscription subscription,
+      int maxMessages) throws AccessException, IOException {
+    Preconditions.checkNotNull(subscription, "subscription");
+    Preconditions.checkArgument(maxMessages > 0, "maxMessages must be positive");
+
+    var client = getClient();
+
+    try {
+      var result = client
+          .projects()
+          .subscriptions()
+          .pull(
+              subscription.getFullResourceName(),
+              new PullRequest().setMaxMessages(maxMessages))
+          .execute();
+
+      return result.getReceivedMessages() != null
+          ? result.getReceivedMessages()
+          : List.of();
+    } catch (GoogleJsonResponseException e) {
+      switch (e.getStatusCode()) {
+        case 401:
+          throw new NotAuthenticatedException("Not authenticated", e);
+        case 403:
+        case 404:
+          throw new AccessDeniedException(
+              String.format(
+                  "Pub/Sub subscription '%s' cannot be accessed or does not exist: %s",
+                  subscription,
+                  e.getMessage()),
+              e);
+        default:
+          throw (GoogleJsonResponseException) e.fillInStackTrace();
+      }
+    }
+  }
+
+  /**
+   * Acknowledge messages that have been pulled from a subscription.
+   */
+  public void acknowledge(
+      @NotNull PubSubSubscription subscription,
+      @NotNull List<String> ackIds) throws AccessException, IOException {
+    Preconditions.checkNotNull(subscription, "subscription");
+    Preconditions.checkNotNull(ackIds, "ackIds");
+
+    if (ackIds.isEmpty()) {
+      return;
+    }
+
+    var client = getClient();
+
+    try {
+      client
+          .projects()
+          .subscriptions()
+          .acknowledge(
+              subscription.getFullResourceName(),
+              new AcknowledgeRequest().setAckIds(ackIds))
+          .execute();
+    } catch (GoogleJsonResponseException e) {
+      switch (e.getStatusCode()) {
+        case 401:
+          throw new NotAuthenticatedException("Not authenticated", e);
+        case 403:
+        case 404:
+          throw new AccessDeniedException(
+              String.format(
+                  "Pub/Sub subscription '%s' cannot be accessed or does not exist: %s",
+                  subscription,
+                  e.getMessage()),
+              e);
+        default:
+          throw (GoogleJsonResponseException) e.fillInStackTrace();
+      }
+    }
+  }
 }
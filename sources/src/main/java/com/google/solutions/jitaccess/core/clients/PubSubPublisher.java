@@ -0,0 +1,337 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.clients;
+
+import com.google.api.services.pubsub.model.PubsubMessage;
+import com.google.common.base.Preconditions;
+import com.google.solutions.jitaccess.core.AccessException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Publisher that buffers messages per topic and publishes them in batches.
+ *
+ * A message is published immediately if there is no publish request
+ * in flight for its topic. Otherwise, messages are buffered, and a batch
+ * is published as soon as it reaches a message count or size threshold,
+ * when the in-flight request completes, or when its oldest message has
+ * been waiting for longer than the maximum delay, whichever comes first.
+ */
+public class PubSubPublisher implements Closeable {
+  /**
+   * Approximate per-message overhead of the JSON request, in bytes.
+   */
+  private static final int MESSAGE_OVERHEAD = 32;
+
+  private final @NotNull PubSubClient client;
+  private final @NotNull Executor executor;
+  private final @NotNull Options options;
+  private final @NotNull ScheduledThreadPoolExecutor scheduler;
+
+  /**
+   * Open batches by topic, guarded by this.
+   */
+  private final @NotNull Map<PubSubTopic, Batch> batches = new HashMap<>();
+
+  /**
+   * Number of batches per topic that have been detached but not
+   * published yet, guarded by this.
+   */
+  private final @NotNull Map<PubSubTopic, Integer> inFlight = new HashMap<>();
+
+  private boolean closed = false;
+
+  /**
+   * @param executor executor for performing publish requests.
+   */
+  public PubSubPublisher(
+      @NotNull PubSubClient client,
+      @NotNull Executor executor,
+      @NotNull Options options) {
+    Preconditions.checkNotNull(client, "client");
+    Preconditions.checkNotNull(executor, "executor");
+    Preconditions.checkNotNull(options, "options");
+
+    this.client = client;
+    this.executor = executor;
+    this.options = options;
+
+    this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+      var thread = new Thread(r, "pubsub-publisher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.scheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Estimate the number of bytes a message adds to a publish request.
+   */
+  static int estimateSize(@NotNull PubsubMessage message) {
+    var size = MESSAGE_OVERHEAD;
+    if (message.getData() != null) {
+      size += message.getData().length();
+    }
+
+    if (message.getAttributes() != null) {
+      for (var attribute : message.getAttributes().entrySet()) {
+        size += attribute.getKey().length() + attribute.getValue().length() + MESSAGE_OVERHEAD;
+      }
+    }
+
+    return size;
+  }
+
+  /**
+   * Publish a batch. Each message's future is completed with its
+   * message ID, or failed if the batch couldn't be published.
+   */
+  private void send(@NotNull Batch batch) {
+    try {
+      var messageIds = this.client.publish(
+          batch.topic,
+          batch.messages.stream().map(m -> m.message).toList());
+
+      for (int i = 0; i < batch.messages.size(); i++) {
+        batch.messages.get(i).result.complete(messageIds.get(i));
+      }
+    } catch (AccessException | IOException | RuntimeException e) {
+      batch.messages.forEach(m -> m.result.completeExceptionally(e));
+    } finally {
+      //
+      // Messages that were buffered while this request was in flight
+      // don't need to wait for their timer anymore.
+      //
+      Batch nextBatch = null;
+      synchronized (this) {
+        if (this.inFlight.merge(batch.topic, -1, Integer::sum) <= 0) {
+          this.inFlight.remove(batch.topic);
+
+          nextBatch = this.batches.get(batch.topic);
+          if (nextBatch != null) {
+            detach(nextBatch);
+          }
+        }
+      }
+
+      if (nextBatch != null) {
+        dispatch(nextBatch);
+      }
+    }
+  }
+
+  /**
+   * Stop accepting messages into a batch so that it can be dispatched.
+   * Must be called while holding the lock.
+   */
+  private void detach(@NotNull Batch batch) {
+    assert Thread.holdsLock(this);
+
+    this.batches.remove(batch.topic);
+    this.inFlight.merge(batch.topic, 1, Integer::sum);
+  }
+
+  /**
+   * Hand a batch that's no longer open to the executor.
+   */
+  private void dispatch(@NotNull Batch batch) {
+    if (batch.timer != null) {
+      batch.timer.cancel(false);
+    }
+
+    try {
+      this.executor.execute(() -> send(batch));
+    } catch (RejectedExecutionException e) {
+      send(batch);
+    }
+  }
+
+  /**
+   * Publish a batch once its maximum delay has elapsed, unless it's
+   * been published already.
+   */
+  private void flush(@NotNull Batch batch) {
+    synchronized (this) {
+      if (this.batches.get(batch.topic) != batch) {
+        return;
+      }
+
+      detach(batch);
+    }
+
+    dispatch(batch);
+  }
+
+  /**
+   * Number of messages that are buffered for a topic and
+   * haven't been dispatched yet.
+   */
+  synchronized int getBufferedCount(@NotNull PubSubTopic topic) {
+    var batch = this.batches.get(topic);
+    return batch != null ? batch.messages.size() : 0;
+  }
+
+  /**
+   * Queue a message for publishing.
+   *
+   * @return future that completes with the message ID.
+   */
+  public @NotNull CompletableFuture<String> publish(
+      @NotNull PubSubTopic topic,
+      @NotNull PubsubMessage message) {
+    Preconditions.checkNotNull(topic, "topic");
+    Preconditions.checkNotNull(message, "message");
+
+    var pending = new PendingMessage(message, estimateSize(message));
+    var completedBatches = new ArrayList<Batch>(2);
+
+    synchronized (this) {
+      if (this.closed) {
+        return CompletableFuture.failedFuture(
+            new IllegalStateException("The publisher has been closed"));
+      }
+
+      var batch = this.batches.get(topic);
+      if (batch != null && batch.bytes + pending.size > this.options.maxBytes) {
+        //
+        // Message doesn't fit into the current batch anymore.
+        //
+        detach(batch);
+        completedBatches.add(batch);
+        batch = null;
+      }
+
+      if (batch == null) {
+        var newBatch = new Batch(topic);
+        if (this.inFlight.containsKey(topic)) {
+          //
+          // Buffer the message until the in-flight request completes,
+          // but not for longer than the maximum delay.
+          //
+          newBatch.timer = this.scheduler.schedule(
+              () -> flush(newBatch),
+              this.options.maxDelay.toMillis(),
+              TimeUnit.MILLISECONDS);
+        }
+
+        this.batches.put(topic, newBatch);
+        batch = newBatch;
+      }
+
+      batch.add(pending);
+
+      if (batch.timer == null ||
+          batch.messages.size() >= this.options.maxMessages ||
+          batch.bytes >= this.options.maxBytes) {
+        //
+        // Nothing to wait for, or the batch is full.
+        //
+        detach(batch);
+        completedBatches.add(batch);
+      }
+    }
+
+    completedBatches.forEach(this::dispatch);
+    return pending.result;
+  }
+
+  /**
+   * Publish all buffered messages and stop accepting new ones.
+   */
+  @Override
+  public void close() {
+    List<Batch> remainingBatches;
+    synchronized (this) {
+      this.closed = true;
+      remainingBatches = new ArrayList<>(this.batches.values());
+      remainingBatches.forEach(this::detach);
+    }
+
+    remainingBatches.forEach(this::dispatch);
+    this.scheduler.shutdown();
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  private record PendingMessage(
+      @NotNull PubsubMessage message,
+      int size,
+      @NotNull CompletableFuture<String> result
+  ) {
+    PendingMessage(@NotNull PubsubMessage message, int size) {
+      this(message, size, new CompletableFuture<>());
+    }
+  }
+
+  private static class Batch {
+    private final @NotNull PubSubTopic topic;
+    private final @NotNull List<PendingMessage> messages = new ArrayList<>();
+    private int bytes = 0;
+    private @Nullable ScheduledFuture<?> timer;
+
+    private Batch(@NotNull PubSubTopic topic) {
+      this.topic = topic;
+    }
+
+    private void add(@NotNull PendingMessage message) {
+      this.messages.add(message);
+      this.bytes += message.size;
+    }
+  }
+
+  /**
+   * @param maxMessages maximum number of messages per batch.
+   * @param maxBytes maximum (approximate) size of a batch, in bytes.
+   * @param maxDelay maximum time a message is buffered before it's published.
+   */
+  public record Options(
+      int maxMessages,
+      int maxBytes,
+      @NotNull Duration maxDelay
+  ) {
+    public static final int DEFAULT_MAX_MESSAGES = 100;
+    public static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(50);
+
+    public Options {
+      Preconditions.checkArgument(maxMessages > 0, "maxMessages must be positive");
+      Preconditions.checkArgument(maxBytes > 0, "maxBytes must be positive");
+      Preconditions.checkNotNull(maxDelay, "maxDelay");
+      Preconditions.checkArgument(!maxDelay.isNegative(), "maxDelay must not be negative");
+    }
+
+    public Options() {
+      this(DEFAULT_MAX_MESSAGES, DEFAULT_MAX_BYTES, DEFAULT_MAX_DELAY);
+    }
+  }
+}
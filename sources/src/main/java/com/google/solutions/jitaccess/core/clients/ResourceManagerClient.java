@@ -37,7 +37,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
+import java.time.Duration;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -48,24 +48,39 @@ import java.util.stream.Collectors;
 @Singleton
 public class ResourceManagerClient {
   public static final String OAUTH_SCOPE = "https://www.googleapis.com/auth/cloud-platform";
-  private static final int MAX_SET_IAM_POLICY_ATTEMPTS = 4;
+  /**
+   * Time to wait for concurrent policy updates to the same project
+   * so that they can be applied in a single write.
+   */
+  private static final Duration IAM_POLICY_UPDATE_WINDOW = Duration.ofMillis(20);
+  private static final int MAX_IAM_POLICY_UPDATE_ATTEMPTS = 6;
 
   private static final int SEARCH_PROJECTS_PAGE_SIZE = 1000;
+  private static final int LIST_FOLDERS_PAGE_SIZE = 1000;
 
   private final @NotNull GoogleCredentials credentials;
   private final HttpTransport.@NotNull Options httpOptions;
+  private final HttpTransport.@NotNull CachedClient<CloudResourceManager> client;
+  private final @NotNull RetryPolicy retryPolicy;
 
-  private @NotNull CloudResourceManager createClient() throws IOException {
-    try {
-      return new CloudResourceManager.Builder(
-          HttpTransport.newTransport(),
-          new GsonFactory(),
-          HttpTransport.newAuthenticatingRequestInitializer(this.credentials, this.httpOptions))
-          .setApplicationName(ApplicationVersion.USER_AGENT)
-          .build();
-    } catch (GeneralSecurityException e) {
-      throw new IOException("Creating a ResourceManager client failed", e);
-    }
+  /**
+   * Policy for retrying IAM policy updates that failed because of
+   * a concurrent modification (HTTP 412). Such conflicts don't indicate
+   * an overload, so they're retried independently of the budget for
+   * transient errors.
+   */
+  private final @NotNull RetryPolicy conflictRetryPolicy;
+  private final @NotNull IamPolicyUpdateQueue<ProjectId, BindingUpdate> policyUpdates;
+
+  private @NotNull CloudResourceManager getClient() throws IOException {
+    return this.client.get();
+  }
+
+  /**
+   * Get statistics about retried requests.
+   */
+  public @NotNull RetryPolicy.Stats getRetryStats() {
+    return this.retryPolicy.getStats();
   }
 
   private static boolean isRoleNotGrantableErrorMessage(@Nullable String message) {
@@ -81,6 +96,29 @@ public class ResourceManagerClient {
 
     this.credentials = credentials;
     this.httpOptions = httpOptions;
+
+    this.retryPolicy = new RetryPolicy("ResourceManager", RetryPolicy.Options.DEFAULT);
+    this.conflictRetryPolicy = new RetryPolicy(
+        "ResourceManager.setIamPolicy",
+        new RetryPolicy.Options(
+            MAX_IAM_POLICY_UPDATE_ATTEMPTS,
+            Duration.ofMillis(50),
+            Duration.ofSeconds(2),
+            Duration.ZERO,
+            RetryPolicy.Options.UNLIMITED_BUDGET,
+            0));
+    this.client = new HttpTransport.CachedClient<>(
+        "ResourceManager",
+        transport -> new CloudResourceManager.Builder(
+            transport,
+            GsonFactory.getDefaultInstance(),
+            HttpTransport.newAuthenticatingRequestInitializer(credentials, httpOptions, this.retryPolicy))
+            .setApplicationName(ApplicationVersion.USER_AGENT)
+            .build());
+
+    this.policyUpdates = new IamPolicyUpdateQueue<>(
+        IAM_POLICY_UPDATE_WINDOW,
+        this::applyBindingUpdates);
   }
 
   /**
@@ -91,49 +129,118 @@ public class ResourceManagerClient {
       @NotNull Binding binding,
       @NotNull EnumSet<ResourceManagerClient.IamBindingOptions> options,
       String requestReason) throws AccessException, AlreadyExistsException, IOException {
-    Preconditions.checkNotNull(projectId, "projectId");
     Preconditions.checkNotNull(binding, "binding");
 
+    addProjectIamBindings(projectId, List.of(binding), options, requestReason);
+  }
+
+  /**
+   * Add multiple IAM bindings in a single policy update, using the
+   * optimistic concurrency control-mechanism.
+   *
+   * Concurrent updates to the same project are coalesced so that
+   * they don't compete for the policy's etag.
+   */
+  public void addProjectIamBindings(
+      @NotNull ProjectId projectId,
+      @NotNull Collection<Binding> bindings,
+      @NotNull EnumSet<ResourceManagerClient.IamBindingOptions> options,
+      String requestReason) throws AccessException, AlreadyExistsException, IOException {
+    Preconditions.checkNotNull(projectId, "projectId");
+    Preconditions.checkNotNull(bindings, "bindings");
+    Preconditions.checkArgument(!bindings.isEmpty(), "bindings");
+
     try {
-      var service = createClient();
+      this.policyUpdates.submit(
+          projectId,
+          new BindingUpdate(List.copyOf(bindings), options, requestReason));
+    } catch (GoogleJsonResponseException e) {
+      switch (e.getStatusCode()) {
+        case 400:
+          //
+          // One possible reason for an INVALID_ARGUMENT error is that we've tried
+          // to grant a role on a project that cannot be granted on a project at all.
+          // If that's the case, provide a more descriptive error message.
+          //
+          if (e.getDetails() != null &&
+              e.getDetails().getErrors() != null &&
+              e.getDetails().getErrors().size() > 0 &&
+              isRoleNotGrantableErrorMessage(e.getDetails().getErrors().get(0).getMessage())) {
+            throw new AccessDeniedException(
+                String.format(
+                    "The role %s cannot be granted on a project",
+                    bindings.stream().map(Binding::getRole).collect(Collectors.joining(", "))),
+                e);
+          }
+        case 401:
+          throw new NotAuthenticatedException("Not authenticated", e);
+        case 403:
+          throw new AccessDeniedException(String.format("Denied access to project '%s'", projectId), e);
+        default:
+          throw (GoogleJsonResponseException) e.fillInStackTrace();
+      }
+    }
+  }
 
+  /**
+   * Apply a batch of queued binding updates in a single policy update.
+   */
+  private void applyBindingUpdates(
+      @NotNull ProjectId projectId,
+      @NotNull List<IamPolicyUpdateQueue.PendingUpdate<BindingUpdate>> batch
+  ) throws AccessException, AlreadyExistsException, IOException {
+    var service = getClient();
+
+    //
+    // IAM policies use optimistic concurrency control, so we might need to perform
+    // multiple attempts to update the policy.
+    //
+    for (int attempt = 1; ; attempt++) {
       //
-      // IAM policies use optimistic concurrency control, so we might need to perform
-      // multiple attempts to update the policy.
+      // Read current version of policy.
+      //
+      // NB. The API might return a v1 policy even if we
+      // request a v3 policy.
       //
-      for (int attempt = 0; attempt < MAX_SET_IAM_POLICY_ATTEMPTS; attempt++) {
-        //
-        // Read current version of policy.
-        //
-        // NB. The API might return a v1 policy even if we
-        // request a v3 policy.
-        //
 
-        var policy = service
-            .projects()
-            .getIamPolicy(
-                String.format("projects/%s", projectId.id()),
-                new GetIamPolicyRequest()
-                    .setOptions(new GetPolicyOptions().setRequestedPolicyVersion(3)))
-            .execute();
+      var policy = service
+          .projects()
+          .getIamPolicy(
+              String.format("projects/%s", projectId.id()),
+              new GetIamPolicyRequest()
+                  .setOptions(new GetPolicyOptions().setRequestedPolicyVersion(3)))
+          .execute();
 
-        //
-        // Make sure we're using v3; older versions don't support conditions.
-        //
-        policy.setVersion(3);
+      //
+      // Make sure we're using v3; older versions don't support conditions.
+      //
+      policy.setVersion(3);
+
+      //
+      // Apply updates in order, as if they were applied one by one.
+      //
+      var appliedUpdates = new ArrayList<IamPolicyUpdateQueue.PendingUpdate<BindingUpdate>>();
+      for (var pending : batch) {
+        if (pending.isDone()) {
+          continue;
+        }
+
+        var update = pending.update();
 
-        if (options.contains(IamBindingOptions.FAIL_IF_BINDING_EXISTS)) {
+        if (update.options().contains(IamBindingOptions.FAIL_IF_BINDING_EXISTS)) {
           if (policy.getBindings()
               .stream()
-              .anyMatch(b -> Bindings.equals(b, binding, true))) {
+              .anyMatch(b -> update.bindings().stream().anyMatch(binding -> Bindings.equals(b, binding, true)))) {
             //
-            // The exact same binding (incl. condition) exists.
+            // The exact same binding (incl. condition) exists. Fail this
+            // update, but continue with the others.
             //
-            throw new AlreadyExistsException("The binding already exists");
+            pending.fail(new AlreadyExistsException("The binding already exists"));
+            continue;
           }
         }
 
-        if (options.contains(ResourceManagerClient.IamBindingOptions.PURGE_EXISTING_TEMPORARY_BINDINGS)) {
+        if (update.options().contains(ResourceManagerClient.IamBindingOptions.PURGE_EXISTING_TEMPORARY_BINDINGS)) {
           //
           // Remove existing temporary bindings for the same principal and role.
           //
@@ -145,7 +252,9 @@ public class ResourceManagerClient {
           // detect other temporary bindings (which might use a slightly different
           // condition)
           //
-          Predicate<Binding> isObsolete = b -> Bindings.equals(b, binding, false)
+          Predicate<Binding> isObsolete = b -> update.bindings()
+              .stream()
+              .anyMatch(binding -> Bindings.equals(b, binding, false))
               && b.getCondition() != null
               && TemporaryIamCondition.isTemporaryAccessCondition(b.getCondition().getExpression());
 
@@ -157,66 +266,57 @@ public class ResourceManagerClient {
           policy.getBindings().addAll(nonObsoleteBindings);
         }
 
+        policy.getBindings().addAll(update.bindings());
+        appliedUpdates.add(pending);
+      }
+
+      if (appliedUpdates.isEmpty()) {
         //
-        // Apply change and write new version.
+        // Nothing left to write.
         //
-        policy.getBindings().add(binding);
-
-        try {
-          var request = service
-              .projects()
-              .setIamPolicy(
-                  String.format("projects/%s", projectId),
-                  new SetIamPolicyRequest().setPolicy((policy)));
+        return;
+      }
 
-          request.getRequestHeaders().set("x-goog-request-reason", requestReason);
-          request.execute();
+      //
+      // Write new version.
+      //
+      try {
+        var request = service
+            .projects()
+            .setIamPolicy(
+                String.format("projects/%s", projectId),
+                new SetIamPolicyRequest().setPolicy((policy)));
+
+        request.getRequestHeaders().set(
+            "x-goog-request-reason",
+            appliedUpdates
+                .stream()
+                .map(p -> p.update().requestReason())
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.joining("; ")));
+        request.execute();
 
-          //
-          // Successful update -> quit loop.
-          //
-          return;
-        } catch (GoogleJsonResponseException e) {
-          if (e.getStatusCode() == 412) {
-            //
-            // Concurrent modification - back off and retry.
-            //
-            try {
-              Thread.sleep(200);
-            } catch (InterruptedException ignored) {
-            }
-          } else {
-            throw (GoogleJsonResponseException) e.fillInStackTrace();
-          }
+        //
+        // Successful update -> quit loop.
+        //
+        return;
+      } catch (GoogleJsonResponseException e) {
+        if (e.getStatusCode() != 412) {
+          throw (GoogleJsonResponseException) e.fillInStackTrace();
         }
-      }
 
-      throw new AlreadyExistsException(
-          "Failed to update IAM bindings due to concurrent modifications");
-    } catch (GoogleJsonResponseException e) {
-      switch (e.getStatusCode()) {
-        case 400:
-          //
-          // One possible reason for an INVALID_ARGUMENT error is that we've tried
-          // to grant a role on a project that cannot be granted on a project at all.
-          // If that's the case, provide a more descriptive error message.
-          //
-          if (e.getDetails() != null &&
-              e.getDetails().getErrors() != null &&
-              e.getDetails().getErrors().size() > 0 &&
-              isRoleNotGrantableErrorMessage(e.getDetails().getErrors().get(0).getMessage())) {
-            throw new AccessDeniedException(
-                String.format("The role %s cannot be granted on a project", binding.getRole()),
-                e);
-          }
-        case 401:
-          throw new NotAuthenticatedException("Not authenticated", e);
-        case 403:
-          throw new AccessDeniedException(String.format("Denied access to project '%s'", projectId), e);
-        default:
-          throw (GoogleJsonResponseException) e.fillInStackTrace();
+        //
+        // Concurrent modification - back off and retry.
+        //
+        if (!this.conflictRetryPolicy.awaitRetry(attempt, null)) {
+          break;
+        }
       }
     }
+
+    throw new AlreadyExistsException(
+        "Failed to update IAM bindings due to concurrent modifications");
   }
 
   /**
@@ -226,7 +326,7 @@ public class ResourceManagerClient {
       ProjectId projectId,
       List<String> permissions) throws NotAuthenticatedException, IOException {
     try {
-      var response = createClient()
+      var response = getClient()
           .projects()
           .testIamPermissions(
               String.format("projects/%s", projectId),
@@ -253,7 +353,7 @@ public class ResourceManagerClient {
   public @NotNull SortedSet<ProjectId> searchProjectIds(
       String query) throws NotAuthenticatedException, IOException {
     try {
-      var client = createClient();
+      var client = getClient();
 
       var response = client
           .projects()
@@ -297,6 +397,54 @@ public class ResourceManagerClient {
     }
   }
 
+  /**
+   * List folders that are direct descendants of an organization
+   * or folder.
+   */
+  public @NotNull SortedSet<FolderId> listFolders(
+      @NotNull ResourceId parent) throws AccessException, IOException {
+    Preconditions.checkNotNull(parent, "parent");
+    Preconditions.checkArgument(
+        parent instanceof OrganizationId || parent instanceof FolderId,
+        "Parent must be an organization or folder");
+
+    try {
+      var client = getClient();
+      var folders = new TreeSet<FolderId>();
+
+      String pageToken = null;
+      do {
+        var response = client
+            .folders()
+            .list()
+            .setParent(parent.path())
+            .setPageToken(pageToken)
+            .setPageSize(LIST_FOLDERS_PAGE_SIZE)
+            .execute();
+
+        if (response.getFolders() != null) {
+          response.getFolders()
+              .stream()
+              .map(f -> new FolderId(f.getName().substring("folders/".length())))
+              .forEach(folders::add);
+        }
+
+        pageToken = response.getNextPageToken();
+      } while (pageToken != null && !pageToken.isEmpty());
+
+      return folders;
+    } catch (GoogleJsonResponseException e) {
+      switch (e.getStatusCode()) {
+        case 401:
+          throw new NotAuthenticatedException("Not authenticated", e);
+        case 403:
+          throw new AccessDeniedException(String.format("Denied access to '%s'", parent.path()), e);
+        default:
+          throw (GoogleJsonResponseException) e.fillInStackTrace();
+      }
+    }
+  }
+
   /**
    * Get the ancestry of a project.
    *
@@ -305,7 +453,7 @@ public class ResourceManagerClient {
   public @NotNull Collection<ResourceId> getAncestry(
       @NotNull ProjectId projectId) throws AccessException, IOException {
     try {
-      var response = new GetAncestry(createClient(), projectId.id(), new GetAncestryRequest()).execute();
+      var response = new GetAncestry(getClient(), projectId.id(), new GetAncestryRequest()).execute();
       return response.ancestor
           .stream()
           .map(a -> {
@@ -376,6 +524,15 @@ public class ResourceManagerClient {
     }
   }
 
+  /**
+   * A queued request to add bindings.
+   */
+  private record BindingUpdate(
+      @NotNull List<Binding> bindings,
+      @NotNull EnumSet<IamBindingOptions> options,
+      @Nullable String requestReason
+  ) {}
+
   public enum IamBindingOptions {
     NONE,
 
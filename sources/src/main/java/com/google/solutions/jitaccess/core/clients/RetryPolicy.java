@@ -0,0 +1,344 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.clients;
+
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseInterceptor;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import com.google.api.client.util.Sleeper;
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Policy for retrying failed requests to an API endpoint.
+ *
+ * Retries use exponential backoff with full jitter so that retries
+ * of multiple clients don't synchronize, and honor Retry-After headers.
+ *
+ * To prevent retries from amplifying an overload, retries are subject to
+ * a budget: each retry consumes a token, each successful request
+ * replenishes a fraction of a token. Once the budget is exhausted, failed
+ * requests aren't retried until enough requests have succeeded again.
+ */
+public class RetryPolicy {
+  private final @NotNull String endpoint;
+  private final @NotNull Options options;
+  private final @NotNull Sleeper sleeper;
+
+  private final @NotNull AtomicLong attempts = new AtomicLong();
+  private final @NotNull AtomicLong retries = new AtomicLong();
+  private final @NotNull AtomicLong giveUps = new AtomicLong();
+
+  private double budget;
+
+  RetryPolicy(
+      @NotNull String endpoint,
+      @NotNull Options options,
+      @NotNull Sleeper sleeper) {
+    Preconditions.checkNotNull(endpoint, "endpoint");
+    Preconditions.checkNotNull(options, "options");
+    Preconditions.checkNotNull(sleeper, "sleeper");
+
+    this.endpoint = endpoint;
+    this.options = options;
+    this.sleeper = sleeper;
+    this.budget = options.budget;
+  }
+
+  public RetryPolicy(
+      @NotNull String endpoint,
+      @NotNull Options options) {
+    this(endpoint, options, Sleeper.DEFAULT);
+  }
+
+  /**
+   * Check if a status code indicates a transient error.
+   */
+  static boolean isRetryableStatusCode(int statusCode) {
+    switch (statusCode) {
+      case 429: // Too many requests
+      case 502: // Bad gateway
+      case 503: // Service unavailable
+      case 504: // Gateway timeout
+        return true;
+
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Parse the value of a Retry-After header, which can either be
+   * a number of seconds or a HTTP date.
+   */
+  static @NotNull Optional<Duration> parseRetryAfter(
+      @Nullable String value,
+      @NotNull Instant now) {
+    if (value == null || value.isBlank()) {
+      return Optional.empty();
+    }
+
+    value = value.trim();
+
+    try {
+      return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(value))));
+    } catch (NumberFormatException ignored) {
+    }
+
+    try {
+      var date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+      return Optional.of(date.isAfter(now) ? Duration.between(now, date) : Duration.ZERO);
+    } catch (DateTimeParseException ignored) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Calculate the backoff before performing a retry.
+   *
+   * @param retry number of the retry, starting at 1.
+   */
+  @NotNull Duration backoff(int retry) {
+    Preconditions.checkArgument(retry > 0, "retry");
+
+    var maxMillis = Math.min(
+        this.options.maxBackoff.toMillis(),
+        this.options.initialBackoff.toMillis() << Math.min(retry - 1, 30));
+
+    return Duration.ofMillis(ThreadLocalRandom.current().nextLong(maxMillis + 1));
+  }
+
+  private synchronized boolean tryConsumeBudget() {
+    if (this.options.budget == Options.UNLIMITED_BUDGET) {
+      return true;
+    }
+
+    if (this.budget < 1) {
+      return false;
+    }
+
+    this.budget--;
+    return true;
+  }
+
+  private synchronized void replenishBudget() {
+    this.budget = Math.min(this.options.budget, this.budget + this.options.budgetRefillPerSuccess);
+  }
+
+  /**
+   * Record a successful request.
+   */
+  void onSuccess() {
+    replenishBudget();
+  }
+
+  /**
+   * Wait before performing a retry.
+   *
+   * @param retry number of the retry, starting at 1.
+   * @param retryAfter delay requested by the server, if any.
+   * @return false if the request shouldn't be retried because
+   * the maximum number of attempts has been reached, the
+   * budget is exhausted, or the server requested a delay that's
+   * too long.
+   */
+  public boolean awaitRetry(int retry, @Nullable Duration retryAfter) {
+    Preconditions.checkArgument(retry > 0, "retry");
+
+    if (retry >= this.options.maxAttempts ||
+        (retryAfter != null && retryAfter.compareTo(this.options.maxRetryAfter) > 0) ||
+        !tryConsumeBudget()) {
+      this.giveUps.incrementAndGet();
+      return false;
+    }
+
+    var delay = retryAfter != null ? retryAfter : backoff(retry);
+    try {
+      this.sleeper.sleep(delay.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.giveUps.incrementAndGet();
+      return false;
+    }
+
+    this.retries.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Install the policy on a request.
+   */
+  public void initialize(@NotNull HttpRequest request) {
+    var handler = new RequestHandler(
+        request.getUnsuccessfulResponseHandler(),
+        request.getResponseInterceptor());
+
+    //
+    // NB. Allow one more retry than we need so that the policy, not the
+    // request, decides when to give up.
+    //
+    request.setNumberOfRetries(this.options.maxAttempts);
+    request.setUnsuccessfulResponseHandler(handler);
+    request.setResponseInterceptor(handler);
+  }
+
+  public @NotNull String endpoint() {
+    return this.endpoint;
+  }
+
+  public @NotNull Options options() {
+    return this.options;
+  }
+
+  /**
+   * Get statistics about attempts and retries.
+   */
+  public @NotNull Stats getStats() {
+    return new Stats(
+        this.attempts.get(),
+        this.retries.get(),
+        this.giveUps.get());
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  /**
+   * Per-request handler that tracks the number of retries.
+   */
+  private class RequestHandler implements HttpUnsuccessfulResponseHandler, HttpResponseInterceptor {
+    private final @Nullable HttpUnsuccessfulResponseHandler nextHandler;
+    private final @Nullable HttpResponseInterceptor nextInterceptor;
+    private int retryCount = 0;
+
+    private RequestHandler(
+        @Nullable HttpUnsuccessfulResponseHandler nextHandler,
+        @Nullable HttpResponseInterceptor nextInterceptor) {
+      this.nextHandler = nextHandler;
+      this.nextInterceptor = nextInterceptor;
+    }
+
+    @Override
+    public void interceptResponse(@NotNull HttpResponse response) throws IOException {
+      RetryPolicy.this.attempts.incrementAndGet();
+      if (response.isSuccessStatusCode()) {
+        onSuccess();
+      }
+
+      if (this.nextInterceptor != null) {
+        this.nextInterceptor.interceptResponse(response);
+      }
+    }
+
+    @Override
+    public boolean handleResponse(
+        @NotNull HttpRequest request,
+        @NotNull HttpResponse response,
+        boolean supportsRetry) throws IOException {
+      if (this.nextHandler != null && this.nextHandler.handleResponse(request, response, supportsRetry)) {
+        //
+        // Handled already, for ex. by refreshing credentials.
+        //
+        return true;
+      }
+
+      if (!supportsRetry || !isRetryableStatusCode(response.getStatusCode())) {
+        return false;
+      }
+
+      return awaitRetry(
+          ++this.retryCount,
+          parseRetryAfter(
+              response.getHeaders().getFirstHeaderStringValue("Retry-After"),
+              Instant.now()).orElse(null));
+    }
+  }
+
+  /**
+   * @param attempts number of requests that received a response.
+   * @param retries number of retries performed.
+   * @param giveUps number of times a retry was abandoned because
+   *                attempts or the budget were exhausted.
+   */
+  public record Stats(long attempts, long retries, long giveUps) {}
+
+  /**
+   * @param maxAttempts maximum number of attempts per request, including
+   *                    the initial attempt.
+   * @param initialBackoff backoff before the first retry, doubled for
+   *                       each subsequent retry.
+   * @param maxBackoff maximum backoff.
+   * @param maxRetryAfter maximum delay to honor in a Retry-After header,
+   *                      requests that ask for a longer delay aren't retried.
+   * @param budget maximum number of retries that can be performed
+   *               in a burst.
+   * @param budgetRefillPerSuccess fraction of a retry that each successful
+   *                               request adds to the budget.
+   */
+  public record Options(
+      int maxAttempts,
+      @NotNull Duration initialBackoff,
+      @NotNull Duration maxBackoff,
+      @NotNull Duration maxRetryAfter,
+      int budget,
+      double budgetRefillPerSuccess
+  ) {
+    /**
+     * Budget that's never exhausted, for retries that don't add load
+     * to an overloaded API (for ex, to resolve optimistic concurrency
+     * conflicts).
+     */
+    public static final int UNLIMITED_BUDGET = Integer.MAX_VALUE;
+
+    public static final @NotNull Options DEFAULT = new Options(
+        4,
+        Duration.ofMillis(100),
+        Duration.ofSeconds(5),
+        Duration.ofSeconds(30),
+        10,
+        0.1);
+
+    public Options {
+      Preconditions.checkArgument(maxAttempts >= 1, "maxAttempts");
+      Preconditions.checkNotNull(initialBackoff, "initialBackoff");
+      Preconditions.checkNotNull(maxBackoff, "maxBackoff");
+      Preconditions.checkNotNull(maxRetryAfter, "maxRetryAfter");
+      Preconditions.checkArgument(!initialBackoff.isNegative(), "initialBackoff");
+      Preconditions.checkArgument(maxBackoff.compareTo(initialBackoff) >= 0, "maxBackoff");
+      Preconditions.checkArgument(budget >= 0, "budget");
+      Preconditions.checkArgument(budgetRefillPerSuccess >= 0, "budgetRefillPerSuccess");
+    }
+  }
+}
@@ -32,7 +32,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
 
 /**
  * Client for the Secrets Manager API.
@@ -44,6 +43,7 @@ public class SecretManagerClient {
 
   private final @NotNull GoogleCredentials credentials;
   private final HttpTransport.@NotNull Options httpOptions;
+  private final HttpTransport.@NotNull CachedClient<SecretManager> client;
 
   public SecretManagerClient(
       @NotNull GoogleCredentials credentials,
@@ -53,19 +53,19 @@ public class SecretManagerClient {
 
     this.credentials = credentials;
     this.httpOptions = httpOptions;
+
+    this.client = new HttpTransport.CachedClient<>(
+        "SecretManager",
+        transport -> new SecretManager.Builder(
+            transport,
+            GsonFactory.getDefaultInstance(),
+            HttpTransport.newAuthenticatingRequestInitializer(credentials, httpOptions))
+            .setApplicationName(ApplicationVersion.USER_AGENT)
+            .build());
   }
 
-  private @NotNull SecretManager createClient() throws IOException {
-    try {
-      return new SecretManager.Builder(
-          HttpTransport.newTransport(),
-          new GsonFactory(),
-          HttpTransport.newAuthenticatingRequestInitializer(this.credentials, this.httpOptions))
-          .setApplicationName(ApplicationVersion.USER_AGENT)
-          .build();
-    } catch (GeneralSecurityException e) {
-      throw new IOException("Creating a SecretManager client failed", e);
-    }
+  private @NotNull SecretManager getClient() throws IOException {
+    return this.client.get();
   }
 
   /**
@@ -77,7 +77,7 @@ public class SecretManagerClient {
   public @Nullable String accessSecret(
       String secretPath) throws AccessException, IOException {
     try {
-      var payload = createClient()
+      var payload = getClient()
           .projects()
           .secrets()
           .versions()
@@ -34,8 +34,10 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -45,6 +47,8 @@ import java.util.Properties;
 public class SmtpClient {
   private final @NotNull SecretManagerClient secretManagerClient;
   private final @NotNull Options options;
+  private @Nullable Session session;
+  private @Nullable SmtpConnectionPool connectionPool;
 
   public SmtpClient(
       @NotNull SecretManagerClient secretManagerClient,
@@ -56,16 +60,32 @@ public class SmtpClient {
     this.options = options;
   }
 
-  public void sendMail(
-      @NotNull Collection<UserEmail> toRecipients,
-      @NotNull Collection<UserEmail> ccRecipients,
-      String subject,
-      Multipart content,
-      @NotNull EnumSet<Flags> flags) throws MailException {
-    Preconditions.checkNotNull(toRecipients, "toRecipients");
-    Preconditions.checkNotNull(ccRecipients, "ccRecipients");
-    Preconditions.checkNotNull(subject, "subject");
-    Preconditions.checkNotNull(content, "content");
+  /**
+   * Get the connection pool, creating it on first use.
+   */
+  private synchronized @NotNull SmtpConnectionPool getConnectionPool() throws MailException {
+    if (this.connectionPool == null) {
+      var session = getSession();
+      this.connectionPool = new SmtpConnectionPool(
+          () -> {
+            var transport = session.getTransport();
+            transport.connect();
+            return transport;
+          },
+          this.options.maxConnections,
+          this.options.connectionIdleTimeout);
+    }
+
+    return this.connectionPool;
+  }
+
+  /**
+   * Get the session, creating it on first use.
+   */
+  private synchronized @NotNull Session getSession() throws MailException {
+    if (this.session != null) {
+      return this.session;
+    }
 
     PasswordAuthentication authentication;
     try {
@@ -74,7 +94,7 @@ public class SmtpClient {
       throw new MailException("Looking up SMTP credentials failed", e);
     }
 
-    var session = Session.getDefaultInstance(
+    this.session = Session.getInstance(
         this.options.smtpProperties,
         new Authenticator() {
           @Override
@@ -82,6 +102,24 @@ public class SmtpClient {
             return authentication;
           }
         });
+    return this.session;
+  }
+
+  /**
+   * Create a message that can be sent by using sendMessages.
+   */
+  public @NotNull MimeMessage createMessage(
+      @NotNull Collection<UserEmail> toRecipients,
+      @NotNull Collection<UserEmail> ccRecipients,
+      String subject,
+      Multipart content,
+      @NotNull EnumSet<Flags> flags) throws MailException {
+    Preconditions.checkNotNull(toRecipients, "toRecipients");
+    Preconditions.checkNotNull(ccRecipients, "ccRecipients");
+    Preconditions.checkNotNull(subject, "subject");
+    Preconditions.checkNotNull(content, "content");
+
+    var session = getSession();
 
     try {
       var message = new MimeMessage(session);
@@ -114,12 +152,40 @@ public class SmtpClient {
         message.setSubject(subject);
       }
 
-      Transport.send(message);
+      //
+      // NB. Unlike Transport.send, Transport.sendMessage doesn't
+      // update the headers for us.
+      //
+      message.saveChanges();
+
+      return message;
     } catch (MessagingException | UnsupportedEncodingException e) {
+      throw new MailException("The mail could not be formatted", e);
+    }
+  }
+
+  /**
+   * Send one or more messages over a single, pooled connection.
+   */
+  public void sendMessages(@NotNull List<MimeMessage> messages) throws MailException {
+    Preconditions.checkNotNull(messages, "messages");
+
+    try {
+      getConnectionPool().send(messages);
+    } catch (MessagingException e) {
       throw new MailException("The mail could not be delivered", e);
     }
   }
 
+  public void sendMail(
+      @NotNull Collection<UserEmail> toRecipients,
+      @NotNull Collection<UserEmail> ccRecipients,
+      String subject,
+      Multipart content,
+      @NotNull EnumSet<Flags> flags) throws MailException {
+    sendMessages(List.of(createMessage(toRecipients, ccRecipients, subject, content, flags)));
+  }
+
   public void sendMail(
       @NotNull Collection<UserEmail> toRecipients,
       @NotNull Collection<UserEmail> ccRecipients,
@@ -159,7 +225,12 @@ public class SmtpClient {
   }
 
   public static class Options {
+    public static final int DEFAULT_MAX_CONNECTIONS = 2;
+    public static final Duration DEFAULT_CONNECTION_IDLE_TIMEOUT = Duration.ofSeconds(30);
+
     private @Nullable PasswordAuthentication cachedAuthentication = null;
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private @NotNull Duration connectionIdleTimeout = DEFAULT_CONNECTION_IDLE_TIMEOUT;
     private final @NotNull String senderName;
     private final @NotNull String senderAddress;
     private final @NotNull Properties smtpProperties;
@@ -203,6 +274,19 @@ public class SmtpClient {
       return this;
     }
 
+    /**
+     * Set the maximum number of SMTP connections to keep open, and
+     * the time after which idle connections are closed.
+     */
+    public @NotNull Options setConnectionPoolOptions(int maxConnections, @NotNull Duration idleTimeout) {
+      Preconditions.checkArgument(maxConnections > 0, "maxConnections must be positive");
+      Preconditions.checkNotNull(idleTimeout, "idleTimeout");
+
+      this.maxConnections = maxConnections;
+      this.connectionIdleTimeout = idleTimeout;
+      return this;
+    }
+
     /**
      * Add credentials for SMTP authentication.
      */
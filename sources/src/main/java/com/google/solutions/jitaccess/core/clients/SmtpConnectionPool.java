@@ -0,0 +1,211 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.clients;
+
+import com.google.common.base.Preconditions;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Pool of connected SMTP transports.
+ *
+ * Connections are opened on demand, up to a maximum number, and reused
+ * until they've been idle for longer than the idle timeout. Connections
+ * that the server closed in the meantime are replaced transparently.
+ *
+ * There is no background thread: idle connections are evicted when
+ * the next caller looks for a connection.
+ */
+class SmtpConnectionPool implements Closeable {
+  private final @NotNull TransportFactory factory;
+  private final @NotNull Duration idleTimeout;
+  private final @NotNull Semaphore permits;
+
+  /**
+   * Idle connections, most recently used first.
+   */
+  private final @NotNull Deque<IdleConnection> idleConnections = new ArrayDeque<>();
+
+  SmtpConnectionPool(
+      @NotNull TransportFactory factory,
+      int maxConnections,
+      @NotNull Duration idleTimeout) {
+    Preconditions.checkNotNull(factory, "factory");
+    Preconditions.checkArgument(maxConnections > 0, "maxConnections");
+    Preconditions.checkNotNull(idleTimeout, "idleTimeout");
+
+    this.factory = factory;
+    this.idleTimeout = idleTimeout;
+    this.permits = new Semaphore(maxConnections, true);
+  }
+
+  private static void closeQuietly(@NotNull Transport transport) {
+    try {
+      transport.close();
+    } catch (MessagingException ignored) {
+    }
+  }
+
+  /**
+   * Take the most recently used connection that hasn't been
+   * idle for too long, and close the ones that have.
+   */
+  private @Nullable Transport takeIdleConnection() {
+    var expiredBefore = Instant.now().minus(this.idleTimeout);
+
+    while (true) {
+      IdleConnection connection;
+      synchronized (this.idleConnections) {
+        connection = this.idleConnections.pollFirst();
+      }
+
+      if (connection == null) {
+        return null;
+      } else if (connection.since.isBefore(expiredBefore)) {
+        closeQuietly(connection.transport);
+      } else {
+        return connection.transport;
+      }
+    }
+  }
+
+  private void returnConnection(@NotNull Transport transport) {
+    synchronized (this.idleConnections) {
+      this.idleConnections.addFirst(new IdleConnection(transport, Instant.now()));
+    }
+  }
+
+  /**
+   * Get the number of idle connections.
+   */
+  int getIdleCount() {
+    synchronized (this.idleConnections) {
+      return this.idleConnections.size();
+    }
+  }
+
+  /**
+   * Send one or more messages over a single connection.
+   *
+   * If a pooled connection turns out to be broken, the remaining messages
+   * are sent over a new connection.
+   */
+  public void send(@NotNull List<MimeMessage> messages) throws MessagingException {
+    Preconditions.checkNotNull(messages, "messages");
+
+    try {
+      this.permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MessagingException("Waiting for an SMTP connection was interrupted", e);
+    }
+
+    try {
+      var remaining = new ArrayDeque<>(messages);
+
+      var connection = takeIdleConnection();
+      var canReconnect = connection != null;
+      if (connection == null) {
+        connection = this.factory.connect();
+      }
+
+      while (true) {
+        try {
+          while (!remaining.isEmpty()) {
+            var message = remaining.peekFirst();
+            connection.sendMessage(message, message.getAllRecipients());
+            remaining.pollFirst();
+          }
+
+          returnConnection(connection);
+          return;
+        } catch (MessagingException e) {
+          if (connection.isConnected()) {
+            //
+            // The connection is fine, it's the message that's been
+            // rejected.
+            //
+            returnConnection(connection);
+            throw e;
+          }
+
+          closeQuietly(connection);
+
+          if (!canReconnect) {
+            throw e;
+          }
+
+          //
+          // The server closed the pooled connection, open a new one
+          // and send the remaining messages.
+          //
+          canReconnect = false;
+          connection = this.factory.connect();
+        }
+      }
+    } finally {
+      this.permits.release();
+    }
+  }
+
+  /**
+   * Close all idle connections.
+   */
+  @Override
+  public void close() {
+    synchronized (this.idleConnections) {
+      for (var connection : this.idleConnections) {
+        closeQuietly(connection.transport);
+      }
+
+      this.idleConnections.clear();
+    }
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  /**
+   * Opens new, connected transports.
+   */
+  @FunctionalInterface
+  interface TransportFactory {
+    @NotNull Transport connect() throws MessagingException;
+  }
+
+  private record IdleConnection(
+      @NotNull Transport transport,
+      @NotNull Instant since) {
+  }
+}
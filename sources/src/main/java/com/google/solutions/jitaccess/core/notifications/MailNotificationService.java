@@ -32,13 +32,12 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.time.Instant;
-import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.Collection;
-import java.util.EnumSet;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -49,6 +48,12 @@ public class MailNotificationService extends NotificationService {
   private final @NotNull SmtpClient smtpClient;
   private final @NotNull MailAddressFormatter formatter;
 
+  /**
+   * Parsed templates by notification type. Types without a template
+   * map to an empty optional.
+   */
+  private final @NotNull Map<String, Optional<MessageTemplate>> templates = new ConcurrentHashMap<>();
+
   /**
    * Load a resource from a JAR resource.
    * 
@@ -95,6 +100,30 @@ public class MailNotificationService extends NotificationService {
     this.formatter = formatter;
   }
 
+  /**
+   * Get the template for a type of notification. Templates are loaded
+   * and parsed on first use.
+   */
+  private @NotNull Optional<MessageTemplate> getTemplate(
+      @NotNull String notificationType) throws NotificationException {
+    var template = this.templates.get(notificationType);
+    if (template == null) {
+      //
+      // NB. If multiple threads load the same template concurrently,
+      // the last one wins. That's harmless.
+      //
+      var htmlTemplate = loadResource(String.format("notifications/%s.html", notificationType));
+      template = Optional.ofNullable(htmlTemplate).map(html -> new MessageTemplate(
+          html,
+          this.options.timeZone,
+          HtmlEscapers.htmlEscaper()));
+
+      this.templates.put(notificationType, template);
+    }
+
+    return template;
+  }
+
   // -------------------------------------------------------------------------
   // NotificationService implementation.
   // -------------------------------------------------------------------------
@@ -108,20 +137,15 @@ public class MailNotificationService extends NotificationService {
   public void sendNotification(@NotNull Notification notification) throws NotificationException {
     Preconditions.checkNotNull(notification, "notification");
 
-    var htmlTemplate = loadResource(
-        String.format("notifications/%s.html", notification.getType()));
-    if (htmlTemplate == null) {
+    var template = getTemplate(notification.getType());
+    if (template.isEmpty()) {
       //
       // Unknown kind of notification, ignore.
       //
       return;
     }
 
-    var formattedMessage = new MessageTemplate(
-        htmlTemplate,
-        this.options.timeZone,
-        HtmlEscapers.htmlEscaper())
-        .format(notification);
+    var formattedMessage = template.get().format(notification);
 
     try {
       this.smtpClient.sendMail(
@@ -147,11 +171,24 @@ public class MailNotificationService extends NotificationService {
 
   /**
    * Template for turning a notification object into some textual representation.
+   *
+   * The template is parsed once into a sequence of literal text and
+   * {{PROPERTY}} placeholders so that formatting a notification only
+   * takes a single pass.
    */
   public static class MessageTemplate {
-    private final @NotNull String template;
+    private static final String PLACEHOLDER_PREFIX = "{{";
+    private static final String PLACEHOLDER_SUFFIX = "}}";
+
+    /**
+     * Estimated length of a formatted property, used to size the output buffer.
+     */
+    private static final int ESTIMATED_PROPERTY_LENGTH = 32;
+
+    private final @NotNull List<Segment> segments;
+    private final int estimatedLength;
     private final @NotNull Escaper escaper;
-    private final @NotNull ZoneId timezoneId;
+    private final @NotNull DateTimeFormatter dateTimeFormatter;
 
     public MessageTemplate(
         @NotNull String template,
@@ -161,44 +198,91 @@ public class MailNotificationService extends NotificationService {
       Preconditions.checkNotNull(timezoneId, "timezoneId");
       Preconditions.checkNotNull(escaper, "escaper");
 
-      this.template = template;
-      this.timezoneId = timezoneId;
+      this.segments = parse(template);
+      this.estimatedLength = this.segments
+          .stream()
+          .mapToInt(s -> s.isPlaceholder ? ESTIMATED_PROPERTY_LENGTH : s.text.length())
+          .sum();
       this.escaper = escaper;
+      this.dateTimeFormatter = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(timezoneId);
+    }
+
+    private static @NotNull List<Segment> parse(@NotNull String template) {
+      var segments = new ArrayList<Segment>();
+
+      var position = 0;
+      while (position < template.length()) {
+        var start = template.indexOf(PLACEHOLDER_PREFIX, position);
+        var end = start >= 0
+            ? template.indexOf(PLACEHOLDER_SUFFIX, start + PLACEHOLDER_PREFIX.length())
+            : -1;
+
+        if (start < 0 || end < 0) {
+          segments.add(new Segment(template.substring(position), false));
+          break;
+        }
+
+        if (start > position) {
+          segments.add(new Segment(template.substring(position, start), false));
+        }
+
+        segments.add(new Segment(template.substring(start + PLACEHOLDER_PREFIX.length(), end), true));
+        position = end + PLACEHOLDER_SUFFIX.length();
+      }
+
+      return List.copyOf(segments);
+    }
+
+    private @NotNull String formatProperty(@NotNull Object value) {
+      if (value instanceof Instant) {
+        //
+        // Apply time zone and convert to string.
+        //
+        return this.dateTimeFormatter.format(((Instant) value).truncatedTo(ChronoUnit.SECONDS));
+      } else if (value instanceof Collection<?>) {
+        return ((Collection<?>) value).stream()
+            .map(i -> i.toString())
+            .collect(Collectors.joining(", "));
+      } else {
+        //
+        // Convert to a safe string.
+        //
+        return this.escaper.escape(value.toString());
+      }
     }
 
     public String format(NotificationService.@NotNull Notification notification) {
       Preconditions.checkNotNull(notification, "notification");
 
       //
-      // Replace all {{PROPERTY}} placeholders in the template.
+      // Replace all {{PROPERTY}} placeholders in the template. Leave
+      // placeholders for unknown properties as-is.
       //
+      var message = new StringBuilder(this.estimatedLength);
+      for (var segment : this.segments) {
+        if (!segment.isPlaceholder) {
+          message.append(segment.text);
+          continue;
+        }
 
-      var message = this.template;
-      for (var property : notification.properties.entrySet()) {
-        String propertyValue;
-        if (property.getValue() instanceof Instant) {
-          //
-          // Apply time zone and convert to string.
-          //
-          propertyValue = OffsetDateTime
-              .ofInstant((Instant) property.getValue(), this.timezoneId)
-              .truncatedTo(ChronoUnit.SECONDS)
-              .format(DateTimeFormatter.RFC_1123_DATE_TIME);
-        } else if (property.getValue() instanceof Collection<?>) {
-          propertyValue = ((Collection<?>) property.getValue()).stream()
-              .map(i -> i.toString())
-              .collect(Collectors.joining(", "));
+        var value = notification.properties.get(segment.text);
+        if (value != null) {
+          message.append(formatProperty(value));
         } else {
-          //
-          // Convert to a safe string.
-          //
-          propertyValue = escaper.escape(property.getValue().toString());
+          message
+              .append(PLACEHOLDER_PREFIX)
+              .append(segment.text)
+              .append(PLACEHOLDER_SUFFIX);
         }
-
-        message = message.replace("{{" + property.getKey() + "}}", propertyValue);
       }
 
-      return message;
+      return message.toString();
+    }
+
+    /**
+     * Literal text, or the name of a placeholder.
+     */
+    private record Segment(@NotNull String text, boolean isPlaceholder) {
     }
   }
 
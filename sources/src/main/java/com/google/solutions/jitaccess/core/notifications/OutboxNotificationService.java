@@ -0,0 +1,682 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.notifications;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.solutions.jitaccess.core.UserEmail;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Notification service that queues notifications and lets background
+ * workers deliver them by using another notification service.
+ *
+ * Failed deliveries are retried with exponential backoff. Notifications
+ * that still can't be delivered after a number of attempts are
+ * dead-lettered.
+ *
+ * Optionally, queued notifications are recorded in an append-only file
+ * so that they survive restarts. Each line of the file records one
+ * change. When the service is created, it replays the file, re-queues
+ * pending notifications, and compacts the file by discarding delivered
+ * notifications. The file is compacted again whenever enough notifications
+ * have been settled. Only the most recent dead-lettered notifications
+ * remain in the file.
+ */
+public class OutboxNotificationService extends NotificationService implements Closeable {
+  private static final String SEPARATOR = "\t";
+  private static final Gson GSON = new Gson();
+
+  /**
+   * Time after which idle workers check whether the service has been closed.
+   */
+  private static final Duration WORKER_POLL_TIMEOUT = Duration.ofSeconds(1);
+
+  /**
+   * Maximum number of dead-lettered notifications to keep in the file.
+   */
+  static final int MAX_DEAD_LETTERS = 100;
+
+  /**
+   * Minimum number of settled notifications before the file is compacted.
+   */
+  static final int MIN_COMPACTION_INTERVAL = 100;
+
+  private final @NotNull NotificationService delegate;
+  private final @NotNull Options options;
+  private final @NotNull DeliveryListener listener;
+  private final @NotNull DelayQueue<Entry> queue = new DelayQueue<>();
+  private final @NotNull AtomicInteger pendingCount = new AtomicInteger();
+  private final @NotNull AtomicInteger deadLetterCount = new AtomicInteger();
+  private volatile boolean closed = false;
+
+  /**
+   * Pending and dead-lettered notifications as recorded in the file,
+   * by ID. Guarded by journalLock.
+   */
+  private final @NotNull Map<String, String> journalPending = new LinkedHashMap<>();
+  private final @NotNull Map<String, String> journalDeadLetters = new LinkedHashMap<>();
+  private final @NotNull Object journalLock = new Object();
+  private @Nullable BufferedWriter writer;
+  private int settledSinceCompaction = 0;
+
+  /**
+   * @param listener callback for failed delivery attempts
+   */
+  public OutboxNotificationService(
+      @NotNull NotificationService delegate,
+      @NotNull Options options,
+      @NotNull DeliveryListener listener) throws IOException {
+    Preconditions.checkNotNull(delegate, "delegate");
+    Preconditions.checkNotNull(options, "options");
+    Preconditions.checkNotNull(listener, "listener");
+
+    this.delegate = delegate;
+    this.options = options;
+    this.listener = listener;
+
+    if (options.file != null) {
+      //
+      // Replay existing changes.
+      //
+      if (Files.exists(options.file)) {
+        for (var line : Files.readAllLines(options.file, StandardCharsets.UTF_8)) {
+          var parts = line.split(SEPARATOR);
+          if (parts.length < 2) {
+            //
+            // Ignore malformed lines, these might be caused by a crash
+            // while we were writing to the file.
+            //
+            continue;
+          }
+
+          switch (parts[0]) {
+            case Operation.QUEUED:
+              if (parts.length == 3) {
+                this.journalPending.put(parts[1], parts[2]);
+              }
+              break;
+
+            case Operation.DELIVERED:
+              this.journalPending.remove(parts[1]);
+              break;
+
+            case Operation.DEAD_LETTERED:
+              var payload = this.journalPending.remove(parts[1]);
+              if (payload != null) {
+                addDeadLetter(parts[1], payload);
+              }
+              break;
+
+            default:
+              break;
+          }
+        }
+      }
+
+      synchronized (this.journalLock) {
+        this.writer = compact();
+      }
+
+      this.deadLetterCount.set(this.journalDeadLetters.size());
+
+      //
+      // Re-queue pending notifications.
+      //
+      for (var entry : this.journalPending.entrySet()) {
+        try {
+          var notification = StoredNotification.fromJson(entry.getValue());
+          this.pendingCount.incrementAndGet();
+          this.queue.add(new Entry(entry.getKey(), notification, 0, Instant.now()));
+        } catch (JsonParseException | DateTimeParseException ignored) {
+        }
+      }
+    }
+  }
+
+  public OutboxNotificationService(
+      @NotNull NotificationService delegate,
+      @NotNull Options options) throws IOException {
+    this(delegate, options, new DeliveryListener() {});
+  }
+
+  private static void writeLine(
+      @NotNull BufferedWriter writer,
+      @NotNull String operation,
+      @NotNull String id,
+      @Nullable String payload) throws IOException {
+    writer.write(operation);
+    writer.write(SEPARATOR);
+    writer.write(id);
+    if (payload != null) {
+      writer.write(SEPARATOR);
+      writer.write(payload);
+    }
+    writer.newLine();
+  }
+
+  /**
+   * Record a dead letter, discarding the oldest dead letter if
+   * there are too many.
+   */
+  private void addDeadLetter(@NotNull String id, @NotNull String payload) {
+    this.journalDeadLetters.put(id, payload);
+
+    var iterator = this.journalDeadLetters.keySet().iterator();
+    while (this.journalDeadLetters.size() > MAX_DEAD_LETTERS) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Rewrite the file so that it only contains pending and
+   * dead-lettered notifications. Must be called while holding
+   * the journal lock.
+   *
+   * @return writer for appending to the compacted file.
+   */
+  private @NotNull BufferedWriter compact() throws IOException {
+    assert Thread.holdsLock(this.journalLock);
+    assert this.options.file != null;
+
+    //
+    // Write the file to a temporary file and move it into place.
+    // The writer stays open and, after the move, appends to the new file.
+    //
+    var compactedFile = this.options.file.resolveSibling(this.options.file.getFileName() + ".tmp");
+    var compactedWriter = Files.newBufferedWriter(compactedFile, StandardCharsets.UTF_8);
+    try {
+      for (var deadLetter : this.journalDeadLetters.entrySet()) {
+        writeLine(compactedWriter, Operation.QUEUED, deadLetter.getKey(), deadLetter.getValue());
+        writeLine(compactedWriter, Operation.DEAD_LETTERED, deadLetter.getKey(), null);
+      }
+
+      for (var entry : this.journalPending.entrySet()) {
+        writeLine(compactedWriter, Operation.QUEUED, entry.getKey(), entry.getValue());
+      }
+      compactedWriter.flush();
+
+      Files.move(
+          compactedFile,
+          this.options.file,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      compactedWriter.close();
+      throw e;
+    }
+
+    this.settledSinceCompaction = 0;
+    return compactedWriter;
+  }
+
+  private void journal(
+      @NotNull String operation,
+      @NotNull String id,
+      @Nullable String payload) throws IOException {
+    synchronized (this.journalLock) {
+      if (this.writer == null) {
+        return;
+      }
+
+      writeLine(this.writer, operation, id, payload);
+      this.writer.flush();
+
+      switch (operation) {
+        case Operation.QUEUED:
+          this.journalPending.put(id, payload);
+          break;
+
+        case Operation.DELIVERED:
+          this.journalPending.remove(id);
+          this.settledSinceCompaction++;
+          break;
+
+        case Operation.DEAD_LETTERED:
+          var deadLetter = this.journalPending.remove(id);
+          if (deadLetter != null) {
+            addDeadLetter(id, deadLetter);
+          }
+          this.settledSinceCompaction++;
+          break;
+
+        default:
+          break;
+      }
+
+      if (!this.closed && this.settledSinceCompaction >= Math.max(
+          MIN_COMPACTION_INTERVAL,
+          this.journalPending.size() + this.journalDeadLetters.size())) {
+        //
+        // Most lines in the file are obsolete now.
+        //
+        try {
+          var compactedWriter = compact();
+          this.writer.close();
+          this.writer = compactedWriter;
+        } catch (IOException ignored) {
+          //
+          // The file is still consistent, it's just larger than
+          // necessary. We'll try again after the next settlement.
+          //
+        }
+      }
+    }
+  }
+
+  /**
+   * Reserve a slot in the queue.
+   *
+   * @return false if the queue is full.
+   */
+  private boolean tryReserveSlot() {
+    if (this.pendingCount.incrementAndGet() > this.options.capacity) {
+      this.pendingCount.decrementAndGet();
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Mark a notification as delivered or dead-lettered.
+   */
+  private void settle(@NotNull Entry entry, @NotNull String operation) {
+    this.pendingCount.decrementAndGet();
+
+    try {
+      journal(operation, entry.id, null);
+    } catch (IOException ignored) {
+      //
+      // If we fail to record that the notification has been settled,
+      // we'll retry it after a restart. That's acceptable.
+      //
+    }
+  }
+
+  /**
+   * Attempt to deliver the next notification that is due.
+   *
+   * @return false if no notification became due before the timeout elapsed.
+   */
+  boolean deliverNext(@NotNull Duration timeout) throws InterruptedException {
+    var entry = this.queue.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    if (entry == null) {
+      return false;
+    }
+
+    try {
+      this.delegate.sendNotification(entry.notification);
+      settle(entry, Operation.DELIVERED);
+    } catch (Exception e) {
+      var attempts = entry.attempts + 1;
+      if (attempts >= this.options.maxAttempts) {
+        var deadLetters = this.deadLetterCount.incrementAndGet();
+        settle(entry, Operation.DEAD_LETTERED);
+        this.listener.onDeadLettered(entry.notification, attempts, deadLetters, e);
+      } else {
+        var backoff = this.options.retryDelay.multipliedBy(1L << Math.min(attempts - 1, 16));
+        this.queue.add(new Entry(entry.id, entry.notification, attempts, Instant.now().plus(backoff)));
+        this.listener.onDeliveryFailed(entry.notification, attempts, e);
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Start background workers that deliver queued notifications
+   * until the service is closed.
+   */
+  public void start(@NotNull Executor executor) {
+    Preconditions.checkNotNull(executor, "executor");
+
+    for (int i = 0; i < this.options.workers; i++) {
+      executor.execute(() -> {
+        while (!this.closed) {
+          try {
+            deliverNext(WORKER_POLL_TIMEOUT);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * Get the number of notifications that are queued or being retried.
+   */
+  public int getPendingCount() {
+    return this.pendingCount.get();
+  }
+
+  /**
+   * Get the number of notifications that have been given up on.
+   */
+  public int getDeadLetterCount() {
+    return this.deadLetterCount.get();
+  }
+
+  // -------------------------------------------------------------------------
+  // NotificationService implementation.
+  // -------------------------------------------------------------------------
+
+  @Override
+  public boolean canSendNotifications() {
+    return this.delegate.canSendNotifications();
+  }
+
+  @Override
+  public void sendNotification(@NotNull Notification notification) throws NotificationException {
+    Preconditions.checkNotNull(notification, "notification");
+
+    if (this.closed || !tryReserveSlot()) {
+      //
+      // The queue is full. Apply backpressure by delivering the
+      // notification synchronously.
+      //
+      this.delegate.sendNotification(notification);
+      return;
+    }
+
+    var entry = new Entry(
+        UUID.randomUUID().toString(),
+        StoredNotification.fromNotification(notification),
+        0,
+        Instant.now());
+
+    try {
+      journal(Operation.QUEUED, entry.id, entry.notification.toJson());
+    } catch (IOException e) {
+      this.pendingCount.decrementAndGet();
+      throw new NotificationException("Writing the notification to the outbox failed", e);
+    }
+
+    this.queue.add(entry);
+  }
+
+  // -------------------------------------------------------------------------
+  // Closeable.
+  // -------------------------------------------------------------------------
+
+  /**
+   * Stop workers. Notifications that haven't been delivered yet
+   * remain in the file and are delivered after a restart.
+   */
+  @Override
+  public void close() throws IOException {
+    this.closed = true;
+
+    synchronized (this.journalLock) {
+      if (this.writer != null) {
+        this.writer.close();
+      }
+    }
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  /**
+   * Callback for failed deliveries.
+   */
+  public interface DeliveryListener {
+    /**
+     * Delivering a notification failed, the notification will be retried.
+     *
+     * @param attempts number of attempts so far
+     */
+    default void onDeliveryFailed(
+        @NotNull Notification notification,
+        int attempts,
+        @NotNull Exception e) {
+    }
+
+    /**
+     * Delivering a notification failed repeatedly, and the notification
+     * has been dead-lettered.
+     *
+     * @param attempts number of attempts
+     * @param deadLetterCount total number of dead-lettered notifications
+     */
+    default void onDeadLettered(
+        @NotNull Notification notification,
+        int attempts,
+        int deadLetterCount,
+        @NotNull Exception e) {
+    }
+  }
+
+  private static class Operation {
+    private static final String QUEUED = "QUEUED";
+    private static final String DELIVERED = "DELIVERED";
+    private static final String DEAD_LETTERED = "DEAD_LETTERED";
+  }
+
+  /**
+   * Queued notification, becomes available to workers once it's due.
+   */
+  private record Entry(
+      @NotNull String id,
+      @NotNull StoredNotification notification,
+      int attempts,
+      @NotNull Instant due) implements Delayed {
+
+    @Override
+    public long getDelay(@NotNull TimeUnit unit) {
+      return unit.convert(Duration.between(Instant.now(), this.due));
+    }
+
+    @Override
+    public int compareTo(@NotNull Delayed o) {
+      return this.due.compareTo(((Entry) o).due);
+    }
+  }
+
+  /**
+   * Serializable copy of a notification.
+   *
+   * Property values are reduced to strings, collections of strings, and
+   * instants, which is all that notification services need to format
+   * a notification.
+   */
+  static class StoredNotification extends Notification {
+    private final @NotNull String type;
+    private final boolean reply;
+
+    private StoredNotification(
+        @NotNull String type,
+        @NotNull Collection<UserEmail> toRecipients,
+        @NotNull Collection<UserEmail> ccRecipients,
+        @NotNull String subject,
+        boolean reply) {
+      super(toRecipients, ccRecipients, subject);
+
+      this.type = type;
+      this.reply = reply;
+    }
+
+    static @NotNull StoredNotification fromNotification(@NotNull Notification notification) {
+      var stored = new StoredNotification(
+          notification.getType(),
+          List.copyOf(notification.getToRecipients()),
+          List.copyOf(notification.getCcRecipients()),
+          notification.getSubject(),
+          notification.isReply());
+
+      for (var property : notification.properties.entrySet()) {
+        if (property.getValue() instanceof Instant) {
+          stored.properties.put(property.getKey(), property.getValue());
+        } else if (property.getValue() instanceof Collection<?>) {
+          stored.properties.put(property.getKey(), ((Collection<?>) property.getValue())
+              .stream()
+              .map(Object::toString)
+              .collect(Collectors.toList()));
+        } else {
+          stored.properties.put(property.getKey(), property.getValue().toString());
+        }
+      }
+
+      return stored;
+    }
+
+    static @NotNull StoredNotification fromJson(@NotNull String json) {
+      var payload = GSON.fromJson(json, Payload.class);
+      if (payload == null || payload.type == null || payload.subject == null) {
+        throw new JsonParseException("Incomplete notification");
+      }
+
+      var stored = new StoredNotification(
+          payload.type,
+          Stream.ofNullable(payload.to).flatMap(List::stream).map(UserEmail::new).toList(),
+          Stream.ofNullable(payload.cc).flatMap(List::stream).map(UserEmail::new).toList(),
+          payload.subject,
+          payload.reply);
+
+      if (payload.strings != null) {
+        stored.properties.putAll(payload.strings);
+      }
+
+      if (payload.lists != null) {
+        stored.properties.putAll(payload.lists);
+      }
+
+      if (payload.instants != null) {
+        payload.instants.forEach((key, value) -> stored.properties.put(key, Instant.parse(value)));
+      }
+
+      return stored;
+    }
+
+    @NotNull String toJson() {
+      var strings = new HashMap<String, String>();
+      var lists = new HashMap<String, List<String>>();
+      var instants = new HashMap<String, String>();
+
+      for (var property : this.properties.entrySet()) {
+        if (property.getValue() instanceof Instant) {
+          instants.put(property.getKey(), property.getValue().toString());
+        } else if (property.getValue() instanceof List<?>) {
+          lists.put(property.getKey(), ((List<?>) property.getValue())
+              .stream()
+              .map(Object::toString)
+              .toList());
+        } else {
+          strings.put(property.getKey(), property.getValue().toString());
+        }
+      }
+
+      return GSON.toJson(new Payload(
+          this.type,
+          getToRecipients().stream().map(r -> r.email).toList(),
+          getCcRecipients().stream().map(r -> r.email).toList(),
+          getSubject(),
+          this.reply,
+          strings,
+          lists,
+          instants));
+    }
+
+    @Override
+    protected boolean isReply() {
+      return this.reply;
+    }
+
+    @Override
+    public @NotNull String getType() {
+      return this.type;
+    }
+
+    private record Payload(
+        String type,
+        List<String> to,
+        List<String> cc,
+        String subject,
+        boolean reply,
+        Map<String, String> strings,
+        Map<String, List<String>> lists,
+        Map<String, String> instants) {
+    }
+  }
+
+  /**
+   * @param capacity    maximum number of pending notifications. If the
+   *                    outbox is full, notifications are delivered
+   *                    synchronously.
+   * @param maxAttempts number of delivery attempts before a notification
+   *                    is dead-lettered
+   * @param retryDelay  delay before the first retry, doubled for each
+   *                    subsequent retry
+   * @param workers     number of background workers
+   * @param file        file to persist queued notifications in, or null
+   *                    to keep them in memory only
+   */
+  public record Options(
+      int capacity,
+      int maxAttempts,
+      @NotNull Duration retryDelay,
+      int workers,
+      @Nullable Path file) {
+    public static final int DEFAULT_CAPACITY = 1000;
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(5);
+    public static final int DEFAULT_WORKERS = 2;
+
+    public Options {
+      Preconditions.checkArgument(capacity > 0, "capacity");
+      Preconditions.checkArgument(maxAttempts > 0, "maxAttempts");
+      Preconditions.checkNotNull(retryDelay, "retryDelay");
+      Preconditions.checkArgument(!retryDelay.isNegative(), "retryDelay");
+      Preconditions.checkArgument(workers > 0, "workers");
+    }
+
+    public Options(@Nullable Path file) {
+      this(DEFAULT_CAPACITY, DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_DELAY, DEFAULT_WORKERS, file);
+    }
+  }
+}
@@ -4,32 +4,33 @@ import com.google.api.client.json.GenericJson;
 import com.google.api.services.pubsub.model.PubsubMessage;
 import com.google.common.base.Preconditions;
 import com.google.gson.Gson;
-import com.google.solutions.jitaccess.core.AccessException;
-import com.google.solutions.jitaccess.core.clients.PubSubClient;
+import com.google.solutions.jitaccess.core.clients.PubSubPublisher;
 import com.google.solutions.jitaccess.core.clients.PubSubTopic;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 /**
  * Concrete class that delivers notifications over Pub/Sub.
  */
 public class PubSubNotificationService extends NotificationService {
-  private final @NotNull PubSubClient adapter;
+  private static final @NotNull Gson GSON = new Gson();
+
+  private final @NotNull PubSubPublisher publisher;
   private final @NotNull Options options;
 
   public PubSubNotificationService(
-      @NotNull PubSubClient adapter,
+      @NotNull PubSubPublisher publisher,
       @NotNull Options options) {
-    Preconditions.checkNotNull(adapter, "adapter");
+    Preconditions.checkNotNull(publisher, "publisher");
     Preconditions.checkNotNull(options, "options");
     Preconditions.checkNotNull(options.topic, "options");
 
-    this.adapter = adapter;
+    this.publisher = publisher;
     this.options = options;
   }
 
@@ -68,15 +69,24 @@ public class PubSubNotificationService extends NotificationService {
         .set("type", notification.getType())
         .set("attributes", attributes);
 
-    var payloadAsJson = new Gson().toJson(payload);
+    var payloadAsJson = GSON.toJson(payload);
 
-    try {
-      var message = new PubsubMessage()
-          .encodeData(payloadAsJson.getBytes(StandardCharsets.UTF_8));
+    var message = new PubsubMessage()
+        .encodeData(payloadAsJson.getBytes(StandardCharsets.UTF_8));
 
-      this.adapter.publish(options.topic, message);
-    } catch (AccessException | IOException e) {
-      throw new NotificationException("Publishing event to Pub/Sub failed", e);
+    //
+    // Wait for the batch that contains the message to be published
+    // so that failures propagate to the caller. The publisher sends
+    // the message right away unless another request is in flight, so
+    // waiting doesn't add the batching delay to every message.
+    //
+    try {
+      this.publisher.publish(options.topic, message).get();
+    } catch (ExecutionException e) {
+      throw new NotificationException("Publishing event to Pub/Sub failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new NotificationException("Publishing event to Pub/Sub was interrupted", e);
     }
   }
 
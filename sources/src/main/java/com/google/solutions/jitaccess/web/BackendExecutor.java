@@ -0,0 +1,121 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.web;
+
+import com.google.common.base.Preconditions;
+import com.google.solutions.jitaccess.core.ThrowingCompletableFuture;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.InjectableContext;
+import io.quarkus.arc.ManagedContext;
+import jakarta.inject.Singleton;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor for operations that block on backend APIs.
+ *
+ * When running on a JVM that supports virtual threads, each operation
+ * runs on its own virtual thread, so the number of concurrent operations
+ * is limited by backend quotas, not by the size of a thread pool. On
+ * older JVMs, operations run on a pool of daemon threads that grows
+ * on demand.
+ */
+@Singleton
+public class BackendExecutor implements Executor {
+  private final @NotNull Executor executor;
+
+  public BackendExecutor(@NotNull Executor executor) {
+    Preconditions.checkNotNull(executor, "executor");
+    this.executor = executor;
+  }
+
+  public BackendExecutor() {
+    this(createDefaultExecutor());
+  }
+
+  private static @NotNull Executor createDefaultExecutor() {
+    try {
+      //
+      // NB. We're compiling against Java 17, so we can't reference
+      // the method directly.
+      //
+      return (Executor) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      var threadCount = new AtomicInteger();
+      return Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "backend-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  @Override
+  public void execute(@NotNull Runnable command) {
+    this.executor.execute(command);
+  }
+
+  /**
+   * Run an operation on behalf of the current request.
+   *
+   * The request context (and request-scoped beans such as the
+   * LogAdapter) remains available to the operation, even though it
+   * runs on a different thread.
+   *
+   * JAX-RS context objects such as SecurityContext or UriInfo are
+   * bound to the request thread, so callers must read any values they
+   * need from these objects before submitting the operation.
+   */
+  public <T> @NotNull CompletionStage<T> submitInRequestContext(
+      @NotNull ThrowingCompletableFuture.ThrowingSupplier<T> operation) {
+    Preconditions.checkNotNull(operation, "operation");
+
+    var container = Arc.container();
+    ManagedContext requestContext = container != null
+        ? container.requestContext()
+        : null;
+    InjectableContext.ContextState requestState = requestContext != null && requestContext.isActive()
+        ? requestContext.getState()
+        : null;
+
+    return ThrowingCompletableFuture.submit(
+        () -> {
+          if (requestState == null) {
+            return operation.supply();
+          }
+
+          requestContext.activate(requestState);
+          try {
+            return operation.supply();
+          } finally {
+            requestContext.deactivate();
+          }
+        },
+        this.executor);
+  }
+}
@@ -29,6 +29,10 @@ public class LogEvents {
   public static final String API_REQUEST_ROLE = "api.requestRole";
   public static final String API_GET_REQUEST = "api.getActivationRequest";
   public static final String RUNTIME_STARTUP = "runtime.startup";
+  public static final String RUNTIME_SHUTDOWN = "runtime.shutdown";
+  public static final String RUNTIME_REFRESH_PROJECT_INDEX = "runtime.refreshProjectIndex";
+  public static final String RUNTIME_PROCESS_ASSET_FEED = "runtime.processAssetFeed";
+  public static final String RUNTIME_DELIVER_NOTIFICATION = "runtime.deliverNotification";
 
   private LogEvents() {
   }
@@ -21,7 +21,10 @@
 
 package com.google.solutions.jitaccess.web;
 
+import com.google.solutions.jitaccess.core.catalog.project.AssetInventoryRepository;
+import com.google.solutions.jitaccess.core.catalog.project.PolicyAnalyzerRepository;
 import com.google.solutions.jitaccess.core.clients.*;
+import com.google.solutions.jitaccess.core.notifications.OutboxNotificationService;
 import org.jetbrains.annotations.NotNull;
 
 import java.time.Duration;
@@ -44,6 +47,20 @@ class RuntimeConfiguration {
     ASSETINVENTORY
   }
 
+  enum TokenSigning {
+    /**
+     * Sign activation tokens using the Google-managed key of the
+     * application's service account, using the IAM Credentials API.
+     */
+    IAMCREDENTIALS,
+
+    /**
+     * Sign activation tokens using a rotating key that's only held in
+     * memory. Requires that all requests are served by a single instance.
+     */
+    LOCAL
+  }
+
   private final Function<String, String> readSetting;
 
   public RuntimeConfiguration(@NotNull Map<String, String> settings) {
@@ -119,6 +136,13 @@ class RuntimeConfiguration {
     this.smtpPassword = new StringSetting(List.of("SMTP_PASSWORD"), null);
     this.smtpSecret = new StringSetting(List.of("SMTP_SECRET"), null);
     this.smtpExtraOptions = new StringSetting(List.of("SMTP_OPTIONS"), null);
+    this.smtpMaxConnections = new IntSetting(
+        List.of("SMTP_MAX_CONNECTIONS"),
+        SmtpClient.Options.DEFAULT_MAX_CONNECTIONS);
+    this.smtpConnectionIdleTimeout = new DurationSetting(
+        List.of("SMTP_CONNECTION_IDLE_TIMEOUT"),
+        ChronoUnit.SECONDS,
+        SmtpClient.Options.DEFAULT_CONNECTION_IDLE_TIMEOUT);
 
     //
     // Mail formatting settings.
@@ -143,6 +167,95 @@ class RuntimeConfiguration {
         List.of("BACKEND_WRITE_TIMEOUT"),
         ChronoUnit.SECONDS,
         Duration.ofSeconds(5));
+    this.backendMaxConnectionsPerHost = new IntSetting(
+        List.of("BACKEND_MAX_CONNECTIONS"),
+        20);
+
+    //
+    // Activation state settings.
+    //
+    this.activationStateFile = new StringSetting(List.of("ACTIVATION_STATE_FILE"), null);
+
+    //
+    // Activation token settings.
+    //
+    this.activationTokenSigning = new EnumSetting<TokenSigning>(
+        TokenSigning.class,
+        List.of("ACTIVATION_TOKEN_SIGNING"),
+        TokenSigning.IAMCREDENTIALS);
+    this.activationTokenKeyRotationInterval = new DurationSetting(
+        List.of("ACTIVATION_TOKEN_KEY_ROTATION_INTERVAL"),
+        ChronoUnit.MINUTES,
+        Duration.ofHours(2));
+
+    //
+    // Notification outbox settings.
+    //
+    this.notificationOutboxDirectory = new StringSetting(List.of("NOTIFICATION_OUTBOX_DIRECTORY"), null);
+    this.notificationOutboxCapacity = new IntSetting(
+        List.of("NOTIFICATION_OUTBOX_CAPACITY"),
+        OutboxNotificationService.Options.DEFAULT_CAPACITY);
+    this.notificationMaxAttempts = new IntSetting(
+        List.of("NOTIFICATION_MAX_ATTEMPTS"),
+        OutboxNotificationService.Options.DEFAULT_MAX_ATTEMPTS);
+
+    //
+    // Cache settings.
+    //
+    this.groupMembershipCacheDuration = new DurationSetting(
+        List.of("CACHE_GROUP_MEMBERSHIPS_DURATION"),
+        ChronoUnit.SECONDS,
+        DirectoryGroupsClient.Options.DEFAULT_MEMBERSHIP_CACHE_DURATION);
+    this.groupMembershipCacheSize = new IntSetting(
+        List.of("CACHE_GROUP_MEMBERSHIPS_SIZE"),
+        DirectoryGroupsClient.Options.DEFAULT_MEMBERSHIP_CACHE_SIZE);
+    this.effectivePolicyCacheDuration = new DurationSetting(
+        List.of("CACHE_EFFECTIVE_POLICIES_DURATION"),
+        ChronoUnit.SECONDS,
+        AssetInventoryRepository.Options.DEFAULT_POLICY_CACHE_DURATION);
+    this.effectivePolicyCacheSize = new IntSetting(
+        List.of("CACHE_EFFECTIVE_POLICIES_SIZE"),
+        AssetInventoryRepository.Options.DEFAULT_POLICY_CACHE_SIZE);
+    this.groupMembersCacheDuration = new DurationSetting(
+        List.of("CACHE_GROUP_MEMBERS_DURATION"),
+        ChronoUnit.SECONDS,
+        AssetInventoryRepository.Options.DEFAULT_GROUP_MEMBERS_CACHE_DURATION);
+    this.groupMembersCacheSize = new IntSetting(
+        List.of("CACHE_GROUP_MEMBERS_SIZE"),
+        AssetInventoryRepository.Options.DEFAULT_GROUP_MEMBERS_CACHE_SIZE);
+    this.transitiveGroupMembershipCacheDuration = new DurationSetting(
+        List.of("CACHE_TRANSITIVE_GROUP_MEMBERSHIPS_DURATION"),
+        ChronoUnit.SECONDS,
+        AssetInventoryRepository.Options.DEFAULT_GROUP_MEMBERSHIP_CACHE_DURATION);
+    this.transitiveGroupMembershipCacheSize = new IntSetting(
+        List.of("CACHE_TRANSITIVE_GROUP_MEMBERSHIPS_SIZE"),
+        AssetInventoryRepository.Options.DEFAULT_GROUP_MEMBERSHIP_CACHE_SIZE);
+    this.maxConcurrentGroupLookups = new IntSetting(
+        List.of("GROUP_LOOKUP_MAX_CONCURRENCY"),
+        AssetInventoryRepository.Options.DEFAULT_MAX_CONCURRENT_GROUP_LOOKUPS);
+    this.maxGroupNestingDepth = new IntSetting(
+        List.of("GROUP_NESTING_MAX_DEPTH"),
+        AssetInventoryRepository.Options.DEFAULT_MAX_GROUP_NESTING_DEPTH);
+    this.projectIndexRefreshInterval = new DurationSetting(
+        List.of("PROJECT_INDEX_REFRESH_INTERVAL"),
+        ChronoUnit.SECONDS,
+        AssetInventoryRepository.Options.DEFAULT_PROJECT_INDEX_REFRESH_INTERVAL);
+    this.policyAnalysisCacheDuration = new DurationSetting(
+        List.of("CACHE_POLICY_ANALYSIS_DURATION"),
+        ChronoUnit.SECONDS,
+        PolicyAnalyzerRepository.Options.DEFAULT_ANALYSIS_CACHE_DURATION);
+    this.stalePolicyAnalysisCacheDuration = new DurationSetting(
+        List.of("CACHE_POLICY_ANALYSIS_STALE_DURATION"),
+        ChronoUnit.SECONDS,
+        PolicyAnalyzerRepository.Options.DEFAULT_STALE_ANALYSIS_CACHE_DURATION);
+    this.policyAnalysisCacheSize = new IntSetting(
+        List.of("CACHE_POLICY_ANALYSIS_SIZE"),
+        PolicyAnalyzerRepository.Options.DEFAULT_ANALYSIS_CACHE_SIZE);
+    this.maxConcurrentFolderAnalyses = new IntSetting(
+        List.of("POLICY_ANALYSIS_FOLDER_CONCURRENCY"),
+        PolicyAnalyzerRepository.Options.DEFAULT_MAX_CONCURRENT_FOLDER_ANALYSES);
+    this.assetFeedSubscription = new StringSetting(List.of("ASSET_FEED_SUBSCRIPTION"), null);
+    this.assetFeedFile = new StringSetting(List.of("ASSET_FEED_FILE"), null);
   }
 
   // -------------------------------------------------------------------------
@@ -245,6 +358,16 @@ class RuntimeConfiguration {
    */
   public final @NotNull StringSetting smtpExtraOptions;
 
+  /**
+   * Maximum number of SMTP connections to keep open.
+   */
+  public final @NotNull IntSetting smtpMaxConnections;
+
+  /**
+   * Time after which idle SMTP connections are closed.
+   */
+  public final @NotNull DurationSetting smtpConnectionIdleTimeout;
+
   /**
    * Regex pattern for capturing the email address of internals to the
    * organization.
@@ -315,6 +438,139 @@ class RuntimeConfiguration {
    */
   public final @NotNull DurationSetting backendWriteTimeout;
 
+  /**
+   * Maximum number of idle keep-alive connections to retain per backend.
+   */
+  public final @NotNull IntSetting backendMaxConnectionsPerHost;
+
+  /**
+   * Time to cache the group memberships of a user.
+   */
+  public final @NotNull DurationSetting groupMembershipCacheDuration;
+
+  /**
+   * Maximum number of users to cache group memberships for.
+   */
+  public final @NotNull IntSetting groupMembershipCacheSize;
+
+  /**
+   * Time to cache effective IAM policies (Asset Inventory catalog only).
+   */
+  public final @NotNull DurationSetting effectivePolicyCacheDuration;
+
+  /**
+   * Maximum number of projects to cache effective IAM policies for.
+   */
+  public final @NotNull IntSetting effectivePolicyCacheSize;
+
+  /**
+   * Time to cache members of groups (Asset Inventory catalog only).
+   */
+  public final @NotNull DurationSetting groupMembersCacheDuration;
+
+  /**
+   * Maximum number of groups to cache members for.
+   */
+  public final @NotNull IntSetting groupMembersCacheSize;
+
+  /**
+   * Time to cache the transitive group memberships of users and groups
+   * (Asset Inventory catalog only). Determines how long a removed group
+   * membership can continue to make a user eligible.
+   */
+  public final @NotNull DurationSetting transitiveGroupMembershipCacheDuration;
+
+  /**
+   * Maximum number of users and groups to cache transitive group
+   * memberships for.
+   */
+  public final @NotNull IntSetting transitiveGroupMembershipCacheSize;
+
+  /**
+   * Maximum number of groups to look up members for in parallel.
+   */
+  public final @NotNull IntSetting maxConcurrentGroupLookups;
+
+  /**
+   * Maximum depth of nested groups to resolve (Asset Inventory catalog only).
+   */
+  public final @NotNull IntSetting maxGroupNestingDepth;
+
+  /**
+   * Time after which to rescan the scope to refresh the index of
+   * projects that users hold eligible bindings in (Asset Inventory
+   * catalog only).
+   */
+  public final @NotNull DurationSetting projectIndexRefreshInterval;
+
+  /**
+   * Time to cache Policy Analyzer results (Policy Analyzer catalog only).
+   */
+  public final @NotNull DurationSetting policyAnalysisCacheDuration;
+
+  /**
+   * Time to retain Policy Analyzer results to fall back to when the
+   * Policy Analyzer quota has been exceeded.
+   */
+  public final @NotNull DurationSetting stalePolicyAnalysisCacheDuration;
+
+  /**
+   * Maximum number of Policy Analyzer results to cache.
+   */
+  public final @NotNull IntSetting policyAnalysisCacheSize;
+
+  /**
+   * Maximum number of per-folder Policy Analyzer queries to run in parallel
+   * when listing projects, or 0 to analyze the scope as a whole
+   * (Policy Analyzer catalog only).
+   */
+  public final @NotNull IntSetting maxConcurrentFolderAnalyses;
+
+  /**
+   * Pub/Sub subscription (within the application's project) that receives
+   * IAM policy changes from a Cloud Asset Inventory feed (Asset Inventory
+   * catalog only).
+   */
+  public final @NotNull StringSetting assetFeedSubscription;
+
+  /**
+   * Local file to read IAM policy changes from, as an alternative to
+   * a Pub/Sub subscription (Asset Inventory catalog only).
+   */
+  public final @NotNull StringSetting assetFeedFile;
+
+  /**
+   * File to persist the state of activation requests in. If not set,
+   * the state is only kept in memory.
+   */
+  public final @NotNull StringSetting activationStateFile;
+
+  /**
+   * How to sign activation tokens.
+   */
+  public final @NotNull EnumSetting<TokenSigning> activationTokenSigning;
+
+  /**
+   * Interval in which in-memory token signing keys are rotated.
+   */
+  public final @NotNull DurationSetting activationTokenKeyRotationInterval;
+
+  /**
+   * Directory to persist queued notifications in. If not set,
+   * queued notifications are only kept in memory.
+   */
+  public final @NotNull StringSetting notificationOutboxDirectory;
+
+  /**
+   * Maximum number of notifications to queue per notification service.
+   */
+  public final @NotNull IntSetting notificationOutboxCapacity;
+
+  /**
+   * Number of attempts to deliver a notification before giving up.
+   */
+  public final @NotNull IntSetting notificationMaxAttempts;
+
   public boolean isSmtpConfigured() {
     var requiredSettings = List.of(smtpHost, smtpPort, smtpSenderName, smtpSenderAddress);
     return requiredSettings.stream().allMatch(s -> s.isValid());
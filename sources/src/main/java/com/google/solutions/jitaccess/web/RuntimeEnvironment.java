@@ -34,28 +34,43 @@ import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.solutions.jitaccess.core.ApplicationVersion;
 import com.google.solutions.jitaccess.core.MailAddressRegexFormatter;
 import com.google.solutions.jitaccess.core.UserEmail;
+import com.google.solutions.jitaccess.core.catalog.ActivationStateStore;
+import com.google.solutions.jitaccess.core.catalog.FileActivationStateStore;
+import com.google.solutions.jitaccess.core.catalog.InMemoryActivationStateStore;
 import com.google.solutions.jitaccess.core.catalog.RegexJustificationPolicy;
+import com.google.solutions.jitaccess.core.catalog.SigningKeySet;
 import com.google.solutions.jitaccess.core.catalog.TokenSigner;
+import com.google.solutions.jitaccess.core.catalog.project.AssetFeedSource;
+import com.google.solutions.jitaccess.core.catalog.project.AssetFeedSubscriber;
 import com.google.solutions.jitaccess.core.catalog.project.AssetInventoryRepository;
+import com.google.solutions.jitaccess.core.catalog.project.FileAssetFeedSource;
 import com.google.solutions.jitaccess.core.catalog.project.MpaProjectRoleCatalog;
 import com.google.solutions.jitaccess.core.catalog.project.PolicyAnalyzerRepository;
 import com.google.solutions.jitaccess.core.catalog.project.ProjectRoleRepository;
+import com.google.solutions.jitaccess.core.catalog.project.PubSubAssetFeedSource;
 import com.google.solutions.jitaccess.core.clients.*;
 import com.google.solutions.jitaccess.core.notifications.MailNotificationService;
 import com.google.solutions.jitaccess.core.notifications.NotificationService;
+import com.google.solutions.jitaccess.core.notifications.OutboxNotificationService;
 import com.google.solutions.jitaccess.core.notifications.PubSubNotificationService;
 import com.google.solutions.jitaccess.web.rest.ApiResource;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.inject.Instance;
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.core.UriBuilder;
 import jakarta.ws.rs.core.UriInfo;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.UnknownHostException;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.util.concurrent.Executor;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 /**
@@ -78,6 +93,16 @@ public class RuntimeEnvironment {
    */
   private final RuntimeConfiguration configuration = new RuntimeConfiguration(System::getenv);
 
+  /**
+   * Subscriber for the asset feed, if configured.
+   */
+  private @Nullable AssetFeedSubscriber assetFeedSubscriber;
+
+  /**
+   * Resources to release on shutdown, in order.
+   */
+  private final @NotNull List<Closeable> closeables = new CopyOnWriteArrayList<>();
+
   // -------------------------------------------------------------------------
   // Private helpers.
   // -------------------------------------------------------------------------
@@ -127,6 +152,12 @@ public class RuntimeEnvironment {
     //
     var logAdapter = new LogAdapter();
 
+    //
+    // Configure the connection pool before any connection is made,
+    // otherwise the settings don't take effect.
+    //
+    HttpTransport.configureConnectionPool(getHttpTransportOptions());
+
     if (!this.configuration.isSmtpConfigured()) {
       logAdapter
           .newWarningEntry(
@@ -248,6 +279,26 @@ public class RuntimeEnvironment {
     }
   }
 
+  /**
+   * Stop background activity before the application shuts down.
+   */
+  @PreDestroy
+  void close() {
+    if (this.assetFeedSubscriber != null) {
+      this.assetFeedSubscriber.close();
+    }
+
+    for (var closeable : this.closeables) {
+      try {
+        closeable.close();
+      } catch (IOException e) {
+        new LogAdapter()
+            .newErrorEntry(LogEvents.RUNTIME_SHUTDOWN, "Releasing resources failed", e)
+            .write();
+      }
+    }
+  }
+
   public boolean isDebugModeEnabled() {
     return Boolean.getBoolean(CONFIG_DEBUG_MODE);
   }
@@ -270,6 +321,21 @@ public class RuntimeEnvironment {
     return applicationPrincipal;
   }
 
+  /**
+   * Create a callback that logs failures of background jobs.
+   */
+  private static @NotNull Consumer<Exception> logFailures(
+      @NotNull String eventId,
+      @NotNull String message) {
+    //
+    // NB. Background jobs don't run in a request context, so we
+    // can't use an injected log adapter.
+    //
+    return e -> new LogAdapter()
+        .newErrorEntry(eventId, message, e)
+        .write();
+  }
+
   // -------------------------------------------------------------------------
   // Producer methods.
   // -------------------------------------------------------------------------
@@ -295,16 +361,135 @@ public class RuntimeEnvironment {
         effectiveRequestTimeout);
   }
 
+  @Produces
+  @Singleton
+  public @NotNull TokenSigner getTokenSigner(
+      @NotNull IamCredentialsClient iamCredentialsClient,
+      TokenSigner.@NotNull Options options) {
+    switch (this.configuration.activationTokenSigning.getValue()) {
+      case LOCAL:
+        //
+        // NB. Keys must outlive the tokens they've signed.
+        //
+        var rotationInterval = this.configuration.activationTokenKeyRotationInterval.getValue();
+        if (rotationInterval.compareTo(options.tokenValidity()) < 0) {
+          rotationInterval = options.tokenValidity();
+        }
+
+        return new TokenSigner(new SigningKeySet(rotationInterval), options);
+
+      case IAMCREDENTIALS:
+      default:
+        return new TokenSigner(iamCredentialsClient, options);
+    }
+  }
+
+  @Produces
+  @Singleton
+
+  public @NotNull ActivationStateStore getActivationStateStore() throws IOException {
+    if (this.configuration.activationStateFile.isValid()) {
+      var store = new FileActivationStateStore(
+          Path.of(this.configuration.activationStateFile.getValue()));
+      this.closeables.add(store);
+      return store;
+    } else {
+      return new InMemoryActivationStateStore();
+    }
+  }
+
+  /**
+   * Let a notification service deliver notifications in the background.
+   */
+  private @NotNull NotificationService createOutbox(
+      @NotNull NotificationService service,
+      @NotNull String name,
+      @NotNull BackendExecutor executor) throws IOException {
+    var maxAttempts = this.configuration.notificationMaxAttempts.getValue();
+    var outbox = new OutboxNotificationService(
+        service,
+        new OutboxNotificationService.Options(
+            this.configuration.notificationOutboxCapacity.getValue(),
+            maxAttempts,
+            OutboxNotificationService.Options.DEFAULT_RETRY_DELAY,
+            OutboxNotificationService.Options.DEFAULT_WORKERS,
+            this.configuration.notificationOutboxDirectory.isValid()
+                ? Path.of(this.configuration.notificationOutboxDirectory.getValue(), name + ".outbox")
+                : null),
+        new OutboxNotificationService.DeliveryListener() {
+          @Override
+          public void onDeliveryFailed(
+              @NotNull NotificationService.Notification notification,
+              int attempts,
+              @NotNull Exception e) {
+            new LogAdapter()
+                .newWarningEntry(
+                    LogEvents.RUNTIME_DELIVER_NOTIFICATION,
+                    String.format(
+                        "Delivering notification '%s' through the %s outbox failed (attempt %d of %d): %s",
+                        notification.getType(),
+                        name,
+                        attempts,
+                        maxAttempts,
+                        e.getMessage()))
+                .addLabel("outbox", name)
+                .write();
+          }
+
+          @Override
+          public void onDeadLettered(
+              @NotNull NotificationService.Notification notification,
+              int attempts,
+              int deadLetterCount,
+              @NotNull Exception e) {
+            new LogAdapter()
+                .newErrorEntry(
+                    LogEvents.RUNTIME_DELIVER_NOTIFICATION,
+                    String.format(
+                        "Delivering notification '%s' through the %s outbox failed %d times, " +
+                            "the notification has been dead-lettered",
+                        notification.getType(),
+                        name,
+                        attempts),
+                    e)
+                .addLabel("outbox", name)
+                .addLabel("dead_letter_count", String.valueOf(deadLetterCount))
+                .write();
+          }
+        });
+
+    if (outbox.getDeadLetterCount() > 0) {
+      new LogAdapter()
+          .newWarningEntry(
+              LogEvents.RUNTIME_STARTUP,
+              String.format(
+                  "The %s outbox contains %d dead-lettered notifications",
+                  name,
+                  outbox.getDeadLetterCount()))
+          .addLabel("outbox", name)
+          .addLabel("dead_letter_count", String.valueOf(outbox.getDeadLetterCount()))
+          .write();
+    }
+
+    outbox.start(executor);
+    this.closeables.add(outbox);
+    return outbox;
+  }
+
   @Produces
   @Singleton
 
   public @NotNull NotificationService getPubSubNotificationService(
-      PubSubClient pubSubClient) {
+      PubSubClient pubSubClient,
+      BackendExecutor executor) throws IOException {
     if (this.configuration.topicName.isValid()) {
-      return new PubSubNotificationService(
-          pubSubClient,
-          new PubSubNotificationService.Options(
-              new PubSubTopic(this.projectId, this.configuration.topicName.getValue())));
+      return createOutbox(
+          new PubSubNotificationService(
+              new PubSubPublisher(pubSubClient, executor, new PubSubPublisher.Options()),
+              new PubSubNotificationService.Options(
+                  new PubSubTopic(this.projectId, this.configuration.topicName.getValue()))),
+          "pubsub",
+          executor);
     } else {
       return new NotificationService.SilentNotificationService(isDebugModeEnabled());
     }
@@ -314,7 +499,8 @@ public class RuntimeEnvironment {
   @Singleton
 
   public @NotNull NotificationService getEmailNotificationService(
-      SecretManagerClient secretManagerClient) {
+      SecretManagerClient secretManagerClient,
+      BackendExecutor executor) throws IOException {
     //
     // Configure SMTP if possible, and fall back to a fail-safe
     // configuration if the configuration is incomplete.
@@ -326,7 +512,10 @@ public class RuntimeEnvironment {
           this.configuration.smtpSenderName.getValue(),
           this.configuration.smtpSenderAddress.getValue(),
           this.configuration.smtpEnableStartTls.getValue(),
-          this.configuration.getSmtpExtraOptionsMap());
+          this.configuration.getSmtpExtraOptionsMap())
+          .setConnectionPoolOptions(
+              this.configuration.smtpMaxConnections.getValue(),
+              this.configuration.smtpConnectionIdleTimeout.getValue());
 
       //
       // Lookup credentials from config and/or secret. Use the secret
@@ -350,10 +539,13 @@ public class RuntimeEnvironment {
               : Pattern.compile(this.configuration.externalsMailAddressPattern.getValue()),
           this.configuration.externalsMailAddressTransform.getValue());
 
-      return new MailNotificationService(
-          new SmtpClient(secretManagerClient, smtpOptions),
-          new MailNotificationService.Options(this.configuration.timeZoneForNotifications.getValue()),
-          new MailAddressRegexFormatter(mailAddressFormatOptions));
+      return createOutbox(
+          new MailNotificationService(
+              new SmtpClient(secretManagerClient, smtpOptions),
+              new MailNotificationService.Options(this.configuration.timeZoneForNotifications.getValue()),
+              new MailAddressRegexFormatter(mailAddressFormatOptions)),
+          "mail",
+          executor);
     } else {
       return new NotificationService.SilentNotificationService(isDebugModeEnabled());
     }
@@ -370,7 +562,8 @@ public class RuntimeEnvironment {
     return new HttpTransport.Options(
         this.configuration.backendConnectTimeout.getValue(),
         this.configuration.backendReadTimeout.getValue(),
-        this.configuration.backendWriteTimeout.getValue());
+        this.configuration.backendWriteTimeout.getValue(),
+        this.configuration.backendMaxConnectionsPerHost.getValue());
   }
 
   @Produces
@@ -394,7 +587,9 @@ public class RuntimeEnvironment {
   @Produces
   public DirectoryGroupsClient.@NotNull Options getDirectoryGroupsClientOptions() {
     return new DirectoryGroupsClient.Options(
-        this.configuration.customerId.getValue());
+        this.configuration.customerId.getValue(),
+        this.configuration.groupMembershipCacheDuration.getValue(),
+        this.configuration.groupMembershipCacheSize.getValue());
   }
 
   @Produces
@@ -407,22 +602,67 @@ public class RuntimeEnvironment {
   @Singleton
 
   public @NotNull ProjectRoleRepository getProjectRoleRepository(
-      Executor executor,
+      BackendExecutor executor,
       @NotNull Instance<DirectoryGroupsClient> groupsClient,
+      @NotNull Instance<PubSubClient> pubSubClient,
+      ResourceManagerClient resourceManagerClient,
       PolicyAnalyzerClient policyAnalyzerClient) {
     switch (this.configuration.catalog.getValue()) {
       case ASSETINVENTORY:
-        return new AssetInventoryRepository(
+        var repository = new AssetInventoryRepository(
             executor,
             groupsClient.get(),
             (AssetInventoryClient) policyAnalyzerClient,
-            new AssetInventoryRepository.Options(this.configuration.scope.getValue()));
+            new AssetInventoryRepository.Options(
+                this.configuration.scope.getValue(),
+                this.configuration.effectivePolicyCacheDuration.getValue(),
+                this.configuration.effectivePolicyCacheSize.getValue(),
+                this.configuration.groupMembersCacheDuration.getValue(),
+                this.configuration.groupMembersCacheSize.getValue(),
+                this.configuration.transitiveGroupMembershipCacheDuration.getValue(),
+                this.configuration.transitiveGroupMembershipCacheSize.getValue(),
+                this.configuration.maxConcurrentGroupLookups.getValue(),
+                this.configuration.maxGroupNestingDepth.getValue(),
+                this.configuration.projectIndexRefreshInterval.getValue()),
+            logFailures(LogEvents.RUNTIME_REFRESH_PROJECT_INDEX, "Refreshing the project index failed"));
+
+        //
+        // Start building the project index now so that it's (likely)
+        // ready by the time the first user lists their projects.
+        //
+        repository.refreshProjectIndexInBackground();
+
+        AssetFeedSource feedSource = null;
+        if (this.configuration.assetFeedSubscription.isValid()) {
+          feedSource = new PubSubAssetFeedSource(
+              pubSubClient.get(),
+              new PubSubSubscription(this.projectId, this.configuration.assetFeedSubscription.getValue()));
+        } else if (this.configuration.assetFeedFile.isValid()) {
+          feedSource = new FileAssetFeedSource(
+              Path.of(this.configuration.assetFeedFile.getValue()));
+        }
+
+        if (feedSource != null) {
+          this.assetFeedSubscriber = repository.createFeedSubscriber(
+              feedSource,
+              logFailures(LogEvents.RUNTIME_PROCESS_ASSET_FEED, "Processing the asset feed failed"));
+          this.assetFeedSubscriber.start(executor);
+        }
+
+        return repository;
 
       case POLICYANALYZER:
       default:
         return new PolicyAnalyzerRepository(
+            executor,
+            resourceManagerClient,
             policyAnalyzerClient,
-            new PolicyAnalyzerRepository.Options(this.configuration.scope.getValue()));
+            new PolicyAnalyzerRepository.Options(
+                this.configuration.scope.getValue(),
+                this.configuration.policyAnalysisCacheDuration.getValue(),
+                this.configuration.stalePolicyAnalysisCacheDuration.getValue(),
+                this.configuration.policyAnalysisCacheSize.getValue(),
+                this.configuration.maxConcurrentFolderAnalyses.getValue()));
     }
   }
 }
@@ -0,0 +1,148 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.web.auth;
+
+import com.google.auth.oauth2.TokenVerifier;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.solutions.jitaccess.core.UserId;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Verifies IAP assertions and caches the principals of assertions
+ * that have been verified successfully.
+ *
+ * The underlying token verifier is reused across requests so that
+ * IAP's public keys are only downloaded when they're not cached yet
+ * or have expired.
+ */
+public class IapAssertionVerifier {
+  private static final String IAP_ISSUER_URL = "https://cloud.google.com/iap";
+
+  /**
+   * Maximum time to cache a verified assertion. IAP assertions are
+   * short-lived, so their expiry usually kicks in first.
+   */
+  private static final Duration MAX_CACHE_DURATION = Duration.ofMinutes(10);
+
+  private final @NotNull TokenVerifier tokenVerifier;
+
+  /**
+   * Verified assertions, keyed by their encoded form.
+   */
+  private final @NotNull Cache<String, VerifiedAssertion> verifiedAssertions;
+
+  IapAssertionVerifier(
+      @NotNull TokenVerifier tokenVerifier,
+      int cacheSize) {
+    Preconditions.checkNotNull(tokenVerifier, "tokenVerifier");
+    Preconditions.checkArgument(cacheSize >= 0, "cacheSize must not be negative");
+
+    this.tokenVerifier = tokenVerifier;
+    this.verifiedAssertions = CacheBuilder.newBuilder()
+        .expireAfterWrite(MAX_CACHE_DURATION)
+        .maximumSize(cacheSize)
+        .build();
+  }
+
+  public IapAssertionVerifier(
+      @NotNull String expectedAudience,
+      int cacheSize) {
+    this(
+        TokenVerifier.newBuilder()
+            .setAudience(expectedAudience)
+            .setIssuer(IAP_ISSUER_URL)
+            .build(),
+        cacheSize);
+  }
+
+  /**
+   * Verify an assertion and extract the principal.
+   */
+  public @NotNull UserPrincipal verify(
+      @NotNull String assertion) throws TokenVerifier.VerificationException {
+    Preconditions.checkNotNull(assertion, "assertion");
+
+    var cachedAssertion = this.verifiedAssertions.getIfPresent(assertion);
+    if (cachedAssertion != null) {
+      if (cachedAssertion.expiryTime.isAfter(Instant.now())) {
+        return cachedAssertion.principal;
+      }
+
+      this.verifiedAssertions.invalidate(assertion);
+    }
+
+    var verifiedToken = this.tokenVerifier.verify(assertion);
+    var verifiedAssertion = new IapAssertion(verifiedToken);
+    var principal = new IapPrincipal(
+        verifiedAssertion.getUserId(),
+        verifiedAssertion.getDeviceInfo());
+
+    var expiryTime = verifiedToken.getPayload().getExpirationTimeSeconds();
+    if (expiryTime != null) {
+      this.verifiedAssertions.put(
+          assertion,
+          new VerifiedAssertion(principal, Instant.ofEpochSecond(expiryTime)));
+    }
+
+    return principal;
+  }
+
+  // -------------------------------------------------------------------------
+  // Inner classes.
+  // -------------------------------------------------------------------------
+
+  private record VerifiedAssertion(
+      @NotNull UserPrincipal principal,
+      @NotNull Instant expiryTime
+  ) {
+  }
+
+  private static class IapPrincipal implements UserPrincipal {
+    private final @NotNull UserId id;
+    private final @NotNull DeviceInfo device;
+
+    private IapPrincipal(@NotNull UserId id, @NotNull DeviceInfo device) {
+      this.id = id;
+      this.device = device;
+    }
+
+    @Override
+    public String getName() {
+      return this.id.toString();
+    }
+
+    @Override
+    public UserId getId() {
+      return this.id;
+    }
+
+    @Override
+    public DeviceInfo getDevice() {
+      return this.device;
+    }
+  }
+}
@@ -27,8 +27,8 @@ import com.google.solutions.jitaccess.core.UserId;
 import com.google.solutions.jitaccess.web.LogAdapter;
 import com.google.solutions.jitaccess.web.RuntimeEnvironment;
 import jakarta.annotation.Priority;
-import jakarta.enterprise.context.Dependent;
 import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
 import jakarta.ws.rs.ForbiddenException;
 import jakarta.ws.rs.Priorities;
 import jakarta.ws.rs.container.ContainerRequestContext;
@@ -36,6 +36,7 @@ import jakarta.ws.rs.container.ContainerRequestFilter;
 import jakarta.ws.rs.core.SecurityContext;
 import jakarta.ws.rs.ext.Provider;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.security.Principal;
 
@@ -43,23 +44,33 @@ import java.security.Principal;
  * Verifies that requests have a valid IAP assertion, and makes the assertion
  * available as
  * SecurityContext.
+ *
+ * The filter is a singleton so that the expected audience and verified
+ * assertions can be reused across requests.
  */
-@Dependent
+@Singleton
 @Provider
 @Priority(Priorities.AUTHENTICATION)
 public class IapRequestFilter implements ContainerRequestFilter {
   private static final String EVENT_AUTHENTICATE = "iap.authenticate";
 
-  private static final String IAP_ISSUER_URL = "https://cloud.google.com/iap";
   private static final String IAP_ASSERTION_HEADER = "x-goog-iap-jwt-assertion";
   private static final String DEBUG_PRINCIPAL_HEADER = "x-debug-principal";
 
+  /**
+   * Number of verified assertions to cache.
+   */
+  private static final int ASSERTION_CACHE_SIZE = 1000;
+
   @Inject
   LogAdapter log;
 
   @Inject
   RuntimeEnvironment runtimeEnvironment;
 
+  private volatile @Nullable String expectedAudience;
+  private volatile @Nullable IapAssertionVerifier verifier;
+
   //
   // For AppEngine, we can derive the expected audience
   // from the project number and name.
@@ -67,15 +78,36 @@ public class IapRequestFilter implements ContainerRequestFilter {
   // through the env variable
   //
   public String getExpectedAudience() {
-    if (runtimeEnvironment.isRunningOnAppEngine()) {
-      return String.format(
-          "/projects/%s/apps/%s",
-          this.runtimeEnvironment.getProjectNumber(), this.runtimeEnvironment.getProjectId());
-    } else {
-      return String.format(
-          "/projects/%s/global/backendServices/%s",
-          this.runtimeEnvironment.getProjectNumber(), this.runtimeEnvironment.getBackendServiceId());
+    var audience = this.expectedAudience;
+    if (audience == null) {
+      if (runtimeEnvironment.isRunningOnAppEngine()) {
+        audience = String.format(
+            "/projects/%s/apps/%s",
+            this.runtimeEnvironment.getProjectNumber(), this.runtimeEnvironment.getProjectId());
+      } else {
+        audience = String.format(
+            "/projects/%s/global/backendServices/%s",
+            this.runtimeEnvironment.getProjectNumber(), this.runtimeEnvironment.getBackendServiceId());
+      }
+
+      this.expectedAudience = audience;
+    }
+
+    return audience;
+  }
+
+  private @NotNull IapAssertionVerifier getVerifier() {
+    var verifier = this.verifier;
+    if (verifier == null) {
+      //
+      // NB. If multiple threads initialize the verifier concurrently,
+      // the last one wins. That's harmless.
+      //
+      verifier = new IapAssertionVerifier(getExpectedAudience(), ASSERTION_CACHE_SIZE);
+      this.verifier = verifier;
     }
+
+    return verifier;
   }
 
   /**
@@ -98,33 +130,11 @@ public class IapRequestFilter implements ContainerRequestFilter {
     }
 
     try {
-      final var verifiedAssertion = new IapAssertion(
-          TokenVerifier.newBuilder()
-              .setAudience(expectedAudience)
-              .setIssuer(IAP_ISSUER_URL)
-              .build()
-              .verify(assertion));
-
       //
       // Associate the token with the request so that controllers
       // can access it.
       //
-      return new UserPrincipal() {
-        @Override
-        public String getName() {
-          return getId().toString();
-        }
-
-        @Override
-        public UserId getId() {
-          return verifiedAssertion.getUserId();
-        }
-
-        @Override
-        public DeviceInfo getDevice() {
-          return verifiedAssertion.getDeviceInfo();
-        }
-      };
+      return getVerifier().verify(assertion);
     } catch (TokenVerifier.VerificationException | IllegalArgumentException e) {
       this.log
           .newErrorEntry(
@@ -30,6 +30,7 @@ import com.google.solutions.jitaccess.core.catalog.project.MpaProjectRoleCatalog
 import com.google.solutions.jitaccess.core.catalog.project.ProjectRoleActivator;
 import com.google.solutions.jitaccess.core.catalog.project.ProjectRoleBinding;
 import com.google.solutions.jitaccess.core.notifications.NotificationService;
+import com.google.solutions.jitaccess.web.BackendExecutor;
 import com.google.solutions.jitaccess.web.LogAdapter;
 import com.google.solutions.jitaccess.web.LogEvents;
 import com.google.solutions.jitaccess.web.RuntimeEnvironment;
@@ -41,19 +42,23 @@ import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.UriBuilder;
 import jakarta.ws.rs.core.UriInfo;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.net.URL;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
 
 /**
@@ -62,6 +67,10 @@ import java.util.stream.Collectors;
 @Dependent
 @Path("/api/")
 public class ApiResource {
+  /**
+   * Maximum number of projects to list roles for in a single request.
+   */
+  private static final int MAX_PROJECTS_PER_ROLE_LISTING = 20;
 
   @Inject
   MpaProjectRoleCatalog mpaCatalog;
@@ -87,11 +96,14 @@ public class ApiResource {
   @Inject
   Options options;
 
+  @Inject
+  BackendExecutor executor;
+
   private @NotNull URL createActivationRequestUrl(
-      @NotNull UriInfo uriInfo,
+      @NotNull URI baseUri,
       @NotNull ProjectId projectId,
       String activationToken) throws MalformedURLException {
-    Preconditions.checkNotNull(uriInfo);
+    Preconditions.checkNotNull(baseUri);
     Preconditions.checkNotNull(activationToken);
 
     //
@@ -107,8 +119,8 @@ public class ApiResource {
     // the right scope. This isn't strictly necessary, but it
     // improves user experience.
     //
-    return this.runtimeEnvironment
-        .createAbsoluteUriBuilder(uriInfo)
+    return UriBuilder
+        .fromUri(baseUri)
         .path("/")
         .queryParam("activation", TokenObfuscator.encode(activationToken))
         .queryParam("projectId", projectId.id())
@@ -157,40 +169,60 @@ public class ApiResource {
         Math.min(60, (int) options.maxActivationDuration().toMinutes()));
   }
 
+  /**
+   * Get the public keys for verifying activation tokens. If tokens
+   * are signed using the service account's Google-managed key,
+   * redirect to the service account's JWKS.
+   */
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("jwks")
+  public @NotNull Response getJwks() {
+    return this.tokenSigner
+        .getPublicKeys()
+        .map(keys -> Response.ok(new JwksResponse(keys)).build())
+        .orElseGet(() -> Response
+            .temporaryRedirect(URI.create(this.tokenSigner.getServiceAccountJwksUrl()))
+            .build());
+  }
+
   /**
    * List projects that the calling user can access.
    */
   @GET
   @Produces(MediaType.APPLICATION_JSON)
   @Path("projects")
-  public @NotNull ProjectsResponse listProjects(
-      @Context @NotNull SecurityContext securityContext) throws AccessException {
-    Preconditions.checkNotNull(this.mpaCatalog, "iamPolicyCatalog");
-
+  public @NotNull CompletionStage<ProjectsResponse> listProjects(
+      @Context @NotNull SecurityContext securityContext) {
     var iapPrincipal = (UserPrincipal) securityContext.getUserPrincipal();
 
-    try {
-      var projects = this.mpaCatalog.listProjects(iapPrincipal.getId());
+    return this.executor.submitInRequestContext(() -> {
+      Preconditions.checkNotNull(this.mpaCatalog, "iamPolicyCatalog");
 
-      this.logAdapter
-          .newInfoEntry(
-              LogEvents.API_LIST_PROJECTS,
-              String.format("Found %d available projects", projects.size()))
-          .write();
 
-      return new ProjectsResponse(projects
-          .stream()
-          .map(ProjectId::id)
-          .collect(Collectors.toCollection(TreeSet::new)));
-    } catch (Exception e) {
-      this.logAdapter
-          .newErrorEntry(
-              LogEvents.API_LIST_PROJECTS,
-              String.format("Listing available projects failed: %s", Exceptions.getFullMessage(e)))
-          .write();
-
-      throw new AccessDeniedException("Listing available projects failed, see logs for details");
-    }
+      try {
+        var projects = this.mpaCatalog.listProjects(iapPrincipal.getId());
+
+        this.logAdapter
+            .newInfoEntry(
+                LogEvents.API_LIST_PROJECTS,
+                String.format("Found %d available projects", projects.size()))
+            .write();
+
+        return new ProjectsResponse(projects
+            .stream()
+            .map(ProjectId::id)
+            .collect(Collectors.toCollection(TreeSet::new)));
+      } catch (Exception e) {
+        this.logAdapter
+            .newErrorEntry(
+                LogEvents.API_LIST_PROJECTS,
+                String.format("Listing available projects failed: %s", Exceptions.getFullMessage(e)))
+            .write();
+
+        throw new AccessDeniedException("Listing available projects failed, see logs for details");
+      }
+    });
   }
 
   /**
@@ -199,44 +231,93 @@ public class ApiResource {
   @GET
   @Produces(MediaType.APPLICATION_JSON)
   @Path("projects/{projectId}/roles")
-  public @NotNull ProjectRolesResponse listRoles(
+  public @NotNull CompletionStage<ProjectRolesResponse> listRoles(
       @PathParam("projectId") @Nullable String projectIdString,
-      @Context @NotNull SecurityContext securityContext) throws AccessException {
+      @Context @NotNull SecurityContext securityContext) {
+    var iapPrincipal = (UserPrincipal) securityContext.getUserPrincipal();
+
+    return this.executor.submitInRequestContext(() -> {
+      Preconditions.checkNotNull(this.mpaCatalog, "iamPolicyCatalog");
+
+      Preconditions.checkArgument(
+          projectIdString != null && !projectIdString.trim().isEmpty(),
+          "A projectId is required");
+
+      var projectId = new ProjectId(projectIdString);
+
+      try {
+        var privileges = this.mpaCatalog.listRequesterPrivileges(
+            iapPrincipal.getId(),
+            projectId);
+
+        return ProjectRolesResponse.fromPrivileges(privileges);
+      } catch (Exception e) {
+        this.logAdapter
+            .newErrorEntry(
+                LogEvents.API_LIST_ROLES,
+                String.format("Listing project roles failed: %s", Exceptions.getFullMessage(e)))
+            .addLabels(le -> addLabels(le, e))
+            .addLabels(le -> addLabels(le, projectId))
+            .write();
+
+        throw new AccessDeniedException("Listing project roles failed, see logs for details");
+      }
+    });
+  }
+
+  /**
+   * List roles (across multiple projects) that the user can activate.
+   */
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("projects/roles")
+  public @NotNull CompletionStage<MultiProjectRolesResponse> listRolesInProjects(
+      @QueryParam("projectId") @Nullable List<String> projectIdStrings,
+      @Context @NotNull SecurityContext securityContext) {
     Preconditions.checkNotNull(this.mpaCatalog, "iamPolicyCatalog");
 
     Preconditions.checkArgument(
-        projectIdString != null && !projectIdString.trim().isEmpty(),
-        "A projectId is required");
+        projectIdStrings != null && !projectIdStrings.isEmpty(),
+        "At least one projectId is required");
+    Preconditions.checkArgument(
+        projectIdStrings.stream().noneMatch(id -> id == null || id.trim().isEmpty()),
+        "A projectId must not be empty");
+    Preconditions.checkArgument(
+        projectIdStrings.size() <= MAX_PROJECTS_PER_ROLE_LISTING,
+        String.format("The number of projects exceeds the limit of %d", MAX_PROJECTS_PER_ROLE_LISTING));
 
     var iapPrincipal = (UserPrincipal) securityContext.getUserPrincipal();
-    var projectId = new ProjectId(projectIdString);
+    var projectIds = projectIdStrings
+        .stream()
+        .map(ProjectId::new)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
 
-    try {
-      var privileges = this.mpaCatalog.listRequesterPrivileges(
-          iapPrincipal.getId(),
-          projectId);
+    return this.executor.submitInRequestContext(() -> {
+      try {
+        var privileges = this.mpaCatalog.listRequesterPrivilegesInProjects(
+            iapPrincipal.getId(),
+            projectIds);
 
-      return new ProjectRolesResponse(
-          privileges.available()
-              .stream()
-              .map(privilege -> new ProjectRole(
-                  privilege.id().roleBinding(),
-                  privilege.activationType(),
-                  privilege.status(),
-                  privilege.validity() != null ? privilege.validity().end().getEpochSecond() : null))
-              .collect(Collectors.toList()),
-          privileges.warnings());
-    } catch (Exception e) {
-      this.logAdapter
-          .newErrorEntry(
-              LogEvents.API_LIST_ROLES,
-              String.format("Listing project roles failed: %s", Exceptions.getFullMessage(e)))
-          .addLabels(le -> addLabels(le, e))
-          .addLabels(le -> addLabels(le, projectId))
-          .write();
-
-      throw new AccessDeniedException("Listing project roles failed, see logs for details");
-    }
+        var projects = new TreeMap<String, ProjectRolesResponse>();
+        for (var entry : privileges.entrySet()) {
+          projects.put(entry.getKey().id(), ProjectRolesResponse.fromPrivileges(entry.getValue()));
+        }
+
+        return new MultiProjectRolesResponse(projects);
+      } catch (Exception e) {
+        this.logAdapter
+            .newErrorEntry(
+                LogEvents.API_LIST_ROLES,
+                String.format(
+                    "Listing roles in %d projects failed: %s",
+                    projectIds.size(),
+                    Exceptions.getFullMessage(e)))
+            .addLabels(le -> addLabels(le, e))
+            .write();
+
+        throw new AccessDeniedException("Listing project roles failed, see logs for details");
+      }
+    });
   }
 
   /**
@@ -245,56 +326,59 @@ public class ApiResource {
   @GET
   @Produces(MediaType.APPLICATION_JSON)
   @Path("projects/{projectId}/reviewers")
-  public @NotNull ProjectRoleReviewersResponse listReviewers(
+  public @NotNull CompletionStage<ProjectRoleReviewersResponse> listReviewers(
       @PathParam("projectId") @Nullable String projectIdString,
       @QueryParam("role") @Nullable String role,
       @QueryParam("activationType") @Nullable String activationType,
-      @Context @NotNull SecurityContext securityContext) throws AccessException {
-    Preconditions.checkNotNull(this.mpaCatalog, "iamPolicyCatalog");
+      @Context @NotNull SecurityContext securityContext) {
+    var iapPrincipal = (UserPrincipal) securityContext.getUserPrincipal();
 
-    Preconditions.checkArgument(
-        projectIdString != null && !projectIdString.trim().isEmpty(),
-        "A projectId is required");
-    Preconditions.checkArgument(
-        role != null && !role.trim().isEmpty(),
-        "A role is required");
-    Preconditions.checkArgument(
-        activationType != null && !activationType.trim().isEmpty(),
-        "An activationType is required");
-    Preconditions.checkArgument(
-        activationType.contains("PEER_APPROVAL(") || activationType.contains("EXTERNAL_APPROVAL("),
-        "Invalid activationType. Must be either PEER_APPROVAL or EXTERNAL_APPROVAL.");
+    return this.executor.submitInRequestContext(() -> {
+      Preconditions.checkNotNull(this.mpaCatalog, "iamPolicyCatalog");
 
-    var iapPrincipal = (UserPrincipal) securityContext.getUserPrincipal();
-    var projectId = new ProjectId(projectIdString);
-    var roleBinding = new RoleBinding(projectId, role);
-
-    var privilege = new RequesterPrivilege<ProjectRoleBinding>(
-        new ProjectRoleBinding(roleBinding),
-        roleBinding.role(),
-        ActivationTypeFactory.createFromName(activationType),
-        Status.INACTIVE);
-
-    try {
-      var reviewers = this.mpaCatalog.listReviewers(
-          iapPrincipal.getId(),
-          privilege);
-
-      assert !reviewers.contains(iapPrincipal.getId());
-
-      return new ProjectRoleReviewersResponse(reviewers);
-    } catch (Exception e) {
-      this.logAdapter
-          .newErrorEntry(
-              LogEvents.API_LIST_REVIEWERS,
-              String.format("Listing reviewers failed: %s", Exceptions.getFullMessage(e)))
-          .addLabels(le -> addLabels(le, e))
-          .addLabels(le -> addLabels(le, roleBinding))
-          .addLabels(le -> addLabels(le, projectId))
-          .write();
-
-      throw new AccessDeniedException("Listing reviewers failed, see logs for details");
-    }
+      Preconditions.checkArgument(
+          projectIdString != null && !projectIdString.trim().isEmpty(),
+          "A projectId is required");
+      Preconditions.checkArgument(
+          role != null && !role.trim().isEmpty(),
+          "A role is required");
+      Preconditions.checkArgument(
+          activationType != null && !activationType.trim().isEmpty(),
+          "An activationType is required");
+      Preconditions.checkArgument(
+          activationType.contains("PEER_APPROVAL(") || activationType.contains("EXTERNAL_APPROVAL("),
+          "Invalid activationType. Must be either PEER_APPROVAL or EXTERNAL_APPROVAL.");
+
+      var projectId = new ProjectId(projectIdString);
+      var roleBinding = new RoleBinding(projectId, role);
+
+      var privilege = new RequesterPrivilege<ProjectRoleBinding>(
+          new ProjectRoleBinding(roleBinding),
+          roleBinding.role(),
+          ActivationTypeFactory.createFromName(activationType),
+          Status.INACTIVE);
+
+      try {
+        var reviewers = this.mpaCatalog.listReviewers(
+            iapPrincipal.getId(),
+            privilege);
+
+        assert !reviewers.contains(iapPrincipal.getId());
+
+        return new ProjectRoleReviewersResponse(reviewers);
+      } catch (Exception e) {
+        this.logAdapter
+            .newErrorEntry(
+                LogEvents.API_LIST_REVIEWERS,
+                String.format("Listing reviewers failed: %s", Exceptions.getFullMessage(e)))
+            .addLabels(le -> addLabels(le, e))
+            .addLabels(le -> addLabels(le, roleBinding))
+            .addLabels(le -> addLabels(le, projectId))
+            .write();
+
+        throw new AccessDeniedException("Listing reviewers failed, see logs for details");
+      }
+    });
   }
 
   /**
@@ -305,55 +389,195 @@ public class ApiResource {
   @Produces(MediaType.APPLICATION_JSON)
   @Path("projects/{projectId}/roles/self-activate")
 
-  public @NotNull ActivationStatusResponse selfApproveActivation(
+  public @NotNull CompletionStage<ActivationStatusResponse> selfApproveActivation(
       @PathParam("projectId") @Nullable String projectIdString,
       @NotNull SelfActivationRequestRecord request,
-      @Context @NotNull SecurityContext securityContext) throws AccessDeniedException, AlreadyExistsException {
-    Preconditions.checkNotNull(this.mpaCatalog, "iamPolicyCatalog");
+      @Context @NotNull SecurityContext securityContext) {
+    var iapPrincipal = (UserPrincipal) securityContext.getUserPrincipal();
 
-    Preconditions.checkArgument(
-        projectIdString != null && !projectIdString.trim().isEmpty(),
-        "You must provide a projectId");
-    Preconditions.checkArgument(
-        request != null && request.roles != null && request.roles.size() > 0,
-        "Specify one or more roles to activate");
-    Preconditions.checkArgument(
-        request != null && request.roles != null
-            && request.roles.size() <= this.options.maxNumberOfJitRolesPerSelfApproval,
-        String.format(
-            "The number of roles exceeds the allowed maximum of %d",
-            this.options.maxNumberOfJitRolesPerSelfApproval));
-    Preconditions.checkArgument(
-        request.justification != null && request.justification.trim().length() > 0,
-        "Provide a justification");
-    Preconditions.checkArgument(
-        request.justification != null && request.justification.length() < 100,
-        "The justification is too long");
+    return this.executor.submitInRequestContext(() -> {
+      Preconditions.checkNotNull(this.mpaCatalog, "iamPolicyCatalog");
+
+      Preconditions.checkArgument(
+          projectIdString != null && !projectIdString.trim().isEmpty(),
+          "You must provide a projectId");
+      Preconditions.checkArgument(
+          request != null && request.roles != null && request.roles.size() > 0,
+          "Specify one or more roles to activate");
+      Preconditions.checkArgument(
+          request != null && request.roles != null
+              && request.roles.size() <= this.options.maxNumberOfJitRolesPerSelfApproval,
+          String.format(
+              "The number of roles exceeds the allowed maximum of %d",
+              this.options.maxNumberOfJitRolesPerSelfApproval));
+      Preconditions.checkArgument(
+          request.justification != null && request.justification.trim().length() > 0,
+          "Provide a justification");
+      Preconditions.checkArgument(
+          request.justification != null && request.justification.length() < 100,
+          "The justification is too long");
+
+      var projectId = new ProjectId(projectIdString);
+
+      //
+      // Create self approval activation requests, one per role.
+      //
+      var requestedRoleBindingDuration = Duration.ofMinutes(request.activationTimeout);
+      var requestedRoles = Set.copyOf(request.roles);
+      var requesterPrivileges = requestedRoles
+          .stream()
+          .map(role -> new RequesterPrivilege<ProjectRoleBinding>(
+              new ProjectRoleBinding(new RoleBinding(projectId.getFullResourceName(), role)),
+              role,
+              new SelfApproval(),
+              Status.INACTIVE))
+          .collect(Collectors.toList());
+
+      try {
+        //
+        // Create and activate all requests at once.
+        //
+        var activations = this.projectRoleActivator.createAndApproveAll(
+            iapPrincipal.getId(),
+            requesterPrivileges,
+            request.justification,
+            Instant.now().truncatedTo(ChronoUnit.SECONDS),
+            requestedRoleBindingDuration);
+
+        assert activations != null;
+
+        for (var activation : activations) {
+          //
+          // Notify listeners, if any.
+          //
+          for (var service : this.notificationServices) {
+            service.sendNotification(new ActivationSelfApprovedNotification(projectId, activation));
+          }
+
+          //
+          // Leave an audit log trail.
+          //
+          this.logAdapter
+              .newInfoEntry(
+                  LogEvents.API_ACTIVATE_ROLE,
+                  String.format(
+                      "User %s activated roles %s on '%s' for themselves for %d minutes",
+                      iapPrincipal.getId(),
+                      activation.request().requesterPrivilege().roleBinding().role(),
+                      projectId.getFullResourceName(),
+                      requestedRoleBindingDuration.toMinutes()))
+              .addLabels(le -> addLabels(le, activation.request()))
+              .write();
+        }
 
+        return new ActivationStatusResponse(
+            iapPrincipal.getId(),
+            activations.stream().map(Activation::request).collect(Collectors.toList()),
+            RequesterPrivilege.Status.ACTIVE);
+      } catch (Exception e) {
+        this.logAdapter
+            .newErrorEntry(
+                LogEvents.API_ACTIVATE_ROLE,
+                String.format(
+                    "User %s failed to activate roles %s on '%s' for themselves for %d minutes: %s",
+                    iapPrincipal.getId(),
+                    String.join(", ", requestedRoles),
+                    projectId.getFullResourceName(),
+                    requestedRoleBindingDuration.toMinutes(),
+                    Exceptions.getFullMessage(e)))
+            .addLabels(le -> addLabels(le, projectId))
+            .addLabels(le -> addLabels(le, e))
+            .write();
+
+        if (e instanceof AccessDeniedException) {
+          throw (AccessDeniedException) e.fillInStackTrace();
+        } else {
+          throw new AccessDeniedException("Activating role failed", e);
+        }
+      }
+    });
+  }
+
+  /**
+   * Request approval to activate one or more project roles. Only allowed for peer
+   * approval and external approval eligible roles.
+   */
+  @POST
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("projects/{projectId}/roles/request")
+
+  public @NotNull CompletionStage<ActivationStatusResponse> requestActivation(
+      @PathParam("projectId") @Nullable String projectIdString,
+      @NotNull ActivationRequestRecord request,
+      @Context @NotNull SecurityContext securityContext,
+      @Context @NotNull UriInfo uriInfo) {
     var iapPrincipal = (UserPrincipal) securityContext.getUserPrincipal();
-    var projectId = new ProjectId(projectIdString);
+    var baseUri = this.runtimeEnvironment.createAbsoluteUriBuilder(uriInfo).build();
 
-    //
-    // Create a self approval activation request.
-    //
-    var requestedRoleBindingDuration = Duration.ofMinutes(request.activationTimeout);
-    List<ActivationRequest<ProjectRoleBinding>> requests = new ArrayList<>();
-    for (var role : Set.copyOf(request.roles)) {
+    return this.executor.submitInRequestContext(() -> {
+      Preconditions.checkNotNull(this.mpaCatalog, "iamPolicyCatalog");
+      assert this.tokenSigner != null;
+      assert this.notificationServices != null;
+
+      var minReviewers = this.mpaCatalog.options().minNumberOfReviewersPerActivationRequest();
+      var maxReviewers = this.mpaCatalog.options().maxNumberOfReviewersPerActivationRequest();
+
+      Preconditions.checkArgument(
+          projectIdString != null && !projectIdString.trim().isEmpty(),
+          "You must provide a projectId");
+      Preconditions.checkArgument(request != null);
+      Preconditions.checkArgument(
+          request.role != null && !request.role.isEmpty(),
+          "Specify a role to activate");
+      Preconditions.checkArgument(
+          request.reviewers != null && request.reviewers.size() >= minReviewers,
+          String.format("You must select at least %d reviewers", minReviewers));
+      Preconditions.checkArgument(
+          request.reviewers.size() <= maxReviewers,
+          String.format("The number of reviewers exceeds the allowed maximum of %d", maxReviewers));
+      Preconditions.checkArgument(
+          request.justification != null && request.justification.trim().length() > 0,
+          "Provide a justification");
+      Preconditions.checkArgument(
+          request.justification != null && request.justification.length() < 100,
+          "The justification is too long");
+      Preconditions.checkArgument(
+          request.activationType != null,
+          "Activation type must be included.");
+      Preconditions.checkArgument(
+          request.activationType.startsWith("PEER_APPROVAL")
+              || request.activationType.startsWith("EXTERNAL_APPROVAL"),
+          "Activation type must be either PEER_APPROVAL or EXTERNAL_APPROVAl.");
+
+      //
+      // For MPA to work, we need at least one functional notification service.
+      //
+      Preconditions.checkState(
+          this.notificationServices
+              .stream()
+              .anyMatch(s -> s.canSendNotifications()) ||
+              this.runtimeEnvironment.isDebugModeEnabled(),
+          "The multi-party approval feature is not available because the server-side configuration is incomplete");
+
+      var projectId = new ProjectId(projectIdString);
+      var roleBinding = new RoleBinding(projectId, request.role);
+
+      //
+      // Create an MPA activation request.
+      //
+      var requestedRoleBindingDuration = Duration.ofMinutes(request.activationTimeout);
       ActivationRequest<ProjectRoleBinding> activationRequest;
+
       try {
         activationRequest = this.projectRoleActivator.createActivationRequest(
             iapPrincipal.getId(),
-            Set.of(),
-            new RequesterPrivilege<ProjectRoleBinding>(
-                new ProjectRoleBinding(new RoleBinding(projectId.getFullResourceName(), role)),
-                role,
-                new SelfApproval(),
-                Status.INACTIVE),
+            request.reviewers.stream().map(email -> new UserEmail(email)).collect(Collectors.toSet()),
+            new RequesterPrivilege<>(new ProjectRoleBinding(roleBinding), roleBinding.role(),
+                ActivationTypeFactory.createFromName(request.activationType), Status.INACTIVE),
             request.justification,
             Instant.now().truncatedTo(ChronoUnit.SECONDS),
             requestedRoleBindingDuration);
-
-        this.projectRoleActivator.approve(activationRequest.requestingUser(), activationRequest);
       } catch (AccessException | IOException e) {
         this.logAdapter
             .newErrorEntry(
@@ -361,7 +585,7 @@ public class ApiResource {
                 String.format(
                     "Received invalid activation request from user '%s' for role '%s' on '%s': %s",
                     iapPrincipal.getId(),
-                    role,
+                    roleBinding,
                     projectId.getFullResourceName(),
                     Exceptions.getFullMessage(e)))
             .addLabels(le -> addLabels(le, projectId))
@@ -377,19 +601,43 @@ public class ApiResource {
 
       try {
         //
-        // Activate the request.
+        // Create an activation token and pass it to reviewers.
+        //
+        // An activation token is a signed activation request that is passed to
+        // reviewers.
+        // It contains all information necessary to review (and approve) the activation
+        // request.
+        //
+        // We must ensure that the information that reviewers see (and base their
+        // approval
+        // on) is authentic. Therefore, activation tokens are signed, using the service
+        // account
+        // as signing authority.
+        //
+        // Although activation tokens are JWTs, and might look like credentials, they
+        // aren't
+        // credentials: They don't grant access to any information, and possession alone
+        // is
+        // insufficient to approve an activation request.
         //
-        var activation = this.projectRoleActivator.approve(
-            activationRequest.requestingUser(),
-            activationRequest);
 
-        assert activation != null;
+        var activationToken = this.tokenSigner.sign(
+            this.projectRoleActivator.createTokenConverter(),
+            activationRequest);
 
         //
-        // Notify listeners, if any.
+        // Notify reviewers, listeners.
         //
         for (var service : this.notificationServices) {
-          service.sendNotification(new ActivationSelfApprovedNotification(projectId, activation));
+          var activationRequestUrl = createActivationRequestUrl(
+              baseUri,
+              projectId,
+              activationToken.token());
+          service.sendNotification(new RequestActivationNotification(
+              projectId,
+              activationRequest,
+              activationToken.expiryTime(),
+              activationRequestUrl));
         }
 
         //
@@ -397,275 +645,102 @@ public class ApiResource {
         //
         this.logAdapter
             .newInfoEntry(
-                LogEvents.API_ACTIVATE_ROLE,
+                LogEvents.API_REQUEST_ROLE,
                 String.format(
-                    "User %s activated roles %s on '%s' for themselves for %d minutes",
+                    "User %s requested role '%s' on '%s' for %d minutes",
                     iapPrincipal.getId(),
-                    activationRequest.requesterPrivilege().roleBinding().role(),
-                    projectId.getFullResourceName(),
+                    roleBinding.role(),
+                    roleBinding.fullResourceName(),
                     requestedRoleBindingDuration.toMinutes()))
+            .addLabels(le -> addLabels(le, projectId))
             .addLabels(le -> addLabels(le, activationRequest))
             .write();
 
-        requests.add(activation.request());
+        return new ActivationStatusResponse(
+            iapPrincipal.getId(),
+            List.of(activationRequest),
+            RequesterPrivilege.Status.ACTIVATION_PENDING);
       } catch (Exception e) {
         this.logAdapter
             .newErrorEntry(
-                LogEvents.API_ACTIVATE_ROLE,
+                LogEvents.API_REQUEST_ROLE,
                 String.format(
-                    "User %s failed to activate roles %s on '%s' for themselves for %d minutes: %s",
+                    "User %s failed to request role '%s' on '%s' for %d minutes: %s",
                     iapPrincipal.getId(),
-                    activationRequest.requesterPrivilege().roleBinding().role(),
-                    projectId.getFullResourceName(),
+                    roleBinding.role(),
+                    roleBinding.fullResourceName(),
                     requestedRoleBindingDuration.toMinutes(),
                     Exceptions.getFullMessage(e)))
             .addLabels(le -> addLabels(le, projectId))
-            .addLabels(le -> addLabels(le, activationRequest))
+            .addLabels(le -> addLabels(le, roleBinding))
             .addLabels(le -> addLabels(le, e))
+            .addLabel("justification", request.justification)
             .write();
 
         if (e instanceof AccessDeniedException) {
           throw (AccessDeniedException) e.fillInStackTrace();
         } else {
-          throw new AccessDeniedException("Activating role failed", e);
+          throw new AccessDeniedException("Requesting access failed", e);
         }
       }
-    }
-
-    return new ActivationStatusResponse(
-        iapPrincipal.getId(),
-        requests,
-        RequesterPrivilege.Status.ACTIVE);
+    });
   }
 
   /**
-   * Request approval to activate one or more project roles. Only allowed for peer
-   * approval and external approval eligible roles.
+   * Get details of an activation request.
    */
-  @POST
-  @Consumes(MediaType.APPLICATION_JSON)
+  @GET
   @Produces(MediaType.APPLICATION_JSON)
-  @Path("projects/{projectId}/roles/request")
-
-  public @NotNull ActivationStatusResponse requestActivation(
-      @PathParam("projectId") @Nullable String projectIdString,
-      @NotNull ActivationRequestRecord request,
-      @Context @NotNull SecurityContext securityContext,
-      @Context @NotNull UriInfo uriInfo) throws AccessDeniedException {
-    Preconditions.checkNotNull(this.mpaCatalog, "iamPolicyCatalog");
-    assert this.tokenSigner != null;
-    assert this.notificationServices != null;
-
-    var minReviewers = this.mpaCatalog.options().minNumberOfReviewersPerActivationRequest();
-    var maxReviewers = this.mpaCatalog.options().maxNumberOfReviewersPerActivationRequest();
-
-    Preconditions.checkArgument(
-        projectIdString != null && !projectIdString.trim().isEmpty(),
-        "You must provide a projectId");
-    Preconditions.checkArgument(request != null);
-    Preconditions.checkArgument(
-        request.role != null && !request.role.isEmpty(),
-        "Specify a role to activate");
-    Preconditions.checkArgument(
-        request.reviewers != null && request.reviewers.size() >= minReviewers,
-        String.format("You must select at least %d reviewers", minReviewers));
-    Preconditions.checkArgument(
-        request.reviewers.size() <= maxReviewers,
-        String.format("The number of reviewers exceeds the allowed maximum of %d", maxReviewers));
-    Preconditions.checkArgument(
-        request.justification != null && request.justification.trim().length() > 0,
-        "Provide a justification");
-    Preconditions.checkArgument(
-        request.justification != null && request.justification.length() < 100,
-        "The justification is too long");
-    Preconditions.checkArgument(
-        request.activationType != null,
-        "Activation type must be included.");
-    Preconditions.checkArgument(
-        request.activationType.startsWith("PEER_APPROVAL")
-            || request.activationType.startsWith("EXTERNAL_APPROVAL"),
-        "Activation type must be either PEER_APPROVAL or EXTERNAL_APPROVAl.");
-
-    //
-    // For MPA to work, we need at least one functional notification service.
-    //
-    Preconditions.checkState(
-        this.notificationServices
-            .stream()
-            .anyMatch(s -> s.canSendNotifications()) ||
-            this.runtimeEnvironment.isDebugModeEnabled(),
-        "The multi-party approval feature is not available because the server-side configuration is incomplete");
+  @Path("activation-request")
 
+  public @NotNull CompletionStage<ActivationStatusResponse> getActivationRequest(
+      @QueryParam("activation") @Nullable String obfuscatedActivationToken,
+      @Context @NotNull SecurityContext securityContext) {
     var iapPrincipal = (UserPrincipal) securityContext.getUserPrincipal();
-    var projectId = new ProjectId(projectIdString);
-    var roleBinding = new RoleBinding(projectId, request.role);
 
-    //
-    // Create an MPA activation request.
-    //
-    var requestedRoleBindingDuration = Duration.ofMinutes(request.activationTimeout);
-    ActivationRequest<ProjectRoleBinding> activationRequest;
-
-    try {
-      activationRequest = this.projectRoleActivator.createActivationRequest(
-          iapPrincipal.getId(),
-          request.reviewers.stream().map(email -> new UserEmail(email)).collect(Collectors.toSet()),
-          new RequesterPrivilege<>(new ProjectRoleBinding(roleBinding), roleBinding.role(),
-              ActivationTypeFactory.createFromName(request.activationType), Status.INACTIVE),
-          request.justification,
-          Instant.now().truncatedTo(ChronoUnit.SECONDS),
-          requestedRoleBindingDuration);
-    } catch (AccessException | IOException e) {
-      this.logAdapter
-          .newErrorEntry(
-              LogEvents.API_ACTIVATE_ROLE,
-              String.format(
-                  "Received invalid activation request from user '%s' for role '%s' on '%s': %s",
-                  iapPrincipal.getId(),
-                  roleBinding,
-                  projectId.getFullResourceName(),
-                  Exceptions.getFullMessage(e)))
-          .addLabels(le -> addLabels(le, projectId))
-          .addLabels(le -> addLabels(le, e))
-          .write();
-
-      if (e instanceof AccessDeniedException) {
-        throw (AccessDeniedException) e.fillInStackTrace();
-      } else {
-        throw new AccessDeniedException("Invalid request", e);
-      }
-    }
+    return this.executor.submitInRequestContext(() -> {
+      assert this.tokenSigner != null;
 
-    try {
-      //
-      // Create an activation token and pass it to reviewers.
-      //
-      // An activation token is a signed activation request that is passed to
-      // reviewers.
-      // It contains all information necessary to review (and approve) the activation
-      // request.
-      //
-      // We must ensure that the information that reviewers see (and base their
-      // approval
-      // on) is authentic. Therefore, activation tokens are signed, using the service
-      // account
-      // as signing authority.
-      //
-      // Although activation tokens are JWTs, and might look like credentials, they
-      // aren't
-      // credentials: They don't grant access to any information, and possession alone
-      // is
-      // insufficient to approve an activation request.
-      //
-
-      var activationToken = this.tokenSigner.sign(
-          this.projectRoleActivator.createTokenConverter(),
-          activationRequest);
-
-      //
-      // Notify reviewers, listeners.
-      //
-      for (var service : this.notificationServices) {
-        var activationRequestUrl = createActivationRequestUrl(
-            uriInfo,
-            projectId,
-            activationToken.token());
-        service.sendNotification(new RequestActivationNotification(
-            projectId,
-            activationRequest,
-            activationToken.expiryTime(),
-            activationRequestUrl));
-      }
-
-      //
-      // Leave an audit log trail.
-      //
-      this.logAdapter
-          .newInfoEntry(
-              LogEvents.API_REQUEST_ROLE,
-              String.format(
-                  "User %s requested role '%s' on '%s' for %d minutes",
-                  iapPrincipal.getId(),
-                  roleBinding.role(),
-                  roleBinding.fullResourceName(),
-                  requestedRoleBindingDuration.toMinutes()))
-          .addLabels(le -> addLabels(le, projectId))
-          .addLabels(le -> addLabels(le, activationRequest))
-          .write();
-
-      return new ActivationStatusResponse(
-          iapPrincipal.getId(),
-          List.of(activationRequest),
-          RequesterPrivilege.Status.ACTIVATION_PENDING);
-    } catch (Exception e) {
-      this.logAdapter
-          .newErrorEntry(
-              LogEvents.API_REQUEST_ROLE,
-              String.format(
-                  "User %s failed to request role '%s' on '%s' for %d minutes: %s",
-                  iapPrincipal.getId(),
-                  roleBinding.role(),
-                  roleBinding.fullResourceName(),
-                  requestedRoleBindingDuration.toMinutes(),
-                  Exceptions.getFullMessage(e)))
-          .addLabels(le -> addLabels(le, projectId))
-          .addLabels(le -> addLabels(le, roleBinding))
-          .addLabels(le -> addLabels(le, e))
-          .addLabel("justification", request.justification)
-          .write();
-
-      if (e instanceof AccessDeniedException) {
-        throw (AccessDeniedException) e.fillInStackTrace();
-      } else {
-        throw new AccessDeniedException("Requesting access failed", e);
-      }
-    }
-  }
+      Preconditions.checkArgument(
+          obfuscatedActivationToken != null && !obfuscatedActivationToken.trim().isEmpty(),
+          "An activation token is required");
 
-  /**
-   * Get details of an activation request.
-   */
-  @GET
-  @Produces(MediaType.APPLICATION_JSON)
-  @Path("activation-request")
+      var activationToken = TokenObfuscator.decode(obfuscatedActivationToken);
 
-  public @NotNull ActivationStatusResponse getActivationRequest(
-      @QueryParam("activation") @Nullable String obfuscatedActivationToken,
-      @Context @NotNull SecurityContext securityContext) throws AccessException {
-    assert this.tokenSigner != null;
+      try {
+        var activationRequest = this.tokenSigner.verify(
+            this.projectRoleActivator.createTokenConverter(),
+            activationToken);
 
-    Preconditions.checkArgument(
-        obfuscatedActivationToken != null && !obfuscatedActivationToken.trim().isEmpty(),
-        "An activation token is required");
+        if (!activationRequest.requestingUser().equals(iapPrincipal.getId()) &&
+            !activationRequest.reviewers().contains(iapPrincipal.getId())) {
+          throw new AccessDeniedException("The calling user is not authorized to access this approval request");
+        }
 
-    var activationToken = TokenObfuscator.decode(obfuscatedActivationToken);
-    var iapPrincipal = (UserPrincipal) securityContext.getUserPrincipal();
+        //
+        // Check if the request has been approved already.
+        //
+        var status = this.projectRoleActivator
+            .getActivationState(activationRequest)
+            .filter(state -> state == ActivationStateStore.State.PROVISIONED)
+            .map(state -> RequesterPrivilege.Status.ACTIVE)
+            .orElse(RequesterPrivilege.Status.ACTIVATION_PENDING);
 
-    try {
-      var activationRequest = this.tokenSigner.verify(
-          this.projectRoleActivator.createTokenConverter(),
-          activationToken);
+        return new ActivationStatusResponse(
+            iapPrincipal.getId(),
+            List.of(activationRequest),
+            status);
+      } catch (Exception e) {
+        this.logAdapter
+            .newErrorEntry(
+                LogEvents.API_GET_REQUEST,
+                String.format("Accessing the activation request failed: %s", Exceptions.getFullMessage(e)))
+            .addLabels(le -> addLabels(le, e))
+            .write();
 
-      if (!activationRequest.requestingUser().equals(iapPrincipal.getId()) &&
-          !activationRequest.reviewers().contains(iapPrincipal.getId())) {
-        throw new AccessDeniedException("The calling user is not authorized to access this approval request");
+        throw new AccessDeniedException("Accessing the activation request failed");
       }
-
-      return new ActivationStatusResponse(
-          iapPrincipal.getId(),
-          List.of(activationRequest),
-          RequesterPrivilege.Status.ACTIVATION_PENDING); // TODO(later): Could check if's been activated
-                                                         // already.
-    } catch (Exception e) {
-      this.logAdapter
-          .newErrorEntry(
-              LogEvents.API_GET_REQUEST,
-              String.format("Accessing the activation request failed: %s", Exceptions.getFullMessage(e)))
-          .addLabels(le -> addLabels(le, e))
-          .write();
-
-      throw new AccessDeniedException("Accessing the activation request failed");
-    }
+    });
   }
 
   /**
@@ -676,100 +751,104 @@ public class ApiResource {
   @Produces(MediaType.APPLICATION_JSON)
   @Path("activation-request")
 
-  public @NotNull ActivationStatusResponse approveActivationRequest(
+  public @NotNull CompletionStage<ActivationStatusResponse> approveActivationRequest(
       @QueryParam("activation") @Nullable String obfuscatedActivationToken,
       @Context @NotNull SecurityContext securityContext,
-      @Context @NotNull UriInfo uriInfo) throws AccessException {
-    assert this.tokenSigner != null;
-    assert this.mpaCatalog != null;
-    assert this.notificationServices != null;
+      @Context @NotNull UriInfo uriInfo) {
+    var iapPrincipal = (UserPrincipal) securityContext.getUserPrincipal();
+    var baseUri = this.runtimeEnvironment.createAbsoluteUriBuilder(uriInfo).build();
 
-    Preconditions.checkArgument(
-        obfuscatedActivationToken != null && !obfuscatedActivationToken.trim().isEmpty(),
-        "An activation token is required");
+    return this.executor.submitInRequestContext(() -> {
+      assert this.tokenSigner != null;
+      assert this.mpaCatalog != null;
+      assert this.notificationServices != null;
 
-    var activationToken = TokenObfuscator.decode(obfuscatedActivationToken);
-    var iapPrincipal = (UserPrincipal) securityContext.getUserPrincipal();
+      Preconditions.checkArgument(
+          obfuscatedActivationToken != null && !obfuscatedActivationToken.trim().isEmpty(),
+          "An activation token is required");
 
-    ActivationRequest<ProjectRoleBinding> activationRequest;
-    try {
-      activationRequest = this.tokenSigner.verify(
-          this.projectRoleActivator.createTokenConverter(),
-          activationToken);
-    } catch (Exception e) {
-      this.logAdapter
-          .newErrorEntry(
-              LogEvents.API_ACTIVATE_ROLE,
-              String.format("Accessing the activation request failed: %s", Exceptions.getFullMessage(e)))
-          .addLabels(le -> addLabels(le, e))
-          .write();
-
-      throw new AccessDeniedException("Accessing the activation request failed");
-    }
+      var activationToken = TokenObfuscator.decode(obfuscatedActivationToken);
 
-    var roleBinding = activationRequest
-        .requesterPrivilege()
-        .roleBinding();
+      ActivationRequest<ProjectRoleBinding> activationRequest;
+      try {
+        activationRequest = this.tokenSigner.verify(
+            this.projectRoleActivator.createTokenConverter(),
+            activationToken);
+      } catch (Exception e) {
+        this.logAdapter
+            .newErrorEntry(
+                LogEvents.API_ACTIVATE_ROLE,
+                String.format("Accessing the activation request failed: %s", Exceptions.getFullMessage(e)))
+            .addLabels(le -> addLabels(le, e))
+            .write();
 
-    try {
-      var activation = this.projectRoleActivator.approve(
-          iapPrincipal.getId(),
-          activationRequest);
+        throw new AccessDeniedException("Accessing the activation request failed");
+      }
 
-      assert activation != null;
+      var roleBinding = activationRequest
+          .requesterPrivilege()
+          .roleBinding();
 
-      //
-      // Notify listeners.
-      //
-      var projectId = ProjectId.fromFullResourceName(roleBinding.fullResourceName());
-      for (var service : this.notificationServices) {
-        service.sendNotification(new ActivationApprovedNotification(
-            projectId,
-            activation,
+      try {
+        var activation = this.projectRoleActivator.approve(
             iapPrincipal.getId(),
-            createActivationRequestUrl(uriInfo, projectId, activationToken)));
-      }
+            activationRequest);
 
-      //
-      // Leave an audit trail.
-      //
-      this.logAdapter
-          .newInfoEntry(
-              LogEvents.API_ACTIVATE_ROLE,
-              String.format(
-                  "User %s approved role '%s' on '%s' for %s",
-                  iapPrincipal.getId(),
-                  roleBinding.role(),
-                  roleBinding.fullResourceName(),
-                  activationRequest.requestingUser()))
-          .addLabels(le -> addLabels(le, activationRequest))
-          .write();
-
-      return new ActivationStatusResponse(
-          iapPrincipal.getId(),
-          List.of(activationRequest),
-          RequesterPrivilege.Status.ACTIVE);
-    } catch (Exception e) {
-      this.logAdapter
-          .newErrorEntry(
-              LogEvents.API_ACTIVATE_ROLE,
-              String.format(
-                  "User %s failed to activate role '%s' on '%s' for %s: %s",
-                  iapPrincipal.getId(),
-                  roleBinding.role(),
-                  roleBinding.fullResourceName(),
-                  activationRequest.requestingUser(),
-                  Exceptions.getFullMessage(e)))
-          .addLabels(le -> addLabels(le, activationRequest))
-          .addLabels(le -> addLabels(le, e))
-          .write();
-
-      if (e instanceof AccessDeniedException) {
-        throw (AccessDeniedException) e.fillInStackTrace();
-      } else {
-        throw new AccessDeniedException("Approving the activation request failed", e);
+        assert activation != null;
+
+        //
+        // Notify listeners.
+        //
+        var projectId = ProjectId.fromFullResourceName(roleBinding.fullResourceName());
+        for (var service : this.notificationServices) {
+          service.sendNotification(new ActivationApprovedNotification(
+              projectId,
+              activation,
+              iapPrincipal.getId(),
+              createActivationRequestUrl(baseUri, projectId, activationToken)));
+        }
+
+        //
+        // Leave an audit trail.
+        //
+        this.logAdapter
+            .newInfoEntry(
+                LogEvents.API_ACTIVATE_ROLE,
+                String.format(
+                    "User %s approved role '%s' on '%s' for %s",
+                    iapPrincipal.getId(),
+                    roleBinding.role(),
+                    roleBinding.fullResourceName(),
+                    activationRequest.requestingUser()))
+            .addLabels(le -> addLabels(le, activationRequest))
+            .write();
+
+        return new ActivationStatusResponse(
+            iapPrincipal.getId(),
+            List.of(activationRequest),
+            RequesterPrivilege.Status.ACTIVE);
+      } catch (Exception e) {
+        this.logAdapter
+            .newErrorEntry(
+                LogEvents.API_ACTIVATE_ROLE,
+                String.format(
+                    "User %s failed to activate role '%s' on '%s' for %s: %s",
+                    iapPrincipal.getId(),
+                    roleBinding.role(),
+                    roleBinding.fullResourceName(),
+                    activationRequest.requestingUser(),
+                    Exceptions.getFullMessage(e)))
+            .addLabels(le -> addLabels(le, activationRequest))
+            .addLabels(le -> addLabels(le, e))
+            .write();
+
+        if (e instanceof AccessDeniedException) {
+          throw (AccessDeniedException) e.fillInStackTrace();
+        } else {
+          throw new AccessDeniedException("Approving the activation request failed", e);
+        }
       }
-    }
+    });
   }
 
   // -------------------------------------------------------------------------
@@ -855,6 +934,15 @@ public class ApiResource {
     }
   }
 
+  public static class JwksResponse {
+    public final @NotNull List<SigningKeySet.JsonWebKey> keys;
+
+    private JwksResponse(@NotNull List<SigningKeySet.JsonWebKey> keys) {
+      Preconditions.checkNotNull(keys, "keys");
+      this.keys = keys;
+    }
+  }
+
   public static class ProjectsResponse {
     public final @NotNull Set<String> projects;
 
@@ -876,6 +964,30 @@ public class ApiResource {
       this.warnings = warnings;
       this.roles = roles;
     }
+
+    private static @NotNull ProjectRolesResponse fromPrivileges(
+        @NotNull RequesterPrivilegeSet<ProjectRoleBinding> privileges) {
+      return new ProjectRolesResponse(
+          privileges.available()
+              .stream()
+              .map(privilege -> new ProjectRole(
+                  privilege.id().roleBinding(),
+                  privilege.activationType(),
+                  privilege.status(),
+                  privilege.validity() != null ? privilege.validity().end().getEpochSecond() : null))
+              .collect(Collectors.toList()),
+          privileges.warnings());
+    }
+  }
+
+  public static class MultiProjectRolesResponse {
+    public final @NotNull Map<String, ProjectRolesResponse> projects;
+
+    private MultiProjectRolesResponse(@NotNull Map<String, ProjectRolesResponse> projects) {
+      Preconditions.checkNotNull(projects, "projects");
+
+      this.projects = projects;
+    }
   }
 
   public static class ProjectRole {
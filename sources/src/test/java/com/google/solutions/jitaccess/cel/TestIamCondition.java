@@ -88,4 +88,34 @@ public class TestIamCondition {
     assertFalse(new IamCondition("request.time <= timestamp(\"2024-01-01T01:02:03Z\")").evaluate());
     assertFalse(new IamCondition("request.time >= timestamp(\"2034-01-01T01:02:03Z\")").evaluate());
   }
+
+  //-------------------------------------------------------------------------
+  // compile.
+  //-------------------------------------------------------------------------
+
+  @Test
+  public void whenExpressionCompiledBefore_thenCompileReturnsCachedProgram() throws Exception {
+    var expression = "1+2==3";
+
+    var first = IamCondition.compile(expression);
+    var hits = IamCondition.getProgramCacheStats().hitCount();
+    var second = IamCondition.compile(expression);
+
+    assertSame(first, second);
+    assertEquals(hits + 1, IamCondition.getProgramCacheStats().hitCount());
+  }
+
+  @Test
+  public void whenExpressionInvalid_thenCompileDoesNotCacheProgram() throws Exception {
+    var misses = IamCondition.getProgramCacheStats().missCount();
+
+    assertThrows(
+      CelValidationException.class,
+      () -> IamCondition.compile("invalidSyntax("));
+    assertThrows(
+      CelValidationException.class,
+      () -> IamCondition.compile("invalidSyntax("));
+
+    assertEquals(misses + 2, IamCondition.getProgramCacheStats().missCount());
+  }
 }
@@ -21,6 +21,7 @@
 
 package com.google.solutions.jitaccess.cel;
 
+import com.google.protobuf.util.Timestamps;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
@@ -85,6 +86,37 @@ public class TestTemporaryIamCondition {
     assertFalse(condition.evaluate());
   }
 
+  @Test
+  public void whenTimestampsUseOffset_ThenEvaluateHonorsOffset() throws Exception {
+    var clause = "(request.time >= timestamp(\"2020-01-01T00:00:00+01:00\") && "
+        + "request.time < timestamp(\"2020-01-01T00:05:00+01:00\"))";
+    var condition = new TemporaryIamCondition(clause);
+
+    assertFalse(condition.evaluate(Timestamps.parse("2019-12-31T22:59:59Z")));
+    assertTrue(condition.evaluate(Timestamps.parse("2019-12-31T23:00:00Z")));
+    assertFalse(condition.evaluate(Timestamps.parse("2019-12-31T23:05:00Z")));
+  }
+
+  @Test
+  public void whenTimeAtBoundary_ThenEvaluateMatchesCel() throws Exception {
+    var clause = "(request.time >= timestamp(\"2020-01-01T00:00:00Z\") && "
+        + "request.time < timestamp(\"2020-01-01T00:05:00Z\"))";
+    var condition = new TemporaryIamCondition(clause);
+    var celCondition = new IamCondition(clause);
+
+    for (var time : new String[] {
+      "2019-12-31T23:59:59.999Z",
+      "2020-01-01T00:00:00Z",
+      "2020-01-01T00:04:59.999Z",
+      "2020-01-01T00:05:00Z"
+    }) {
+      assertEquals(
+          celCondition.evaluate(Timestamps.parse(time)),
+          condition.evaluate(Timestamps.parse(time)),
+          time);
+    }
+  }
+
   // -------------------------------------------------------------------------
   // getValidity.
   // -------------------------------------------------------------------------
@@ -105,6 +137,13 @@ public class TestTemporaryIamCondition {
     assertEquals(startTime.plus(Duration.ofHours(1)), validity.end());
   }
 
+  @Test
+  public void whenCalledRepeatedly_ThenGetValidityReturnsSameInstance() {
+    var condition = new TemporaryIamCondition(Instant.ofEpochSecond(12345), Duration.ofHours(1));
+
+    assertSame(condition.getValidity(), condition.getValidity());
+  }
+
   // -------------------------------------------------------------------------
   // isTemporaryAccessCondition.
   // -------------------------------------------------------------------------
@@ -0,0 +1,119 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFileActivationStateStore {
+  private static final ActivationId SAMPLE_ID_1 = new ActivationId("sample-1");
+  private static final ActivationId SAMPLE_ID_2 = new ActivationId("sample-2");
+
+  @TempDir
+  Path tempDirectory;
+
+  // -------------------------------------------------------------------------
+  // Constructor.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenFileDoesNotExist_ThenConstructorCreatesFile() throws Exception {
+    var file = this.tempDirectory.resolve("state");
+
+    try (var store = new FileActivationStateStore(file)) {
+      assertTrue(Files.exists(file));
+      assertFalse(store.getState(SAMPLE_ID_1).isPresent());
+    }
+  }
+
+  @Test
+  public void whenFileContainsChanges_ThenConstructorReplaysChanges() throws Exception {
+    var file = this.tempDirectory.resolve("state");
+    var expiry = Instant.now().plus(Duration.ofMinutes(1));
+
+    try (var store = new FileActivationStateStore(file)) {
+      store.advanceState(SAMPLE_ID_1, ActivationStateStore.State.PENDING, expiry);
+      store.advanceState(SAMPLE_ID_1, ActivationStateStore.State.PROVISIONED, expiry);
+      store.advanceState(SAMPLE_ID_2, ActivationStateStore.State.PENDING, expiry);
+    }
+
+    try (var store = new FileActivationStateStore(file)) {
+      assertEquals(ActivationStateStore.State.PROVISIONED, store.getState(SAMPLE_ID_1).get());
+      assertEquals(ActivationStateStore.State.PENDING, store.getState(SAMPLE_ID_2).get());
+    }
+  }
+
+  @Test
+  public void whenFileContainsExpiredOrMalformedEntries_ThenConstructorCompactsFile() throws Exception {
+    var file = this.tempDirectory.resolve("state");
+    var expiry = Instant.now().plus(Duration.ofMinutes(1));
+
+    try (var store = new FileActivationStateStore(file)) {
+      store.advanceState(SAMPLE_ID_1, ActivationStateStore.State.PENDING, Instant.now().minusSeconds(1));
+      store.advanceState(SAMPLE_ID_2, ActivationStateStore.State.PENDING, expiry);
+      store.advanceState(SAMPLE_ID_2, ActivationStateStore.State.APPROVED, expiry);
+    }
+
+    Files.writeString(file, "malformed\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+    try (var store = new FileActivationStateStore(file)) {
+      assertFalse(store.getState(SAMPLE_ID_1).isPresent());
+      assertEquals(ActivationStateStore.State.APPROVED, store.getState(SAMPLE_ID_2).get());
+    }
+
+    assertEquals(1, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+  }
+
+  // -------------------------------------------------------------------------
+  // Compaction.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenEntriesChangedRepeatedly_ThenStoreCompactsFile() throws Exception {
+    var file = this.tempDirectory.resolve("state");
+    var expiry = Instant.now().plus(Duration.ofMinutes(1));
+
+    try (var store = new FileActivationStateStore(file)) {
+      for (int i = 0; i < 1000; i++) {
+        store.setState(SAMPLE_ID_1, ActivationStateStore.State.PENDING, expiry);
+      }
+
+      assertEquals(1, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+
+      store.setState(SAMPLE_ID_2, ActivationStateStore.State.APPROVED, expiry);
+    }
+
+    try (var store = new FileActivationStateStore(file)) {
+      assertEquals(ActivationStateStore.State.PENDING, store.getState(SAMPLE_ID_1).get());
+      assertEquals(ActivationStateStore.State.APPROVED, store.getState(SAMPLE_ID_2).get());
+    }
+  }
+}
@@ -0,0 +1,112 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestInMemoryActivationStateStore {
+  private static final ActivationId SAMPLE_ID = new ActivationId("sample-1");
+
+  // -------------------------------------------------------------------------
+  // getState.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenIdUnknown_ThenGetStateReturnsEmpty() {
+    var store = new InMemoryActivationStateStore();
+    assertFalse(store.getState(SAMPLE_ID).isPresent());
+  }
+
+  @Test
+  public void whenEntryExpired_ThenGetStateReturnsEmpty() throws Exception {
+    var store = new InMemoryActivationStateStore();
+    store.setState(SAMPLE_ID, ActivationStateStore.State.PENDING, Instant.now().minusSeconds(1));
+
+    assertFalse(store.getState(SAMPLE_ID).isPresent());
+  }
+
+  // -------------------------------------------------------------------------
+  // advanceState.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenIdUnknown_ThenAdvanceStateSucceeds() throws Exception {
+    var store = new InMemoryActivationStateStore();
+    var expiry = Instant.now().plus(Duration.ofMinutes(1));
+
+    assertTrue(store.advanceState(SAMPLE_ID, ActivationStateStore.State.APPROVED, expiry));
+    assertEquals(ActivationStateStore.State.APPROVED, store.getState(SAMPLE_ID).get());
+  }
+
+  @Test
+  public void whenStateIsEarlier_ThenAdvanceStateSucceeds() throws Exception {
+    var store = new InMemoryActivationStateStore();
+    var expiry = Instant.now().plus(Duration.ofMinutes(1));
+
+    assertTrue(store.advanceState(SAMPLE_ID, ActivationStateStore.State.PENDING, expiry));
+    assertTrue(store.advanceState(SAMPLE_ID, ActivationStateStore.State.APPROVED, expiry));
+    assertTrue(store.advanceState(SAMPLE_ID, ActivationStateStore.State.PROVISIONED, expiry));
+    assertEquals(ActivationStateStore.State.PROVISIONED, store.getState(SAMPLE_ID).get());
+  }
+
+  @Test
+  public void whenStateIsSameOrLater_ThenAdvanceStateFails() throws Exception {
+    var store = new InMemoryActivationStateStore();
+    var expiry = Instant.now().plus(Duration.ofMinutes(1));
+
+    assertTrue(store.advanceState(SAMPLE_ID, ActivationStateStore.State.APPROVED, expiry));
+    assertFalse(store.advanceState(SAMPLE_ID, ActivationStateStore.State.APPROVED, expiry));
+    assertFalse(store.advanceState(SAMPLE_ID, ActivationStateStore.State.PENDING, expiry));
+    assertEquals(ActivationStateStore.State.APPROVED, store.getState(SAMPLE_ID).get());
+  }
+
+  @Test
+  public void whenEntryExpired_ThenAdvanceStateSucceeds() throws Exception {
+    var store = new InMemoryActivationStateStore();
+
+    store.setState(SAMPLE_ID, ActivationStateStore.State.PROVISIONED, Instant.now().minusSeconds(1));
+    assertTrue(store.advanceState(
+        SAMPLE_ID,
+        ActivationStateStore.State.PENDING,
+        Instant.now().plus(Duration.ofMinutes(1))));
+  }
+
+  // -------------------------------------------------------------------------
+  // setState.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void setStateOverridesLaterState() throws Exception {
+    var store = new InMemoryActivationStateStore();
+    var expiry = Instant.now().plus(Duration.ofMinutes(1));
+
+    store.setState(SAMPLE_ID, ActivationStateStore.State.APPROVED, expiry);
+    store.setState(SAMPLE_ID, ActivationStateStore.State.PENDING, expiry);
+
+    assertEquals(ActivationStateStore.State.PENDING, store.getState(SAMPLE_ID).get());
+  }
+}
@@ -33,6 +33,8 @@ import org.mockito.Mockito;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -286,4 +288,352 @@ public class TestRequesterPrivilegeActivator {
         AccessDeniedException.class,
         () -> activator.approve(SAMPLE_APPROVING_USER, request));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void whenApprovingUserNotAllowedToApprove_ThenApproveRequestLeavesRequestPending() throws Exception {
+    RequesterPrivilegeCatalog<SamplePrivilegeId> catalog = Mockito.mock(RequesterPrivilegeCatalog.class);
+    var activator = new SampleActivator(
+        catalog,
+        Mockito.mock(JustificationPolicy.class));
+
+    var privilege = new SamplePrivilegeId("cat", "1");
+    var requesterPrivilege = new RequesterPrivilege<>(
+        privilege,
+        privilege.id(),
+        new ExternalApproval("topic"),
+        Status.INACTIVE);
+
+    var request = activator.createActivationRequest(
+        SAMPLE_REQUESTING_USER,
+        Set.of(SAMPLE_APPROVING_USER, SAMPLE_UNKNOWN_USER),
+        requesterPrivilege,
+        "justification",
+        Instant.now(),
+        Duration.ofMinutes(5));
+
+    //
+    // While the failing approval is being checked, another
+    // reviewer approves the request.
+    //
+    var concurrentActivation = new ArrayList<Activation<SamplePrivilegeId>>();
+    Mockito.doAnswer(invocation -> {
+          concurrentActivation.add(activator.approve(SAMPLE_APPROVING_USER, request));
+          throw new AccessDeniedException("mock");
+        })
+        .when(catalog)
+        .verifyUserCanApprove(eq(SAMPLE_UNKNOWN_USER), any());
+
+    assertThrows(
+        AccessDeniedException.class,
+        () -> activator.approve(SAMPLE_UNKNOWN_USER, request));
+
+    assertEquals(1, concurrentActivation.size());
+    assertEquals(
+        ActivationStateStore.State.PROVISIONED,
+        activator.getActivationState(request).get());
+    verify(catalog, times(1)).onAccessProvisioned(request);
+  }
+
+  @Test
+  public void whenRequestApprovedAlready_ThenApproveRequestThrowsException() throws Exception {
+    RequesterPrivilegeCatalog<SamplePrivilegeId> catalog = Mockito.mock(RequesterPrivilegeCatalog.class);
+    var activator = new SampleActivator(
+        catalog,
+        Mockito.mock(JustificationPolicy.class));
+
+    var privilege = new SamplePrivilegeId("cat", "1");
+    var requesterPrivilege = new RequesterPrivilege<>(
+        privilege,
+        privilege.id(),
+        new ExternalApproval("topic"),
+        Status.INACTIVE);
+
+    var request = activator.createActivationRequest(
+        SAMPLE_REQUESTING_USER,
+        Set.of(SAMPLE_APPROVING_USER),
+        requesterPrivilege,
+        "justification",
+        Instant.now(),
+        Duration.ofMinutes(5));
+
+    activator.approve(SAMPLE_APPROVING_USER, request);
+
+    assertThrows(
+        AlreadyExistsException.class,
+        () -> activator.approve(SAMPLE_APPROVING_USER, request));
+    verify(catalog, times(1)).onAccessProvisioned(request);
+  }
+
+  @Test
+  public void whenApprovalFailed_ThenApproveRequestCanBeRetried() throws Exception {
+    RequesterPrivilegeCatalog<SamplePrivilegeId> catalog = Mockito.mock(RequesterPrivilegeCatalog.class);
+    var activator = new SampleActivator(
+        catalog,
+        Mockito.mock(JustificationPolicy.class));
+
+    var privilege = new SamplePrivilegeId("cat", "1");
+    var requesterPrivilege = new RequesterPrivilege<>(
+        privilege,
+        privilege.id(),
+        new ExternalApproval("topic"),
+        Status.INACTIVE);
+
+    var request = activator.createActivationRequest(
+        SAMPLE_REQUESTING_USER,
+        Set.of(SAMPLE_APPROVING_USER),
+        requesterPrivilege,
+        "justification",
+        Instant.now(),
+        Duration.ofMinutes(5));
+
+    Mockito.doThrow(new AccessDeniedException("mock"))
+        .doNothing()
+        .when(catalog)
+        .verifyUserCanApprove(eq(SAMPLE_APPROVING_USER), any());
+
+    assertThrows(
+        AccessDeniedException.class,
+        () -> activator.approve(SAMPLE_APPROVING_USER, request));
+    assertEquals(
+        ActivationStateStore.State.PENDING,
+        activator.getActivationState(request).get());
+
+    assertNotNull(activator.approve(SAMPLE_APPROVING_USER, request));
+  }
+
+  // -------------------------------------------------------------------------
+  // createActivationRequests.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void createActivationRequestsChecksAccessOnce() throws Exception {
+    RequesterPrivilegeCatalog<SamplePrivilegeId> catalog = Mockito.mock(RequesterPrivilegeCatalog.class);
+
+    var activator = new SampleActivator(
+        catalog,
+        Mockito.mock(JustificationPolicy.class));
+
+    var privilege1 = new SamplePrivilegeId("cat", "1");
+    var privilege2 = new SamplePrivilegeId("cat", "2");
+    var requests = activator.createActivationRequests(
+        SAMPLE_REQUESTING_USER,
+        Set.of(),
+        List.of(
+            new RequesterPrivilege<>(privilege1, privilege1.id(), new SelfApproval(), Status.INACTIVE),
+            new RequesterPrivilege<>(privilege2, privilege2.id(), new SelfApproval(), Status.INACTIVE)),
+        "justification",
+        Instant.now(),
+        Duration.ofMinutes(5));
+
+    assertEquals(2, requests.size());
+    assertEquals(privilege1, requests.get(0).requesterPrivilege());
+    assertEquals(privilege2, requests.get(1).requesterPrivilege());
+    assertNotEquals(requests.get(0).id(), requests.get(1).id());
+
+    verify(catalog, times(1)).verifyUserCanRequestAll(requests);
+    verify(catalog, times(0)).verifyUserCanRequest(any());
+
+    for (var request : requests) {
+      assertEquals(
+          ActivationStateStore.State.PENDING,
+          activator.getActivationState(request).get());
+    }
+  }
+
+  // -------------------------------------------------------------------------
+  // approveAll.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenRequestsValid_ThenApproveAllProvisionsAccess() throws Exception {
+    RequesterPrivilegeCatalog<SamplePrivilegeId> catalog = Mockito.mock(RequesterPrivilegeCatalog.class);
+    var activator = new SampleActivator(
+        catalog,
+        Mockito.mock(JustificationPolicy.class));
+
+    var privilege1 = new SamplePrivilegeId("cat", "1");
+    var privilege2 = new SamplePrivilegeId("cat", "2");
+    var requests = activator.createActivationRequests(
+        SAMPLE_REQUESTING_USER,
+        Set.of(),
+        List.of(
+            new RequesterPrivilege<>(privilege1, privilege1.id(), new SelfApproval(), Status.INACTIVE),
+            new RequesterPrivilege<>(privilege2, privilege2.id(), new SelfApproval(), Status.INACTIVE)),
+        "justification",
+        Instant.now(),
+        Duration.ofMinutes(5));
+
+    var activations = activator.approveAll(SAMPLE_REQUESTING_USER, requests);
+
+    assertEquals(2, activations.size());
+    assertSame(requests.get(0), activations.get(0).request());
+    assertSame(requests.get(1), activations.get(1).request());
+
+    for (var request : requests) {
+      assertEquals(
+          ActivationStateStore.State.PROVISIONED,
+          activator.getActivationState(request).get());
+      verify(catalog, times(1)).onAccessProvisioned(request);
+    }
+  }
+
+  @Test
+  public void whenOneRequestApprovedAlready_ThenApproveAllThrowsException() throws Exception {
+    RequesterPrivilegeCatalog<SamplePrivilegeId> catalog = Mockito.mock(RequesterPrivilegeCatalog.class);
+    var activator = new SampleActivator(
+        catalog,
+        Mockito.mock(JustificationPolicy.class));
+
+    var privilege1 = new SamplePrivilegeId("cat", "1");
+    var privilege2 = new SamplePrivilegeId("cat", "2");
+    var requests = activator.createActivationRequests(
+        SAMPLE_REQUESTING_USER,
+        Set.of(),
+        List.of(
+            new RequesterPrivilege<>(privilege1, privilege1.id(), new SelfApproval(), Status.INACTIVE),
+            new RequesterPrivilege<>(privilege2, privilege2.id(), new SelfApproval(), Status.INACTIVE)),
+        "justification",
+        Instant.now(),
+        Duration.ofMinutes(5));
+
+    activator.approve(SAMPLE_REQUESTING_USER, requests.get(1));
+
+    assertThrows(
+        AlreadyExistsException.class,
+        () -> activator.approveAll(SAMPLE_REQUESTING_USER, requests));
+    assertEquals(
+        ActivationStateStore.State.PENDING,
+        activator.getActivationState(requests.get(0)).get());
+  }
+
+  @Test
+  public void whenApprovalFailed_ThenApproveAllCanBeRetried() throws Exception {
+    RequesterPrivilegeCatalog<SamplePrivilegeId> catalog = Mockito.mock(RequesterPrivilegeCatalog.class);
+    var activator = new SampleActivator(
+        catalog,
+        Mockito.mock(JustificationPolicy.class));
+
+    var privilege1 = new SamplePrivilegeId("cat", "1");
+    var privilege2 = new SamplePrivilegeId("cat", "2");
+    var requests = activator.createActivationRequests(
+        SAMPLE_REQUESTING_USER,
+        Set.of(),
+        List.of(
+            new RequesterPrivilege<>(privilege1, privilege1.id(), new SelfApproval(), Status.INACTIVE),
+            new RequesterPrivilege<>(privilege2, privilege2.id(), new SelfApproval(), Status.INACTIVE)),
+        "justification",
+        Instant.now(),
+        Duration.ofMinutes(5));
+
+    Mockito.doThrow(new AccessDeniedException("mock"))
+        .doNothing()
+        .when(catalog)
+        .verifyUserCanRequestAll(any());
+
+    assertThrows(
+        AccessDeniedException.class,
+        () -> activator.approveAll(SAMPLE_REQUESTING_USER, requests));
+
+    for (var request : requests) {
+      assertEquals(
+          ActivationStateStore.State.PENDING,
+          activator.getActivationState(request).get());
+      verify(catalog, times(0)).onAccessProvisioned(request);
+    }
+
+    assertEquals(2, activator.approveAll(SAMPLE_REQUESTING_USER, requests).size());
+  }
+
+  // -------------------------------------------------------------------------
+  // createAndApproveAll.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void createAndApproveAllChecksAccessOnce() throws Exception {
+    RequesterPrivilegeCatalog<SamplePrivilegeId> catalog = Mockito.mock(RequesterPrivilegeCatalog.class);
+    var activator = new SampleActivator(
+        catalog,
+        Mockito.mock(JustificationPolicy.class));
+
+    var privilege1 = new SamplePrivilegeId("cat", "1");
+    var privilege2 = new SamplePrivilegeId("cat", "2");
+    var activations = activator.createAndApproveAll(
+        SAMPLE_REQUESTING_USER,
+        List.of(
+            new RequesterPrivilege<>(privilege1, privilege1.id(), new SelfApproval(), Status.INACTIVE),
+            new RequesterPrivilege<>(privilege2, privilege2.id(), new SelfApproval(), Status.INACTIVE)),
+        "justification",
+        Instant.now(),
+        Duration.ofMinutes(5));
+
+    assertEquals(2, activations.size());
+
+    verify(catalog, times(1)).verifyUserCanRequestAll(any());
+    verify(catalog, times(0)).verifyUserCanRequest(any());
+
+    for (var activation : activations) {
+      verify(catalog, times(1)).verifyUserCanApprove(SAMPLE_REQUESTING_USER, activation.request());
+      assertEquals(
+          ActivationStateStore.State.PROVISIONED,
+          activator.getActivationState(activation.request()).get());
+    }
+  }
+
+  // -------------------------------------------------------------------------
+  // getActivationState.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenRequestCreated_ThenGetActivationStateReturnsPending() throws Exception {
+    var activator = new SampleActivator(
+        Mockito.mock(RequesterPrivilegeCatalog.class),
+        Mockito.mock(JustificationPolicy.class));
+
+    var privilege = new SamplePrivilegeId("cat", "1");
+    var requesterPrivilege = new RequesterPrivilege<>(
+        privilege,
+        privilege.id(),
+        new ExternalApproval("topic"),
+        Status.INACTIVE);
+
+    var request = activator.createActivationRequest(
+        SAMPLE_REQUESTING_USER,
+        Set.of(SAMPLE_APPROVING_USER),
+        requesterPrivilege,
+        "justification",
+        Instant.now(),
+        Duration.ofMinutes(5));
+
+    assertEquals(
+        ActivationStateStore.State.PENDING,
+        activator.getActivationState(request).get());
+  }
+
+  @Test
+  public void whenRequestApproved_ThenGetActivationStateReturnsProvisioned() throws Exception {
+    var activator = new SampleActivator(
+        Mockito.mock(RequesterPrivilegeCatalog.class),
+        Mockito.mock(JustificationPolicy.class));
+
+    var privilege = new SamplePrivilegeId("cat", "1");
+    var requesterPrivilege = new RequesterPrivilege<>(
+        privilege,
+        privilege.id(),
+        new ExternalApproval("topic"),
+        Status.INACTIVE);
+
+    var request = activator.createActivationRequest(
+        SAMPLE_REQUESTING_USER,
+        Set.of(SAMPLE_APPROVING_USER),
+        requesterPrivilege,
+        "justification",
+        Instant.now(),
+        Duration.ofMinutes(5));
+
+    activator.approve(SAMPLE_APPROVING_USER, request);
+
+    assertEquals(
+        ActivationStateStore.State.PROVISIONED,
+        activator.getActivationState(request).get());
+  }
+}
@@ -0,0 +1,121 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSigningKeySet {
+
+  // -------------------------------------------------------------------------
+  // getCurrentKey.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenKeyNotDueForRotation_ThenGetCurrentKeyReturnsSameKey() {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+
+    assertSame(keys.getCurrentKey(), keys.getCurrentKey());
+  }
+
+  @Test
+  public void whenKeyDueForRotation_ThenGetCurrentKeyRotatesKey() throws Exception {
+    var keys = new SigningKeySet(Duration.ofMillis(1));
+
+    var first = keys.getCurrentKey();
+    Thread.sleep(5);
+    var second = keys.getCurrentKey();
+
+    assertNotEquals(first.keyId(), second.keyId());
+    assertNotNull(keys.getKey(first.keyId()));
+  }
+
+  // -------------------------------------------------------------------------
+  // getKey.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenKeyIdUnknown_ThenGetKeyReturnsNull() {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+
+    assertNull(keys.getKey("unknown"));
+    assertNull(keys.getKey(null));
+  }
+
+  @Test
+  public void whenRotatedOnce_ThenGetKeyReturnsPreviousKey() {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+    var first = keys.getCurrentKey();
+
+    keys.rotate();
+
+    assertSame(first, keys.getKey(first.keyId()));
+    assertNotSame(first, keys.getCurrentKey());
+  }
+
+  @Test
+  public void whenRotatedTwice_ThenGetKeyReturnsNullForRetiredKey() {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+    var first = keys.getCurrentKey();
+
+    keys.rotate();
+    keys.rotate();
+
+    assertNull(keys.getKey(first.keyId()));
+  }
+
+  // -------------------------------------------------------------------------
+  // getPublicKeys.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenNotRotated_ThenGetPublicKeysReturnsCurrentKey() {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+
+    var publicKeys = keys.getPublicKeys();
+
+    assertEquals(1, publicKeys.size());
+    assertEquals(keys.getCurrentKey().keyId(), publicKeys.get(0).kid());
+    assertEquals("RSA", publicKeys.get(0).kty());
+    assertEquals("RS256", publicKeys.get(0).alg());
+    assertEquals("sig", publicKeys.get(0).use());
+    assertEquals("AQAB", publicKeys.get(0).e());
+    assertFalse(publicKeys.get(0).n().contains("="));
+  }
+
+  @Test
+  public void whenRotated_ThenGetPublicKeysReturnsCurrentAndPreviousKey() {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+    var first = keys.getCurrentKey();
+
+    keys.rotate();
+
+    var publicKeys = keys.getPublicKeys();
+
+    assertEquals(2, publicKeys.size());
+    assertEquals(keys.getCurrentKey().keyId(), publicKeys.get(0).kid());
+    assertEquals(first.keyId(), publicKeys.get(1).kid());
+  }
+}
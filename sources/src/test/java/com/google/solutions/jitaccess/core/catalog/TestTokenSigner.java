@@ -0,0 +1,241 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog;
+
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import com.google.api.client.json.webtoken.JsonWebToken;
+import com.google.auth.oauth2.TokenVerifier;
+import com.google.solutions.jitaccess.core.UserEmail;
+import com.google.solutions.jitaccess.core.clients.IamCredentialsClient;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTokenSigner {
+  private static final UserEmail SERVICE_ACCOUNT = new UserEmail("service@project-1.iam.gserviceaccount.com");
+  private static final TokenSigner.Options OPTIONS = new TokenSigner.Options(
+      SERVICE_ACCOUNT,
+      Duration.ofMinutes(5));
+
+  private static class PseudoJsonConverter implements JsonWebTokenConverter<JsonWebToken.Payload> {
+    @Override
+    public JsonWebToken.Payload convert(JsonWebToken.Payload object) {
+      return object;
+    }
+  }
+
+  private static String signWithCurrentKey(
+      SigningKeySet keys,
+      JsonWebToken.Payload payload) throws Exception {
+    var key = keys.getCurrentKey();
+    return JsonWebSignature.signUsingRsaSha256(
+        key.privateKey(),
+        GsonFactory.getDefaultInstance(),
+        new JsonWebSignature.Header()
+            .setAlgorithm("RS256")
+            .setKeyId(key.keyId()),
+        payload);
+  }
+
+  // -------------------------------------------------------------------------
+  // constructor.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenTokenValidityExceedsRotationInterval_ThenConstructorThrowsException() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new TokenSigner(new SigningKeySet(Duration.ofMinutes(1)), OPTIONS));
+  }
+
+  // -------------------------------------------------------------------------
+  // getPublicKeys.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenSigningRemotely_ThenGetPublicKeysReturnsEmpty() {
+    var signer = new TokenSigner(Mockito.mock(IamCredentialsClient.class), OPTIONS);
+
+    assertTrue(signer.getPublicKeys().isEmpty());
+    assertEquals(
+        IamCredentialsClient.getJwksUrl(SERVICE_ACCOUNT),
+        signer.getServiceAccountJwksUrl());
+  }
+
+  @Test
+  public void whenSigningLocally_ThenGetPublicKeysReturnsKeys() {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+    var signer = new TokenSigner(keys, OPTIONS);
+
+    assertTrue(signer.getPublicKeys().isPresent());
+    assertEquals(
+        keys.getCurrentKey().keyId(),
+        signer.getPublicKeys().get().get(0).kid());
+  }
+
+  // -------------------------------------------------------------------------
+  // sign.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenSigningLocally_ThenSignAddsObligatoryClaims() throws Exception {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+    var signer = new TokenSigner(keys, OPTIONS);
+
+    var token = signer.sign(new PseudoJsonConverter(), new JsonWebToken.Payload());
+
+    assertEquals(token.issueTime().plus(OPTIONS.tokenValidity()), token.expiryTime());
+
+    var decodedToken = JsonWebSignature.parse(GsonFactory.getDefaultInstance(), token.token());
+    assertEquals("RS256", decodedToken.getHeader().getAlgorithm());
+    assertEquals(keys.getCurrentKey().keyId(), decodedToken.getHeader().getKeyId());
+    assertTrue(decodedToken.verifySignature(keys.getCurrentKey().publicKey()));
+
+    assertEquals(SERVICE_ACCOUNT.email, decodedToken.getPayload().getIssuer());
+    assertEquals(SERVICE_ACCOUNT.email, decodedToken.getPayload().getAudience());
+    assertEquals(token.issueTime().getEpochSecond(), decodedToken.getPayload().getIssuedAtTimeSeconds());
+    assertEquals(token.expiryTime().getEpochSecond(), decodedToken.getPayload().getExpirationTimeSeconds());
+  }
+
+  // -------------------------------------------------------------------------
+  // verify.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenSignedLocally_ThenVerifySucceeds() throws Exception {
+    var signer = new TokenSigner(new SigningKeySet(Duration.ofHours(1)), OPTIONS);
+
+    var inputPayload = new JsonWebToken.Payload()
+        .setJwtId("sample-1");
+
+    var token = signer.sign(new PseudoJsonConverter(), inputPayload);
+    var outputPayload = signer.verify(new PseudoJsonConverter(), token.token());
+
+    assertEquals(inputPayload.getJwtId(), outputPayload.getJwtId());
+  }
+
+  @Test
+  public void whenKeyRotatedOnce_ThenVerifySucceeds() throws Exception {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+    var signer = new TokenSigner(keys, OPTIONS);
+
+    var token = signer.sign(new PseudoJsonConverter(), new JsonWebToken.Payload());
+    keys.rotate();
+
+    assertNotNull(signer.verify(new PseudoJsonConverter(), token.token()));
+  }
+
+  @Test
+  public void whenKeyRotatedTwice_ThenVerifyThrowsException() throws Exception {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+    var signer = new TokenSigner(keys, OPTIONS);
+
+    var token = signer.sign(new PseudoJsonConverter(), new JsonWebToken.Payload());
+    keys.rotate();
+    keys.rotate();
+
+    assertThrows(
+        TokenVerifier.VerificationException.class,
+        () -> signer.verify(new PseudoJsonConverter(), token.token()));
+  }
+
+  @Test
+  public void whenJwtSignedByOtherKeySet_ThenVerifyThrowsException() throws Exception {
+    var signer = new TokenSigner(new SigningKeySet(Duration.ofHours(1)), OPTIONS);
+    var otherSigner = new TokenSigner(new SigningKeySet(Duration.ofHours(1)), OPTIONS);
+
+    var token = otherSigner.sign(new PseudoJsonConverter(), new JsonWebToken.Payload());
+
+    assertThrows(
+        TokenVerifier.VerificationException.class,
+        () -> signer.verify(new PseudoJsonConverter(), token.token()));
+  }
+
+  @Test
+  public void whenJwtSignatureTampered_ThenVerifyThrowsException() throws Exception {
+    var signer = new TokenSigner(new SigningKeySet(Duration.ofHours(1)), OPTIONS);
+
+    var token = signer.sign(new PseudoJsonConverter(), new JsonWebToken.Payload()).token();
+    var tamperedToken = token.substring(0, token.lastIndexOf('.') + 1) + "AAAA";
+
+    assertThrows(
+        TokenVerifier.VerificationException.class,
+        () -> signer.verify(new PseudoJsonConverter(), tamperedToken));
+  }
+
+  @Test
+  public void whenJwtMalformed_ThenVerifyThrowsException() {
+    var signer = new TokenSigner(new SigningKeySet(Duration.ofHours(1)), OPTIONS);
+
+    assertThrows(
+        TokenVerifier.VerificationException.class,
+        () -> signer.verify(new PseudoJsonConverter(), "not-a-token"));
+  }
+
+  @Test
+  public void whenJwtMissesAudienceClaim_ThenVerifyThrowsException() throws Exception {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+    var signer = new TokenSigner(keys, OPTIONS);
+
+    var jwt = signWithCurrentKey(keys, new JsonWebToken.Payload()
+        .setIssuer(SERVICE_ACCOUNT.email)
+        .setExpirationTimeSeconds(Instant.now().plusSeconds(60).getEpochSecond()));
+
+    assertThrows(
+        TokenVerifier.VerificationException.class,
+        () -> signer.verify(new PseudoJsonConverter(), jwt));
+  }
+
+  @Test
+  public void whenJwtMissesIssuerClaim_ThenVerifyThrowsException() throws Exception {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+    var signer = new TokenSigner(keys, OPTIONS);
+
+    var jwt = signWithCurrentKey(keys, new JsonWebToken.Payload()
+        .setAudience(SERVICE_ACCOUNT.email)
+        .setExpirationTimeSeconds(Instant.now().plusSeconds(60).getEpochSecond()));
+
+    assertThrows(
+        TokenVerifier.VerificationException.class,
+        () -> signer.verify(new PseudoJsonConverter(), jwt));
+  }
+
+  @Test
+  public void whenJwtExpired_ThenVerifyThrowsException() throws Exception {
+    var keys = new SigningKeySet(Duration.ofHours(1));
+    var signer = new TokenSigner(keys, OPTIONS);
+
+    var jwt = signWithCurrentKey(keys, new JsonWebToken.Payload()
+        .setAudience(SERVICE_ACCOUNT.email)
+        .setIssuer(SERVICE_ACCOUNT.email)
+        .setExpirationTimeSeconds(Instant.now().minusSeconds(60).getEpochSecond()));
+
+    assertThrows(
+        TokenVerifier.VerificationException.class,
+        () -> signer.verify(new PseudoJsonConverter(), jwt));
+  }
+}
@@ -0,0 +1,228 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.solutions.jitaccess.core.ProjectId;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAssetFeedSubscriber {
+  private static final String USER = "user:user@example.com";
+  private static final Instant SCAN_TIME = Instant.parse("2024-01-01T00:00:00Z");
+  private static final EligibleProjectIndex.Project PROJECT_1 = new EligibleProjectIndex.Project(
+      new ProjectId("project-1"),
+      "projects/1",
+      List.of("organizations/1"));
+
+  private static String createMessage(
+      String assetType,
+      String name,
+      String startTime,
+      String iamPolicy,
+      boolean deleted) {
+    return String.format(
+        "{\"asset\": {\"name\": \"//cloudresourcemanager.googleapis.com/%s\", " +
+            "\"assetType\": \"cloudresourcemanager.googleapis.com/%s\"%s}, " +
+            "\"window\": {\"startTime\": \"%s\"}, \"deleted\": %s}",
+        name,
+        assetType,
+        iamPolicy != null ? ", \"iamPolicy\": " + iamPolicy : "",
+        startTime,
+        deleted);
+  }
+
+  private static final String ELIGIBLE_POLICY =
+      "{\"bindings\": [{\"role\": \"roles/viewer\", " +
+          "\"members\": [\"" + USER + "\"], " +
+          "\"condition\": {\"expression\": \"has({}.jitAccessConstraint)\"}}]}";
+
+  private static EligibleProjectIndex createIndex() {
+    var index = new EligibleProjectIndex();
+    index.rebuild(List.of(PROJECT_1), List.of(), SCAN_TIME);
+    return index;
+  }
+
+  private static class InProcessSource implements AssetFeedSource {
+    final LinkedList<Message> pending = new LinkedList<>();
+    final List<Message> acknowledged = new ArrayList<>();
+
+    @Override
+    public List<Message> receive() {
+      var messages = List.copyOf(this.pending);
+      this.pending.clear();
+      return messages;
+    }
+
+    @Override
+    public void acknowledge(List<Message> messages) {
+      this.acknowledged.addAll(messages);
+    }
+  }
+
+  // -------------------------------------------------------------------------
+  // apply.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenMessageMalformed_ThenApplyReturnsFalse() {
+    var index = createIndex();
+    var subscriber = new AssetFeedSubscriber(new InProcessSource(), index, Duration.ZERO);
+
+    assertFalse(subscriber.apply("{"));
+    assertFalse(subscriber.apply("{}"));
+  }
+
+  @Test
+  public void whenMessageLacksIamPolicy_ThenApplyReturnsFalse() {
+    var index = createIndex();
+    var subscriber = new AssetFeedSubscriber(new InProcessSource(), index, Duration.ZERO);
+
+    assertFalse(subscriber.apply(
+        createMessage("Project", "projects/1", "2024-01-01T00:01:00Z", null, false)));
+  }
+
+  @Test
+  public void whenMessageConcernsOtherAssetType_ThenApplyReturnsFalse() {
+    var index = createIndex();
+    var subscriber = new AssetFeedSubscriber(new InProcessSource(), index, Duration.ZERO);
+
+    assertFalse(subscriber.apply(
+        createMessage("TagKey", "projects/1", "2024-01-01T00:01:00Z", ELIGIBLE_POLICY, false)));
+  }
+
+  @Test
+  public void whenMessageGrantsEligibility_ThenApplyUpdatesIndex() {
+    var index = createIndex();
+    var subscriber = new AssetFeedSubscriber(new InProcessSource(), index, Duration.ZERO);
+
+    assertTrue(subscriber.apply(
+        createMessage("Project", "projects/1", "2024-01-01T00:01:00Z", ELIGIBLE_POLICY, false)));
+
+    assertEquals(Set.of(PROJECT_1.id()), index.findProjects(List.of(USER)));
+  }
+
+  @Test
+  public void whenMessageReportsDeletion_ThenApplyUpdatesIndex() {
+    var index = createIndex();
+    var subscriber = new AssetFeedSubscriber(new InProcessSource(), index, Duration.ZERO);
+
+    subscriber.apply(
+        createMessage("Organization", "organizations/1", "2024-01-01T00:01:00Z", ELIGIBLE_POLICY, false));
+    subscriber.apply(
+        createMessage("Organization", "organizations/1", "2024-01-01T00:02:00Z", null, true));
+
+    assertTrue(index.findProjects(List.of(USER)).isEmpty());
+  }
+
+  // -------------------------------------------------------------------------
+  // processNextBatch.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenNoMessagesAvailable_ThenProcessNextBatchReturnsZero() throws Exception {
+    var source = new InProcessSource();
+    var subscriber = new AssetFeedSubscriber(source, createIndex(), Duration.ZERO);
+
+    assertEquals(0, subscriber.processNextBatch());
+    assertTrue(source.acknowledged.isEmpty());
+  }
+
+  @Test
+  public void whenMessagesAvailable_ThenProcessNextBatchAppliesAndAcknowledgesMessages() throws Exception {
+    var source = new InProcessSource();
+    source.pending.add(new AssetFeedSource.Message("1", "junk"));
+    source.pending.add(new AssetFeedSource.Message(
+        "2",
+        createMessage("Project", "projects/1", "2024-01-01T00:01:00Z", ELIGIBLE_POLICY, false)));
+
+    var index = createIndex();
+    var subscriber = new AssetFeedSubscriber(source, index, Duration.ZERO);
+
+    assertEquals(2, subscriber.processNextBatch());
+    assertEquals(2, source.acknowledged.size());
+    assertEquals(Set.of(PROJECT_1.id()), index.findProjects(List.of(USER)));
+  }
+
+  // -------------------------------------------------------------------------
+  // retryDelay.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenNoFailures_ThenRetryDelayReturnsPollInterval() {
+    assertEquals(
+        Duration.ofSeconds(1),
+        AssetFeedSubscriber.retryDelay(Duration.ofSeconds(1), 0));
+  }
+
+  @Test
+  public void whenFailuresRepeat_ThenRetryDelayGrows() {
+    assertEquals(Duration.ofSeconds(1), AssetFeedSubscriber.retryDelay(Duration.ZERO, 1));
+    assertEquals(Duration.ofSeconds(2), AssetFeedSubscriber.retryDelay(Duration.ZERO, 2));
+    assertEquals(Duration.ofSeconds(4), AssetFeedSubscriber.retryDelay(Duration.ZERO, 3));
+    assertEquals(
+        AssetFeedSubscriber.MAX_RETRY_DELAY,
+        AssetFeedSubscriber.retryDelay(Duration.ofSeconds(1), 1000));
+  }
+
+  // -------------------------------------------------------------------------
+  // start.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenReceiveFails_ThenStartReportsFailure() throws Exception {
+    var source = new AssetFeedSource() {
+      @Override
+      public List<Message> receive() throws IOException {
+        throw new IOException("mock");
+      }
+
+      @Override
+      public void acknowledge(List<Message> messages) {
+      }
+    };
+
+    var failures = new LinkedBlockingQueue<Exception>();
+    var executor = Executors.newSingleThreadExecutor();
+    try (var subscriber = new AssetFeedSubscriber(source, createIndex(), Duration.ZERO, failures::add)) {
+      subscriber.start(executor);
+
+      var failure = failures.poll(5, TimeUnit.SECONDS);
+      assertInstanceOf(IOException.class, failure);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+  }
+}
@@ -23,8 +23,10 @@ package com.google.solutions.jitaccess.core.catalog.project;
 
 import com.google.api.services.cloudasset.v1.model.Binding;
 import com.google.api.services.cloudasset.v1.model.Expr;
+import com.google.api.services.cloudasset.v1.model.IamPolicySearchResult;
 import com.google.api.services.cloudasset.v1.model.Policy;
 import com.google.api.services.cloudasset.v1.model.PolicyInfo;
+import com.google.api.services.cloudasset.v1.model.ResourceSearchResult;
 import com.google.api.services.directory.model.Group;
 import com.google.api.services.directory.model.Member;
 import com.google.solutions.jitaccess.cel.TemporaryIamCondition;
@@ -41,15 +43,19 @@ import org.mockito.Mockito;
 import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 public class TestAssetInventoryRepository {
   private static final UserEmail SAMPLE_USER = new UserEmail("user-1@example.com");
@@ -356,6 +362,152 @@ public class TestAssetInventoryRepository {
         bindings.stream().map(Binding::getRole).collect(Collectors.toList()));
   }
 
+  // ---------------------------------------------------------------------------
+  // findProjectsWithRequesterPrivileges.
+  // ---------------------------------------------------------------------------
+
+  private static AssetInventoryClient setupTestProjectIndex() throws Exception {
+    var caiClient = Mockito.mock(AssetInventoryClient.class);
+    when(caiClient.searchProjects(eq("organization/0")))
+        .thenReturn(List.of(
+            new ResourceSearchResult()
+                .setProject("projects/1")
+                .setFolders(List.of("folders/1"))
+                .setOrganization("organizations/1")
+                .setAdditionalAttributes(Map.of("projectId", "project-1")),
+            new ResourceSearchResult()
+                .setProject("projects/2")
+                .setOrganization("organizations/1")
+                .setAdditionalAttributes(Map.of("projectId", "project-2"))));
+    when(caiClient.searchResourceManagerIamPolicies(eq("organization/0")))
+        .thenReturn(List.of(
+            new IamPolicySearchResult()
+                .setResource("//cloudresourcemanager.googleapis.com/folders/1")
+                .setPolicy(new Policy().setBindings(List.of(new Binding()
+                    .setRole("roles/role-1")
+                    .setCondition(new Expr().setExpression(SELF_APPROVAL_CONDITION))
+                    .setMembers(List.of("group:group@example.com"))))),
+            new IamPolicySearchResult()
+                .setResource("//cloudresourcemanager.googleapis.com/projects/2")
+                .setPolicy(new Policy().setBindings(List.of(new Binding()
+                    .setRole("roles/role-1")
+                    .setMembers(List.of("user:" + SAMPLE_USER.email)))))));
+    return caiClient;
+  }
+
+  @Test
+  public void whenUserIsMemberOfEligibleGroup_ThenFindProjectsWithRequesterPrivilegesReturnsProjects()
+      throws Exception {
+    var caiClient = setupTestProjectIndex();
+    var groupsClient = Mockito.mock(DirectoryGroupsClient.class);
+    when(groupsClient.listDirectGroupMemberships(eq(SAMPLE_USER)))
+        .thenReturn(List.of(new Group().setEmail("group@example.com")));
+
+    var repository = new AssetInventoryRepository(
+        new SynchronousExecutor(),
+        groupsClient,
+        caiClient,
+        new AssetInventoryRepository.Options("organization/0"));
+
+    var projects = repository.findProjectsWithRequesterPrivileges(SAMPLE_USER);
+
+    assertIterableEquals(List.of(new ProjectId("project-1")), projects);
+  }
+
+  @Test
+  public void whenUserHasNoEligibleBindings_ThenFindProjectsWithRequesterPrivilegesReturnsEmptySet()
+      throws Exception {
+    var caiClient = setupTestProjectIndex();
+
+    var repository = new AssetInventoryRepository(
+        new SynchronousExecutor(),
+        Mockito.mock(DirectoryGroupsClient.class),
+        caiClient,
+        new AssetInventoryRepository.Options("organization/0"));
+
+    var projects = repository.findProjectsWithRequesterPrivileges(SAMPLE_USER);
+
+    assertTrue(projects.isEmpty());
+  }
+
+  @Test
+  public void whenIndexIsFresh_ThenFindProjectsWithRequesterPrivilegesDoesNotRescan()
+      throws Exception {
+    var caiClient = setupTestProjectIndex();
+
+    var repository = new AssetInventoryRepository(
+        new SynchronousExecutor(),
+        Mockito.mock(DirectoryGroupsClient.class),
+        caiClient,
+        new AssetInventoryRepository.Options("organization/0"));
+
+    repository.findProjectsWithRequesterPrivileges(SAMPLE_USER);
+    repository.findProjectsWithRequesterPrivileges(SAMPLE_USER);
+
+    verify(caiClient, times(1)).searchProjects(any());
+    verify(caiClient, times(1)).searchResourceManagerIamPolicies(any());
+  }
+
+  @Test
+  public void whenIndexNotBuiltYet_ThenFindProjectsWithRequesterPrivilegesThrowsException()
+      throws Exception {
+    var caiClient = setupTestProjectIndex();
+    var groupsClient = Mockito.mock(DirectoryGroupsClient.class);
+    when(groupsClient.listDirectGroupMemberships(eq(SAMPLE_USER)))
+        .thenReturn(List.of(new Group().setEmail("group@example.com")));
+
+    var deferredTasks = new ArrayList<Runnable>();
+    var runInline = new AtomicBoolean(false);
+    Executor executor = task -> {
+      if (runInline.get()) {
+        task.run();
+      } else {
+        deferredTasks.add(task);
+      }
+    };
+
+    var repository = new AssetInventoryRepository(
+        executor,
+        groupsClient,
+        caiClient,
+        new AssetInventoryRepository.Options("organization/0"));
+
+    var exception = assertThrows(
+        IOException.class,
+        () -> repository.findProjectsWithRequesterPrivileges(SAMPLE_USER));
+    assertTrue(exception.getMessage().contains("still being built"));
+    assertEquals(1, deferredTasks.size());
+
+    runInline.set(true);
+    deferredTasks.forEach(Runnable::run);
+
+    var projects = repository.findProjectsWithRequesterPrivileges(SAMPLE_USER);
+    assertIterableEquals(List.of(new ProjectId("project-1")), projects);
+  }
+
+  @Test
+  public void whenIndexRefreshFails_ThenFindProjectsWithRequesterPrivilegesReportsFailure()
+      throws Exception {
+    var caiClient = Mockito.mock(AssetInventoryClient.class);
+    when(caiClient.searchProjects(any()))
+        .thenThrow(new IOException("mock"));
+
+    var failures = new ArrayList<Exception>();
+    var repository = new AssetInventoryRepository(
+        new SynchronousExecutor(),
+        Mockito.mock(DirectoryGroupsClient.class),
+        caiClient,
+        new AssetInventoryRepository.Options("organization/0"),
+        failures::add);
+
+    assertThrows(
+        IOException.class,
+        () -> repository.findProjectsWithRequesterPrivileges(SAMPLE_USER));
+
+    assertEquals(1, failures.size());
+    assertInstanceOf(IOException.class, failures.get(0));
+  }
+
   // ---------------------------------------------------------------------------
   // findRequesterPrivileges.
   // ---------------------------------------------------------------------------
@@ -715,6 +867,90 @@ public class TestAssetInventoryRepository {
 
   }
 
+  // ---------------------------------------------------------------------------
+  // findRequesterPrivilegesInProjects.
+  // ---------------------------------------------------------------------------
+
+  @Test
+  public void whenProjectsContainEligibleBindings_ThenFindRequesterPrivilegesInProjectsReturnsMap()
+      throws Exception {
+    var otherProject = new ProjectId("project-2");
+    var jitBinding = new Binding()
+        .setRole("roles/role-1")
+        .setCondition(new Expr().setExpression(SELF_APPROVAL_CONDITION))
+        .setMembers(List.of("user:" + SAMPLE_USER.email));
+    var otherJitBinding = new Binding()
+        .setRole("roles/role-2")
+        .setCondition(new Expr().setExpression(SELF_APPROVAL_CONDITION))
+        .setMembers(List.of("user:" + SAMPLE_USER.email));
+
+    var caiClient = Mockito.mock(AssetInventoryClient.class);
+    when(caiClient
+        .batchGetEffectiveIamPolicies(
+            eq("organization/0"),
+            eq(Set.of(SAMPLE_PROJECT, otherProject))))
+        .thenReturn(Map.of(
+            SAMPLE_PROJECT,
+            List.of(new PolicyInfo()
+                .setAttachedResource(SAMPLE_PROJECT.path())
+                .setPolicy(new Policy().setBindings(List.of(jitBinding)))),
+            otherProject,
+            List.of(new PolicyInfo()
+                .setAttachedResource(otherProject.path())
+                .setPolicy(new Policy().setBindings(List.of(otherJitBinding))))));
+
+    var repository = new AssetInventoryRepository(
+        new SynchronousExecutor(),
+        Mockito.mock(DirectoryGroupsClient.class),
+        caiClient,
+        new AssetInventoryRepository.Options("organization/0"));
+
+    var privileges = repository.findRequesterPrivilegesInProjects(
+        SAMPLE_USER,
+        List.of(SAMPLE_PROJECT, otherProject),
+        Set.of(new SelfApproval()),
+        EnumSet.of(RequesterPrivilege.Status.INACTIVE));
+
+    assertEquals(2, privileges.size());
+    assertEquals(
+        "roles/role-1",
+        privileges.get(SAMPLE_PROJECT).available().first().id().roleBinding().role());
+    assertEquals(
+        SAMPLE_PROJECT,
+        privileges.get(SAMPLE_PROJECT).available().first().id().projectId());
+    assertEquals(
+        "roles/role-2",
+        privileges.get(otherProject).available().first().id().roleBinding().role());
+
+    verify(caiClient, times(1)).batchGetEffectiveIamPolicies(any(), any());
+    verify(caiClient, never()).getEffectiveIamPolicies(any(), any(ProjectId.class));
+  }
+
+  @Test
+  public void whenProjectHasNoPolicies_ThenFindRequesterPrivilegesInProjectsReturnsEmptySet()
+      throws Exception {
+    var caiClient = Mockito.mock(AssetInventoryClient.class);
+    when(caiClient
+        .batchGetEffectiveIamPolicies(
+            eq("organization/0"),
+            any()))
+        .thenReturn(Map.of());
+
+    var repository = new AssetInventoryRepository(
+        new SynchronousExecutor(),
+        Mockito.mock(DirectoryGroupsClient.class),
+        caiClient,
+        new AssetInventoryRepository.Options("organization/0"));
+
+    var privileges = repository.findRequesterPrivilegesInProjects(
+        SAMPLE_USER,
+        List.of(SAMPLE_PROJECT),
+        Set.of(new SelfApproval()),
+        EnumSet.of(RequesterPrivilege.Status.INACTIVE));
+
+    assertTrue(privileges.get(SAMPLE_PROJECT).available().isEmpty());
+  }
+
   // ---------------------------------------------------------------------------
   // findReviewerPrivelegeHolders.
   // ---------------------------------------------------------------------------
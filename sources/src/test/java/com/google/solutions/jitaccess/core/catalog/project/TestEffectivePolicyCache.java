@@ -0,0 +1,199 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.cloudasset.v1.model.Policy;
+import com.google.api.services.cloudasset.v1.model.PolicyInfo;
+import com.google.solutions.jitaccess.core.ProjectId;
+import com.google.solutions.jitaccess.core.clients.AssetInventoryClient;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TestEffectivePolicyCache {
+  private static final String SCOPE = "organizations/0";
+  private static final ProjectId PROJECT_1 = new ProjectId("project-1");
+  private static final ProjectId PROJECT_2 = new ProjectId("project-2");
+  private static final String FOLDER = "//cloudresourcemanager.googleapis.com/folders/1";
+
+  private static PolicyInfo createPolicy(String attachedResource) {
+    return new PolicyInfo()
+        .setAttachedResource(attachedResource)
+        .setPolicy(new Policy().setBindings(List.of()));
+  }
+
+  private static AssetInventoryClient createClient() throws Exception {
+    var client = Mockito.mock(AssetInventoryClient.class);
+    when(client.getEffectiveIamPolicies(eq(SCOPE), eq(PROJECT_1)))
+        .thenReturn(List.of(createPolicy(PROJECT_1.getFullResourceName()), createPolicy(FOLDER)))
+        .thenReturn(List.of(createPolicy(PROJECT_1.getFullResourceName()), createPolicy(FOLDER)));
+    when(client.getEffectiveIamPolicies(eq(SCOPE), eq(PROJECT_2)))
+        .thenReturn(List.of(createPolicy(PROJECT_2.getFullResourceName()), createPolicy(FOLDER)));
+    return client;
+  }
+
+  // -------------------------------------------------------------------------
+  // getEffectiveIamPolicies.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenPoliciesCached_ThenGetEffectiveIamPoliciesReturnsCachedPolicies() throws Exception {
+    var client = createClient();
+    var cache = new EffectivePolicyCache(client, SCOPE, Duration.ofMinutes(1), 10);
+
+    var first = cache.getEffectiveIamPolicies(PROJECT_1);
+    var second = cache.getEffectiveIamPolicies(PROJECT_1);
+
+    assertEquals(2, second.size());
+    assertSame(first.get(0), second.get(0));
+    assertSame(first.get(1), second.get(1));
+
+    verify(client, times(1)).getEffectiveIamPolicies(eq(SCOPE), eq(PROJECT_1));
+    assertEquals(1, cache.stats().hitCount());
+  }
+
+  @Test
+  public void whenSiblingProjectLoaded_ThenGetEffectiveIamPoliciesSharesAncestorPolicy() throws Exception {
+    var client = createClient();
+    var cache = new EffectivePolicyCache(client, SCOPE, Duration.ofMinutes(1), 10);
+
+    cache.getEffectiveIamPolicies(PROJECT_1);
+    var sibling = cache.getEffectiveIamPolicies(PROJECT_2);
+    var project = cache.getEffectiveIamPolicies(PROJECT_1);
+
+    assertEquals(PROJECT_1.getFullResourceName(), project.get(0).getAttachedResource());
+    assertEquals(PROJECT_2.getFullResourceName(), sibling.get(0).getAttachedResource());
+    assertSame(sibling.get(1), project.get(1));
+  }
+
+  @Test
+  public void whenCacheDisabled_ThenGetEffectiveIamPoliciesLoadsPoliciesEveryTime() throws Exception {
+    var client = createClient();
+    var cache = new EffectivePolicyCache(client, SCOPE, Duration.ZERO, 0);
+
+    cache.getEffectiveIamPolicies(PROJECT_1);
+    cache.getEffectiveIamPolicies(PROJECT_1);
+
+    verify(client, times(2)).getEffectiveIamPolicies(eq(SCOPE), eq(PROJECT_1));
+  }
+
+  // -------------------------------------------------------------------------
+  // getEffectiveIamPolicies (batch).
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenNoPoliciesCached_ThenGetEffectiveIamPoliciesLoadsAllInOneBatch() throws Exception {
+    var client = Mockito.mock(AssetInventoryClient.class);
+    when(client.batchGetEffectiveIamPolicies(eq(SCOPE), eq(Set.of(PROJECT_1, PROJECT_2))))
+        .thenReturn(Map.of(
+            PROJECT_1, List.of(createPolicy(PROJECT_1.getFullResourceName()), createPolicy(FOLDER)),
+            PROJECT_2, List.of(createPolicy(PROJECT_2.getFullResourceName()), createPolicy(FOLDER))));
+
+    var cache = new EffectivePolicyCache(client, SCOPE, Duration.ofMinutes(1), 10);
+    var policies = cache.getEffectiveIamPolicies(List.of(PROJECT_1, PROJECT_2));
+
+    assertEquals(2, policies.size());
+    assertEquals(PROJECT_1.getFullResourceName(), policies.get(PROJECT_1).get(0).getAttachedResource());
+    assertEquals(PROJECT_2.getFullResourceName(), policies.get(PROJECT_2).get(0).getAttachedResource());
+
+    verify(client, times(1)).batchGetEffectiveIamPolicies(eq(SCOPE), any());
+    verify(client, never()).getEffectiveIamPolicies(eq(SCOPE), any(ProjectId.class));
+  }
+
+  @Test
+  public void whenSomePoliciesCached_ThenGetEffectiveIamPoliciesOnlyLoadsMissingPolicies() throws Exception {
+    var client = createClient();
+    when(client.batchGetEffectiveIamPolicies(eq(SCOPE), eq(Set.of(PROJECT_2))))
+        .thenReturn(Map.of(
+            PROJECT_2, List.of(createPolicy(PROJECT_2.getFullResourceName()), createPolicy(FOLDER))));
+
+    var cache = new EffectivePolicyCache(client, SCOPE, Duration.ofMinutes(1), 10);
+    var cached = cache.getEffectiveIamPolicies(PROJECT_1);
+    var policies = cache.getEffectiveIamPolicies(List.of(PROJECT_1, PROJECT_2));
+
+    assertSame(cached.get(0), policies.get(PROJECT_1).get(0));
+    assertEquals(PROJECT_2.getFullResourceName(), policies.get(PROJECT_2).get(0).getAttachedResource());
+
+    verify(client, times(1)).batchGetEffectiveIamPolicies(eq(SCOPE), eq(Set.of(PROJECT_2)));
+  }
+
+  @Test
+  public void whenAllPoliciesCached_ThenGetEffectiveIamPoliciesDoesNotLoadPolicies() throws Exception {
+    var client = createClient();
+    var cache = new EffectivePolicyCache(client, SCOPE, Duration.ofMinutes(1), 10);
+
+    cache.getEffectiveIamPolicies(PROJECT_1);
+    var policies = cache.getEffectiveIamPolicies(List.of(PROJECT_1));
+
+    assertEquals(2, policies.get(PROJECT_1).size());
+    verify(client, never()).batchGetEffectiveIamPolicies(any(), any());
+  }
+
+  @Test
+  public void whenBatchResultMissesProject_ThenGetEffectiveIamPoliciesReturnsEmptyList() throws Exception {
+    var client = Mockito.mock(AssetInventoryClient.class);
+    when(client.batchGetEffectiveIamPolicies(eq(SCOPE), any()))
+        .thenReturn(Map.of());
+
+    var cache = new EffectivePolicyCache(client, SCOPE, Duration.ofMinutes(1), 10);
+    var policies = cache.getEffectiveIamPolicies(List.of(PROJECT_1));
+
+    assertEquals(List.of(), policies.get(PROJECT_1));
+  }
+
+  // -------------------------------------------------------------------------
+  // invalidate.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenInvalidated_ThenGetEffectiveIamPoliciesReloadsPolicies() throws Exception {
+    var client = createClient();
+    var cache = new EffectivePolicyCache(client, SCOPE, Duration.ofMinutes(1), 10);
+
+    cache.getEffectiveIamPolicies(PROJECT_1);
+    cache.invalidate(PROJECT_1);
+    cache.getEffectiveIamPolicies(PROJECT_1);
+
+    verify(client, times(2)).getEffectiveIamPolicies(eq(SCOPE), eq(PROJECT_1));
+  }
+
+  @Test
+  public void whenProjectNotCached_ThenInvalidateDoesNothing() {
+    var cache = new EffectivePolicyCache(
+        Mockito.mock(AssetInventoryClient.class),
+        SCOPE,
+        Duration.ofMinutes(1),
+        10);
+
+    cache.invalidate(PROJECT_1);
+    assertEquals(0, cache.stats().requestCount());
+  }
+}
@@ -0,0 +1,294 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.cloudasset.v1.model.Binding;
+import com.google.api.services.cloudasset.v1.model.Expr;
+import com.google.solutions.jitaccess.core.ProjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEligibleProjectIndex {
+  private static final String SELF_APPROVAL_CONDITION = "has({}.jitAccessConstraint)";
+  private static final String USER = "user:user@example.com";
+  private static final String GROUP = "group:group@example.com";
+
+  private static final EligibleProjectIndex.Project PROJECT_1 = new EligibleProjectIndex.Project(
+      new ProjectId("project-1"),
+      "projects/1",
+      List.of("folders/1", "organizations/1"));
+  private static final EligibleProjectIndex.Project PROJECT_2 = new EligibleProjectIndex.Project(
+      new ProjectId("project-2"),
+      "projects/2",
+      List.of("folders/2", "organizations/1"));
+
+  private static Binding eligibleBinding(String... members) {
+    return new Binding()
+        .setRole("roles/viewer")
+        .setCondition(new Expr().setExpression(SELF_APPROVAL_CONDITION))
+        .setMembers(List.of(members));
+  }
+
+  // -------------------------------------------------------------------------
+  // findProjects.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenIndexNotBuilt_ThenFindProjectsReturnsEmptySet() {
+    var index = new EligibleProjectIndex();
+
+    assertNull(index.lastRebuilt());
+    assertTrue(index.findProjects(List.of(USER)).isEmpty());
+  }
+
+  @Test
+  public void whenPrincipalHasEligibleProjectBinding_ThenFindProjectsReturnsProject() {
+    var index = new EligibleProjectIndex();
+    index.rebuild(
+        List.of(PROJECT_1, PROJECT_2),
+        List.of(new EligibleProjectIndex.ResourcePolicy("projects/1", List.of(eligibleBinding(USER)))),
+        Instant.now());
+
+    assertEquals(Set.of(PROJECT_1.id()), index.findProjects(List.of(USER)));
+    assertTrue(index.findProjects(List.of(GROUP)).isEmpty());
+  }
+
+  @Test
+  public void whenPrincipalHasEligibleFolderBinding_ThenFindProjectsReturnsProjectsInFolder() {
+    var index = new EligibleProjectIndex();
+    index.rebuild(
+        List.of(PROJECT_1, PROJECT_2),
+        List.of(new EligibleProjectIndex.ResourcePolicy("folders/2", List.of(eligibleBinding(GROUP)))),
+        Instant.now());
+
+    assertEquals(Set.of(PROJECT_2.id()), index.findProjects(List.of(USER, GROUP)));
+  }
+
+  @Test
+  public void whenPrincipalHasEligibleOrganizationBinding_ThenFindProjectsReturnsAllProjects() {
+    var index = new EligibleProjectIndex();
+    index.rebuild(
+        List.of(PROJECT_1, PROJECT_2),
+        List.of(new EligibleProjectIndex.ResourcePolicy("organizations/1", List.of(eligibleBinding(USER)))),
+        Instant.now());
+
+    assertEquals(Set.of(PROJECT_1.id(), PROJECT_2.id()), index.findProjects(List.of(USER)));
+  }
+
+  @Test
+  public void whenBindingNotEligible_ThenFindProjectsIgnoresBinding() {
+    var index = new EligibleProjectIndex();
+    index.rebuild(
+        List.of(PROJECT_1),
+        List.of(new EligibleProjectIndex.ResourcePolicy(
+            "projects/1",
+            List.of(new Binding().setRole("roles/viewer").setMembers(List.of(USER))))),
+        Instant.now());
+
+    assertTrue(index.findProjects(List.of(USER)).isEmpty());
+    assertEquals(0, index.principalCount());
+  }
+
+  @Test
+  public void whenResourceContainsNoProjects_ThenFindProjectsIgnoresPolicy() {
+    var index = new EligibleProjectIndex();
+    index.rebuild(
+        List.of(PROJECT_1),
+        List.of(new EligibleProjectIndex.ResourcePolicy("folders/99", List.of(eligibleBinding(USER)))),
+        Instant.now());
+
+    assertTrue(index.findProjects(List.of(USER)).isEmpty());
+  }
+
+  @Test
+  public void whenRebuilt_ThenFindProjectsReturnsNewProjects() {
+    var index = new EligibleProjectIndex();
+    index.rebuild(
+        List.of(PROJECT_1, PROJECT_2),
+        List.of(new EligibleProjectIndex.ResourcePolicy("projects/1", List.of(eligibleBinding(USER)))),
+        Instant.now());
+    index.rebuild(
+        List.of(PROJECT_1, PROJECT_2),
+        List.of(new EligibleProjectIndex.ResourcePolicy("projects/2", List.of(eligibleBinding(USER)))),
+        Instant.now());
+
+    assertEquals(Set.of(PROJECT_2.id()), index.findProjects(List.of(USER)));
+  }
+
+  // -------------------------------------------------------------------------
+  // applyPolicyChange.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenEligibilityGranted_ThenApplyPolicyChangeAddsProject() {
+    var scanTime = Instant.now();
+    var index = new EligibleProjectIndex();
+    index.rebuild(List.of(PROJECT_1, PROJECT_2), List.of(), scanTime);
+
+    assertTrue(index.applyPolicyChange(
+        "projects/2",
+        List.of(eligibleBinding(USER)),
+        scanTime.plusSeconds(1)));
+
+    assertEquals(Set.of(PROJECT_2.id()), index.findProjects(List.of(USER)));
+  }
+
+  @Test
+  public void whenEligibilityRevoked_ThenApplyPolicyChangeRemovesProject() {
+    var scanTime = Instant.now();
+    var index = new EligibleProjectIndex();
+    index.rebuild(
+        List.of(PROJECT_1, PROJECT_2),
+        List.of(
+            new EligibleProjectIndex.ResourcePolicy("projects/1", List.of(eligibleBinding(USER))),
+            new EligibleProjectIndex.ResourcePolicy("folders/2", List.of(eligibleBinding(USER)))),
+        scanTime);
+
+    assertTrue(index.applyPolicyChange("folders/2", List.of(), scanTime.plusSeconds(1)));
+
+    assertEquals(Set.of(PROJECT_1.id()), index.findProjects(List.of(USER)));
+  }
+
+  @Test
+  public void whenResourceDeleted_ThenApplyPolicyChangeRemovesProjects() {
+    var scanTime = Instant.now();
+    var index = new EligibleProjectIndex();
+    index.rebuild(
+        List.of(PROJECT_1),
+        List.of(new EligibleProjectIndex.ResourcePolicy("projects/1", List.of(eligibleBinding(USER)))),
+        scanTime);
+
+    assertTrue(index.applyPolicyChange("projects/1", null, scanTime.plusSeconds(1)));
+
+    assertTrue(index.findProjects(List.of(USER)).isEmpty());
+    assertEquals(0, index.principalCount());
+  }
+
+  @Test
+  public void whenPrincipalEligibleThroughOtherResource_ThenApplyPolicyChangeRetainsProject() {
+    var scanTime = Instant.now();
+    var index = new EligibleProjectIndex();
+    index.rebuild(
+        List.of(PROJECT_1),
+        List.of(
+            new EligibleProjectIndex.ResourcePolicy("projects/1", List.of(eligibleBinding(USER))),
+            new EligibleProjectIndex.ResourcePolicy("folders/1", List.of(eligibleBinding(USER)))),
+        scanTime);
+
+    index.applyPolicyChange("projects/1", List.of(), scanTime.plusSeconds(1));
+
+    assertEquals(Set.of(PROJECT_1.id()), index.findProjects(List.of(USER)));
+  }
+
+  @Test
+  public void whenChangeOlderThanScan_ThenApplyPolicyChangeIgnoresChange() {
+    var scanTime = Instant.now();
+    var index = new EligibleProjectIndex();
+    index.rebuild(List.of(PROJECT_1), List.of(), scanTime);
+
+    assertFalse(index.applyPolicyChange(
+        "projects/1",
+        List.of(eligibleBinding(USER)),
+        scanTime.minusSeconds(1)));
+
+    assertTrue(index.findProjects(List.of(USER)).isEmpty());
+  }
+
+  @Test
+  public void whenChangeOlderThanPreviousChange_ThenApplyPolicyChangeIgnoresChange() {
+    var scanTime = Instant.now();
+    var index = new EligibleProjectIndex();
+    index.rebuild(List.of(PROJECT_1), List.of(), scanTime);
+
+    index.applyPolicyChange("projects/1", List.of(eligibleBinding(USER)), scanTime.plusSeconds(2));
+    assertFalse(index.applyPolicyChange("projects/1", List.of(), scanTime.plusSeconds(1)));
+
+    assertEquals(Set.of(PROJECT_1.id()), index.findProjects(List.of(USER)));
+  }
+
+  @Test
+  public void whenResourceUnknown_ThenApplyPolicyChangeReturnsFalse() {
+    var scanTime = Instant.now();
+    var index = new EligibleProjectIndex();
+    index.rebuild(List.of(PROJECT_1), List.of(), scanTime);
+
+    assertFalse(index.applyPolicyChange(
+        "projects/99",
+        List.of(eligibleBinding(USER)),
+        scanTime.plusSeconds(1)));
+  }
+
+  @Test
+  public void whenChangeNewerThanScan_ThenRebuildReplaysChange() {
+    var scanTime = Instant.now();
+    var index = new EligibleProjectIndex();
+    index.rebuild(List.of(PROJECT_1), List.of(), scanTime);
+
+    index.applyPolicyChange("projects/1", List.of(eligibleBinding(USER)), scanTime.plusSeconds(2));
+
+    //
+    // Scan started before the change, so it doesn't reflect it yet.
+    //
+    index.rebuild(List.of(PROJECT_1), List.of(), scanTime.plusSeconds(1));
+
+    assertEquals(Set.of(PROJECT_1.id()), index.findProjects(List.of(USER)));
+  }
+
+  @Test
+  public void whenChangeOlderThanScan_ThenRebuildDiscardsChange() {
+    var scanTime = Instant.now();
+    var index = new EligibleProjectIndex();
+    index.rebuild(List.of(PROJECT_1), List.of(), scanTime);
+
+    index.applyPolicyChange("projects/1", List.of(eligibleBinding(USER)), scanTime.plusSeconds(1));
+    index.rebuild(List.of(PROJECT_1), List.of(), scanTime.plusSeconds(2));
+
+    assertTrue(index.findProjects(List.of(USER)).isEmpty());
+  }
+
+  // -------------------------------------------------------------------------
+  // findEligiblePrincipals.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenBindingHasOtherPrincipalTypes_ThenFindEligiblePrincipalsIgnoresThem() {
+    var principals = EligibleProjectIndex.findEligiblePrincipals(List.of(
+        eligibleBinding(USER, GROUP, "serviceAccount:sa@example.com", "domain:example.com")));
+
+    assertEquals(Set.of(USER, GROUP), principals);
+  }
+
+  @Test
+  public void whenPrincipalsEqual_ThenFindEligiblePrincipalsInternsThem() {
+    var first = EligibleProjectIndex.findEligiblePrincipals(List.of(
+        eligibleBinding(new String(USER))));
+    var second = EligibleProjectIndex.findEligiblePrincipals(List.of(
+        eligibleBinding(new String(USER))));
+
+    assertSame(first.iterator().next(), second.iterator().next());
+  }
+}
@@ -0,0 +1,108 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFileAssetFeedSource {
+
+  // -------------------------------------------------------------------------
+  // receive.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenFileDoesNotExist_ThenReceiveReturnsEmptyList() throws Exception {
+    var file = Files.createTempFile("feed", ".jsonl");
+    Files.delete(file);
+
+    var source = new FileAssetFeedSource(file);
+    assertTrue(source.receive().isEmpty());
+  }
+
+  @Test
+  public void whenFileContainsLines_ThenReceiveReturnsMessages() throws Exception {
+    var file = Files.createTempFile("feed", ".jsonl");
+    Files.writeString(file, "{\"a\": 1}\n\n{\"b\": 2}\n", StandardCharsets.UTF_8);
+
+    var source = new FileAssetFeedSource(file);
+    var messages = source.receive();
+
+    assertEquals(2, messages.size());
+    assertEquals("{\"a\": 1}", messages.get(0).data());
+    assertEquals("{\"b\": 2}", messages.get(1).data());
+    assertNotEquals(messages.get(0).id(), messages.get(1).id());
+
+    assertTrue(source.receive().isEmpty());
+  }
+
+  @Test
+  public void whenLinesAppended_ThenReceiveReturnsNewMessages() throws Exception {
+    var file = Files.createTempFile("feed", ".jsonl");
+    Files.writeString(file, "{\"a\": 1}\n", StandardCharsets.UTF_8);
+
+    var source = new FileAssetFeedSource(file);
+    source.receive();
+
+    Files.writeString(file, "{\"b\": 2}\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+    var messages = source.receive();
+    assertEquals(1, messages.size());
+    assertEquals("{\"b\": 2}", messages.get(0).data());
+  }
+
+  @Test
+  public void whenLastLineIncomplete_ThenReceiveDefersLine() throws Exception {
+    var file = Files.createTempFile("feed", ".jsonl");
+    Files.writeString(file, "{\"a\": 1}\n{\"b\":", StandardCharsets.UTF_8);
+
+    var source = new FileAssetFeedSource(file);
+    assertEquals(1, source.receive().size());
+
+    Files.writeString(file, " 2}\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+    var messages = source.receive();
+    assertEquals(1, messages.size());
+    assertEquals("{\"b\": 2}", messages.get(0).data());
+  }
+
+  // -------------------------------------------------------------------------
+  // acknowledge.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenAcknowledged_ThenMessagesAreNotRedelivered() throws Exception {
+    var file = Files.createTempFile("feed", ".jsonl");
+    Files.writeString(file, "{\"a\": 1}\n", StandardCharsets.UTF_8);
+
+    var source = new FileAssetFeedSource(file);
+    source.acknowledge(source.receive());
+
+    assertEquals(List.of(), source.receive());
+  }
+}
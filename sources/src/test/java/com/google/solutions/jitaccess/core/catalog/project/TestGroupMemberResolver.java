@@ -0,0 +1,206 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.directory.model.Member;
+import com.google.solutions.jitaccess.core.AccessDeniedException;
+import com.google.solutions.jitaccess.core.UserEmail;
+import com.google.solutions.jitaccess.core.clients.DirectoryGroupsClient;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TestGroupMemberResolver {
+  private static final String SAMPLE_GROUP_1 = "group-1@example.com";
+  private static final String SAMPLE_GROUP_2 = "group-2@example.com";
+  private static final UserEmail SAMPLE_USER_1 = new UserEmail("user-1@example.com");
+  private static final UserEmail SAMPLE_USER_2 = new UserEmail("user-2@example.com");
+
+  private static DirectoryGroupsClient createGroupsClient() throws Exception {
+    var groupsClient = Mockito.mock(DirectoryGroupsClient.class);
+    when(groupsClient.listDirectGroupMembers(eq(SAMPLE_GROUP_1)))
+        .thenReturn(List.of(new Member().setEmail(SAMPLE_USER_1.email)));
+    when(groupsClient.listDirectGroupMembers(eq(SAMPLE_GROUP_2)))
+        .thenReturn(List.of(new Member().setEmail(SAMPLE_USER_2.email)));
+    return groupsClient;
+  }
+
+  // -------------------------------------------------------------------------
+  // getMembers.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenMembersCached_ThenGetMembersReturnsCachedResult() throws Exception {
+    var groupsClient = createGroupsClient();
+    var resolver = new GroupMemberResolver(
+        groupsClient,
+        Runnable::run,
+        Duration.ofMinutes(1),
+        10,
+        2);
+
+    assertEquals(Set.of(SAMPLE_USER_1), resolver.getMembers(SAMPLE_GROUP_1).get());
+    assertEquals(Set.of(SAMPLE_USER_1), resolver.getMembers(SAMPLE_GROUP_1).get());
+
+    verify(groupsClient, times(1)).listDirectGroupMembers(SAMPLE_GROUP_1);
+    assertEquals(1, resolver.stats().hitCount());
+  }
+
+  @Test
+  public void whenCacheDisabled_ThenGetMembersLooksUpMembersAgain() throws Exception {
+    var groupsClient = createGroupsClient();
+    var resolver = new GroupMemberResolver(
+        groupsClient,
+        Runnable::run,
+        Duration.ZERO,
+        0,
+        2);
+
+    resolver.getMembers(SAMPLE_GROUP_1).get();
+    resolver.getMembers(SAMPLE_GROUP_1).get();
+
+    verify(groupsClient, times(2)).listDirectGroupMembers(SAMPLE_GROUP_1);
+  }
+
+  @Test
+  public void whenLookupPending_ThenGetMembersSharesResult() throws Exception {
+    var groupsClient = createGroupsClient();
+    var tasks = new ArrayDeque<Runnable>();
+    var resolver = new GroupMemberResolver(
+        groupsClient,
+        tasks::add,
+        Duration.ofMinutes(1),
+        10,
+        2);
+
+    var first = resolver.getMembers(SAMPLE_GROUP_1);
+    var second = resolver.getMembers(SAMPLE_GROUP_1);
+
+    assertSame(first, second);
+    assertEquals(1, tasks.size());
+
+    tasks.remove().run();
+
+    assertEquals(Set.of(SAMPLE_USER_1), first.get());
+    verify(groupsClient, times(1)).listDirectGroupMembers(SAMPLE_GROUP_1);
+  }
+
+  @Test
+  public void whenConcurrencyLimitReached_ThenGetMembersQueuesLookup() throws Exception {
+    var groupsClient = createGroupsClient();
+    var tasks = new ArrayDeque<Runnable>();
+    var resolver = new GroupMemberResolver(
+        groupsClient,
+        tasks::add,
+        Duration.ofMinutes(1),
+        10,
+        1);
+
+    var first = resolver.getMembers(SAMPLE_GROUP_1);
+    var second = resolver.getMembers(SAMPLE_GROUP_2);
+
+    assertEquals(1, tasks.size());
+    tasks.remove().run();
+    assertTrue(first.isDone());
+    assertFalse(second.isDone());
+
+    assertEquals(1, tasks.size());
+    tasks.remove().run();
+    assertEquals(Set.of(SAMPLE_USER_2), second.get());
+    assertTrue(tasks.isEmpty());
+  }
+
+  @Test
+  public void whenExecutorRejectsLookup_ThenGetMembersFailsAndReleasesSlot() throws Exception {
+    var groupsClient = createGroupsClient();
+    var rejectingResolver = new GroupMemberResolver(
+        groupsClient,
+        task -> {
+          throw new RejectedExecutionException("mock");
+        },
+        Duration.ofMinutes(1),
+        10,
+        1);
+
+    var first = rejectingResolver.getMembers(SAMPLE_GROUP_1);
+    var exception = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+
+    //
+    // The slot must have been released, and the failed lookup must not
+    // be shared with subsequent callers.
+    //
+    var second = rejectingResolver.getMembers(SAMPLE_GROUP_1);
+    assertNotSame(first, second);
+    assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void whenAccessDenied_ThenGetMembersReturnsEmptySet() throws Exception {
+    var groupsClient = Mockito.mock(DirectoryGroupsClient.class);
+    when(groupsClient.listDirectGroupMembers(eq(SAMPLE_GROUP_1)))
+        .thenThrow(new AccessDeniedException("mock"));
+
+    var resolver = new GroupMemberResolver(
+        groupsClient,
+        Runnable::run,
+        Duration.ofMinutes(1),
+        10,
+        2);
+
+    assertEquals(Set.of(), resolver.getMembers(SAMPLE_GROUP_1).get());
+  }
+
+  @Test
+  public void whenLookupFails_ThenGetMembersDoesNotCacheResult() throws Exception {
+    var groupsClient = Mockito.mock(DirectoryGroupsClient.class);
+    when(groupsClient.listDirectGroupMembers(eq(SAMPLE_GROUP_1)))
+        .thenThrow(new IOException("mock"))
+        .thenReturn(List.of(new Member().setEmail(SAMPLE_USER_1.email)));
+
+    var resolver = new GroupMemberResolver(
+        groupsClient,
+        Runnable::run,
+        Duration.ofMinutes(1),
+        10,
+        2);
+
+    var exception = assertThrows(
+        ExecutionException.class,
+        () -> resolver.getMembers(SAMPLE_GROUP_1).get());
+    assertInstanceOf(IOException.class, exception.getCause());
+
+    assertEquals(Set.of(SAMPLE_USER_1), resolver.getMembers(SAMPLE_GROUP_1).get());
+  }
+}
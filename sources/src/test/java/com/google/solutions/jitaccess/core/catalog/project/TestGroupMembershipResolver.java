@@ -0,0 +1,171 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.directory.model.Group;
+import com.google.solutions.jitaccess.core.AccessDeniedException;
+import com.google.solutions.jitaccess.core.GroupEmail;
+import com.google.solutions.jitaccess.core.UserEmail;
+import com.google.solutions.jitaccess.core.clients.DirectoryGroupsClient;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TestGroupMembershipResolver {
+  private static final UserEmail SAMPLE_USER_1 = new UserEmail("user-1@example.com");
+  private static final UserEmail SAMPLE_USER_2 = new UserEmail("user-2@example.com");
+  private static final GroupEmail SAMPLE_GROUP_1 = new GroupEmail("group-1@example.com");
+  private static final GroupEmail SAMPLE_GROUP_2 = new GroupEmail("group-2@example.com");
+  private static final GroupEmail SAMPLE_GROUP_3 = new GroupEmail("group-3@example.com");
+
+  private static GroupMembershipResolver createResolver(
+      DirectoryGroupsClient groupsClient,
+      int maxDepth) {
+    return new GroupMembershipResolver(
+        groupsClient,
+        Runnable::run,
+        Duration.ofMinutes(1),
+        10,
+        maxDepth);
+  }
+
+  /**
+   * Create a client where user-1 and user-2 are members of group-1,
+   * group-1 is a member of group-2, and group-2 is a member of group-3.
+   */
+  private static DirectoryGroupsClient createGroupsClient() throws Exception {
+    var groupsClient = Mockito.mock(DirectoryGroupsClient.class);
+    when(groupsClient.listDirectGroupMemberships(eq(SAMPLE_USER_1)))
+        .thenReturn(List.of(new Group().setEmail(SAMPLE_GROUP_1.email)));
+    when(groupsClient.listDirectGroupMemberships(eq(SAMPLE_USER_2)))
+        .thenReturn(List.of(new Group().setEmail(SAMPLE_GROUP_1.email)));
+    when(groupsClient.listDirectParentGroups(eq(SAMPLE_GROUP_1)))
+        .thenReturn(List.of(new Group().setEmail(SAMPLE_GROUP_2.email)));
+    when(groupsClient.listDirectParentGroups(eq(SAMPLE_GROUP_2)))
+        .thenReturn(List.of(new Group().setEmail(SAMPLE_GROUP_3.email)));
+    when(groupsClient.listDirectParentGroups(eq(SAMPLE_GROUP_3)))
+        .thenReturn(List.of());
+    return groupsClient;
+  }
+
+  // -------------------------------------------------------------------------
+  // listTransitiveGroupMemberships.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenMaxDepthIsOne_ThenListTransitiveGroupMembershipsReturnsDirectMemberships() throws Exception {
+    var groupsClient = createGroupsClient();
+    var resolver = createResolver(groupsClient, 1);
+
+    assertEquals(
+        Set.of(SAMPLE_GROUP_1),
+        resolver.listTransitiveGroupMemberships(SAMPLE_USER_1));
+    verify(groupsClient, never()).listDirectParentGroups(any());
+  }
+
+  @Test
+  public void whenGroupsNested_ThenListTransitiveGroupMembershipsReturnsAllGroups() throws Exception {
+    var resolver = createResolver(createGroupsClient(), 5);
+
+    assertEquals(
+        Set.of(SAMPLE_GROUP_1, SAMPLE_GROUP_2, SAMPLE_GROUP_3),
+        resolver.listTransitiveGroupMemberships(SAMPLE_USER_1));
+  }
+
+  @Test
+  public void whenNestingExceedsMaxDepth_ThenListTransitiveGroupMembershipsStopsAtMaxDepth() throws Exception {
+    var groupsClient = createGroupsClient();
+    var resolver = createResolver(groupsClient, 2);
+
+    assertEquals(
+        Set.of(SAMPLE_GROUP_1, SAMPLE_GROUP_2),
+        resolver.listTransitiveGroupMemberships(SAMPLE_USER_1));
+    verify(groupsClient, never()).listDirectParentGroups(eq(SAMPLE_GROUP_2));
+  }
+
+  @Test
+  public void whenGroupsContainCycle_ThenListTransitiveGroupMembershipsTerminates() throws Exception {
+    var groupsClient = Mockito.mock(DirectoryGroupsClient.class);
+    when(groupsClient.listDirectGroupMemberships(eq(SAMPLE_USER_1)))
+        .thenReturn(List.of(new Group().setEmail(SAMPLE_GROUP_1.email)));
+    when(groupsClient.listDirectParentGroups(eq(SAMPLE_GROUP_1)))
+        .thenReturn(List.of(new Group().setEmail(SAMPLE_GROUP_2.email)));
+    when(groupsClient.listDirectParentGroups(eq(SAMPLE_GROUP_2)))
+        .thenReturn(List.of(new Group().setEmail(SAMPLE_GROUP_1.email)));
+
+    var resolver = createResolver(groupsClient, 100);
+
+    assertEquals(
+        Set.of(SAMPLE_GROUP_1, SAMPLE_GROUP_2),
+        resolver.listTransitiveGroupMemberships(SAMPLE_USER_1));
+    verify(groupsClient, times(1)).listDirectParentGroups(eq(SAMPLE_GROUP_1));
+    verify(groupsClient, times(1)).listDirectParentGroups(eq(SAMPLE_GROUP_2));
+  }
+
+  @Test
+  public void whenParentGroupsInaccessible_ThenListTransitiveGroupMembershipsIgnoresGroup() throws Exception {
+    var groupsClient = Mockito.mock(DirectoryGroupsClient.class);
+    when(groupsClient.listDirectGroupMemberships(eq(SAMPLE_USER_1)))
+        .thenReturn(List.of(new Group().setEmail(SAMPLE_GROUP_1.email)));
+    when(groupsClient.listDirectParentGroups(eq(SAMPLE_GROUP_1)))
+        .thenThrow(new AccessDeniedException("mock"));
+
+    var resolver = createResolver(groupsClient, 5);
+
+    assertEquals(
+        Set.of(SAMPLE_GROUP_1),
+        resolver.listTransitiveGroupMemberships(SAMPLE_USER_1));
+  }
+
+  @Test
+  public void whenUsersShareGroups_ThenListTransitiveGroupMembershipsReusesEdges() throws Exception {
+    var groupsClient = createGroupsClient();
+    var resolver = createResolver(groupsClient, 5);
+
+    resolver.listTransitiveGroupMemberships(SAMPLE_USER_1);
+    resolver.listTransitiveGroupMemberships(SAMPLE_USER_2);
+
+    verify(groupsClient, times(1)).listDirectParentGroups(eq(SAMPLE_GROUP_1));
+    verify(groupsClient, times(1)).listDirectParentGroups(eq(SAMPLE_GROUP_2));
+  }
+
+  @Test
+  public void whenMembershipsCached_ThenListTransitiveGroupMembershipsReturnsCachedResult() throws Exception {
+    var groupsClient = createGroupsClient();
+    var resolver = createResolver(groupsClient, 5);
+
+    var first = resolver.listTransitiveGroupMemberships(SAMPLE_USER_1);
+    var second = resolver.listTransitiveGroupMemberships(SAMPLE_USER_1);
+
+    assertSame(first, second);
+    verify(groupsClient, times(1)).listDirectGroupMemberships(eq(SAMPLE_USER_1));
+    assertEquals(1, resolver.stats().hitCount());
+  }
+}
@@ -214,7 +214,7 @@ public class TestMpaProjectRoleCatalog {
     var selfApproval = new SelfApproval();
 
     when(policyAnalyzer
-        .findRequesterPrivileges(
+        .findRequesterPrivilegesForAccessCheck(
             eq(SAMPLE_REQUESTING_USER),
             eq(SAMPLE_PROJECT),
             eq(Set.of(selfApproval)),
@@ -249,7 +249,7 @@ public class TestMpaProjectRoleCatalog {
     var selfApproval = new SelfApproval();
 
     when(policyAnalyzer
-        .findRequesterPrivileges(
+        .findRequesterPrivilegesForAccessCheck(
             eq(SAMPLE_REQUESTING_USER),
             eq(SAMPLE_PROJECT),
             eq(Set.of(selfApproval)),
@@ -284,7 +284,7 @@ public class TestMpaProjectRoleCatalog {
     var peerApproval = new PeerApproval("topic2");
 
     when(policyAnalyzer
-        .findRequesterPrivileges(
+        .findRequesterPrivilegesForAccessCheck(
             eq(SAMPLE_REQUESTING_USER),
             eq(SAMPLE_PROJECT),
             eq(Set.of(peerApproval)),
@@ -319,7 +319,7 @@ public class TestMpaProjectRoleCatalog {
     var peerApproval = new PeerApproval("topic");
 
     when(policyAnalyzer
-        .findRequesterPrivileges(
+        .findRequesterPrivilegesForAccessCheck(
             eq(SAMPLE_REQUESTING_USER),
             eq(SAMPLE_PROJECT),
             eq(Set.of(peerApproval)),
@@ -356,7 +356,7 @@ public class TestMpaProjectRoleCatalog {
     var peerApproval = new PeerApproval("");
 
     when(policyAnalyzer
-        .findRequesterPrivileges(
+        .findRequesterPrivilegesForAccessCheck(
             eq(SAMPLE_REQUESTING_USER),
             eq(SAMPLE_PROJECT),
             eq(Set.of(peerApproval)),
@@ -397,7 +397,7 @@ public class TestMpaProjectRoleCatalog {
     var selfApproval = new SelfApproval();
 
     when(policyAnalyzer
-        .findRequesterPrivileges(
+        .findRequesterPrivilegesForAccessCheck(
             eq(SAMPLE_REQUESTING_USER),
             eq(SAMPLE_PROJECT),
             eq(Set.of(selfApproval)),
@@ -433,7 +433,7 @@ public class TestMpaProjectRoleCatalog {
     var selfApproval = new SelfApproval();
 
     when(policyAnalyzer
-        .findRequesterPrivileges(
+        .findRequesterPrivilegesForAccessCheck(
             eq(SAMPLE_REQUESTING_USER),
             eq(SAMPLE_PROJECT),
             eq(Set.of(selfApproval)),
@@ -452,6 +452,108 @@ public class TestMpaProjectRoleCatalog {
     catalog.verifyUserCanRequest(request);
   }
 
+  // ---------------------------------------------------------------------------
+  // verifyUserCanRequestAll.
+  // ---------------------------------------------------------------------------
+
+  @Test
+  public void whenUserAllowedToActivateAll_ThenVerifyUserCanRequestAllLooksUpPrivilegesOnce() throws Exception {
+    var policyAnalyzer = Mockito.mock(PolicyAnalyzerRepository.class);
+
+    var catalog = new MpaProjectRoleCatalog(
+        policyAnalyzer,
+        Mockito.mock(ResourceManagerClient.class),
+        new MpaProjectRoleCatalog.Options(null, Duration.ofMinutes(30), 1, 2));
+
+    var selfApproval = new SelfApproval();
+    var privilege1 = new RequesterPrivilege<>(
+        new ProjectRoleBinding(new RoleBinding(SAMPLE_PROJECT, "roles/role-1")),
+        "-",
+        selfApproval,
+        RequesterPrivilege.Status.INACTIVE);
+    var privilege2 = new RequesterPrivilege<>(
+        new ProjectRoleBinding(new RoleBinding(SAMPLE_PROJECT, "roles/role-2")),
+        "-",
+        selfApproval,
+        RequesterPrivilege.Status.INACTIVE);
+
+    when(policyAnalyzer
+        .findRequesterPrivilegesForAccessCheck(
+            eq(SAMPLE_REQUESTING_USER),
+            eq(SAMPLE_PROJECT),
+            eq(Set.of(selfApproval)),
+            eq(EnumSet.of(RequesterPrivilege.Status.INACTIVE))))
+        .thenReturn(new RequesterPrivilegeSet(
+            new TreeSet<>(Set.of(privilege1, privilege2)),
+            new TreeSet<>(),
+            Set.of()));
+
+    var requests = List.of(privilege1, privilege2)
+        .stream()
+        .map(privilege -> {
+          var request = (ActivationRequest<ProjectRoleBinding>)Mockito.mock(ActivationRequest.class);
+          when(request.duration()).thenReturn(catalog.options().minActivationDuration());
+          when(request.requestingUser()).thenReturn(SAMPLE_REQUESTING_USER);
+          when(request.requesterPrivilege()).thenReturn(privilege.id());
+          when(request.activationType()).thenReturn(selfApproval);
+          return request;
+        })
+        .collect(Collectors.toList());
+
+    catalog.verifyUserCanRequestAll(requests);
+
+    verify(policyAnalyzer, times(1)).findRequesterPrivilegesForAccessCheck(any(), any(), any(), any());
+  }
+
+  @Test
+  public void whenUserNotAllowedToActivateOne_ThenVerifyUserCanRequestAllThrowsException() throws Exception {
+    var policyAnalyzer = Mockito.mock(PolicyAnalyzerRepository.class);
+
+    var catalog = new MpaProjectRoleCatalog(
+        policyAnalyzer,
+        Mockito.mock(ResourceManagerClient.class),
+        new MpaProjectRoleCatalog.Options(null, Duration.ofMinutes(30), 1, 2));
+
+    var selfApproval = new SelfApproval();
+    var privilege1 = new RequesterPrivilege<>(
+        new ProjectRoleBinding(new RoleBinding(SAMPLE_PROJECT, "roles/role-1")),
+        "-",
+        selfApproval,
+        RequesterPrivilege.Status.INACTIVE);
+    var privilege2 = new RequesterPrivilege<>(
+        new ProjectRoleBinding(new RoleBinding(SAMPLE_PROJECT, "roles/role-2")),
+        "-",
+        selfApproval,
+        RequesterPrivilege.Status.INACTIVE);
+
+    when(policyAnalyzer
+        .findRequesterPrivilegesForAccessCheck(
+            eq(SAMPLE_REQUESTING_USER),
+            eq(SAMPLE_PROJECT),
+            eq(Set.of(selfApproval)),
+            eq(EnumSet.of(RequesterPrivilege.Status.INACTIVE))))
+        .thenReturn(new RequesterPrivilegeSet(
+            new TreeSet<>(Set.of(privilege1)),
+            new TreeSet<>(),
+            Set.of()));
+
+    var requests = List.of(privilege1, privilege2)
+        .stream()
+        .map(privilege -> {
+          var request = (ActivationRequest<ProjectRoleBinding>)Mockito.mock(ActivationRequest.class);
+          when(request.duration()).thenReturn(catalog.options().minActivationDuration());
+          when(request.requestingUser()).thenReturn(SAMPLE_REQUESTING_USER);
+          when(request.requesterPrivilege()).thenReturn(privilege.id());
+          when(request.activationType()).thenReturn(selfApproval);
+          return request;
+        })
+        .collect(Collectors.toList());
+
+    assertThrows(
+        AccessDeniedException.class,
+        () -> catalog.verifyUserCanRequestAll(requests));
+  }
+
   // ---------------------------------------------------------------------------
   // verifyUserCanApprove.
   // ---------------------------------------------------------------------------
@@ -625,7 +727,7 @@ public class TestMpaProjectRoleCatalog {
 
     var peerApproval = new PeerApproval("topic");
 
-    when(policyAnalyzer.findRequesterPrivileges(
+    when(policyAnalyzer.findRequesterPrivilegesForAccessCheck(
         eq(SAMPLE_REQUESTING_USER),
         eq(SAMPLE_PROJECT),
         eq(Set.of(peerApproval)),
@@ -656,7 +758,7 @@ public class TestMpaProjectRoleCatalog {
     var peerApproval = new PeerApproval("topic");
     var privilege = new RequesterPrivilege<ProjectRoleBinding>(new ProjectRoleBinding(roleBinding),
         roleBinding.role(), peerApproval, Status.INACTIVE);
-    when(policyAnalyzer.findRequesterPrivileges(
+    when(policyAnalyzer.findRequesterPrivilegesForAccessCheck(
         eq(SAMPLE_REQUESTING_USER),
         eq(SAMPLE_PROJECT),
         eq(Set.of(peerApproval)),
@@ -688,7 +790,7 @@ public class TestMpaProjectRoleCatalog {
   public void whenUserAllowedToActivatePeerApprovalPrivilege_ThenListReviewersExcludesUser() throws Exception {
     var policyAnalyzer = Mockito.mock(PolicyAnalyzerRepository.class);
     var role = new ProjectRoleBinding(new RoleBinding(SAMPLE_PROJECT, SAMPLE_ROLE));
-    when(policyAnalyzer.findRequesterPrivileges(
+    when(policyAnalyzer.findRequesterPrivilegesForAccessCheck(
         eq(SAMPLE_REQUESTING_USER),
         eq(SAMPLE_PROJECT),
         eq(Set.of(new PeerApproval("topic"))),
@@ -722,7 +824,7 @@ public class TestMpaProjectRoleCatalog {
         RequesterPrivilege.Status.INACTIVE);
 
     when(policyAnalyzer
-        .findRequesterPrivileges(
+        .findRequesterPrivilegesForAccessCheck(
             eq(SAMPLE_REQUESTING_USER),
             eq(SAMPLE_PROJECT),
             eq(Set.of(peerApproval)),
@@ -766,7 +868,7 @@ public class TestMpaProjectRoleCatalog {
         Set.of(externalApproval));
 
     when(policyAnalyzer
-        .findRequesterPrivileges(
+        .findRequesterPrivilegesForAccessCheck(
             eq(SAMPLE_REQUESTING_USER),
             eq(SAMPLE_PROJECT),
             eq(Set.of(externalApproval)),
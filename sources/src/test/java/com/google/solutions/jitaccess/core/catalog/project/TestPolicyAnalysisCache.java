@@ -0,0 +1,177 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.catalog.project;
+
+import com.google.api.services.cloudasset.v1.model.IamPolicyAnalysis;
+import com.google.solutions.jitaccess.core.ProjectId;
+import com.google.solutions.jitaccess.core.QuotaExceededException;
+import com.google.solutions.jitaccess.core.UserEmail;
+import com.google.solutions.jitaccess.core.clients.PolicyAnalyzerClient;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TestPolicyAnalysisCache {
+  private static final String SCOPE = "organizations/0";
+  private static final UserEmail SAMPLE_USER = new UserEmail("user@example.com");
+  private static final ProjectId SAMPLE_PROJECT = new ProjectId("project-1");
+
+  private static PolicyAnalyzerClient createClient() throws Exception {
+    var client = Mockito.mock(PolicyAnalyzerClient.class);
+    when(client.findAccessibleResourcesByUser(
+        eq(SCOPE),
+        eq(SAMPLE_USER),
+        any(),
+        any(),
+        anyBoolean()))
+        .thenReturn(new IamPolicyAnalysis())
+        .thenReturn(new IamPolicyAnalysis());
+    return client;
+  }
+
+  private static PolicyAnalysisCache.Result find(
+      PolicyAnalysisCache cache,
+      ProjectId projectId) throws Exception {
+    return cache.findAccessibleResourcesByUser(
+        SCOPE,
+        SAMPLE_USER,
+        Optional.empty(),
+        Optional.of(projectId.getFullResourceName()),
+        false);
+  }
+
+  // -------------------------------------------------------------------------
+  // findAccessibleResourcesByUser.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenResultCached_ThenFindAccessibleResourcesByUserReturnsCachedResult() throws Exception {
+    var client = createClient();
+    var cache = new PolicyAnalysisCache(client, Duration.ofMinutes(1), Duration.ofMinutes(5), 10);
+
+    var first = find(cache, SAMPLE_PROJECT);
+    var second = find(cache, SAMPLE_PROJECT);
+
+    assertSame(first.analysis(), second.analysis());
+    assertFalse(second.stale());
+    verify(client, times(1)).findAccessibleResourcesByUser(any(), any(), any(), any(), anyBoolean());
+    assertEquals(1, cache.stats().hitCount());
+  }
+
+  @Test
+  public void whenQueryDiffers_ThenFindAccessibleResourcesByUserQueriesAgain() throws Exception {
+    var client = createClient();
+    var cache = new PolicyAnalysisCache(client, Duration.ofMinutes(1), Duration.ofMinutes(5), 10);
+
+    find(cache, SAMPLE_PROJECT);
+    cache.findAccessibleResourcesByUser(
+        SCOPE,
+        SAMPLE_USER,
+        Optional.empty(),
+        Optional.of(SAMPLE_PROJECT.getFullResourceName()),
+        true);
+
+    verify(client, times(2)).findAccessibleResourcesByUser(any(), any(), any(), any(), anyBoolean());
+  }
+
+  @Test
+  public void whenResultExpired_ThenFindAccessibleResourcesByUserQueriesAgain() throws Exception {
+    var client = createClient();
+    var cache = new PolicyAnalysisCache(client, Duration.ZERO, Duration.ofMinutes(5), 10);
+
+    var first = find(cache, SAMPLE_PROJECT);
+    var second = find(cache, SAMPLE_PROJECT);
+
+    assertNotSame(first.analysis(), second.analysis());
+    verify(client, times(2)).findAccessibleResourcesByUser(any(), any(), any(), any(), anyBoolean());
+  }
+
+  @Test
+  public void whenQuotaExceededAndStaleResultAvailable_ThenFindAccessibleResourcesByUserReturnsStaleResult()
+      throws Exception {
+    var client = Mockito.mock(PolicyAnalyzerClient.class);
+    when(client.findAccessibleResourcesByUser(any(), any(), any(), any(), anyBoolean()))
+        .thenReturn(new IamPolicyAnalysis())
+        .thenThrow(new QuotaExceededException("mock", null));
+
+    var cache = new PolicyAnalysisCache(client, Duration.ZERO, Duration.ofMinutes(5), 10);
+
+    var first = find(cache, SAMPLE_PROJECT);
+    var second = find(cache, SAMPLE_PROJECT);
+
+    assertFalse(first.stale());
+    assertTrue(second.stale());
+    assertSame(first.analysis(), second.analysis());
+    assertEquals(first.retrieved(), second.retrieved());
+  }
+
+  @Test
+  public void whenQuotaExceededAndNoResultAvailable_ThenFindAccessibleResourcesByUserThrowsException()
+      throws Exception {
+    var client = Mockito.mock(PolicyAnalyzerClient.class);
+    when(client.findAccessibleResourcesByUser(any(), any(), any(), any(), anyBoolean()))
+        .thenThrow(new QuotaExceededException("mock", null));
+
+    var cache = new PolicyAnalysisCache(client, Duration.ZERO, Duration.ofMinutes(5), 10);
+
+    assertThrows(
+        QuotaExceededException.class,
+        () -> find(cache, SAMPLE_PROJECT));
+  }
+
+  // -------------------------------------------------------------------------
+  // invalidate.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenInvalidated_ThenFindAccessibleResourcesByUserQueriesAgain() throws Exception {
+    var client = createClient();
+    var cache = new PolicyAnalysisCache(client, Duration.ofMinutes(1), Duration.ofMinutes(5), 10);
+
+    find(cache, SAMPLE_PROJECT);
+    cache.invalidate(SAMPLE_PROJECT.getFullResourceName());
+    find(cache, SAMPLE_PROJECT);
+
+    verify(client, times(2)).findAccessibleResourcesByUser(any(), any(), any(), any(), anyBoolean());
+  }
+
+  @Test
+  public void whenOtherResourceInvalidated_ThenFindAccessibleResourcesByUserReturnsCachedResult()
+      throws Exception {
+    var client = createClient();
+    var cache = new PolicyAnalysisCache(client, Duration.ofMinutes(1), Duration.ofMinutes(5), 10);
+
+    find(cache, SAMPLE_PROJECT);
+    cache.invalidate(new ProjectId("project-2").getFullResourceName());
+    find(cache, SAMPLE_PROJECT);
+
+    verify(client, times(1)).findAccessibleResourcesByUser(any(), any(), any(), any(), anyBoolean());
+  }
+}
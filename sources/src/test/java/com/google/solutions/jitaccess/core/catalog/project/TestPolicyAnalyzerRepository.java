@@ -24,7 +24,11 @@ package com.google.solutions.jitaccess.core.catalog.project;
 import com.google.api.services.cloudasset.v1.model.*;
 import com.google.api.services.directory.model.Privilege;
 import com.google.solutions.jitaccess.cel.TemporaryIamCondition;
+import com.google.solutions.jitaccess.core.AccessDeniedException;
+import com.google.solutions.jitaccess.core.FolderId;
+import com.google.solutions.jitaccess.core.OrganizationId;
 import com.google.solutions.jitaccess.core.ProjectId;
+import com.google.solutions.jitaccess.core.QuotaExceededException;
 import com.google.solutions.jitaccess.core.RoleBinding;
 import com.google.solutions.jitaccess.core.UserEmail;
 import com.google.solutions.jitaccess.core.catalog.ExternalApproval;
@@ -37,16 +41,23 @@ import com.google.solutions.jitaccess.core.clients.ResourceManagerClient;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class TestPolicyAnalyzerRepository {
@@ -267,6 +278,172 @@ public class TestPolicyAnalyzerRepository {
     assertTrue(projectIds.contains(SAMPLE_PROJECT_ID_3));
   }
 
+  // ---------------------------------------------------------------------
+  // findProjectsWithRequesterPrivileges - split by folder.
+  // ---------------------------------------------------------------------
+
+  private static PolicyAnalyzerRepository.Options createFolderAnalysisOptions(String scope) {
+    return new PolicyAnalyzerRepository.Options(
+        scope,
+        PolicyAnalyzerRepository.Options.DEFAULT_ANALYSIS_CACHE_DURATION,
+        PolicyAnalyzerRepository.Options.DEFAULT_STALE_ANALYSIS_CACHE_DURATION,
+        PolicyAnalyzerRepository.Options.DEFAULT_ANALYSIS_CACHE_SIZE,
+        2);
+  }
+
+  @Test
+  public void whenSplitByFolderEnabledWithoutResourceManagerClient_ThenConstructorThrowsException() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new PolicyAnalyzerRepository(
+            Mockito.mock(PolicyAnalyzerClient.class),
+            createFolderAnalysisOptions("organizations/0")));
+  }
+
+  @Test
+  public void whenScopeIsOrganization_ThenFindProjectsWithRequesterPrivilegesMergesFolderAnalyses()
+      throws Exception {
+    var assetAdapter = Mockito.mock(PolicyAnalyzerClient.class);
+    var resourceManagerAdapter = Mockito.mock(ResourceManagerClient.class);
+
+    when(resourceManagerAdapter.listFolders(eq(new OrganizationId("0"))))
+        .thenReturn(new TreeSet<>(List.of(new FolderId("1"), new FolderId("2"))));
+    when(resourceManagerAdapter.searchProjectIds(eq("parent:organizations/0")))
+        .thenReturn(new TreeSet<>(List.of(SAMPLE_PROJECT_ID_3)));
+
+    when(assetAdapter
+        .findAccessibleResourcesByUser(
+            eq("organizations/0"),
+            eq(SAMPLE_USER),
+            eq(Optional.of("resourcemanager.projects.get")),
+            eq(Optional.of("//cloudresourcemanager.googleapis.com/folders/1")),
+            eq(true)))
+        .thenReturn(new IamPolicyAnalysis()
+            .setAnalysisResults(List.of(
+                createConditionalIamPolicyAnalysisResult(
+                    SAMPLE_PROJECT_ID_1.getFullResourceName(),
+                    SAMPLE_ROLE_1,
+                    SAMPLE_USER,
+                    SELF_APPROVAL_CONDITION,
+                    "eligible binding",
+                    "CONDITIONAL"))));
+    when(assetAdapter
+        .findAccessibleResourcesByUser(
+            eq("organizations/0"),
+            eq(SAMPLE_USER),
+            eq(Optional.of("resourcemanager.projects.get")),
+            eq(Optional.of("//cloudresourcemanager.googleapis.com/folders/2")),
+            eq(true)))
+        .thenReturn(new IamPolicyAnalysis()
+            .setAnalysisResults(List.of(
+                createIamPolicyAnalysisResult(
+                    SAMPLE_PROJECT_ID_2.getFullResourceName(),
+                    SAMPLE_ROLE_1,
+                    SAMPLE_USER))));
+    when(assetAdapter
+        .findAccessibleResourcesByUser(
+            eq("organizations/0"),
+            eq(SAMPLE_USER),
+            eq(Optional.of("resourcemanager.projects.get")),
+            eq(Optional.of(SAMPLE_PROJECT_ID_3.getFullResourceName())),
+            eq(false)))
+        .thenReturn(new IamPolicyAnalysis()
+            .setAnalysisResults(List.of(
+                createConditionalIamPolicyAnalysisResult(
+                    SAMPLE_PROJECT_ID_3.getFullResourceName(),
+                    SAMPLE_ROLE_1,
+                    SAMPLE_USER,
+                    PEER_CONDITION,
+                    "eligible binding",
+                    "CONDITIONAL"))));
+
+    var executor = Executors.newFixedThreadPool(2);
+    try {
+      var service = new PolicyAnalyzerRepository(
+          executor,
+          resourceManagerAdapter,
+          assetAdapter,
+          createFolderAnalysisOptions("organizations/0"));
+
+      var projectIds = service.findProjectsWithRequesterPrivileges(SAMPLE_USER);
+      assertEquals(
+          List.of(SAMPLE_PROJECT_ID_1, SAMPLE_PROJECT_ID_2, SAMPLE_PROJECT_ID_3),
+          List.copyOf(projectIds));
+
+      verify(assetAdapter, never()).findAccessibleResourcesByUser(
+          anyString(),
+          eq(SAMPLE_USER),
+          eq(Optional.of("resourcemanager.projects.get")),
+          eq(Optional.empty()),
+          eq(true));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void whenScopeIsProject_ThenFindProjectsWithRequesterPrivilegesAnalyzesScopeAsWhole()
+      throws Exception {
+    var assetAdapter = Mockito.mock(PolicyAnalyzerClient.class);
+    var resourceManagerAdapter = Mockito.mock(ResourceManagerClient.class);
+
+    when(assetAdapter
+        .findAccessibleResourcesByUser(
+            eq("projects/project-1"),
+            eq(SAMPLE_USER),
+            eq(Optional.of("resourcemanager.projects.get")),
+            eq(Optional.empty()),
+            eq(true)))
+        .thenReturn(new IamPolicyAnalysis()
+            .setAnalysisResults(List.of(
+                createIamPolicyAnalysisResult(
+                    SAMPLE_PROJECT_ID_1.getFullResourceName(),
+                    SAMPLE_ROLE_1,
+                    SAMPLE_USER))));
+
+    var service = new PolicyAnalyzerRepository(
+        Runnable::run,
+        resourceManagerAdapter,
+        assetAdapter,
+        createFolderAnalysisOptions("projects/project-1"));
+
+    var projectIds = service.findProjectsWithRequesterPrivileges(SAMPLE_USER);
+    assertEquals(1, projectIds.size());
+    assertTrue(projectIds.contains(SAMPLE_PROJECT_ID_1));
+
+    verify(resourceManagerAdapter, never()).listFolders(any());
+  }
+
+  @Test
+  public void whenFolderAnalysisFails_ThenFindProjectsWithRequesterPrivilegesThrowsException()
+      throws Exception {
+    var assetAdapter = Mockito.mock(PolicyAnalyzerClient.class);
+    var resourceManagerAdapter = Mockito.mock(ResourceManagerClient.class);
+
+    when(resourceManagerAdapter.listFolders(eq(new FolderId("1"))))
+        .thenReturn(new TreeSet<>(List.of(new FolderId("2"))));
+    when(resourceManagerAdapter.searchProjectIds(anyString()))
+        .thenReturn(new TreeSet<>());
+    when(assetAdapter
+        .findAccessibleResourcesByUser(
+            anyString(),
+            eq(SAMPLE_USER),
+            any(),
+            any(),
+            anyBoolean()))
+        .thenThrow(new AccessDeniedException("mock"));
+
+    var service = new PolicyAnalyzerRepository(
+        Runnable::run,
+        resourceManagerAdapter,
+        assetAdapter,
+        createFolderAnalysisOptions("folders/1"));
+
+    assertThrows(
+        AccessDeniedException.class,
+        () -> service.findProjectsWithRequesterPrivileges(SAMPLE_USER));
+  }
+
   // ---------------------------------------------------------------------
   // FindRequesterPrivileges.
   // ---------------------------------------------------------------------
@@ -1473,6 +1650,145 @@ public class TestPolicyAnalyzerRepository {
     assertEquals(RequesterPrivilege.Status.ACTIVE, privilege.status());
   }
 
+  @Test
+  public void whenQuotaExceeded_ThenFindRequesterPrivilegesReturnsStaleResultWithWarning() throws Exception {
+    var assetAdapter = Mockito.mock(PolicyAnalyzerClient.class);
+
+    when(assetAdapter
+        .findAccessibleResourcesByUser(
+            anyString(),
+            eq(SAMPLE_USER),
+            eq(Optional.empty()),
+            eq(Optional.of(SAMPLE_PROJECT_ID_1.getFullResourceName())),
+            eq(false)))
+        .thenReturn(new IamPolicyAnalysis()
+            .setAnalysisResults(List.of(createConditionalIamPolicyAnalysisResult(
+                SAMPLE_PROJECT_ID_1.getFullResourceName(),
+                SAMPLE_ROLE_1,
+                SAMPLE_USER,
+                SELF_APPROVAL_CONDITION,
+                "eligible binding",
+                "CONDITIONAL"))))
+        .thenThrow(new QuotaExceededException("mock", null));
+
+    var service = new PolicyAnalyzerRepository(
+        assetAdapter,
+        new PolicyAnalyzerRepository.Options(
+            "organizations/0",
+            Duration.ZERO,
+            Duration.ofMinutes(1),
+            10,
+            0));
+
+    service.findRequesterPrivileges(
+        SAMPLE_USER,
+        SAMPLE_PROJECT_ID_1,
+        Set.of(new SelfApproval()),
+        EnumSet.of(RequesterPrivilege.Status.INACTIVE));
+    var privileges = service.findRequesterPrivileges(
+        SAMPLE_USER,
+        SAMPLE_PROJECT_ID_1,
+        Set.of(new SelfApproval()),
+        EnumSet.of(RequesterPrivilege.Status.INACTIVE));
+
+    assertEquals(1, privileges.warnings().size());
+    assertEquals(1, privileges.available().size());
+  }
+
+  // ---------------------------------------------------------------------
+  // findRequesterPrivilegesForAccessCheck.
+  // ---------------------------------------------------------------------
+
+  @Test
+  public void whenResultCached_ThenFindRequesterPrivilegesForAccessCheckQueriesAgain() throws Exception {
+    var assetAdapter = Mockito.mock(PolicyAnalyzerClient.class);
+
+    when(assetAdapter
+        .findAccessibleResourcesByUser(
+            anyString(),
+            eq(SAMPLE_USER),
+            eq(Optional.empty()),
+            eq(Optional.of(SAMPLE_PROJECT_ID_1.getFullResourceName())),
+            eq(false)))
+        .thenReturn(new IamPolicyAnalysis()
+            .setAnalysisResults(List.of(createConditionalIamPolicyAnalysisResult(
+                SAMPLE_PROJECT_ID_1.getFullResourceName(),
+                SAMPLE_ROLE_1,
+                SAMPLE_USER,
+                SELF_APPROVAL_CONDITION,
+                "eligible binding",
+                "CONDITIONAL"))))
+        .thenReturn(new IamPolicyAnalysis());
+
+    var service = new PolicyAnalyzerRepository(
+        assetAdapter,
+        new PolicyAnalyzerRepository.Options(
+            "organizations/0",
+            Duration.ofMinutes(1),
+            Duration.ofMinutes(1),
+            10,
+            0));
+
+    var cachedPrivileges = service.findRequesterPrivileges(
+        SAMPLE_USER,
+        SAMPLE_PROJECT_ID_1,
+        Set.of(new SelfApproval()),
+        EnumSet.of(RequesterPrivilege.Status.INACTIVE));
+    assertEquals(1, cachedPrivileges.available().size());
+
+    var currentPrivileges = service.findRequesterPrivilegesForAccessCheck(
+        SAMPLE_USER,
+        SAMPLE_PROJECT_ID_1,
+        Set.of(new SelfApproval()),
+        EnumSet.of(RequesterPrivilege.Status.INACTIVE));
+    assertEquals(0, currentPrivileges.available().size());
+  }
+
+  @Test
+  public void whenQuotaExceeded_ThenFindRequesterPrivilegesForAccessCheckThrowsException() throws Exception {
+    var assetAdapter = Mockito.mock(PolicyAnalyzerClient.class);
+
+    when(assetAdapter
+        .findAccessibleResourcesByUser(
+            anyString(),
+            eq(SAMPLE_USER),
+            eq(Optional.empty()),
+            eq(Optional.of(SAMPLE_PROJECT_ID_1.getFullResourceName())),
+            eq(false)))
+        .thenReturn(new IamPolicyAnalysis()
+            .setAnalysisResults(List.of(createConditionalIamPolicyAnalysisResult(
+                SAMPLE_PROJECT_ID_1.getFullResourceName(),
+                SAMPLE_ROLE_1,
+                SAMPLE_USER,
+                SELF_APPROVAL_CONDITION,
+                "eligible binding",
+                "CONDITIONAL"))))
+        .thenThrow(new QuotaExceededException("mock", null));
+
+    var service = new PolicyAnalyzerRepository(
+        assetAdapter,
+        new PolicyAnalyzerRepository.Options(
+            "organizations/0",
+            Duration.ZERO,
+            Duration.ofMinutes(1),
+            10,
+            0));
+
+    service.findRequesterPrivileges(
+        SAMPLE_USER,
+        SAMPLE_PROJECT_ID_1,
+        Set.of(new SelfApproval()),
+        EnumSet.of(RequesterPrivilege.Status.INACTIVE));
+
+    assertThrows(
+        QuotaExceededException.class,
+        () -> service.findRequesterPrivilegesForAccessCheck(
+            SAMPLE_USER,
+            SAMPLE_PROJECT_ID_1,
+            Set.of(new SelfApproval()),
+            EnumSet.of(RequesterPrivilege.Status.INACTIVE)));
+  }
+
   // ----------------------------------------s-----------------------------
   // findReviewerPrivelegeHolders.
   // ---------------------------------------------------------------------
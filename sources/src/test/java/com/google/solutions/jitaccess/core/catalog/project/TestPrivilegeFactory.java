@@ -31,6 +31,9 @@ import com.google.solutions.jitaccess.core.catalog.SelfApproval;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.stream.Collectors;
@@ -300,4 +303,51 @@ public class TestPrivilegeFactory {
         new ProjectRoleBinding(new RoleBinding(new ProjectId("project"), "role")), condition);
     assertTrue(privilege.isEmpty());
   }
-}
\ No newline at end of file
+
+  // ---------------------------------------------------------------------
+  // classify
+  // ---------------------------------------------------------------------
+
+  @Test
+  public void whenConditionIsNull_ThenClassifyReturnsNone() {
+    var classification = PrivilegeFactory.classify(null);
+    assertFalse(classification.isRequesterPrivilege());
+    assertFalse(classification.isReviewerPrivilegeFor(new PeerApproval("")));
+  }
+
+  @Test
+  public void whenConditionIsTemporaryCondition_ThenClassifyReturnsNone() {
+    var classification = PrivilegeFactory.classify(new Expr()
+        .setExpression("(request.time >= timestamp(\"2020-01-01T00:00:00Z\") && "
+            + "request.time < timestamp(\"2020-01-01T00:05:00Z\"))"));
+    assertFalse(classification.isRequesterPrivilege());
+    assertNull(classification.reviewerType());
+  }
+
+  @Test
+  public void whenConditionIsPeerApproval_ThenClassifyReturnsRequesterAndReviewerType() {
+    var classification = PrivilegeFactory.classify(new Expr()
+        .setExpression("has({}.multipartyApprovalConstraint.topic)"));
+    assertTrue(classification.isRequesterPrivilege());
+    assertEquals(new PeerApproval("topic").name(), classification.requesterType().name());
+    assertTrue(classification.isReviewerPrivilegeFor(new PeerApproval("topic")));
+    assertFalse(classification.isReviewerPrivilegeFor(new PeerApproval("other")));
+    assertFalse(classification.isReviewerPrivilegeFor(new ExternalApproval("topic")));
+  }
+
+  @Test
+  public void whenConditionIsReviewerPrivilege_ThenClassifyReturnsReviewerTypeOnly() {
+    var classification = PrivilegeFactory.classify(new Expr()
+        .setExpression("has({}.reviewerPrivilege)"));
+    assertFalse(classification.isRequesterPrivilege());
+    assertTrue(classification.isReviewerPrivilegeFor(new ExternalApproval("topic")));
+  }
+
+  @Test
+  public void whenConditionClassifiedBefore_ThenClassifyReturnsCachedClassification() {
+    var expression = "has({}.externalApprovalConstraint.cached)";
+    var first = PrivilegeFactory.classify(new Expr().setExpression(expression));
+    var second = PrivilegeFactory.classify(new Expr().setExpression(expression));
+    assertSame(first, second);
+  }
+}
@@ -38,9 +38,11 @@ import org.mockito.Mockito;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
@@ -138,6 +140,64 @@ public class TestProjectRoleActivator {
             eq("Approved by approver@example.com, justification: justification"));
   }
 
+  // -------------------------------------------------------------------------
+  // provisionAccess - multiple requests.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void provisionAccessForMultipleRequestsUpdatesPolicyOncePerProject() throws Exception {
+    var resourceManagerClient = Mockito.mock(ResourceManagerClient.class);
+    var activator = new ProjectRoleActivator(
+        Mockito.mock(RequesterPrivilegeCatalog.class),
+        resourceManagerClient,
+        Mockito.mock(JustificationPolicy.class));
+
+    var otherProject = new ProjectId("project-2");
+    var requests = activator.createActivationRequests(
+        SAMPLE_REQUESTING_USER,
+        Set.of(),
+        List.of(
+            new RequesterPrivilege<ProjectRoleBinding>(
+                new ProjectRoleBinding(new RoleBinding(SAMPLE_PROJECT, SAMPLE_ROLE_1)),
+                SAMPLE_ROLE_1,
+                new SelfApproval(),
+                Status.INACTIVE),
+            new RequesterPrivilege<ProjectRoleBinding>(
+                new ProjectRoleBinding(new RoleBinding(SAMPLE_PROJECT, SAMPLE_ROLE_2)),
+                SAMPLE_ROLE_2,
+                new SelfApproval(),
+                Status.INACTIVE),
+            new RequesterPrivilege<ProjectRoleBinding>(
+                new ProjectRoleBinding(new RoleBinding(otherProject, SAMPLE_ROLE_1)),
+                SAMPLE_ROLE_1,
+                new SelfApproval(),
+                Status.INACTIVE)),
+        "justification",
+        Instant.now(),
+        Duration.ofMinutes(5));
+
+    var activations = activator.approveAll(SAMPLE_REQUESTING_USER, requests);
+
+    assertEquals(3, activations.size());
+
+    verify(resourceManagerClient, times(1))
+        .addProjectIamBindings(
+            eq(SAMPLE_PROJECT),
+            argThat(bindings -> bindings.size() == 2 && bindings
+                .stream()
+                .allMatch(b -> TemporaryIamCondition.isTemporaryAccessCondition(b.getCondition().getExpression()))),
+            eq(EnumSet.of(ResourceManagerClient.IamBindingOptions.PURGE_EXISTING_TEMPORARY_BINDINGS)),
+            eq("Approved by user@example.com, justification: justification"));
+    verify(resourceManagerClient, times(1))
+        .addProjectIamBindings(
+            eq(otherProject),
+            argThat(bindings -> bindings.size() == 1),
+            eq(EnumSet.of(ResourceManagerClient.IamBindingOptions.PURGE_EXISTING_TEMPORARY_BINDINGS)),
+            eq("Approved by user@example.com, justification: justification"));
+    verify(resourceManagerClient, times(0))
+        .addProjectIamBinding(any(), any(), any(), any());
+  }
+
   // -------------------------------------------------------------------------
   // createTokenConverter.
   // -------------------------------------------------------------------------
@@ -27,7 +27,11 @@ import com.google.solutions.jitaccess.core.ProjectId;
 import com.google.solutions.jitaccess.core.ResourceNotFoundException;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ITestAssetInventoryClient {
   private static final ProjectId SAMPLE_PROJECT = new ProjectId("project-1");
@@ -74,4 +78,51 @@ public class ITestAssetInventoryClient {
             "projects/" + ITestEnvironment.PROJECT_ID,
             new ProjectId("0")));
   }
+
+  // -------------------------------------------------------------------------
+  // batchGetEffectiveIamPolicies.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenCallerLacksPermission_ThenBatchGetEffectiveIamPoliciesThrowsException() {
+    var adapter = new PolicyAnalyzerClient(
+        ITestEnvironment.NO_ACCESS_CREDENTIALS,
+        HttpTransport.Options.DEFAULT);
+
+    assertThrows(
+        AccessDeniedException.class,
+        () -> adapter.batchGetEffectiveIamPolicies(
+            "folders/0",
+            List.of(SAMPLE_PROJECT, new ProjectId("project-2"))));
+  }
+
+  @Test
+  public void whenProjectsEmpty_ThenBatchGetEffectiveIamPoliciesReturnsEmptyMap() throws Exception {
+    var adapter = new PolicyAnalyzerClient(
+        ITestEnvironment.APPLICATION_CREDENTIALS,
+        HttpTransport.Options.DEFAULT);
+
+    var policies = adapter.batchGetEffectiveIamPolicies(
+        "projects/" + ITestEnvironment.PROJECT_ID,
+        List.of());
+
+    assertTrue(policies.isEmpty());
+  }
+
+  @Test
+  public void whenOneProjectDoesNotExist_ThenBatchGetEffectiveIamPoliciesReturnsOthers() throws Exception {
+    var adapter = new PolicyAnalyzerClient(
+        ITestEnvironment.APPLICATION_CREDENTIALS,
+        HttpTransport.Options.DEFAULT);
+
+    var existingProject = new ProjectId(ITestEnvironment.PROJECT_ID);
+    var missingProject = new ProjectId("0");
+
+    var policies = adapter.batchGetEffectiveIamPolicies(
+        "projects/" + ITestEnvironment.PROJECT_ID,
+        List.of(existingProject, missingProject));
+
+    assertTrue(policies.containsKey(existingProject));
+    assertFalse(policies.containsKey(missingProject));
+  }
 }
@@ -33,10 +33,12 @@ import com.google.solutions.jitaccess.cel.TemporaryIamCondition;
 import com.google.solutions.jitaccess.core.AccessDeniedException;
 import com.google.solutions.jitaccess.core.AlreadyExistsException;
 import com.google.solutions.jitaccess.core.NotAuthenticatedException;
+import com.google.solutions.jitaccess.core.OrganizationId;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 
@@ -467,4 +469,34 @@ public class ITestResourceManagerClient {
     assertTrue(ancestry.size() > 1);
     assertEquals(ITestEnvironment.PROJECT_ID, ancestry.stream().findFirst().get());
   }
+
+  // ---------------------------------------------------------------------
+  // listFolders.
+  // ---------------------------------------------------------------------
+
+  @Test
+  public void whenUnauthenticated_ThenListFoldersThrowsException() {
+    var adapter = new ResourceManagerClient(
+        ITestEnvironment.INVALID_CREDENTIAL,
+        HttpTransport.Options.DEFAULT);
+
+    assertThrows(
+        NotAuthenticatedException.class,
+        () -> adapter.listFolders(new OrganizationId("0")));
+  }
+
+  @Test
+  public void whenAuthorized_ThenListFoldersReturnsFoldersOfParent() throws Exception {
+    var adapter = new ResourceManagerClient(
+        ITestEnvironment.APPLICATION_CREDENTIALS,
+        HttpTransport.Options.DEFAULT);
+
+    var ancestry = new ArrayList<>(adapter.getAncestry(ITestEnvironment.PROJECT_ID));
+    var parent = ancestry.get(1);
+
+    var folders = adapter.listFolders(parent);
+
+    assertNotNull(folders);
+    assertFalse(folders.contains(parent));
+  }
 }
@@ -0,0 +1,129 @@
+//
+// Copyright 2023 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.clients;
+
+import com.google.api.services.directory.model.Group;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.solutions.jitaccess.core.UserEmail;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TestDirectoryGroupsClient {
+  private static final UserEmail SAMPLE_USER_1 = new UserEmail("user-1@example.com");
+  private static final UserEmail SAMPLE_USER_2 = new UserEmail("user-2@example.com");
+
+  private static DirectoryGroupsClient createClient(Duration cacheDuration, int cacheSize) throws Exception {
+    var client = Mockito.spy(new DirectoryGroupsClient(
+        Mockito.mock(GoogleCredentials.class),
+        new DirectoryGroupsClient.Options("C123", cacheDuration, cacheSize),
+        HttpTransport.Options.DEFAULT));
+
+    doReturn(List.of(new Group().setEmail("group-1@example.com")))
+        .when(client)
+        .fetchDirectGroupMemberships(eq(SAMPLE_USER_1));
+    doReturn(List.of(new Group().setEmail("group-2@example.com")))
+        .when(client)
+        .fetchDirectGroupMemberships(eq(SAMPLE_USER_2));
+
+    return client;
+  }
+
+  // -------------------------------------------------------------------------
+  // Options.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenCacheDurationIsNegative_ThenOptionsThrowsException() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new DirectoryGroupsClient.Options("C123", Duration.ofSeconds(-1), 10));
+  }
+
+  @Test
+  public void whenCacheSizeIsNegative_ThenOptionsThrowsException() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new DirectoryGroupsClient.Options("C123", Duration.ofSeconds(1), -1));
+  }
+
+  // -------------------------------------------------------------------------
+  // listDirectGroupMemberships.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenMembershipsCached_ThenListDirectGroupMembershipsReturnsCachedResult() throws Exception {
+    var client = createClient(Duration.ofMinutes(1), 10);
+
+    var first = client.listDirectGroupMemberships(SAMPLE_USER_1);
+    var second = client.listDirectGroupMemberships(SAMPLE_USER_1);
+
+    assertEquals(1, first.size());
+    assertSame(first, second);
+
+    verify(client, times(1)).fetchDirectGroupMemberships(eq(SAMPLE_USER_1));
+    assertEquals(1, client.getMembershipCacheStats().hitCount());
+    assertEquals(1, client.getMembershipCacheStats().missCount());
+  }
+
+  @Test
+  public void whenUsersDiffer_ThenListDirectGroupMembershipsCachesEachUser() throws Exception {
+    var client = createClient(Duration.ofMinutes(1), 10);
+
+    assertEquals(
+        "group-1@example.com",
+        client.listDirectGroupMemberships(SAMPLE_USER_1).stream().findFirst().get().getEmail());
+    assertEquals(
+        "group-2@example.com",
+        client.listDirectGroupMemberships(SAMPLE_USER_2).stream().findFirst().get().getEmail());
+
+    assertEquals(2, client.getMembershipCacheStats().missCount());
+  }
+
+  @Test
+  public void whenCacheDisabled_ThenListDirectGroupMembershipsFetchesEveryTime() throws Exception {
+    var client = createClient(Duration.ZERO, 0);
+
+    client.listDirectGroupMemberships(SAMPLE_USER_1);
+    client.listDirectGroupMemberships(SAMPLE_USER_1);
+
+    verify(client, times(2)).fetchDirectGroupMemberships(eq(SAMPLE_USER_1));
+  }
+
+  @Test
+  public void whenCacheFull_ThenListDirectGroupMembershipsEvictsEntries() throws Exception {
+    var client = createClient(Duration.ofMinutes(1), 1);
+
+    client.listDirectGroupMemberships(SAMPLE_USER_1);
+    client.listDirectGroupMemberships(SAMPLE_USER_2);
+    client.listDirectGroupMemberships(SAMPLE_USER_1);
+
+    verify(client, times(2)).fetchDirectGroupMemberships(eq(SAMPLE_USER_1));
+    assertTrue(client.getMembershipCacheStats().evictionCount() >= 1);
+  }
+}
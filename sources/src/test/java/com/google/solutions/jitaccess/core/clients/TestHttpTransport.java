@@ -0,0 +1,91 @@
+//
+// Copyright 2023 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.clients;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHttpTransport {
+  // -------------------------------------------------------------------------
+  // getSharedTransport.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void getSharedTransportReturnsSameInstance() throws Exception {
+    assertSame(
+        HttpTransport.getSharedTransport(),
+        HttpTransport.getSharedTransport());
+  }
+
+  // -------------------------------------------------------------------------
+  // Options.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenMaxConnectionsPerHostIsNegative_ThenOptionsThrowsException() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new HttpTransport.Options(Duration.ZERO, Duration.ZERO, Duration.ZERO, -1));
+  }
+
+  @Test
+  public void defaultOptionsUseDefaultConnectionPool() {
+    assertEquals(0, HttpTransport.Options.DEFAULT.maxConnectionsPerHost());
+  }
+
+  // -------------------------------------------------------------------------
+  // CachedClient.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void cachedClientCreatesClientOnce() throws Exception {
+    var invocations = new AtomicInteger();
+    var client = new HttpTransport.CachedClient<>(
+        "Test",
+        transport -> {
+          assertSame(HttpTransport.getSharedTransport(), transport);
+          return invocations.incrementAndGet();
+        });
+
+    assertEquals(1, client.get());
+    assertEquals(1, client.get());
+    assertEquals(1, invocations.get());
+  }
+
+  @Test
+  public void whenFactoryThrowsGeneralSecurityException_ThenCachedClientThrowsIOException() {
+    var client = new HttpTransport.CachedClient<Object>(
+        "Test",
+        transport -> {
+          throw new GeneralSecurityException("mock");
+        });
+
+    var exception = assertThrows(IOException.class, client::get);
+    assertInstanceOf(GeneralSecurityException.class, exception.getCause());
+  }
+}
@@ -0,0 +1,366 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.clients;
+
+import com.google.solutions.jitaccess.core.AccessDeniedException;
+import com.google.solutions.jitaccess.core.AlreadyExistsException;
+import com.google.solutions.jitaccess.core.ThrowingCompletableFuture;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIamPolicyUpdateQueue {
+  private static final String SAMPLE_RESOURCE = "resource-1";
+
+  private static void awaitQueueLength(
+      IamPolicyUpdateQueue<String, String> queue,
+      int length
+  ) throws InterruptedException {
+    for (int i = 0; i < 500 && queue.queueLength(SAMPLE_RESOURCE) < length; i++) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(length, queue.queueLength(SAMPLE_RESOURCE));
+  }
+
+  // -------------------------------------------------------------------------
+  // submit.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenQueueIdle_ThenSubmitWritesUpdate() throws Exception {
+    var batches = new ArrayList<List<String>>();
+    var queue = new IamPolicyUpdateQueue<String, String>(
+        Duration.ZERO,
+        (resource, batch) -> batches.add(batch
+            .stream()
+            .map(IamPolicyUpdateQueue.PendingUpdate::update)
+            .collect(Collectors.toList())));
+
+    queue.submit(SAMPLE_RESOURCE, "update-1");
+    queue.submit(SAMPLE_RESOURCE, "update-2");
+
+    assertEquals(List.of(List.of("update-1"), List.of("update-2")), batches);
+    assertEquals(0, queue.queueLength(SAMPLE_RESOURCE));
+  }
+
+  @Test
+  public void whenWriteInProgress_ThenSubmitCoalescesUpdates() throws Exception {
+    var writeStarted = new CountDownLatch(1);
+    var releaseWrite = new CountDownLatch(1);
+    var batches = new ArrayList<List<String>>();
+
+    var queue = new IamPolicyUpdateQueue<String, String>(
+        Duration.ZERO,
+        (resource, batch) -> {
+          synchronized (batches) {
+            batches.add(batch
+                .stream()
+                .map(IamPolicyUpdateQueue.PendingUpdate::update)
+                .collect(Collectors.toList()));
+          }
+
+          writeStarted.countDown();
+          try {
+            releaseWrite.await();
+          } catch (InterruptedException ignored) {
+          }
+        });
+
+    var executor = Executors.newFixedThreadPool(3);
+    try {
+      var first = ThrowingCompletableFuture.submit(
+          () -> {
+            queue.submit(SAMPLE_RESOURCE, "update-1");
+            return null;
+          },
+          executor);
+      assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+
+      var second = ThrowingCompletableFuture.submit(
+          () -> {
+            queue.submit(SAMPLE_RESOURCE, "update-2");
+            return null;
+          },
+          executor);
+      var third = ThrowingCompletableFuture.submit(
+          () -> {
+            queue.submit(SAMPLE_RESOURCE, "update-3");
+            return null;
+          },
+          executor);
+
+      awaitQueueLength(queue, 2);
+      releaseWrite.countDown();
+
+      first.get(5, TimeUnit.SECONDS);
+      second.get(5, TimeUnit.SECONDS);
+      third.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(2, batches.size());
+    assertEquals(List.of("update-1"), batches.get(0));
+    assertEquals(2, batches.get(1).size());
+    assertTrue(batches.get(1).containsAll(List.of("update-2", "update-3")));
+    assertEquals(0, queue.queueLength(SAMPLE_RESOURCE));
+  }
+
+  @Test
+  public void whenWriterFailsSingleUpdate_ThenSubmitOnlyFailsThatUpdate() throws Exception {
+    var writeStarted = new CountDownLatch(1);
+    var releaseWrite = new CountDownLatch(1);
+
+    var queue = new IamPolicyUpdateQueue<String, String>(
+        Duration.ZERO,
+        (resource, batch) -> {
+          writeStarted.countDown();
+          try {
+            releaseWrite.await();
+          } catch (InterruptedException ignored) {
+          }
+
+          batch
+              .stream()
+              .filter(p -> p.update().equals("conflict"))
+              .forEach(p -> p.fail(new AlreadyExistsException("mock")));
+        });
+
+    var executor = Executors.newFixedThreadPool(3);
+    try {
+      var first = ThrowingCompletableFuture.submit(
+          () -> {
+            queue.submit(SAMPLE_RESOURCE, "update-1");
+            return null;
+          },
+          executor);
+      assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+
+      var conflicting = ThrowingCompletableFuture.submit(
+          () -> {
+            queue.submit(SAMPLE_RESOURCE, "conflict");
+            return null;
+          },
+          executor);
+      var other = ThrowingCompletableFuture.submit(
+          () -> {
+            queue.submit(SAMPLE_RESOURCE, "update-2");
+            return null;
+          },
+          executor);
+
+      awaitQueueLength(queue, 2);
+      releaseWrite.countDown();
+
+      first.get(5, TimeUnit.SECONDS);
+      other.get(5, TimeUnit.SECONDS);
+
+      var exception = assertThrows(
+          ExecutionException.class,
+          () -> conflicting.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(AlreadyExistsException.class, exception.getCause());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void whenWriterThrowsException_ThenSubmitWritesUpdatesIndividually() throws Exception {
+    var writeStarted = new CountDownLatch(1);
+    var releaseWrite = new CountDownLatch(1);
+    var batches = new ArrayList<List<String>>();
+
+    var queue = new IamPolicyUpdateQueue<String, String>(
+        Duration.ZERO,
+        (resource, batch) -> {
+          var updates = batch
+              .stream()
+              .map(IamPolicyUpdateQueue.PendingUpdate::update)
+              .collect(Collectors.toList());
+          synchronized (batches) {
+            batches.add(updates);
+          }
+
+          writeStarted.countDown();
+          try {
+            releaseWrite.await();
+          } catch (InterruptedException ignored) {
+          }
+
+          if (updates.contains("invalid")) {
+            throw new AccessDeniedException("mock");
+          }
+        });
+
+    var executor = Executors.newFixedThreadPool(3);
+    try {
+      var first = ThrowingCompletableFuture.submit(
+          () -> {
+            queue.submit(SAMPLE_RESOURCE, "update-1");
+            return null;
+          },
+          executor);
+      assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+
+      var invalid = ThrowingCompletableFuture.submit(
+          () -> {
+            queue.submit(SAMPLE_RESOURCE, "invalid");
+            return null;
+          },
+          executor);
+      var valid = ThrowingCompletableFuture.submit(
+          () -> {
+            queue.submit(SAMPLE_RESOURCE, "update-2");
+            return null;
+          },
+          executor);
+
+      awaitQueueLength(queue, 2);
+      releaseWrite.countDown();
+
+      first.get(5, TimeUnit.SECONDS);
+      valid.get(5, TimeUnit.SECONDS);
+
+      var exception = assertThrows(
+          ExecutionException.class,
+          () -> invalid.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(AccessDeniedException.class, exception.getCause());
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(4, batches.size());
+    assertEquals(List.of("update-1"), batches.get(0));
+    assertEquals(2, batches.get(1).size());
+    assertEquals(1, batches.get(2).size());
+    assertEquals(1, batches.get(3).size());
+  }
+
+  @Test
+  public void whenWriterThrowsError_ThenSubmitFailsWaitingUpdates() throws Exception {
+    var writeStarted = new CountDownLatch(1);
+    var releaseWrite = new CountDownLatch(1);
+
+    var queue = new IamPolicyUpdateQueue<String, String>(
+        Duration.ZERO,
+        (resource, batch) -> {
+          writeStarted.countDown();
+          try {
+            releaseWrite.await();
+          } catch (InterruptedException ignored) {
+          }
+
+          if (batch.size() > 1) {
+            throw new Error("mock");
+          }
+        });
+
+    //
+    // Report Errors as a result so that they don't escape the executor.
+    //
+    ThrowingCompletableFuture.ThrowingSupplier<String> submitUpdate = () -> {
+      try {
+        queue.submit(SAMPLE_RESOURCE, "update");
+        return "ok";
+      } catch (Error e) {
+        return "error";
+      }
+    };
+
+    var executor = Executors.newFixedThreadPool(3);
+    try {
+      var first = ThrowingCompletableFuture.submit(submitUpdate, executor);
+      assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+
+      var second = ThrowingCompletableFuture.submit(submitUpdate, executor);
+      var third = ThrowingCompletableFuture.submit(submitUpdate, executor);
+
+      awaitQueueLength(queue, 2);
+      releaseWrite.countDown();
+
+      assertEquals("ok", first.get(5, TimeUnit.SECONDS));
+
+      //
+      // The writer of the batch sees the Error, the other
+      // caller sees an exception.
+      //
+      var outcomes = new ArrayList<String>();
+      for (var future : List.of(second, third)) {
+        try {
+          outcomes.add(future.get(5, TimeUnit.SECONDS));
+        } catch (ExecutionException e) {
+          assertInstanceOf(IOException.class, e.getCause());
+          outcomes.add("exception");
+        }
+      }
+
+      assertTrue(outcomes.containsAll(List.of("error", "exception")));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void whenQueueIdle_ThenSubmitDoesNotWaitForWindow() throws Exception {
+    var queue = new IamPolicyUpdateQueue<String, String>(
+        Duration.ofMinutes(1),
+        (resource, batch) -> {});
+
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      var future = ThrowingCompletableFuture.submit(
+          () -> {
+            queue.submit(SAMPLE_RESOURCE, "update-1");
+            return null;
+          },
+          executor);
+
+      future.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void whenResourcesDiffer_ThenSubmitDoesNotCoalesceUpdates() throws Exception {
+    var resources = new ArrayList<String>();
+    var queue = new IamPolicyUpdateQueue<String, String>(
+        Duration.ZERO,
+        (resource, batch) -> resources.add(resource));
+
+    queue.submit("resource-1", "update");
+    queue.submit("resource-2", "update");
+
+    assertEquals(List.of("resource-1", "resource-2"), resources);
+  }
+}
@@ -0,0 +1,373 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.clients;
+
+import com.google.api.services.pubsub.model.PubsubMessage;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TestPubSubPublisher {
+  private static final PubSubTopic TOPIC_1 = new PubSubTopic("project-1", "topic-1");
+  private static final PubSubTopic TOPIC_2 = new PubSubTopic("project-1", "topic-2");
+  private static final Duration NO_DELAY_FLUSH = Duration.ofHours(1);
+
+  private static PubsubMessage createMessage(String data) {
+    return new PubsubMessage().encodeData(data.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Create a client that uses the message data as message ID.
+   */
+  private static PubSubClient createClient() throws Exception {
+    var client = Mockito.mock(PubSubClient.class);
+    when(client.publish(any(), anyList()))
+        .thenAnswer(invocation -> ((List<PubsubMessage>) invocation.getArgument(1))
+            .stream()
+            .map(m -> new String(m.decodeData(), StandardCharsets.UTF_8))
+            .toList());
+    return client;
+  }
+
+  /**
+   * Executor that holds back tasks, which lets tests keep a publish
+   * request in flight.
+   */
+  private static class HoldingExecutor implements Executor {
+    private final List<Runnable> heldTasks = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean holding = true;
+
+    @Override
+    public void execute(Runnable command) {
+      if (this.holding) {
+        this.heldTasks.add(command);
+      }
+      else {
+        command.run();
+      }
+    }
+
+    int getHeldCount() {
+      return this.heldTasks.size();
+    }
+
+    void stopHolding() {
+      this.holding = false;
+    }
+
+    void release() {
+      stopHolding();
+
+      List<Runnable> tasks;
+      synchronized (this.heldTasks) {
+        tasks = new ArrayList<>(this.heldTasks);
+        this.heldTasks.clear();
+      }
+
+      tasks.forEach(Runnable::run);
+    }
+  }
+
+  // -------------------------------------------------------------------------
+  // publish.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenNoRequestInFlight_ThenPublishSendsMessageImmediately() throws Exception {
+    var client = createClient();
+
+    try (var publisher = new PubSubPublisher(
+        client,
+        Runnable::run,
+        new PubSubPublisher.Options(100, PubSubPublisher.Options.DEFAULT_MAX_BYTES, NO_DELAY_FLUSH))) {
+
+      var first = publisher.publish(TOPIC_1, createMessage("first"));
+      assertTrue(first.isDone());
+      assertEquals("first", first.get());
+
+      var second = publisher.publish(TOPIC_1, createMessage("second"));
+      assertTrue(second.isDone());
+      assertEquals("second", second.get());
+
+      assertEquals(0, publisher.getBufferedCount(TOPIC_1));
+    }
+  }
+
+  @Test
+  public void whenRequestInFlight_ThenPublishBuffersMessage() throws Exception {
+    var client = createClient();
+    var executor = new HoldingExecutor();
+
+    try (var publisher = new PubSubPublisher(
+        client,
+        executor,
+        new PubSubPublisher.Options(100, PubSubPublisher.Options.DEFAULT_MAX_BYTES, NO_DELAY_FLUSH))) {
+
+      publisher.publish(TOPIC_1, createMessage("in-flight"));
+      assertEquals(1, executor.getHeldCount());
+      assertEquals(0, publisher.getBufferedCount(TOPIC_1));
+
+      var buffered = publisher.publish(TOPIC_1, createMessage("buffered"));
+      assertFalse(buffered.isDone());
+      assertEquals(1, executor.getHeldCount());
+      assertEquals(1, publisher.getBufferedCount(TOPIC_1));
+    }
+  }
+
+  @Test
+  public void whenRequestCompletes_ThenPublishSendsBufferedMessages() throws Exception {
+    var client = createClient();
+    var executor = new HoldingExecutor();
+
+    try (var publisher = new PubSubPublisher(
+        client,
+        executor,
+        new PubSubPublisher.Options(100, PubSubPublisher.Options.DEFAULT_MAX_BYTES, NO_DELAY_FLUSH))) {
+
+      var inFlight = publisher.publish(TOPIC_1, createMessage("in-flight"));
+      var first = publisher.publish(TOPIC_1, createMessage("first"));
+      var second = publisher.publish(TOPIC_1, createMessage("second"));
+
+      executor.release();
+
+      assertEquals("in-flight", inFlight.get());
+      assertEquals("first", first.get());
+      assertEquals("second", second.get());
+      assertEquals(0, publisher.getBufferedCount(TOPIC_1));
+
+      verify(client, times(1)).publish(eq(TOPIC_1), argThat((List<PubsubMessage> l) -> l.size() == 1));
+      verify(client, times(1)).publish(eq(TOPIC_1), argThat((List<PubsubMessage> l) -> l.size() == 2));
+    }
+  }
+
+  @Test
+  public void whenBatchReachesMaxMessages_ThenPublishSendsBatch() throws Exception {
+    var client = createClient();
+    var executor = new HoldingExecutor();
+
+    try (var publisher = new PubSubPublisher(
+        client,
+        executor,
+        new PubSubPublisher.Options(2, PubSubPublisher.Options.DEFAULT_MAX_BYTES, NO_DELAY_FLUSH))) {
+
+      publisher.publish(TOPIC_1, createMessage("in-flight"));
+
+      var first = publisher.publish(TOPIC_1, createMessage("first"));
+      assertEquals(1, publisher.getBufferedCount(TOPIC_1));
+
+      var second = publisher.publish(TOPIC_1, createMessage("second"));
+      assertEquals(0, publisher.getBufferedCount(TOPIC_1));
+      assertEquals(2, executor.getHeldCount());
+
+      executor.release();
+
+      assertEquals("first", first.get());
+      assertEquals("second", second.get());
+
+      verify(client, times(1)).publish(eq(TOPIC_1), argThat((List<PubsubMessage> l) -> l.size() == 2));
+    }
+  }
+
+  @Test
+  public void whenMessageExceedsMaxBytes_ThenPublishSendsPreviousBatch() throws Exception {
+    var client = createClient();
+    var executor = new HoldingExecutor();
+
+    var message = createMessage("message");
+    var maxBytes = PubSubPublisher.estimateSize(message) + 1;
+
+    try (var publisher = new PubSubPublisher(
+        client,
+        executor,
+        new PubSubPublisher.Options(100, maxBytes, NO_DELAY_FLUSH))) {
+
+      publisher.publish(TOPIC_1, createMessage("in-flight"));
+
+      var first = publisher.publish(TOPIC_1, message);
+      assertEquals(1, publisher.getBufferedCount(TOPIC_1));
+      assertEquals(1, executor.getHeldCount());
+
+      publisher.publish(TOPIC_1, createMessage("message"));
+      assertEquals(1, publisher.getBufferedCount(TOPIC_1));
+      assertEquals(2, executor.getHeldCount());
+
+      executor.release();
+
+      assertEquals("message", first.get());
+    }
+  }
+
+  @Test
+  public void whenMessageLargerThanMaxBytes_ThenPublishSendsMessageImmediately() throws Exception {
+    var client = createClient();
+    var executor = new HoldingExecutor();
+
+    try (var publisher = new PubSubPublisher(
+        client,
+        executor,
+        new PubSubPublisher.Options(100, 1, NO_DELAY_FLUSH))) {
+
+      publisher.publish(TOPIC_1, createMessage("in-flight"));
+
+      var future = publisher.publish(TOPIC_1, createMessage("message"));
+      assertEquals(0, publisher.getBufferedCount(TOPIC_1));
+
+      executor.release();
+
+      assertEquals("message", future.get());
+    }
+  }
+
+  @Test
+  public void whenMaxDelayElapses_ThenPublishSendsBatch() throws Exception {
+    var client = createClient();
+    var executor = new HoldingExecutor();
+
+    try (var publisher = new PubSubPublisher(
+        client,
+        executor,
+        new PubSubPublisher.Options(100, PubSubPublisher.Options.DEFAULT_MAX_BYTES, Duration.ofMillis(10)))) {
+
+      //
+      // Keep the first request in flight, so that the second message
+      // is only published because of its delay.
+      //
+      publisher.publish(TOPIC_1, createMessage("in-flight"));
+      executor.stopHolding();
+
+      var future = publisher.publish(TOPIC_1, createMessage("message"));
+
+      assertEquals("message", future.get(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void whenTopicsDiffer_ThenPublishUsesSeparateBatches() throws Exception {
+    var client = createClient();
+    var executor = new HoldingExecutor();
+
+    try (var publisher = new PubSubPublisher(
+        client,
+        executor,
+        new PubSubPublisher.Options(100, PubSubPublisher.Options.DEFAULT_MAX_BYTES, NO_DELAY_FLUSH))) {
+
+      var first = publisher.publish(TOPIC_1, createMessage("first"));
+      var second = publisher.publish(TOPIC_2, createMessage("second"));
+
+      assertEquals(2, executor.getHeldCount());
+
+      executor.release();
+
+      assertEquals("first", first.get());
+      assertEquals("second", second.get());
+    }
+  }
+
+  @Test
+  public void whenPublishingBatchFails_ThenAllFuturesFail() throws Exception {
+    var client = Mockito.mock(PubSubClient.class);
+    when(client.publish(eq(TOPIC_1), anyList()))
+        .thenThrow(new IOException("mock"));
+
+    var executor = new HoldingExecutor();
+
+    try (var publisher = new PubSubPublisher(
+        client,
+        executor,
+        new PubSubPublisher.Options(100, PubSubPublisher.Options.DEFAULT_MAX_BYTES, NO_DELAY_FLUSH))) {
+
+      publisher.publish(TOPIC_1, createMessage("in-flight"));
+
+      var first = publisher.publish(TOPIC_1, createMessage("first"));
+      var second = publisher.publish(TOPIC_1, createMessage("second"));
+
+      executor.release();
+
+      var exception = assertThrows(ExecutionException.class, first::get);
+      assertInstanceOf(IOException.class, exception.getCause());
+
+      exception = assertThrows(ExecutionException.class, second::get);
+      assertInstanceOf(IOException.class, exception.getCause());
+
+      verify(client, times(1)).publish(eq(TOPIC_1), argThat((List<PubsubMessage> l) -> l.size() == 2));
+    }
+  }
+
+  // -------------------------------------------------------------------------
+  // close.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenClosed_ThenBufferedMessagesAreSent() throws Exception {
+    var client = createClient();
+    var executor = new HoldingExecutor();
+
+    var publisher = new PubSubPublisher(
+        client,
+        executor,
+        new PubSubPublisher.Options(100, PubSubPublisher.Options.DEFAULT_MAX_BYTES, NO_DELAY_FLUSH));
+
+    publisher.publish(TOPIC_1, createMessage("in-flight"));
+
+    var future = publisher.publish(TOPIC_1, createMessage("message"));
+    assertFalse(future.isDone());
+
+    publisher.close();
+    assertEquals(0, publisher.getBufferedCount(TOPIC_1));
+    assertEquals(2, executor.getHeldCount());
+
+    executor.release();
+
+    assertEquals("message", future.get());
+  }
+
+  @Test
+  public void whenClosed_ThenPublishFails() {
+    var client = Mockito.mock(PubSubClient.class);
+    var publisher = new PubSubPublisher(
+        client,
+        Runnable::run,
+        new PubSubPublisher.Options());
+
+    publisher.close();
+
+    var future = publisher.publish(TOPIC_1, createMessage("message"));
+    var exception = assertThrows(ExecutionException.class, future::get);
+    assertInstanceOf(IllegalStateException.class, exception.getCause());
+  }
+}
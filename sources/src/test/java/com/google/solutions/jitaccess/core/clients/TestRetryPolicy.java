@@ -0,0 +1,282 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.clients;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRetryPolicy {
+  private static final RetryPolicy.Options SAMPLE_OPTIONS = new RetryPolicy.Options(
+      4,
+      Duration.ofMillis(100),
+      Duration.ofSeconds(1),
+      Duration.ofSeconds(10),
+      10,
+      0.1);
+
+  private static MockHttpTransport createTransport(List<MockLowLevelHttpResponse> responses) {
+    var queue = new ArrayDeque<>(responses);
+    return new MockHttpTransport() {
+      @Override
+      public LowLevelHttpRequest buildRequest(String method, String url) {
+        return new MockLowLevelHttpRequest() {
+          @Override
+          public LowLevelHttpResponse execute() {
+            return queue.remove();
+          }
+        };
+      }
+    };
+  }
+
+  // -------------------------------------------------------------------------
+  // isRetryableStatusCode.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenStatusCodeIsTransient_ThenIsRetryableStatusCodeReturnsTrue() {
+    assertTrue(RetryPolicy.isRetryableStatusCode(429));
+    assertTrue(RetryPolicy.isRetryableStatusCode(503));
+    assertFalse(RetryPolicy.isRetryableStatusCode(400));
+    assertFalse(RetryPolicy.isRetryableStatusCode(403));
+    assertFalse(RetryPolicy.isRetryableStatusCode(412));
+  }
+
+  // -------------------------------------------------------------------------
+  // parseRetryAfter.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenValueMissingOrInvalid_ThenParseRetryAfterReturnsEmpty() {
+    assertFalse(RetryPolicy.parseRetryAfter(null, Instant.now()).isPresent());
+    assertFalse(RetryPolicy.parseRetryAfter("", Instant.now()).isPresent());
+    assertFalse(RetryPolicy.parseRetryAfter("soon", Instant.now()).isPresent());
+  }
+
+  @Test
+  public void whenValueIsSeconds_ThenParseRetryAfterReturnsDuration() {
+    assertEquals(
+        Duration.ofSeconds(5),
+        RetryPolicy.parseRetryAfter(" 5 ", Instant.now()).get());
+  }
+
+  @Test
+  public void whenValueIsDate_ThenParseRetryAfterReturnsDuration() {
+    var now = Instant.parse("2024-01-01T00:00:00Z");
+    var date = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+        now.plusSeconds(30).atOffset(ZoneOffset.UTC));
+
+    assertEquals(
+        Duration.ofSeconds(30),
+        RetryPolicy.parseRetryAfter(date, now).get());
+    assertEquals(
+        Duration.ZERO,
+        RetryPolicy.parseRetryAfter(date, now.plusSeconds(60)).get());
+  }
+
+  // -------------------------------------------------------------------------
+  // backoff.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void backoffIsJitteredAndCapped() {
+    var policy = new RetryPolicy("test", SAMPLE_OPTIONS);
+
+    for (int i = 0; i < 100; i++) {
+      var first = policy.backoff(1);
+      assertFalse(first.isNegative());
+      assertTrue(first.compareTo(SAMPLE_OPTIONS.initialBackoff()) <= 0);
+
+      var third = policy.backoff(3);
+      assertTrue(third.compareTo(SAMPLE_OPTIONS.initialBackoff().multipliedBy(4)) <= 0);
+
+      var late = policy.backoff(100);
+      assertTrue(late.compareTo(SAMPLE_OPTIONS.maxBackoff()) <= 0);
+    }
+  }
+
+  // -------------------------------------------------------------------------
+  // awaitRetry.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenAttemptsExhausted_ThenAwaitRetryReturnsFalse() {
+    var sleeps = new ArrayList<Long>();
+    var policy = new RetryPolicy("test", SAMPLE_OPTIONS, sleeps::add);
+
+    assertTrue(policy.awaitRetry(1, null));
+    assertTrue(policy.awaitRetry(2, null));
+    assertTrue(policy.awaitRetry(3, null));
+    assertFalse(policy.awaitRetry(4, null));
+
+    assertEquals(3, sleeps.size());
+    assertEquals(3, policy.getStats().retries());
+    assertEquals(1, policy.getStats().giveUps());
+  }
+
+  @Test
+  public void whenRetryAfterProvided_ThenAwaitRetryHonorsDelay() {
+    var sleeps = new ArrayList<Long>();
+    var policy = new RetryPolicy("test", SAMPLE_OPTIONS, sleeps::add);
+
+    assertTrue(policy.awaitRetry(1, Duration.ofSeconds(2)));
+    assertEquals(List.of(2000L), sleeps);
+  }
+
+  @Test
+  public void whenRetryAfterExceedsMax_ThenAwaitRetryReturnsFalse() {
+    var sleeps = new ArrayList<Long>();
+    var policy = new RetryPolicy("test", SAMPLE_OPTIONS, sleeps::add);
+
+    assertFalse(policy.awaitRetry(1, SAMPLE_OPTIONS.maxRetryAfter().plusSeconds(1)));
+    assertTrue(sleeps.isEmpty());
+    assertEquals(1, policy.getStats().giveUps());
+  }
+
+  @Test
+  public void whenBudgetExhausted_ThenAwaitRetryReturnsFalseUntilReplenished() {
+    var policy = new RetryPolicy(
+        "test",
+        new RetryPolicy.Options(
+            4,
+            Duration.ZERO,
+            Duration.ZERO,
+            Duration.ZERO,
+            2,
+            0.5),
+        millis -> {});
+
+    assertTrue(policy.awaitRetry(1, null));
+    assertTrue(policy.awaitRetry(1, null));
+    assertFalse(policy.awaitRetry(1, null));
+
+    policy.onSuccess();
+    assertFalse(policy.awaitRetry(1, null));
+
+    policy.onSuccess();
+    assertTrue(policy.awaitRetry(1, null));
+  }
+
+  @Test
+  public void whenBudgetUnlimited_ThenAwaitRetryIgnoresBudget() {
+    var policy = new RetryPolicy(
+        "test",
+        new RetryPolicy.Options(
+            4,
+            Duration.ZERO,
+            Duration.ZERO,
+            Duration.ZERO,
+            RetryPolicy.Options.UNLIMITED_BUDGET,
+            0),
+        millis -> {});
+
+    for (int i = 0; i < 100; i++) {
+      assertTrue(policy.awaitRetry(1, null));
+    }
+
+    assertFalse(policy.awaitRetry(4, null));
+  }
+
+  // -------------------------------------------------------------------------
+  // initialize.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenResponseIsTransientError_ThenRequestIsRetried() throws Exception {
+    var sleeps = new ArrayList<Long>();
+    var policy = new RetryPolicy("test", SAMPLE_OPTIONS, sleeps::add);
+
+    var transport = createTransport(List.of(
+        new MockLowLevelHttpResponse().setStatusCode(503),
+        new MockLowLevelHttpResponse().setStatusCode(429).addHeader("Retry-After", "1"),
+        new MockLowLevelHttpResponse().setStatusCode(200)));
+
+    var response = transport
+        .createRequestFactory(policy::initialize)
+        .buildGetRequest(new GenericUrl("https://example.com/"))
+        .execute();
+
+    assertEquals(200, response.getStatusCode());
+    assertEquals(2, sleeps.size());
+    assertEquals(1000L, sleeps.get(1));
+
+    var stats = policy.getStats();
+    assertEquals(3, stats.attempts());
+    assertEquals(2, stats.retries());
+    assertEquals(0, stats.giveUps());
+  }
+
+  @Test
+  public void whenResponseIsPermanentError_ThenRequestIsNotRetried() throws Exception {
+    var policy = new RetryPolicy("test", SAMPLE_OPTIONS, millis -> {});
+
+    var transport = createTransport(List.of(
+        new MockLowLevelHttpResponse().setStatusCode(403)));
+
+    var request = transport
+        .createRequestFactory(policy::initialize)
+        .buildGetRequest(new GenericUrl("https://example.com/"));
+
+    var exception = assertThrows(HttpResponseException.class, request::execute);
+    assertEquals(403, exception.getStatusCode());
+    assertEquals(0, policy.getStats().retries());
+  }
+
+  @Test
+  public void whenTransientErrorPersists_ThenRequestGivesUp() throws Exception {
+    var policy = new RetryPolicy("test", SAMPLE_OPTIONS, millis -> {});
+
+    var transport = createTransport(List.of(
+        new MockLowLevelHttpResponse().setStatusCode(503),
+        new MockLowLevelHttpResponse().setStatusCode(503),
+        new MockLowLevelHttpResponse().setStatusCode(503),
+        new MockLowLevelHttpResponse().setStatusCode(503)));
+
+    var request = transport
+        .createRequestFactory(policy::initialize)
+        .buildGetRequest(new GenericUrl("https://example.com/"));
+
+    var exception = assertThrows(HttpResponseException.class, request::execute);
+    assertEquals(503, exception.getStatusCode());
+
+    var stats = policy.getStats();
+    assertEquals(4, stats.attempts());
+    assertEquals(3, stats.retries());
+    assertEquals(1, stats.giveUps());
+  }
+}
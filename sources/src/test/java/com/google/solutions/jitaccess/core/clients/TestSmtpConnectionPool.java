@@ -0,0 +1,178 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.clients;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TestSmtpConnectionPool {
+  private static MimeMessage createMessage() {
+    return new MimeMessage(Session.getInstance(new Properties()));
+  }
+
+  private static Transport createTransport() {
+    var transport = Mockito.mock(Transport.class);
+    when(transport.isConnected()).thenReturn(true);
+    return transport;
+  }
+
+  // -------------------------------------------------------------------------
+  // send.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenSendingMultipleMessages_ThenSendUsesSingleConnection() throws Exception {
+    var transport = createTransport();
+    var factory = Mockito.mock(SmtpConnectionPool.TransportFactory.class);
+    when(factory.connect()).thenReturn(transport);
+
+    var pool = new SmtpConnectionPool(factory, 2, Duration.ofMinutes(1));
+    pool.send(List.of(createMessage(), createMessage(), createMessage()));
+
+    verify(factory, times(1)).connect();
+    verify(transport, times(3)).sendMessage(any(), any());
+    assertEquals(1, pool.getIdleCount());
+  }
+
+  @Test
+  public void whenConnectionIdle_ThenSendReusesConnection() throws Exception {
+    var transport = createTransport();
+    var factory = Mockito.mock(SmtpConnectionPool.TransportFactory.class);
+    when(factory.connect()).thenReturn(transport);
+
+    var pool = new SmtpConnectionPool(factory, 2, Duration.ofMinutes(1));
+    pool.send(List.of(createMessage()));
+    pool.send(List.of(createMessage()));
+
+    verify(factory, times(1)).connect();
+    verify(transport, times(2)).sendMessage(any(), any());
+  }
+
+  @Test
+  public void whenConnectionIdleForTooLong_ThenSendClosesItAndOpensNewConnection() throws Exception {
+    var staleTransport = createTransport();
+    var freshTransport = createTransport();
+    var factory = Mockito.mock(SmtpConnectionPool.TransportFactory.class);
+    when(factory.connect())
+        .thenReturn(staleTransport)
+        .thenReturn(freshTransport);
+
+    var pool = new SmtpConnectionPool(factory, 2, Duration.ZERO);
+    pool.send(List.of(createMessage()));
+    Thread.sleep(10);
+    pool.send(List.of(createMessage()));
+
+    verify(staleTransport, times(1)).close();
+    verify(freshTransport, times(1)).sendMessage(any(), any());
+  }
+
+  @Test
+  public void whenPooledConnectionBroken_ThenSendReconnects() throws Exception {
+    var brokenTransport = createTransport();
+    var freshTransport = createTransport();
+    var factory = Mockito.mock(SmtpConnectionPool.TransportFactory.class);
+    when(factory.connect())
+        .thenReturn(brokenTransport)
+        .thenReturn(freshTransport);
+
+    var pool = new SmtpConnectionPool(factory, 2, Duration.ofMinutes(1));
+    pool.send(List.of(createMessage()));
+
+    //
+    // Let the server close the pooled connection.
+    //
+    doThrow(new MessagingException("mock")).when(brokenTransport).sendMessage(any(), any());
+    when(brokenTransport.isConnected()).thenReturn(false);
+
+    pool.send(List.of(createMessage(), createMessage()));
+
+    verify(brokenTransport, times(1)).close();
+    verify(freshTransport, times(2)).sendMessage(any(), any());
+    assertEquals(1, pool.getIdleCount());
+  }
+
+  @Test
+  public void whenNewConnectionBroken_ThenSendThrowsException() throws Exception {
+    var transport = createTransport();
+    doThrow(new MessagingException("mock")).when(transport).sendMessage(any(), any());
+    when(transport.isConnected()).thenReturn(false);
+
+    var factory = Mockito.mock(SmtpConnectionPool.TransportFactory.class);
+    when(factory.connect()).thenReturn(transport);
+
+    var pool = new SmtpConnectionPool(factory, 2, Duration.ofMinutes(1));
+
+    assertThrows(
+        MessagingException.class,
+        () -> pool.send(List.of(createMessage())));
+    verify(factory, times(1)).connect();
+    assertEquals(0, pool.getIdleCount());
+  }
+
+  @Test
+  public void whenMessageRejected_ThenSendThrowsExceptionAndKeepsConnection() throws Exception {
+    var transport = createTransport();
+    doThrow(new SendFailedException("mock")).when(transport).sendMessage(any(), any());
+
+    var factory = Mockito.mock(SmtpConnectionPool.TransportFactory.class);
+    when(factory.connect()).thenReturn(transport);
+
+    var pool = new SmtpConnectionPool(factory, 2, Duration.ofMinutes(1));
+
+    assertThrows(
+        SendFailedException.class,
+        () -> pool.send(List.of(createMessage())));
+    verify(transport, never()).close();
+    assertEquals(1, pool.getIdleCount());
+  }
+
+  // -------------------------------------------------------------------------
+  // close.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void closeClosesIdleConnections() throws Exception {
+    var transport = createTransport();
+    var factory = Mockito.mock(SmtpConnectionPool.TransportFactory.class);
+    when(factory.connect()).thenReturn(transport);
+
+    var pool = new SmtpConnectionPool(factory, 2, Duration.ofMinutes(1));
+    pool.send(List.of(createMessage()));
+    pool.close();
+
+    verify(transport, times(1)).close();
+    assertEquals(0, pool.getIdleCount());
+  }
+}
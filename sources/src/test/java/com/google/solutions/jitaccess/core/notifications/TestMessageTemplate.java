@@ -111,4 +111,76 @@ public class TestMessageTemplate {
         "TEST-1=Fri, 2 Jan 1970 10:00:00 +1000",
         template.format(notification).trim());
   }
+
+  @Test
+  public void whenPropertyUnknown_ThenFormatRetainsPlaceholder() {
+    var notification = new TestNotification(
+        new UserEmail("user@example.com"),
+        "Test email",
+        Map.of("TEST-1", "value1"),
+        "ignored-templateid");
+
+    var template = new MailNotificationService.MessageTemplate(
+        "{{TEST-1}}, {{UNKNOWN}}, {{INCOMPLETE",
+        MailNotificationService.Options.DEFAULT_TIMEZONE,
+        HtmlEscapers.htmlEscaper());
+
+    assertEquals(
+        "value1, {{UNKNOWN}}, {{INCOMPLETE",
+        template.format(notification));
+  }
+
+  @Test
+  public void whenPlaceholderUsedRepeatedly_ThenFormatReplacesAllOccurrences() {
+    var notification = new TestNotification(
+        new UserEmail("user@example.com"),
+        "Test email",
+        Map.of("TEST-1", "value1"),
+        "ignored-templateid");
+
+    var template = new MailNotificationService.MessageTemplate(
+        "<p>{{TEST-1}}</p><p>{{TEST-1}}</p>",
+        MailNotificationService.Options.DEFAULT_TIMEZONE,
+        HtmlEscapers.htmlEscaper());
+
+    assertEquals(
+        "<p>value1</p><p>value1</p>",
+        template.format(notification));
+  }
+
+  @Test
+  public void whenPropertyContainsPlaceholder_ThenFormatDoesNotExpandPlaceholder() {
+    var notification = new TestNotification(
+        new UserEmail("user@example.com"),
+        "Test email",
+        Map.of("TEST-1", "{{TEST-2}}", "TEST-2", "value2"),
+        "ignored-templateid");
+
+    var template = new MailNotificationService.MessageTemplate(
+        "{{TEST-1}}",
+        MailNotificationService.Options.DEFAULT_TIMEZONE,
+        HtmlEscapers.htmlEscaper());
+
+    assertEquals(
+        "{{TEST-2}}",
+        template.format(notification));
+  }
+
+  @Test
+  public void whenPropertyIsCollection_ThenFormatJoinsValues() {
+    var notification = new TestNotification(
+        new UserEmail("user@example.com"),
+        "Test email",
+        Map.of("TEST-1", List.of("a", "b")),
+        "ignored-templateid");
+
+    var template = new MailNotificationService.MessageTemplate(
+        "{{TEST-1}}",
+        MailNotificationService.Options.DEFAULT_TIMEZONE,
+        HtmlEscapers.htmlEscaper());
+
+    assertEquals(
+        "a, b",
+        template.format(notification));
+  }
 }
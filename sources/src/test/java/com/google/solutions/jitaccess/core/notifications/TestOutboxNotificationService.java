@@ -0,0 +1,344 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.core.notifications;
+
+import com.google.solutions.jitaccess.core.UserEmail;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TestOutboxNotificationService {
+  private static final UserEmail SAMPLE_USER_1 = new UserEmail("alice@example.com");
+  private static final UserEmail SAMPLE_USER_2 = new UserEmail("bob@example.com");
+
+  @TempDir
+  Path tempDirectory;
+
+  private class SampleNotification extends NotificationService.Notification {
+    protected SampleNotification(
+        Collection<UserEmail> toRecipients,
+        Collection<UserEmail> ccRecipients,
+        String subject) {
+      super(toRecipients, ccRecipients, subject);
+
+      this.properties.put("STRING", "this is a string");
+      this.properties.put("INSTANT", Instant.ofEpochSecond(0));
+      this.properties.put("USER_LIST", List.of(SAMPLE_USER_1, SAMPLE_USER_2));
+    }
+
+    @Override
+    protected boolean isReply() {
+      return true;
+    }
+
+    @Override
+    public String getType() {
+      return "SampleNotification";
+    }
+  }
+
+  private static OutboxNotificationService.Options createOptions(
+      int capacity,
+      int maxAttempts,
+      Path file) {
+    return new OutboxNotificationService.Options(
+        capacity,
+        maxAttempts,
+        Duration.ZERO,
+        1,
+        file);
+  }
+
+  // -------------------------------------------------------------------------
+  // sendNotification.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenOutboxHasCapacity_ThenSendNotificationQueuesNotification() throws Exception {
+    var delegate = Mockito.mock(NotificationService.class);
+    var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, null));
+
+    outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject"));
+
+    verify(delegate, never()).sendNotification(any());
+    assertEquals(1, outbox.getPendingCount());
+  }
+
+  @Test
+  public void whenOutboxFull_ThenSendNotificationDeliversSynchronously() throws Exception {
+    var delegate = Mockito.mock(NotificationService.class);
+    var outbox = new OutboxNotificationService(delegate, createOptions(1, 1, null));
+
+    outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject-1"));
+    outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject-2"));
+
+    verify(delegate, times(1)).sendNotification(any());
+    assertEquals(1, outbox.getPendingCount());
+  }
+
+  @Test
+  public void whenOutboxClosed_ThenSendNotificationDeliversSynchronously() throws Exception {
+    var delegate = Mockito.mock(NotificationService.class);
+    var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, null));
+    outbox.close();
+
+    outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject"));
+
+    verify(delegate, times(1)).sendNotification(any());
+    assertEquals(0, outbox.getPendingCount());
+  }
+
+  // -------------------------------------------------------------------------
+  // deliverNext.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenOutboxEmpty_ThenDeliverNextReturnsFalse() throws Exception {
+    var delegate = Mockito.mock(NotificationService.class);
+    var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, null));
+
+    assertFalse(outbox.deliverNext(Duration.ZERO));
+  }
+
+  @Test
+  public void whenNotificationQueued_ThenDeliverNextDeliversCopy() throws Exception {
+    var delegate = Mockito.mock(NotificationService.class);
+    var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, null));
+
+    outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(SAMPLE_USER_2), "subject"));
+    assertTrue(outbox.deliverNext(Duration.ZERO));
+
+    var captor = ArgumentCaptor.forClass(NotificationService.Notification.class);
+    verify(delegate, times(1)).sendNotification(captor.capture());
+
+    var delivered = captor.getValue();
+    assertEquals("SampleNotification", delivered.getType());
+    assertEquals("subject", delivered.getSubject());
+    assertTrue(delivered.isReply());
+    assertEquals(List.of(SAMPLE_USER_1), List.copyOf(delivered.getToRecipients()));
+    assertEquals(List.of(SAMPLE_USER_2), List.copyOf(delivered.getCcRecipients()));
+    assertEquals("this is a string", delivered.properties.get("STRING"));
+    assertEquals(Instant.ofEpochSecond(0), delivered.properties.get("INSTANT"));
+    assertEquals(List.of("alice@example.com", "bob@example.com"), delivered.properties.get("USER_LIST"));
+
+    assertEquals(0, outbox.getPendingCount());
+  }
+
+  @Test
+  public void whenDeliveryFailsOnce_ThenDeliverNextRetries() throws Exception {
+    var delegate = Mockito.mock(NotificationService.class);
+    doThrow(new NotificationService.NotificationException("mock", null))
+        .doNothing()
+        .when(delegate)
+        .sendNotification(any());
+
+    var outbox = new OutboxNotificationService(delegate, createOptions(10, 3, null));
+
+    outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject"));
+    assertTrue(outbox.deliverNext(Duration.ZERO));
+    assertEquals(1, outbox.getPendingCount());
+
+    assertTrue(outbox.deliverNext(Duration.ZERO));
+    assertEquals(0, outbox.getPendingCount());
+    assertEquals(0, outbox.getDeadLetterCount());
+
+    verify(delegate, times(2)).sendNotification(any());
+  }
+
+  @Test
+  public void whenDeliveryFailsRepeatedly_ThenNotificationIsDeadLettered() throws Exception {
+    var delegate = Mockito.mock(NotificationService.class);
+    doThrow(new NotificationService.NotificationException("mock", null))
+        .when(delegate)
+        .sendNotification(any());
+
+    var outbox = new OutboxNotificationService(delegate, createOptions(10, 2, null));
+
+    outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject"));
+    assertTrue(outbox.deliverNext(Duration.ZERO));
+    assertTrue(outbox.deliverNext(Duration.ZERO));
+    assertFalse(outbox.deliverNext(Duration.ZERO));
+
+    assertEquals(0, outbox.getPendingCount());
+    assertEquals(1, outbox.getDeadLetterCount());
+    verify(delegate, times(2)).sendNotification(any());
+  }
+
+  @Test
+  public void whenDeliveryFailsRepeatedly_ThenListenerIsNotified() throws Exception {
+    var exception = new NotificationService.NotificationException("mock", null);
+    var delegate = Mockito.mock(NotificationService.class);
+    doThrow(exception)
+        .when(delegate)
+        .sendNotification(any());
+
+    var listener = Mockito.mock(OutboxNotificationService.DeliveryListener.class);
+    var outbox = new OutboxNotificationService(delegate, createOptions(10, 2, null), listener);
+
+    var notification = new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject");
+    outbox.sendNotification(notification);
+
+    assertTrue(outbox.deliverNext(Duration.ZERO));
+    verify(listener, times(1)).onDeliveryFailed(any(), eq(1), eq(exception));
+    verify(listener, never()).onDeadLettered(any(), anyInt(), anyInt(), any());
+
+    assertTrue(outbox.deliverNext(Duration.ZERO));
+    verify(listener, times(1)).onDeliveryFailed(any(), anyInt(), any());
+    verify(listener, times(1)).onDeadLettered(any(), eq(2), eq(1), eq(exception));
+  }
+
+  // -------------------------------------------------------------------------
+  // File.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenFileContainsPendingNotifications_ThenConstructorRequeuesThem() throws Exception {
+    var file = this.tempDirectory.resolve("outbox");
+    var delegate = Mockito.mock(NotificationService.class);
+
+    try (var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, file))) {
+      outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject-1"));
+      outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject-2"));
+      outbox.deliverNext(Duration.ZERO);
+    }
+
+    try (var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, file))) {
+      assertEquals(1, outbox.getPendingCount());
+      assertTrue(outbox.deliverNext(Duration.ZERO));
+
+      var captor = ArgumentCaptor.forClass(NotificationService.Notification.class);
+      verify(delegate, times(2)).sendNotification(captor.capture());
+
+      var redelivered = captor.getAllValues().get(1);
+      assertEquals("subject-2", redelivered.getSubject());
+      assertEquals(Instant.ofEpochSecond(0), redelivered.properties.get("INSTANT"));
+    }
+  }
+
+  @Test
+  public void whenFileContainsSettledNotifications_ThenConstructorCompactsFile() throws Exception {
+    var file = this.tempDirectory.resolve("outbox");
+    var delegate = Mockito.mock(NotificationService.class);
+
+    try (var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, file))) {
+      outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject"));
+      outbox.deliverNext(Duration.ZERO);
+    }
+
+    Files.writeString(file, "malformed\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+    try (var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, file))) {
+      assertEquals(0, outbox.getPendingCount());
+    }
+
+    assertEquals(0, Files.readAllLines(file).size());
+  }
+
+  @Test
+  public void whenFileContainsDeadLetters_ThenConstructorRetainsThem() throws Exception {
+    var file = this.tempDirectory.resolve("outbox");
+    var delegate = Mockito.mock(NotificationService.class);
+    doThrow(new NotificationService.NotificationException("mock", null))
+        .when(delegate)
+        .sendNotification(any());
+
+    try (var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, file))) {
+      outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject"));
+      outbox.deliverNext(Duration.ZERO);
+    }
+
+    try (var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, file))) {
+      assertEquals(0, outbox.getPendingCount());
+      assertEquals(1, outbox.getDeadLetterCount());
+    }
+
+    assertEquals(2, Files.readAllLines(file).size());
+  }
+
+  @Test
+  public void whenEnoughNotificationsSettled_ThenDeliverNextCompactsFile() throws Exception {
+    var file = this.tempDirectory.resolve("outbox");
+    var delegate = Mockito.mock(NotificationService.class);
+    var count = OutboxNotificationService.MIN_COMPACTION_INTERVAL;
+
+    try (var outbox = new OutboxNotificationService(delegate, createOptions(count + 1, 1, file))) {
+      for (int i = 0; i < count + 1; i++) {
+        outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject-" + i));
+      }
+
+      for (int i = 0; i < count; i++) {
+        assertTrue(outbox.deliverNext(Duration.ZERO));
+      }
+
+      //
+      // Only the remaining notification is left.
+      //
+      assertEquals(1, Files.readAllLines(file).size());
+      assertEquals(1, outbox.getPendingCount());
+    }
+
+    try (var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, file))) {
+      assertEquals(1, outbox.getPendingCount());
+    }
+  }
+
+  @Test
+  public void whenTooManyDeadLetters_ThenOldestDeadLettersAreDiscarded() throws Exception {
+    var file = this.tempDirectory.resolve("outbox");
+    var delegate = Mockito.mock(NotificationService.class);
+    doThrow(new NotificationService.NotificationException("mock", null))
+        .when(delegate)
+        .sendNotification(any());
+
+    var count = OutboxNotificationService.MAX_DEAD_LETTERS + 1;
+
+    try (var outbox = new OutboxNotificationService(delegate, createOptions(count, 1, file))) {
+      for (int i = 0; i < count; i++) {
+        outbox.sendNotification(new SampleNotification(List.of(SAMPLE_USER_1), List.of(), "subject-" + i));
+        assertTrue(outbox.deliverNext(Duration.ZERO));
+      }
+
+      assertEquals(count, outbox.getDeadLetterCount());
+    }
+
+    try (var outbox = new OutboxNotificationService(delegate, createOptions(10, 1, file))) {
+      assertEquals(0, outbox.getPendingCount());
+      assertEquals(OutboxNotificationService.MAX_DEAD_LETTERS, outbox.getDeadLetterCount());
+    }
+
+    assertEquals(2 * OutboxNotificationService.MAX_DEAD_LETTERS, Files.readAllLines(file).size());
+  }
+}
@@ -22,19 +22,25 @@
 package com.google.solutions.jitaccess.core.notifications;
 
 import com.google.solutions.jitaccess.core.UserEmail;
-import com.google.solutions.jitaccess.core.clients.PubSubClient;
+import com.google.solutions.jitaccess.core.clients.PubSubPublisher;
 import com.google.solutions.jitaccess.core.clients.PubSubTopic;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class TestPubSubNotificationService {
 
@@ -65,10 +71,13 @@ public class TestPubSubNotificationService {
 
   @Test
   public void sendNotificationPublishesToPubSub() throws Exception {
-    var adapter = Mockito.mock(PubSubClient.class);
+    var publisher = Mockito.mock(PubSubPublisher.class);
+    when(publisher.publish(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture("message-1"));
+
     var topic = new PubSubTopic("project-1", "topic-1");
     var service = new PubSubNotificationService(
-        adapter,
+        publisher,
         new PubSubNotificationService.Options(topic));
 
     service.sendNotification(
@@ -82,8 +91,28 @@ public class TestPubSubNotificationService {
         "W5nIiwidXNlcl9saXN0IjpbImFsaWNlQGV4YW1wbGUuY29tIiwiYm9iQGV4YW1wbGUuY29tIl0sImluc3RhbnQi" +
         "OiIxOTcwLTAxLTAxVDAwOjAwOjAwWiJ9fQ";
 
-    verify(adapter, times(1)).publish(
+    verify(publisher, times(1)).publish(
         eq(topic),
         argThat(m -> m.getData().equals(expectedMessage)));
   }
+
+  @Test
+  public void whenPublishFails_ThenSendNotificationThrowsException() {
+    var publisher = Mockito.mock(PubSubPublisher.class);
+    when(publisher.publish(any(), any()))
+        .thenReturn(CompletableFuture.failedFuture(new IOException("mock")));
+
+    var service = new PubSubNotificationService(
+        publisher,
+        new PubSubNotificationService.Options(new PubSubTopic("project-1", "topic-1")));
+
+    var exception = assertThrows(
+        NotificationService.NotificationException.class,
+        () -> service.sendNotification(
+            new SampleNotification(
+                List.of(new UserEmail("to@example.com")),
+                List.of(),
+                "subject")));
+    assertInstanceOf(IOException.class, exception.getCause());
+  }
 }
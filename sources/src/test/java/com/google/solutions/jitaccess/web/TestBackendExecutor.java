@@ -0,0 +1,82 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBackendExecutor {
+
+  // -------------------------------------------------------------------------
+  // execute.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenUsingDefaultExecutor_ThenExecuteRunsCommandOnDifferentThread() throws Exception {
+    var executor = new BackendExecutor();
+    var callingThread = Thread.currentThread();
+
+    var thread = executor
+        .submitInRequestContext(() -> Thread.currentThread())
+        .toCompletableFuture()
+        .get(10, TimeUnit.SECONDS);
+
+    assertNotSame(callingThread, thread);
+  }
+
+  // -------------------------------------------------------------------------
+  // submitInRequestContext.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenNoRequestContextActive_ThenSubmitInRequestContextRunsOperation() throws Exception {
+    var executor = new BackendExecutor(Runnable::run);
+
+    var result = executor
+        .submitInRequestContext(() -> "result")
+        .toCompletableFuture();
+
+    assertTrue(result.isDone());
+    assertEquals("result", result.get());
+  }
+
+  @Test
+  public void whenOperationThrowsException_ThenSubmitInRequestContextCompletesExceptionally() {
+    var executor = new BackendExecutor(Runnable::run);
+
+    var result = executor
+        .submitInRequestContext(() -> {
+          throw new IOException("mock");
+        })
+        .toCompletableFuture();
+
+    assertTrue(result.isCompletedExceptionally());
+
+    var exception = assertThrows(ExecutionException.class, result::get);
+    assertInstanceOf(IOException.class, exception.getCause());
+  }
+}
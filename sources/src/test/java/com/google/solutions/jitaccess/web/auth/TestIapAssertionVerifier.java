@@ -0,0 +1,142 @@
+//
+// Copyright 2024 Google LLC
+//
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+//
+
+package com.google.solutions.jitaccess.web.auth;
+
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import com.google.api.client.json.webtoken.JsonWebToken;
+import com.google.auth.oauth2.TokenVerifier;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIapAssertionVerifier {
+  private static final String ISSUER = "https://cloud.google.com/iap";
+  private static final String AUDIENCE = "/projects/123/apps/project-1";
+
+  private static KeyPair generateKeyPair() throws Exception {
+    var generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    return generator.generateKeyPair();
+  }
+
+  private static String createAssertion(
+      KeyPair keyPair,
+      String audience) throws Exception {
+    return JsonWebSignature.signUsingRsaSha256(
+        keyPair.getPrivate(),
+        GsonFactory.getDefaultInstance(),
+        new JsonWebSignature.Header().setAlgorithm("RS256"),
+        new JsonWebToken.Payload()
+            .setIssuer(ISSUER)
+            .setAudience(audience)
+            .setSubject("subject-1")
+            .setIssuedAtTimeSeconds(Instant.now().getEpochSecond())
+            .setExpirationTimeSeconds(Instant.now().plusSeconds(600).getEpochSecond())
+            .set("email", "user@example.com"));
+  }
+
+  private static IapAssertionVerifier createVerifier(
+      KeyPair keyPair,
+      int cacheSize) {
+    return new IapAssertionVerifier(
+        TokenVerifier.newBuilder()
+            .setPublicKey(keyPair.getPublic())
+            .setIssuer(ISSUER)
+            .setAudience(AUDIENCE)
+            .build(),
+        cacheSize);
+  }
+
+  // -------------------------------------------------------------------------
+  // verify.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenAssertionValid_ThenVerifyReturnsPrincipal() throws Exception {
+    var keyPair = generateKeyPair();
+    var verifier = createVerifier(keyPair, 10);
+
+    var principal = verifier.verify(createAssertion(keyPair, AUDIENCE));
+
+    assertEquals("subject-1", principal.getId().id);
+    assertEquals("user@example.com", principal.getId().email);
+    assertEquals(principal.getId().toString(), principal.getName());
+    assertEquals(DeviceInfo.UNKNOWN, principal.getDevice());
+  }
+
+  @Test
+  public void whenAssertionVerifiedBefore_ThenVerifyReturnsCachedPrincipal() throws Exception {
+    var keyPair = generateKeyPair();
+    var verifier = createVerifier(keyPair, 10);
+    var assertion = createAssertion(keyPair, AUDIENCE);
+
+    var first = verifier.verify(assertion);
+    var second = verifier.verify(assertion);
+
+    assertSame(first, second);
+  }
+
+  @Test
+  public void whenCacheDisabled_ThenVerifyVerifiesAssertionAgain() throws Exception {
+    var keyPair = generateKeyPair();
+    var verifier = createVerifier(keyPair, 0);
+    var assertion = createAssertion(keyPair, AUDIENCE);
+
+    var first = verifier.verify(assertion);
+    var second = verifier.verify(assertion);
+
+    assertNotSame(first, second);
+    assertEquals(first.getId(), second.getId());
+  }
+
+  @Test
+  public void whenAssertionHasWrongAudience_ThenVerifyThrowsException() throws Exception {
+    var keyPair = generateKeyPair();
+    var verifier = createVerifier(keyPair, 10);
+
+    assertThrows(
+        TokenVerifier.VerificationException.class,
+        () -> verifier.verify(createAssertion(keyPair, "/projects/123/apps/other")));
+  }
+
+  @Test
+  public void whenAssertionSignedByOtherKey_ThenVerifyThrowsException() throws Exception {
+    var verifier = createVerifier(generateKeyPair(), 10);
+    var assertion = createAssertion(generateKeyPair(), AUDIENCE);
+
+    assertThrows(
+        TokenVerifier.VerificationException.class,
+        () -> verifier.verify(assertion));
+
+    //
+    // Failed verifications aren't cached.
+    //
+    assertThrows(
+        TokenVerifier.VerificationException.class,
+        () -> verifier.verify(assertion));
+  }
+}
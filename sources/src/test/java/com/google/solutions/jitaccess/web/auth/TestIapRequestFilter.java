@@ -142,4 +142,20 @@ public class TestIapRequestFilter {
 
     assertEquals(filter.getExpectedAudience(), "/projects/123/global/backendServices/12345");
   }
+
+  @Test
+  public void whenCalledRepeatedly_ThenGetExpectedAudienceReturnsCachedAudience() {
+    RuntimeEnvironment environment = Mockito.mock(RuntimeEnvironment.class);
+    when(environment.getProjectId()).thenReturn("project-1");
+    when(environment.getProjectNumber()).thenReturn("123");
+    when(environment.isRunningOnAppEngine()).thenReturn(true);
+
+    IapRequestFilter filter = new IapRequestFilter();
+    filter.runtimeEnvironment = environment;
+
+    assertEquals("/projects/123/apps/project-1", filter.getExpectedAudience());
+    assertEquals("/projects/123/apps/project-1", filter.getExpectedAudience());
+
+    verify(environment, times(1)).getProjectNumber();
+  }
 }
@@ -30,6 +30,7 @@ import com.google.solutions.jitaccess.core.catalog.project.ProjectRoleBinding;
 import com.google.solutions.jitaccess.core.clients.ResourceManagerClient;
 import com.google.solutions.jitaccess.core.notifications.NotificationService;
 import com.google.solutions.jitaccess.core.catalog.RequesterPrivilege.Status;
+import com.google.solutions.jitaccess.web.BackendExecutor;
 import com.google.solutions.jitaccess.web.LogAdapter;
 import com.google.solutions.jitaccess.web.RuntimeEnvironment;
 import com.google.solutions.jitaccess.web.TokenObfuscator;
@@ -44,7 +45,10 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.regex.Pattern;
@@ -84,6 +88,7 @@ public class TestApiResource {
     this.resource.projectRoleActivator = Mockito.mock(ProjectRoleActivator.class);
     this.resource.justificationPolicy = Mockito.mock(JustificationPolicy.class);
     this.resource.tokenSigner = Mockito.mock(TokenSigner.class);
+    this.resource.executor = new BackendExecutor(Runnable::run);
 
     this.notificationService = Mockito.mock(NotificationService.class);
     when(this.notificationService.canSendNotifications()).thenReturn(true);
@@ -96,6 +101,24 @@ public class TestApiResource {
         .thenReturn(UriBuilder.fromUri("https://localhost/"));
   }
 
+  /**
+   * Create an executor that, like the BackendExecutor, runs operations
+   * on a different thread than the request thread. The executor waits for
+   * the operation to complete so that the response is ready by the time
+   * the dispatcher returns.
+   */
+  private static BackendExecutor createSeparateThreadExecutor() {
+    return new BackendExecutor(command -> {
+      var thread = new Thread(command);
+      thread.start();
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    });
+  }
+
   // -------------------------------------------------------------------------
   // getPolicy.
   // -------------------------------------------------------------------------
@@ -232,6 +255,20 @@ public class TestApiResource {
         body.projects);
   }
 
+  @Test
+  public void whenExecutorUsesSeparateThread_ThenListProjectsReturnsList() throws Exception {
+    this.resource.executor = createSeparateThreadExecutor();
+
+    when(this.resource.mpaCatalog.listProjects(eq(SAMPLE_USER)))
+        .thenReturn(new TreeSet<>(Set.of(new ProjectId("project-1"))));
+
+    var response = new RestDispatcher<>(this.resource, SAMPLE_USER)
+        .get("/api/projects", ApiResource.ProjectsResponse.class);
+
+    assertEquals(200, response.getStatus());
+    assertIterableEquals(List.of("project-1"), response.getBody().projects);
+  }
+
   // -------------------------------------------------------------------------
   // listReviewers.
   // -------------------------------------------------------------------------
@@ -484,6 +521,70 @@ public class TestApiResource {
     assertTrue(body.warnings.isEmpty());
   }
 
+  // -------------------------------------------------------------------------
+  // listRolesInProjects.
+  // -------------------------------------------------------------------------
+
+  @Test
+  public void whenProjectsMissing_ThenListRolesInProjectsReturnsError() throws Exception {
+    var response = new RestDispatcher<>(this.resource, SAMPLE_USER)
+        .get("/api/projects/roles", ExceptionMappers.ErrorEntity.class);
+
+    assertEquals(400, response.getStatus());
+
+    var body = response.getBody();
+    assertNotNull(body.getMessage());
+    assertTrue(body.getMessage().contains("projectId"));
+  }
+
+  @Test
+  public void whenCatalogThrowsAccessDeniedException_ThenListRolesInProjectsReturnsError() throws Exception {
+    when(this.resource.mpaCatalog
+        .listRequesterPrivilegesInProjects(
+            eq(SAMPLE_USER),
+            any()))
+        .thenThrow(new AccessDeniedException("mock"));
+
+    var response = new RestDispatcher<>(this.resource, SAMPLE_USER)
+        .get("/api/projects/roles?projectId=project-1&projectId=project-2", ExceptionMappers.ErrorEntity.class);
+
+    assertEquals(403, response.getStatus());
+  }
+
+  @Test
+  public void whenCatalogReturnsRoles_ThenListRolesInProjectsReturnsRolesByProject() throws Exception {
+    var role1 = new RequesterPrivilege<ProjectRoleBinding>(
+        new ProjectRoleBinding(
+            new RoleBinding(new ProjectId("project-1").getFullResourceName(), "roles/browser")),
+        "ent-1",
+        new SelfApproval(),
+        RequesterPrivilege.Status.INACTIVE);
+
+    when(this.resource.mpaCatalog
+        .listRequesterPrivilegesInProjects(
+            eq(SAMPLE_USER),
+            eq(new LinkedHashSet<>(List.of(new ProjectId("project-1"), new ProjectId("project-2"))))))
+        .thenReturn(Map.of(
+            new ProjectId("project-1"),
+            new RequesterPrivilegeSet<>(
+                new TreeSet<>(Set.of(role1)),
+                new TreeSet<>(Set.of()),
+                Set.of()),
+            new ProjectId("project-2"),
+            RequesterPrivilegeSet.<ProjectRoleBinding>empty()));
+
+    var response = new RestDispatcher<>(this.resource, SAMPLE_USER)
+        .get("/api/projects/roles?projectId=project-1&projectId=project-2", ApiResource.MultiProjectRolesResponse.class);
+
+    assertEquals(200, response.getStatus());
+
+    var body = response.getBody();
+    assertEquals(2, body.projects.size());
+    assertEquals(1, body.projects.get("project-1").roles.size());
+    assertEquals(role1.id().roleBinding(), body.projects.get("project-1").roles.get(0).roleBinding);
+    assertEquals(0, body.projects.get("project-2").roles.size());
+  }
+
   // -------------------------------------------------------------------------
   // selfApproveActivation.
   // -------------------------------------------------------------------------
@@ -576,18 +677,7 @@ public class TestApiResource {
   @Test
   public void whenActivatorThrowsException_ThenSelfApproveActivationReturnsError() throws Exception {
     when(this.resource.projectRoleActivator
-        .createActivationRequest(any(), any(), any(), any(), any(), any()))
-        .thenReturn(new ActivationRequest<ProjectRoleBinding>(
-            ActivationId.newId(new SelfApproval()),
-            SAMPLE_USER,
-            Set.of(),
-            new ProjectRoleBinding(new RoleBinding(new ProjectId("project-1"), "roles/browser")),
-            new SelfApproval(),
-            "justification",
-            Instant.now().truncatedTo(ChronoUnit.SECONDS),
-            Duration.ofMinutes(5)));
-    when(this.resource.projectRoleActivator
-        .approve(any(), any()))
+        .createAndApproveAll(any(), any(), any(), any(), any()))
         .thenThrow(new AccessDeniedException("mock"));
 
     var request = new ApiResource.SelfActivationRequestRecord();
@@ -610,8 +700,8 @@ public class TestApiResource {
     var roleBinding = new RoleBinding(new ProjectId("project-1"), "roles/browser");
 
     when(this.resource.projectRoleActivator
-        .createActivationRequest(any(), any(), any(), any(), any(), any()))
-        .thenReturn(new ActivationRequest<ProjectRoleBinding>(
+        .createAndApproveAll(any(), any(), any(), any(), any()))
+        .thenReturn(List.of(new Activation<>(new ActivationRequest<ProjectRoleBinding>(
             ActivationId.newId(new SelfApproval()),
             SAMPLE_USER,
             Set.of(),
@@ -619,10 +709,7 @@ public class TestApiResource {
             new SelfApproval(),
             "justification",
             Instant.now().truncatedTo(ChronoUnit.SECONDS),
-            Duration.ofMinutes(5)));
-    when(this.resource.projectRoleActivator
-        .approve(any(), any()))
-        .then(r -> new Activation<>((ActivationRequest<ProjectRoleBinding>) r.getArguments()[1]));
+            Duration.ofMinutes(5)))));
 
     var request = new ApiResource.SelfActivationRequestRecord();
     request.roles = List.of("roles/browser", "roles/browser");
@@ -1051,6 +1138,44 @@ public class TestApiResource {
     assertNotNull(body.items.get(0).activationId);
   }
 
+  @Test
+  public void whenExecutorUsesSeparateThread_ThenRequestActivationSendsNotification() throws Exception {
+    this.resource.executor = createSeparateThreadExecutor();
+
+    when(this.resource.mpaCatalog.options())
+        .thenReturn(new MpaProjectRoleCatalog.Options(
+            null,
+            DEFAULT_ACTIVATION_DURATION,
+            DEFAULT_MIN_NUMBER_OF_REVIEWERS,
+            DEFAULT_MAX_NUMBER_OF_REVIEWERS));
+
+    this.resource.projectRoleActivator = new ProjectRoleActivator(
+        this.resource.mpaCatalog,
+        Mockito.mock(ResourceManagerClient.class),
+        this.resource.justificationPolicy);
+
+    when(this.resource.tokenSigner
+        .sign(any(), any()))
+        .thenReturn(SAMPLE_TOKEN_WITH_EXPIRY);
+
+    var request = new ApiResource.ActivationRequestRecord();
+    request.role = "roles/browser";
+    request.reviewers = List.of(SAMPLE_USER_2.email);
+    request.justification = "justification";
+    request.activationTimeout = 5;
+    request.activationType = new PeerApproval("topic").name();
+
+    var response = new RestDispatcher<>(this.resource, SAMPLE_USER).post(
+        "/api/projects/project-1/roles/request",
+        request,
+        ApiResource.ActivationStatusResponse.class);
+
+    assertEquals(200, response.getStatus());
+    assertEquals(SAMPLE_USER.email, response.getBody().beneficiary.email);
+
+    verify(this.notificationService, times(1)).sendNotification(any());
+  }
+
   // -------------------------------------------------------------------------
   // getActivationRequest.
   // -------------------------------------------------------------------------
@@ -1162,6 +1287,45 @@ public class TestApiResource {
     assertEquals(request.endTime().getEpochSecond(), body.items.get(0).endTime);
   }
 
+  @Test
+  public void whenRequestProvisioned_ThenGetActivationRequestReturnsActive() throws Exception {
+    var request = new ProjectRoleActivator(
+        Mockito.mock(RequesterPrivilegeCatalog.class),
+        Mockito.mock(ResourceManagerClient.class),
+        Mockito.mock(JustificationPolicy.class))
+        .createActivationRequest(
+            SAMPLE_USER,
+            Set.of(SAMPLE_USER_2),
+            new RequesterPrivilege<>(
+                new ProjectRoleBinding(new RoleBinding(new ProjectId("project-1"), "roles/mock")),
+                "roles/mock",
+                new PeerApproval("topic"),
+                Status.INACTIVE),
+            "a justification",
+            Instant.now(),
+            Duration.ofSeconds(60));
+
+    when(this.resource.tokenSigner
+        .verify(
+            any(),
+            eq(SAMPLE_TOKEN)))
+        .thenReturn(request);
+    when(this.resource.projectRoleActivator
+        .getActivationState(eq(request)))
+        .thenReturn(Optional.of(ActivationStateStore.State.PROVISIONED));
+
+    var response = new RestDispatcher<>(this.resource, SAMPLE_USER)
+        .get(
+            "/api/activation-request?activation=" + TokenObfuscator.encode(SAMPLE_TOKEN),
+            ApiResource.ActivationStatusResponse.class);
+
+    assertEquals(200, response.getStatus());
+
+    var body = response.getBody();
+    assertEquals(1, body.items.size());
+    assertEquals("ACTIVE", body.items.get(0).status.name());
+  }
+
   // -------------------------------------------------------------------------
   // approveActivationRequest.
   // -------------------------------------------------------------------------